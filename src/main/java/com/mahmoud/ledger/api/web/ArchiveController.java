@@ -0,0 +1,30 @@
+package com.mahmoud.ledger.api.web;
+
+import com.mahmoud.ledger.application.port.in.ArchiveLedgerUseCase;
+import com.mahmoud.ledger.application.port.in.ArchivedSegment;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/archives")
+@RequiredArgsConstructor
+public class ArchiveController {
+
+    private final ArchiveLedgerUseCase archiveLedgerUseCase;
+
+    /**
+     * Archives every period old enough, returning the segments written.
+     */
+    @PostMapping
+    public ResponseEntity<List<ArchivedSegment>> archive() {
+        return ResponseEntity.ok(archiveLedgerUseCase.archive());
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ArchivedSegment>> getSegments() {
+        return ResponseEntity.ok(archiveLedgerUseCase.getSegments());
+    }
+}
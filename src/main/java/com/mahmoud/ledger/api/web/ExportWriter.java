@@ -0,0 +1,105 @@
+package com.mahmoud.ledger.api.web;
+
+import com.mahmoud.ledger.application.port.in.ExportedPosting;
+import tools.jackson.databind.SequenceWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes export rows to the response as they arrive, optionally gzipped. Only a write buffer is held.
+ */
+class ExportWriter implements Consumer<ExportedPosting>, Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_HEADER =
+            "transaction_id,timestamp,description,posting_id,account_id,type,amount,currency\n";
+
+    private final ExportFormat format;
+    private final GZIPOutputStream gzip;
+    private final Writer out;
+    private final SequenceWriter json;
+
+    ExportWriter(OutputStream target, ExportFormat format, boolean compress, JsonMapper jsonMapper)
+            throws IOException {
+        this.format = format;
+        this.gzip = compress ? new GZIPOutputStream(target, BUFFER_SIZE) : null;
+        this.out = new BufferedWriter(new OutputStreamWriter(compress ? gzip : target, StandardCharsets.UTF_8),
+                BUFFER_SIZE);
+        if (format == ExportFormat.NDJSON) {
+            this.json = jsonMapper.writer().withRootValueSeparator("\n").writeValues(out);
+        } else {
+            this.json = null;
+            out.write(CSV_HEADER);
+        }
+    }
+
+    @Override
+    public void accept(ExportedPosting row) {
+        try {
+            if (format == ExportFormat.NDJSON) {
+                json.write(row);
+            } else {
+                writeCsv(row);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Export aborted, client went away", e);
+        }
+    }
+
+    /**
+     * Completes the output without closing the response stream.
+     */
+    @Override
+    public void close() throws IOException {
+        if (json != null) {
+            json.flush();
+            out.write('\n');
+        }
+        out.flush();
+        if (gzip != null) {
+            gzip.finish();
+        }
+    }
+
+    private void writeCsv(ExportedPosting row) throws IOException {
+        out.write(row.transactionId().toString());
+        out.write(',');
+        out.write(row.timestamp().toString());
+        out.write(',');
+        writeCsvText(row.description());
+        out.write(',');
+        out.write(row.postingId().toString());
+        out.write(',');
+        out.write(row.accountId().toString());
+        out.write(',');
+        out.write(row.type().name());
+        out.write(',');
+        out.write(row.amount().toPlainString());
+        out.write(',');
+        out.write(row.currency());
+        out.write('\n');
+    }
+
+    private void writeCsvText(String text) throws IOException {
+        if (text == null) {
+            return;
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            out.write(text);
+            return;
+        }
+        out.write('"');
+        out.write(text.replace("\"", "\"\""));
+        out.write('"');
+    }
+}
@@ -1,17 +1,40 @@
 package com.mahmoud.ledger.api.web;
 
+import com.mahmoud.ledger.application.port.in.AccountView;
 import com.mahmoud.ledger.application.port.in.CreateAccountCommand;
 import com.mahmoud.ledger.application.port.in.CreateAccountUseCase;
+import com.mahmoud.ledger.application.port.in.ExportQuery;
+import com.mahmoud.ledger.application.port.in.ExportTransactionsUseCase;
+import com.mahmoud.ledger.application.port.in.PostTransactionBatchCommand;
 import com.mahmoud.ledger.application.port.in.PostTransactionCommand;
+import com.mahmoud.ledger.application.port.in.PostTransactionResult;
 import com.mahmoud.ledger.application.port.in.PostTransactionUseCase;
+import com.mahmoud.ledger.application.port.in.ReadConsistency;
 import com.mahmoud.ledger.application.port.in.RetrieveAccountUseCase;
+import com.mahmoud.ledger.application.port.in.RetrieveBalanceAtUseCase;
+import com.mahmoud.ledger.application.port.in.RetrieveStatementUseCase;
+import com.mahmoud.ledger.application.port.in.StatementCursor;
+import com.mahmoud.ledger.application.port.in.StatementPage;
+import com.mahmoud.ledger.application.port.in.StatementQuery;
+import com.mahmoud.ledger.application.port.in.SubmitTransactionUseCase;
+import com.mahmoud.ledger.application.port.in.TransactionStatus;
 import com.mahmoud.ledger.application.port.in.TransferFundsCommand;
 import com.mahmoud.ledger.application.port.in.TransferFundsUseCase;
 import com.mahmoud.ledger.domain.model.Account;
+import com.mahmoud.ledger.domain.model.Money;
+import com.mahmoud.ledger.domain.model.StatementEntry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -19,11 +42,19 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class LedgerController {
 
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private final CreateAccountUseCase createAccountUseCase;
     private final PostTransactionUseCase postTransactionUseCase;
     private final RetrieveAccountUseCase retrieveAccountUseCase;
     private final TransferFundsUseCase transferFundsUseCase;
     private final com.mahmoud.ledger.application.port.in.DepositFundsUseCase depositFundsUseCase;
+    private final ReadConsistency accountReadConsistency;
+    private final RetrieveStatementUseCase retrieveStatementUseCase;
+    private final ExportTransactionsUseCase exportTransactionsUseCase;
+    private final SubmitTransactionUseCase submitTransactionUseCase;
+    private final RetrieveBalanceAtUseCase retrieveBalanceAtUseCase;
+    private final JsonMapper jsonMapper;
 
     @PostMapping("/accounts")
     public ResponseEntity<UUID> createAccount(@RequestBody CreateAccountCommand command) {
@@ -31,8 +62,10 @@ public class LedgerController {
     }
 
     @GetMapping("/accounts/{id}")
-    public ResponseEntity<AccountResponse> getAccount(@PathVariable UUID id) {
-        Account account = retrieveAccountUseCase.getAccount(id);
+    public ResponseEntity<AccountResponse> getAccount(@PathVariable UUID id,
+            @RequestParam(required = false) ReadConsistency consistency) {
+        Account account = retrieveAccountUseCase.getAccount(id,
+                consistency != null ? consistency : accountReadConsistency);
         return ResponseEntity.ok(new AccountResponse(
                 account.getId(),
                 account.getName(),
@@ -41,22 +74,121 @@ public class LedgerController {
                 account.getStatus().name()));
     }
 
+    @GetMapping("/accounts/{id}/balance")
+    public ResponseEntity<BalanceAtResponse> getBalanceAt(@PathVariable UUID id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        Money balance = retrieveBalanceAtUseCase.getBalanceAt(id, asOf);
+        return ResponseEntity.ok(new BalanceAtResponse(id, asOf, balance.amount(),
+                balance.currency().getCurrencyCode()));
+    }
+
+    @GetMapping("/accounts/{id}/postings")
+    public ResponseEntity<StatementResponse> getStatement(@PathVariable UUID id,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int limit) {
+        StatementPage page = retrieveStatementUseCase.getStatement(
+                new StatementQuery(id, after != null ? StatementCursor.decode(after) : null, limit));
+        return ResponseEntity.ok(new StatementResponse(
+                page.entries().stream().map(LedgerController::toLine).toList(),
+                page.next() != null ? page.next().encode() : null));
+    }
+
+    @GetMapping("/accounts/{id}/view")
+    public ResponseEntity<AccountViewResponse> getAccountView(@PathVariable UUID id) {
+        AccountView view = retrieveAccountUseCase.getAccountView(id);
+        return ResponseEntity.ok(new AccountViewResponse(
+                view.accountId(),
+                view.name(),
+                view.balance().currency().getCurrencyCode(),
+                view.balance().amount(),
+                view.status().name(),
+                view.lastActivityAt(),
+                view.postingCount(),
+                view.recentPostings().stream().map(LedgerController::toLine).toList(),
+                view.refreshedAt()));
+    }
+
+    private static StatementLineResponse toLine(StatementEntry entry) {
+        return new StatementLineResponse(
+                entry.postingId(),
+                entry.transactionId(),
+                entry.postedAt(),
+                entry.description(),
+                entry.type().name(),
+                entry.amount().amount(),
+                entry.amount().currency().getCurrencyCode());
+    }
+
+    @GetMapping("/transactions/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        ExportQuery query = new ExportQuery(from, to);
+        ExportFormat exportFormat = ExportFormat.of(format);
+        StreamingResponseBody body = out -> {
+            try (ExportWriter writer = new ExportWriter(out, exportFormat, gzip, jsonMapper)) {
+                exportTransactionsUseCase.exportTransactions(query, writer);
+            }
+        };
+        String filename = "transactions." + exportFormat.extension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip") : exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
     @PostMapping("/transactions")
     public ResponseEntity<UUID> postTransaction(@RequestBody PostTransactionCommand command) {
         return ResponseEntity.ok(postTransactionUseCase.postTransaction(command));
     }
 
+    @PostMapping("/transactions/async")
+    public ResponseEntity<UUID> submitTransaction(@RequestBody PostTransactionCommand command) {
+        return ResponseEntity.accepted().body(submitTransactionUseCase.submitTransaction(command));
+    }
+
+    @GetMapping("/transactions/{id}/status")
+    public ResponseEntity<TransactionStatus> getTransactionStatus(@PathVariable UUID id) {
+        return ResponseEntity.of(submitTransactionUseCase.getTransactionStatus(id));
+    }
+
+    @PostMapping("/transactions/batch")
+    public ResponseEntity<List<PostTransactionResult>> postTransactions(
+            @RequestBody PostTransactionBatchCommand command) {
+        return ResponseEntity.ok(postTransactionUseCase.postTransactions(command));
+    }
+
     @PostMapping("/transfers")
-    public ResponseEntity<UUID> transferFunds(@RequestBody TransferFundsCommand command) {
-        return ResponseEntity.ok(transferFundsUseCase.transferFunds(command));
+    public ResponseEntity<UUID> transferFunds(@RequestBody TransferFundsCommand command,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return ResponseEntity.ok(transferFundsUseCase.transferFunds(command, idempotencyKey));
     }
 
     @PostMapping("/deposits")
     public ResponseEntity<UUID> depositFunds(
-            @RequestBody com.mahmoud.ledger.application.port.in.DepositFundsCommand command) {
-        return ResponseEntity.ok(depositFundsUseCase.depositFunds(command));
+            @RequestBody com.mahmoud.ledger.application.port.in.DepositFundsCommand command,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return ResponseEntity.ok(depositFundsUseCase.depositFunds(command, idempotencyKey));
+    }
+
+    record BalanceAtResponse(UUID accountId, LocalDateTime asOf, java.math.BigDecimal balance, String currency) {
+    }
+
+    record StatementResponse(List<StatementLineResponse> postings, String nextCursor) {
+    }
+
+    record StatementLineResponse(UUID postingId, UUID transactionId, LocalDateTime postedAt,
+            String description, String type, java.math.BigDecimal amount, String currency) {
     }
 
     record AccountResponse(UUID id, String name, String currency, java.math.BigDecimal balance, String status) {
     }
+
+    record AccountViewResponse(UUID id, String name, String currency, java.math.BigDecimal balance, String status,
+            LocalDateTime lastActivityAt, long postingCount, List<StatementLineResponse> recentPostings,
+            LocalDateTime refreshedAt) {
+    }
 }
@@ -0,0 +1,32 @@
+package com.mahmoud.ledger.api.web;
+
+import com.mahmoud.ledger.application.port.in.LedgerEvent;
+import com.mahmoud.ledger.application.port.in.RetrieveLedgerEventsUseCase;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/ledger-events")
+@RequiredArgsConstructor
+public class LedgerEventController {
+
+    private final RetrieveLedgerEventsUseCase retrieveLedgerEventsUseCase;
+
+    @GetMapping
+    public ResponseEntity<LedgerEventsResponse> getEvents(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "100") int limit) {
+        List<LedgerEvent> events = retrieveLedgerEventsUseCase.getEvents(after, limit);
+        return ResponseEntity.ok(new LedgerEventsResponse(events,
+                events.isEmpty() ? after : events.get(events.size() - 1).sequence()));
+    }
+
+    /**
+     * @param nextAfter the cursor to pass as {@code after} for the events that follow
+     */
+    record LedgerEventsResponse(List<LedgerEvent> events, long nextAfter) {
+    }
+}
@@ -0,0 +1,57 @@
+package com.mahmoud.ledger.api.web;
+
+import com.mahmoud.ledger.application.port.in.BalanceMismatch;
+import com.mahmoud.ledger.application.port.in.ReconcileLedgerUseCase;
+import com.mahmoud.ledger.application.port.in.ReconciliationReport;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/reconciliations")
+@RequiredArgsConstructor
+public class ReconciliationController {
+
+    private final ReconcileLedgerUseCase reconcileLedgerUseCase;
+
+    @PostMapping
+    public ResponseEntity<UUID> startReconciliation() {
+        return ResponseEntity.accepted().body(reconcileLedgerUseCase.startReconciliation());
+    }
+
+    @GetMapping("/latest")
+    public ResponseEntity<ReconciliationResponse> getLatestReconciliation() {
+        return ResponseEntity.of(reconcileLedgerUseCase.getLatestReconciliation().map(ReconciliationResponse::of));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ReconciliationResponse> getReconciliation(@PathVariable UUID id) {
+        return ResponseEntity.of(reconcileLedgerUseCase.getReconciliation(id).map(ReconciliationResponse::of));
+    }
+
+    record ReconciliationResponse(
+            UUID runId,
+            String status,
+            LocalDateTime startedAt,
+            LocalDateTime finishedAt,
+            int ranges,
+            int rangesCompleted,
+            long accountsChecked,
+            long mismatchCount,
+            List<BalanceMismatch> mismatches,
+            Map<String, BigDecimal> netDebitByCurrency,
+            boolean balanced) {
+
+        static ReconciliationResponse of(ReconciliationReport report) {
+            return new ReconciliationResponse(report.runId(), report.status().name(), report.startedAt(),
+                    report.finishedAt(), report.ranges(), report.rangesCompleted(), report.accountsChecked(),
+                    report.mismatchCount(), report.mismatches(), report.netDebitByCurrency(), report.balanced());
+        }
+    }
+}
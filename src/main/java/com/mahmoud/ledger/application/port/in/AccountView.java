@@ -0,0 +1,36 @@
+package com.mahmoud.ledger.application.port.in;
+
+import com.mahmoud.ledger.domain.model.Account;
+import com.mahmoud.ledger.domain.model.AccountStatus;
+import com.mahmoud.ledger.domain.model.AccountType;
+import com.mahmoud.ledger.domain.model.Money;
+import com.mahmoud.ledger.domain.model.StatementEntry;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * An account as the read model keeps it, rebuilt from the ledger after each commit touching the account.
+ *
+ * @param balance        logical balance, stripes summed
+ * @param lastActivityAt time of the newest posting, null before the first one
+ * @param recentPostings the newest postings, newest first
+ * @param refreshedAt    when the view was last rebuilt
+ */
+public record AccountView(
+        UUID accountId,
+        String name,
+        AccountType type,
+        AccountStatus status,
+        LocalDateTime createdAt,
+        Money balance,
+        LocalDateTime lastActivityAt,
+        long postingCount,
+        List<StatementEntry> recentPostings,
+        LocalDateTime refreshedAt) {
+
+    public Account toAccount() {
+        return new Account(accountId, name, type, balance, status, createdAt);
+    }
+}
@@ -0,0 +1,19 @@
+package com.mahmoud.ledger.application.port.in;
+
+import java.util.List;
+
+public interface ArchiveLedgerUseCase {
+    /**
+     * Moves every whole period older than the configured age out of the ledger tables, oldest first.
+     *
+     * @return the segments written, empty if nothing was old enough
+     * @throws IllegalStateException if an archive run is already in progress, or a period holds transactions
+     *                               not published from the outbox yet
+     */
+    List<ArchivedSegment> archive();
+
+    /**
+     * Every archive segment, oldest period first.
+     */
+    List<ArchivedSegment> getSegments();
+}
@@ -0,0 +1,13 @@
+package com.mahmoud.ledger.application.port.in;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An archive segment: the transactions of {@code [periodStart, periodEnd)} moved out of the ledger tables.
+ *
+ * @param bytes size of the compressed segment file
+ */
+public record ArchivedSegment(UUID id, LocalDateTime periodStart, LocalDateTime periodEnd, String file,
+        long transactions, long postings, long bytes, LocalDateTime archivedAt) {
+}
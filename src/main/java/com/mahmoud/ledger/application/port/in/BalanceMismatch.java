@@ -0,0 +1,10 @@
+package com.mahmoud.ledger.application.port.in;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * An account whose stored balance differs from the net of its postings.
+ */
+public record BalanceMismatch(UUID accountId, String currency, BigDecimal storedBalance, BigDecimal postedBalance) {
+}
@@ -4,4 +4,12 @@ import java.util.UUID;
 
 public interface DepositFundsUseCase {
     UUID depositFunds(DepositFundsCommand command);
+
+    /**
+     * Posts at most once per idempotency key: a retry under the same key returns the transaction the first
+     * attempt posted.
+     *
+     * @param idempotencyKey client-chosen key of the request, null for none
+     */
+    UUID depositFunds(DepositFundsCommand command, String idempotencyKey);
 }
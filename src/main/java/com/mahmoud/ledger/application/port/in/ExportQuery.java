@@ -0,0 +1,15 @@
+package com.mahmoud.ledger.application.port.in;
+
+import java.time.LocalDateTime;
+
+/**
+ * Transactions timestamped in {@code [from, to)}.
+ */
+public record ExportQuery(LocalDateTime from, LocalDateTime to) {
+    public ExportQuery {
+        if (from == null || to == null)
+            throw new IllegalArgumentException("Export range needs both from and to");
+        if (!from.isBefore(to))
+            throw new IllegalArgumentException("Export range must end after it starts");
+    }
+}
@@ -0,0 +1,11 @@
+package com.mahmoud.ledger.application.port.in;
+
+import java.time.Duration;
+
+public record ExportSummary(long rows, Duration elapsed) {
+
+    public double rowsPerSecond() {
+        long nanos = Math.max(1, elapsed.toNanos());
+        return rows * 1_000_000_000.0 / nanos;
+    }
+}
@@ -0,0 +1,11 @@
+package com.mahmoud.ledger.application.port.in;
+
+import java.util.function.Consumer;
+
+public interface ExportTransactionsUseCase {
+    /**
+     * Feeds every posting of the transactions in range to the sink, ordered by transaction timestamp, as the
+     * rows are read. Nothing is buffered beyond the current row.
+     */
+    ExportSummary exportTransactions(ExportQuery query, Consumer<ExportedPosting> sink);
+}
@@ -0,0 +1,14 @@
+package com.mahmoud.ledger.application.port.in;
+
+import com.mahmoud.ledger.domain.model.Posting;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One exported row: a posting flattened with its transaction.
+ */
+public record ExportedPosting(UUID transactionId, LocalDateTime timestamp, String description, UUID postingId,
+        UUID accountId, Posting.Type type, BigDecimal amount, String currency) {
+}
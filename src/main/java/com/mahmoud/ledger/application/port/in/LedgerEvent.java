@@ -0,0 +1,21 @@
+package com.mahmoud.ledger.application.port.in;
+
+import com.mahmoud.ledger.domain.model.Posting;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A posted transaction as seen by downstream consumers.
+ *
+ * @param sequence the transaction's position in the ledger: gap-free, starting at 1 and increasing in commit
+ *                 order
+ */
+public record LedgerEvent(long sequence, UUID transactionId, LocalDateTime timestamp, String description,
+        List<Line> postings) {
+
+    public record Line(UUID postingId, UUID accountId, Posting.Type type, BigDecimal amount, String currency) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.mahmoud.ledger.application.port.in;
+
+import java.util.List;
+
+/**
+ * @param transactions at most {@link #MAX_TRANSACTIONS}, posted in one database transaction holding all of their
+ *                     accounts
+ * @param atomic       if true, one rejected transaction rejects the whole batch,
+ *                     otherwise every transaction is posted or rejected on its own
+ */
+public record PostTransactionBatchCommand(List<PostTransactionCommand> transactions, boolean atomic) {
+
+    public static final int MAX_TRANSACTIONS = 1000;
+
+    public PostTransactionBatchCommand {
+        if (transactions == null || transactions.isEmpty())
+            throw new IllegalArgumentException("Transactions cannot be empty");
+        if (transactions.size() > MAX_TRANSACTIONS)
+            throw new IllegalArgumentException("A batch holds at most " + MAX_TRANSACTIONS + " transactions");
+    }
+}
@@ -0,0 +1,17 @@
+package com.mahmoud.ledger.application.port.in;
+
+import java.util.UUID;
+
+/**
+ * Outcome of one transaction of a batch: the id it was posted under, or why it was rejected.
+ */
+public record PostTransactionResult(boolean posted, UUID transactionId, String error) {
+
+    public static PostTransactionResult posted(UUID transactionId) {
+        return new PostTransactionResult(true, transactionId, null);
+    }
+
+    public static PostTransactionResult rejected(UUID transactionId, String error) {
+        return new PostTransactionResult(false, transactionId, error);
+    }
+}
@@ -1,7 +1,18 @@
 package com.mahmoud.ledger.application.port.in;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface PostTransactionUseCase {
     UUID postTransaction(PostTransactionCommand command);
+
+    /**
+     * Posts the transaction under an id chosen before posting, such as one handed out on submission.
+     */
+    UUID postTransaction(UUID transactionId, PostTransactionCommand command);
+
+    /**
+     * Posts many transactions in a single database transaction. Results are in command order.
+     */
+    List<PostTransactionResult> postTransactions(PostTransactionBatchCommand command);
 }
@@ -0,0 +1,19 @@
+package com.mahmoud.ledger.application.port.in;
+
+/**
+ * How fresh a read must be.
+ */
+public enum ReadConsistency {
+    /**
+     * Always read the system of record.
+     */
+    STRICT,
+    /**
+     * A committed state is enough, possibly served from a cache. Never uncommitted.
+     */
+    CACHED,
+    /**
+     * Served from the account read model, which trails commits by the projection lag.
+     */
+    EVENTUAL
+}
@@ -0,0 +1,18 @@
+package com.mahmoud.ledger.application.port.in;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface ReconcileLedgerUseCase {
+    /**
+     * Starts a reconciliation in the background, resuming the last one if it didn't complete.
+     *
+     * @return id of the started or resumed run
+     * @throws IllegalStateException if a reconciliation is already running
+     */
+    UUID startReconciliation();
+
+    Optional<ReconciliationReport> getReconciliation(UUID runId);
+
+    Optional<ReconciliationReport> getLatestReconciliation();
+}
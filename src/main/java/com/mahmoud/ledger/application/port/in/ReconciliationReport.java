@@ -0,0 +1,35 @@
+package com.mahmoud.ledger.application.port.in;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * @param mismatches         the first mismatched accounts found, at most {@link #MAX_LISTED_MISMATCHES}
+ * @param netDebitByCurrency debits minus credits of all postings checked so far, per currency
+ */
+public record ReconciliationReport(
+        UUID runId,
+        ReconciliationStatus status,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        int ranges,
+        int rangesCompleted,
+        long accountsChecked,
+        long mismatchCount,
+        List<BalanceMismatch> mismatches,
+        Map<String, BigDecimal> netDebitByCurrency) {
+
+    public static final int MAX_LISTED_MISMATCHES = 100;
+
+    /**
+     * Whether the run completed with every account matching its postings and every currency netting to zero.
+     */
+    public boolean balanced() {
+        return status == ReconciliationStatus.COMPLETED
+                && mismatchCount == 0
+                && netDebitByCurrency.values().stream().allMatch(net -> net.signum() == 0);
+    }
+}
@@ -0,0 +1,13 @@
+package com.mahmoud.ledger.application.port.in;
+
+public enum ReconciliationStatus {
+    /**
+     * In progress, or interrupted by a shutdown: the next run resumes it.
+     */
+    RUNNING,
+    /**
+     * Stopped by an error, the next run resumes it.
+     */
+    FAILED,
+    COMPLETED
+}
@@ -5,4 +5,11 @@ import java.util.UUID;
 
 public interface RetrieveAccountUseCase {
     Account getAccount(UUID accountId);
+
+    Account getAccount(UUID accountId, ReadConsistency consistency);
+
+    /**
+     * The account's denormalized view from the read model.
+     */
+    AccountView getAccountView(UUID accountId);
 }
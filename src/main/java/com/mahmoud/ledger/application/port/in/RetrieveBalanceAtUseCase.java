@@ -0,0 +1,13 @@
+package com.mahmoud.ledger.application.port.in;
+
+import com.mahmoud.ledger.domain.model.Money;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface RetrieveBalanceAtUseCase {
+    /**
+     * The balance of the account counting every posting timestamped at or before {@code asOf}.
+     */
+    Money getBalanceAt(UUID accountId, LocalDateTime asOf);
+}
@@ -0,0 +1,11 @@
+package com.mahmoud.ledger.application.port.in;
+
+import java.util.List;
+
+public interface RetrieveLedgerEventsUseCase {
+    /**
+     * Posted transactions numbered after the sequence, in sequence order. A consumer resumes from the sequence
+     * of the last event it processed, 0 to start from the first transaction.
+     */
+    List<LedgerEvent> getEvents(long afterSequence, int limit);
+}
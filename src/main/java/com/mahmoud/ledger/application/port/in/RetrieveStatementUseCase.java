@@ -0,0 +1,8 @@
+package com.mahmoud.ledger.application.port.in;
+
+public interface RetrieveStatementUseCase {
+    /**
+     * Postings of an account, newest first.
+     */
+    StatementPage getStatement(StatementQuery query);
+}
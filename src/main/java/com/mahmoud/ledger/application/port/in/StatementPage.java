@@ -0,0 +1,11 @@
+package com.mahmoud.ledger.application.port.in;
+
+import com.mahmoud.ledger.domain.model.StatementEntry;
+
+import java.util.List;
+
+/**
+ * @param next cursor of the following page, null on the last one
+ */
+public record StatementPage(List<StatementEntry> entries, StatementCursor next) {
+}
@@ -0,0 +1,9 @@
+package com.mahmoud.ledger.application.port.in;
+
+import java.util.UUID;
+
+/**
+ * @param after cursor of the previous page, null for the newest postings
+ */
+public record StatementQuery(UUID accountId, StatementCursor after, int limit) {
+}
@@ -0,0 +1,11 @@
+package com.mahmoud.ledger.application.port.in;
+
+public enum SubmissionStatus {
+    PENDING,
+    POSTED,
+    REJECTED,
+    /**
+     * Posting failed for a reason other than the transaction itself; it may have been posted regardless.
+     */
+    FAILED
+}
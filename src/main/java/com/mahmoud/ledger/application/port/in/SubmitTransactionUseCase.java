@@ -0,0 +1,19 @@
+package com.mahmoud.ledger.application.port.in;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface SubmitTransactionUseCase {
+
+    /**
+     * Validates the transaction and queues it for posting, returning the id it will be posted under.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException when the submission queue is full
+     */
+    UUID submitTransaction(PostTransactionCommand command);
+
+    /**
+     * Status of a recent submission, empty once it is no longer remembered.
+     */
+    Optional<TransactionStatus> getTransactionStatus(UUID transactionId);
+}
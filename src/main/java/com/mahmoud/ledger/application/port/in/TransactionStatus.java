@@ -0,0 +1,25 @@
+package com.mahmoud.ledger.application.port.in;
+
+import java.util.UUID;
+
+/**
+ * Where a submitted transaction stands, with the reason if it was rejected or failed.
+ */
+public record TransactionStatus(UUID transactionId, SubmissionStatus status, String reason) {
+
+    public static TransactionStatus pending(UUID transactionId) {
+        return new TransactionStatus(transactionId, SubmissionStatus.PENDING, null);
+    }
+
+    public static TransactionStatus posted(UUID transactionId) {
+        return new TransactionStatus(transactionId, SubmissionStatus.POSTED, null);
+    }
+
+    public static TransactionStatus rejected(UUID transactionId, String reason) {
+        return new TransactionStatus(transactionId, SubmissionStatus.REJECTED, reason);
+    }
+
+    public static TransactionStatus failed(UUID transactionId, String reason) {
+        return new TransactionStatus(transactionId, SubmissionStatus.FAILED, reason);
+    }
+}
@@ -0,0 +1,30 @@
+package com.mahmoud.ledger.application.port.out;
+
+import com.mahmoud.ledger.domain.model.Account;
+import com.mahmoud.ledger.domain.model.Money;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Row locks and conditional balance updates of the database posting modes. Only a store with row locks
+ * implements it: the in-memory engine serializes postings on its own threads instead.
+ */
+public interface AccountLockPort {
+    Optional<Account> loadLocked(UUID accountId);
+
+    /**
+     * Locks all given accounts with a single query. Rows are locked in id order so that
+     * concurrent callers touching overlapping accounts cannot deadlock each other.
+     * Unknown ids are simply absent from the result.
+     */
+    List<Account> loadAllLocked(Collection<UUID> accountIds);
+
+    /**
+     * Adds {@code netDebit} (debits minus credits) to the balance without reading the account first,
+     * applying the Debit/Credit sign rules of its type. Nothing is written, and {@code false} is
+     * returned, if the account doesn't exist, has another currency or would go negative.
+     */
+    boolean applyNetDebit(UUID accountId, Money netDebit);
+}
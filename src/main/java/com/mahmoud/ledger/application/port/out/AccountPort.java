@@ -1,6 +1,8 @@
 package com.mahmoud.ledger.application.port.out;
 
 import com.mahmoud.ledger.domain.model.Account;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -9,5 +11,15 @@ public interface AccountPort {
 
     Optional<Account> load(UUID accountId);
 
-    Optional<Account> loadLocked(UUID accountId);
+    /**
+     * Like {@link #load}, but may answer from a cache: the result is a committed state of the account,
+     * though possibly not the latest one.
+     */
+    Optional<Account> loadCached(UUID accountId);
+
+    /**
+     * Loads all given accounts with a single query, without locking them.
+     * Unknown ids are simply absent from the result.
+     */
+    List<Account> loadAll(Collection<UUID> accountIds);
 }
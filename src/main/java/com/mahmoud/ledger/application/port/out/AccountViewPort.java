@@ -0,0 +1,22 @@
+package com.mahmoud.ledger.application.port.out;
+
+import com.mahmoud.ledger.application.port.in.AccountView;
+
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Store of the account read model, keyed by account id.
+ */
+public interface AccountViewPort {
+
+    /**
+     * The stored view, or the loader's, stored unless it throws. Writes of the same account wait for the
+     * loader, so a view it read before a commit can't overwrite one put after.
+     */
+    AccountView get(UUID accountId, Function<UUID, AccountView> loader);
+
+    void put(AccountView view);
+
+    void invalidate(UUID accountId);
+}
@@ -0,0 +1,36 @@
+package com.mahmoud.ledger.application.port.out;
+
+import com.mahmoud.ledger.domain.model.BalanceCheckpoint;
+import com.mahmoud.ledger.domain.model.Money;
+
+import java.time.LocalDateTime;
+import java.util.Currency;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface BalanceCheckpointPort {
+
+    /**
+     * The latest checkpoint of the account taken at or before {@code asOf}.
+     */
+    Optional<BalanceCheckpoint> loadLatestCheckpoint(UUID accountId, LocalDateTime asOf);
+
+    void saveCheckpoint(BalanceCheckpoint checkpoint);
+
+    /**
+     * Adds {@code delta} and {@code postings} to every checkpoint of the account taken at or after
+     * {@code postedAt}, for postings that committed after those checkpoints were written.
+     */
+    void shiftCheckpoints(UUID accountId, LocalDateTime postedAt, Money delta, long postings);
+
+    /**
+     * Debits minus credits of the account's postings timestamped in {@code (after, upTo]}. A null bound
+     * leaves that side open.
+     */
+    Money sumNetDebit(UUID accountId, Currency currency, LocalDateTime after, LocalDateTime upTo);
+
+    /**
+     * Postings of the account timestamped in {@code (after, upTo]}. A null bound leaves that side open.
+     */
+    long countPostings(UUID accountId, LocalDateTime after, LocalDateTime upTo);
+}
@@ -0,0 +1,31 @@
+package com.mahmoud.ledger.application.port.out;
+
+import com.mahmoud.ledger.domain.model.IdempotencyKey;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Keys of recent requests and the transactions they posted. Keys expire after a retention period, after which
+ * they may be reused.
+ */
+public interface IdempotencyPort {
+
+    record StoredKey(String requestHash, UUID transactionId) {
+    }
+
+    /**
+     * Answered from recently seen keys when possible, from the store otherwise.
+     */
+    Optional<StoredKey> findIdempotencyKey(String key);
+
+    /**
+     * Stores a key on its own, for transactions that were not stored together with theirs.
+     */
+    void saveIdempotencyKey(IdempotencyKey key, UUID transactionId);
+
+    /**
+     * Marks a key stored together with its transaction as recently seen.
+     */
+    void rememberIdempotencyKey(IdempotencyKey key, UUID transactionId);
+}
@@ -0,0 +1,18 @@
+package com.mahmoud.ledger.application.port.out;
+
+import com.mahmoud.ledger.application.port.in.LedgerEvent;
+
+import java.util.List;
+
+/**
+ * Where the outbox relay publishes posted transactions. Batches arrive in sequence order. A batch is published
+ * again if it failed, or if the service stopped before its outbox entries were deleted, so consumers skip the
+ * sequences they have already seen.
+ */
+public interface LedgerEventSink {
+
+    /**
+     * Publishes the batch durably, or throws to have it published again.
+     */
+    void publish(List<LedgerEvent> events);
+}
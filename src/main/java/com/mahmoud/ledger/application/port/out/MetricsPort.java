@@ -0,0 +1,72 @@
+package com.mahmoud.ledger.application.port.out;
+
+/**
+ * Measurements of the posting pipeline, published by the infrastructure to the metrics backend.
+ */
+public interface MetricsPort {
+
+    /**
+     * Steps a posting's database transaction goes through, timed separately to show where a slow posting
+     * spends its time.
+     */
+    enum PostingPhase {
+        /** Locking (or reading) the balance rows, applying the postings and writing the balances back */
+        BALANCES,
+        /** Mapping and inserting the transaction and its postings */
+        SAVE,
+        /** Committing the database transaction */
+        COMMIT
+    }
+
+    /**
+     * @param outcome {@code success}, a rejection reason, or {@code error}
+     */
+    void recordUseCase(String useCase, String outcome, long nanos);
+
+    void recordPhase(PostingPhase phase, long nanos);
+
+    void recordPostings(int postings);
+
+    /**
+     * @param reason e.g. {@code insufficient_funds} or {@code validation}
+     */
+    void recordRejection(String reason);
+
+    /**
+     * Time a query locking account rows took, mostly waiting for other transactions' locks.
+     */
+    void recordLockWait(long nanos);
+
+    /**
+     * Time from a transaction's commit until the account views it touched were rebuilt.
+     */
+    void recordReadModelLag(long nanos);
+
+    static MetricsPort none() {
+        return new MetricsPort() {
+            @Override
+            public void recordUseCase(String useCase, String outcome, long nanos) {
+            }
+
+            @Override
+            public void recordPhase(PostingPhase phase, long nanos) {
+            }
+
+            @Override
+            public void recordPostings(int postings) {
+            }
+
+            @Override
+            public void recordRejection(String reason) {
+            }
+
+            @Override
+            public void recordLockWait(long nanos) {
+            }
+
+            @Override
+            public void recordReadModelLag(long nanos) {
+            }
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package com.mahmoud.ledger.application.port.out;
+
+import com.mahmoud.ledger.application.port.in.LedgerEvent;
+
+import java.util.List;
+
+/**
+ * The outbox entries written with each posted transaction, and the numbered ledger behind them.
+ */
+public interface OutboxPort {
+
+    /**
+     * Numbers outbox entries not numbered yet, oldest transactions first, continuing the ledger sequence.
+     *
+     * @return entries numbered
+     */
+    int numberPending(int limit);
+
+    /**
+     * The numbered outbox entries not deleted yet, in sequence order.
+     */
+    List<LedgerEvent> loadPending(int limit);
+
+    /**
+     * Deletes the outbox entries up to and including the sequence.
+     */
+    void deletePublished(long throughSequence);
+
+    /**
+     * Posted transactions numbered after the sequence, in sequence order. Read from the ledger itself, so
+     * sequences already deleted from the outbox can still be read.
+     */
+    List<LedgerEvent> loadEvents(long afterSequence, int limit);
+}
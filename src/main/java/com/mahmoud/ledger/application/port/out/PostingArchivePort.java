@@ -0,0 +1,27 @@
+package com.mahmoud.ledger.application.port.out;
+
+import com.mahmoud.ledger.application.port.in.ArchivedSegment;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface PostingArchivePort {
+
+    /**
+     * Timestamp of the oldest transaction still in the ledger tables.
+     */
+    Optional<LocalDateTime> oldestTimestamp();
+
+    /**
+     * Writes the transactions timestamped in {@code [from, to)} and their postings to a new segment, then deletes
+     * them from the ledger tables. Statement and balance reads see them either in the tables or in the segment,
+     * never in both or neither.
+     *
+     * @throws IllegalStateException if one of them is not published from the outbox yet, or transactions of the
+     *                               period committed while it was written
+     */
+    ArchivedSegment archive(LocalDateTime from, LocalDateTime to);
+
+    List<ArchivedSegment> segments();
+}
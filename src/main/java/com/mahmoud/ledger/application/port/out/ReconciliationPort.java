@@ -0,0 +1,66 @@
+package com.mahmoud.ledger.application.port.out;
+
+import com.mahmoud.ledger.application.port.in.BalanceMismatch;
+import com.mahmoud.ledger.application.port.in.ReconciliationReport;
+import com.mahmoud.ledger.application.port.in.ReconciliationStatus;
+import com.mahmoud.ledger.domain.model.AccountType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+public interface ReconciliationPort {
+
+    /**
+     * A stored account row with the debits minus credits of the postings made to its id.
+     */
+    record AccountTotals(UUID accountId, AccountType type, String currency, BigDecimal storedBalance,
+            BigDecimal netDebit) {
+    }
+
+    /**
+     * Streams the aggregates of the account ids in {@code [from, to)} ({@code to} null leaves the range open),
+     * all read from one consistent snapshot: every account row with its postings' net, and the net of all
+     * postings in the range per currency, including postings to ids without an account row.
+     */
+    void aggregateRange(UUID from, UUID to, Consumer<AccountTotals> accounts,
+            BiConsumer<String, BigDecimal> netDebitByCurrency);
+
+    /**
+     * Account ids, ascending, that cut the accounts into {@code ranges} parts holding about as many accounts
+     * each; fewer than {@code ranges - 1} when there are fewer accounts than ranges.
+     */
+    List<UUID> accountSplitPoints(int ranges);
+
+    UUID createRun(LocalDateTime startedAt, int ranges, List<UUID> splitPoints);
+
+    /**
+     * The split points the run's ranges were cut at, empty for runs recorded without them.
+     */
+    List<UUID> splitPoints(UUID runId);
+
+    /**
+     * The latest run, unless it completed.
+     */
+    Optional<ReconciliationReport> loadUnfinishedRun();
+
+    Set<Integer> completedRanges(UUID runId);
+
+    /**
+     * Records a checked range and its mismatches together, so a resumed run neither skips nor repeats them.
+     */
+    void saveRange(UUID runId, int range, long accountsChecked, Map<String, BigDecimal> netDebitByCurrency,
+            List<BalanceMismatch> mismatches);
+
+    void finishRun(UUID runId, ReconciliationStatus status, LocalDateTime finishedAt);
+
+    Optional<ReconciliationReport> loadRun(UUID runId);
+
+    Optional<ReconciliationReport> loadLatestRun();
+}
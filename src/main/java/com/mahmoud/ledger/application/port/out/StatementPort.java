@@ -0,0 +1,15 @@
+package com.mahmoud.ledger.application.port.out;
+
+import com.mahmoud.ledger.application.port.in.StatementCursor;
+import com.mahmoud.ledger.domain.model.StatementEntry;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface StatementPort {
+    /**
+     * Up to {@code limit} postings of the account, newest first, starting after the cursor (or at the newest
+     * posting when it is null).
+     */
+    List<StatementEntry> loadStatement(UUID accountId, StatementCursor after, int limit);
+}
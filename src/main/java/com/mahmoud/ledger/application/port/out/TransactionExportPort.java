@@ -0,0 +1,15 @@
+package com.mahmoud.ledger.application.port.out;
+
+import com.mahmoud.ledger.application.port.in.ExportedPosting;
+
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+public interface TransactionExportPort {
+    /**
+     * Streams the postings of transactions timestamped in {@code [from, to)} to the sink.
+     *
+     * @return rows streamed
+     */
+    long streamPostings(LocalDateTime from, LocalDateTime to, Consumer<ExportedPosting> sink);
+}
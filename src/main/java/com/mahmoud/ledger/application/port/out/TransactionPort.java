@@ -2,6 +2,19 @@ package com.mahmoud.ledger.application.port.out;
 
 import com.mahmoud.ledger.domain.model.Transaction;
 
+import java.util.List;
+import java.util.UUID;
+
 public interface TransactionPort {
     Transaction save(Transaction transaction);
+
+    /**
+     * Saves many transactions at once, letting the store batch the inserts.
+     */
+    void saveAll(List<Transaction> transactions);
+
+    /**
+     * Whether the transaction is in the ledger tables; archived transactions are not.
+     */
+    boolean exists(UUID transactionId);
 }
@@ -0,0 +1,197 @@
+package com.mahmoud.ledger.application.service;
+
+import com.mahmoud.ledger.application.port.in.AccountView;
+import com.mahmoud.ledger.application.port.out.AccountPort;
+import com.mahmoud.ledger.application.port.out.AccountViewPort;
+import com.mahmoud.ledger.application.port.out.BalanceCheckpointPort;
+import com.mahmoud.ledger.application.port.out.MetricsPort;
+import com.mahmoud.ledger.application.port.out.StatementPort;
+import com.mahmoud.ledger.domain.model.Account;
+import com.mahmoud.ledger.domain.model.Posting;
+import com.mahmoud.ledger.domain.model.StatementEntry;
+import com.mahmoud.ledger.domain.model.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the account read model: denormalized views served to account reads without touching the rows the
+ * posting pipeline locks.
+ * <p>
+ * Once a transaction commits, the accounts it touched are queued, and a single projector thread rebuilds
+ * their views from the ledger, once per account however many queued transactions touched it. A view is
+ * always rebuilt from committed state rather than patched with the transaction, so replaying, reordering or
+ * dropping an update never leaves it wrong for longer than until the next one. Accounts that are read before
+ * any commit touched them, or whose updates didn't fit the queue, are built when read.
+ * <p>
+ * In {@code in-memory} posting mode postings reach the database after the balances, so a view's postings can
+ * trail its balance until the account's next update.
+ */
+public class AccountViewProjector implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountViewProjector.class);
+
+    private record Committed(Set<UUID> accountIds, long committedAt) {
+    }
+
+    private final ReadModelSettings settings;
+    private final AccountPort accountPort;
+    private final StatementPort statementPort;
+    private final BalanceCheckpointPort balanceCheckpointPort;
+    private final AccountViewPort store;
+    private final BalanceStripes balanceStripes;
+    private final MetricsPort metrics;
+    private final BlockingQueue<Committed> queue;
+    private final Thread projector;
+    private volatile boolean running = true;
+
+    public AccountViewProjector(ReadModelSettings settings, AccountPort accountPort, StatementPort statementPort,
+            BalanceCheckpointPort balanceCheckpointPort, AccountViewPort store, BalanceStripes balanceStripes,
+            MetricsPort metrics) {
+        this.settings = settings;
+        this.accountPort = accountPort;
+        this.statementPort = statementPort;
+        this.balanceCheckpointPort = balanceCheckpointPort;
+        this.store = store;
+        this.balanceStripes = balanceStripes;
+        this.metrics = metrics;
+        this.queue = new ArrayBlockingQueue<>(settings.queueCapacity());
+        this.projector = new Thread(this::run, "ledger-account-views");
+        this.projector.setDaemon(true);
+        if (settings.enabled()) {
+            projector.start();
+        }
+    }
+
+    public static AccountViewProjector none() {
+        return new AccountViewProjector(ReadModelSettings.disabled(), null, null, null, null, BalanceStripes.none(),
+                MetricsPort.none());
+    }
+
+    /**
+     * Queues the transaction's accounts for projection once the surrounding database transaction commits,
+     * or right away outside of one (the in-memory engine has committed a transaction once it returns).
+     */
+    public void projectAfterCommit(Transaction transaction) {
+        if (!settings.enabled()) {
+            return;
+        }
+        Set<UUID> accountIds = new LinkedHashSet<>();
+        for (Posting posting : transaction.getPostings()) {
+            accountIds.add(posting.getAccountId());
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(accountIds);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(accountIds);
+            }
+        });
+    }
+
+    /**
+     * The account's view, built from the ledger if the read model doesn't hold it.
+     */
+    public AccountView view(UUID accountId) {
+        if (!settings.enabled()) {
+            return build(accountId);
+        }
+        return store.get(accountId, this::build);
+    }
+
+    /**
+     * Committed transactions whose accounts are not projected yet.
+     */
+    public int pending() {
+        return queue.size();
+    }
+
+    private void enqueue(Set<UUID> accountIds) {
+        if (!queue.offer(new Committed(accountIds, System.nanoTime()))) {
+            // Dropped views are rebuilt on their next read instead
+            accountIds.forEach(store::invalidate);
+        }
+    }
+
+    private void run() {
+        List<Committed> batch = new ArrayList<>();
+        while (running) {
+            try {
+                Committed first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch);
+                project(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void project(List<Committed> batch) {
+        Set<UUID> accountIds = new LinkedHashSet<>();
+        batch.forEach(committed -> accountIds.addAll(committed.accountIds()));
+        for (UUID accountId : accountIds) {
+            try {
+                store.put(build(accountId));
+            } catch (RuntimeException e) {
+                log.warn("Rebuilding the view of account {} failed, it is rebuilt when next read", accountId, e);
+                store.invalidate(accountId);
+            }
+        }
+        long projected = System.nanoTime();
+        batch.forEach(committed -> metrics.recordReadModelLag(projected - committed.committedAt()));
+    }
+
+    private AccountView build(UUID accountId) {
+        Account account = accountPort.load(accountId)
+                .map(loaded -> balanceStripes.withLogicalBalance(loaded, accountPort::load))
+                .orElseThrow(() -> new IllegalArgumentException("Account not found"));
+        List<StatementEntry> recent = statementPort.loadStatement(accountId, null, settings.recentPostings());
+        long postingCount = countPostings(accountId);
+        return new AccountView(
+                account.getId(),
+                account.getName(),
+                account.getType(),
+                account.getStatus(),
+                account.getCreatedAt(),
+                account.getBalance(),
+                recent.isEmpty() ? null : recent.get(0).postedAt(),
+                postingCount,
+                List.copyOf(recent),
+                LocalDateTime.now());
+    }
+
+    private long countPostings(UUID accountId) {
+        // Only the postings after the latest checkpoint are counted, all of them for an account without one
+        return balanceCheckpointPort.loadLatestCheckpoint(accountId, LocalDateTime.now())
+                .map(checkpoint -> checkpoint.postings()
+                        + balanceCheckpointPort.countPostings(accountId, checkpoint.asOf(), null))
+                .orElseGet(() -> balanceCheckpointPort.countPostings(accountId, null, null));
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        projector.interrupt();
+    }
+}
@@ -0,0 +1,97 @@
+package com.mahmoud.ledger.application.service;
+
+import com.mahmoud.ledger.application.port.out.AccountLockPort;
+import com.mahmoud.ledger.application.port.out.AccountPort;
+import com.mahmoud.ledger.domain.model.Account;
+import com.mahmoud.ledger.domain.model.Posting;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * The accounts read by one database transaction. Postings are applied in memory and every
+ * touched account is written back exactly once on {@link #flush()}.
+ * <p>
+ * A pessimistic working set locks the rows it reads. An optimistic one doesn't, a concurrent
+ * change is detected by the version check when the accounts are written back.
+ */
+class AccountWorkingSet {
+
+    private final AccountPort accountPort;
+    private final AccountLockPort accountLocks;
+    private final boolean pessimistic;
+    private final Map<UUID, Account> accounts = new HashMap<>();
+    private final Set<UUID> touched = new TreeSet<>();
+    // Postings applied since the last mark(), so that a rejected transaction can be undone
+    private final Deque<Map.Entry<UUID, Posting>> undoLog = new ArrayDeque<>();
+
+    AccountWorkingSet(AccountPort accountPort, AccountLockPort accountLocks, boolean pessimistic) {
+        this.accountPort = accountPort;
+        this.accountLocks = accountLocks;
+        this.pessimistic = pessimistic;
+    }
+
+    /**
+     * Reads (and locks, if pessimistic) the accounts that are not part of the working set yet,
+     * in a single round trip.
+     */
+    void lock(Collection<UUID> accountIds) {
+        List<UUID> missing = accountIds.stream()
+                .distinct()
+                .filter(id -> !accounts.containsKey(id))
+                .toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+        List<Account> loaded = pessimistic ? accountLocks.loadAllLocked(missing) : accountPort.loadAll(missing);
+        loaded.forEach(account -> accounts.put(account.getId(), account));
+    }
+
+    boolean holds(UUID accountId) {
+        return accounts.containsKey(accountId);
+    }
+
+    Account get(UUID accountId) {
+        Account account = accounts.get(accountId);
+        if (account == null) {
+            throw new IllegalArgumentException("Account not found: " + accountId);
+        }
+        return account;
+    }
+
+    void post(UUID accountId, Posting posting) {
+        get(accountId).postPosting(posting);
+        touched.add(accountId);
+        undoLog.push(Map.entry(accountId, posting));
+    }
+
+    /**
+     * Starts a new unit that {@link #undo()} can revert.
+     */
+    void mark() {
+        undoLog.clear();
+    }
+
+    /**
+     * Reverts every posting applied since the last {@link #mark()}, newest first.
+     * Reversing cannot fail: each balance only returns to a value it already had.
+     */
+    void undo() {
+        while (!undoLog.isEmpty()) {
+            Map.Entry<UUID, Posting> applied = undoLog.pop();
+            accounts.get(applied.getKey()).postPosting(applied.getValue().reversed());
+        }
+    }
+
+    void flush() {
+        touched.forEach(id -> accountPort.save(accounts.get(id)));
+        touched.clear();
+    }
+}
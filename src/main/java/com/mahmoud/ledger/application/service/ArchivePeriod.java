@@ -0,0 +1,31 @@
+package com.mahmoud.ledger.application.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * The span of time one archive segment covers.
+ */
+public enum ArchivePeriod {
+    DAY,
+    MONTH;
+
+    /**
+     * Start of the period holding the time.
+     */
+    public LocalDateTime start(LocalDateTime time) {
+        return switch (this) {
+            case DAY -> time.toLocalDate().atStartOfDay();
+            case MONTH -> time.toLocalDate().withDayOfMonth(1).atStartOfDay();
+        };
+    }
+
+    /**
+     * Start of the period after the one starting at {@code start}.
+     */
+    public LocalDateTime next(LocalDateTime start) {
+        return switch (this) {
+            case DAY -> start.plusDays(1);
+            case MONTH -> start.plusMonths(1);
+        };
+    }
+}
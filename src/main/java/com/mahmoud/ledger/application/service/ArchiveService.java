@@ -0,0 +1,72 @@
+package com.mahmoud.ledger.application.service;
+
+import com.mahmoud.ledger.application.port.in.ArchiveLedgerUseCase;
+import com.mahmoud.ledger.application.port.in.ArchivedSegment;
+import com.mahmoud.ledger.application.port.out.PostingArchivePort;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the ledger tables small by moving whole periods of transactions into archive segments once the periods
+ * are older than the configured age. Periods are archived oldest first, one segment each; a transaction that
+ * commits into an already archived period is archived by the next run into a segment of its own.
+ */
+@Service
+@RequiredArgsConstructor
+public class ArchiveService implements ArchiveLedgerUseCase {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchiveService.class);
+
+    private final PostingArchivePort archivePort;
+    private final ArchiveSettings settings;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Override
+    public List<ArchivedSegment> archive() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("An archive run is already in progress");
+        }
+        try {
+            LocalDateTime cutoff = settings.period().start(LocalDateTime.now().minus(settings.olderThan()));
+            List<ArchivedSegment> archived = new ArrayList<>();
+            for (Optional<LocalDateTime> oldest = archivePort.oldestTimestamp(); oldest.isPresent();
+                    oldest = archivePort.oldestTimestamp()) {
+                LocalDateTime from = settings.period().start(oldest.get());
+                LocalDateTime to = settings.period().next(from);
+                if (to.isAfter(cutoff)) {
+                    break;
+                }
+                ArchivedSegment segment = archivePort.archive(from, to);
+                log.info("Archived {} transactions ({} postings) of [{}, {}) to {}, {} bytes",
+                        segment.transactions(), segment.postings(), from, to, segment.file(), segment.bytes());
+                archived.add(segment);
+            }
+            return archived;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @Scheduled(cron = "${ledger.archive.cron:-}")
+    void scheduledArchive() {
+        try {
+            archive();
+        } catch (IllegalStateException e) {
+            log.info("Archive run stopped: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public List<ArchivedSegment> getSegments() {
+        return archivePort.segments();
+    }
+}
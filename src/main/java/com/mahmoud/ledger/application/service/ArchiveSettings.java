@@ -0,0 +1,15 @@
+package com.mahmoud.ledger.application.service;
+
+import java.time.Duration;
+
+/**
+ * @param olderThan age a period must have fully reached before it is archived
+ * @param period    span of time covered by one segment
+ */
+public record ArchiveSettings(Duration olderThan, ArchivePeriod period) {
+
+    public ArchiveSettings {
+        if (olderThan.isNegative())
+            throw new IllegalArgumentException("Archive age cannot be negative");
+    }
+}
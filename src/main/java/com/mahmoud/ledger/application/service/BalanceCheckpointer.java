@@ -0,0 +1,217 @@
+package com.mahmoud.ledger.application.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mahmoud.ledger.application.port.out.AccountPort;
+import com.mahmoud.ledger.application.port.out.BalanceCheckpointPort;
+import com.mahmoud.ledger.domain.model.Account;
+import com.mahmoud.ledger.domain.model.BalanceCheckpoint;
+import com.mahmoud.ledger.domain.model.Money;
+import com.mahmoud.ledger.domain.model.Posting;
+import com.mahmoud.ledger.domain.model.Transaction;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Writes balance checkpoints from within the posting pipeline, so a point-in-time balance only has to add
+ * the postings after the nearest checkpoint. Must be called inside the database transaction that posted
+ * the transaction, after its balances and postings were written: the account rows are then locked (or
+ * conditionally updated) by that transaction, so the balances read here are not moving.
+ * <p>
+ * Transaction timestamps are taken before the accounts are locked, so a transaction may commit after a
+ * checkpoint with a later timestamp was written. A checkpoint is therefore taken as of the commit window
+ * before the posting that triggers it: only a posting committing more than that window after its timestamp
+ * can be missed by a checkpoint, and it shifts the checkpoints of its account taken at or after it.
+ * <p>
+ * A striped account is checkpointed on its logical balance, by a transaction holding all of its stripes:
+ * the posting pipeline locks them up front for a striped account that {@link #isDue is due}.
+ */
+public class BalanceCheckpointer {
+
+    private final CheckpointSettings settings;
+    private final AccountPort accountPort;
+    private final BalanceCheckpointPort checkpointPort;
+    private final BalanceStripes balanceStripes;
+    private final Cache<UUID, Progress> progress;
+
+    public BalanceCheckpointer(CheckpointSettings settings, AccountPort accountPort,
+            BalanceCheckpointPort checkpointPort, BalanceStripes balanceStripes) {
+        this.settings = settings;
+        this.accountPort = accountPort;
+        this.checkpointPort = checkpointPort;
+        this.balanceStripes = balanceStripes;
+        // Progress is cheap to recover from the store, evicting an account only costs those reads
+        this.progress = Caffeine.newBuilder()
+                .maximumSize(settings.trackedAccounts())
+                .build();
+    }
+
+    public static BalanceCheckpointer none() {
+        return new BalanceCheckpointer(CheckpointSettings.disabled(), null, null, BalanceStripes.none());
+    }
+
+    /**
+     * Whether posting the transaction will checkpoint the account, given that its rows are held.
+     * Called before the accounts are locked.
+     */
+    public boolean isDue(UUID accountId, Transaction transaction) {
+        if (!settings.enabled()) {
+            return false;
+        }
+        int postings = (int) transaction.getPostings().stream()
+                .filter(posting -> posting.getAccountId().equals(accountId))
+                .count();
+        Progress account = progress(accountId, 0);
+        synchronized (account) {
+            return isDue(account, postings, transaction.getTimestamp());
+        }
+    }
+
+    /**
+     * @param accounts the accounts read by the posting database transaction; a striped account is only
+     *                 checkpointed if they hold all of its stripes
+     */
+    void recordPosted(Transaction transaction, AccountWorkingSet accounts) {
+        if (!settings.enabled()) {
+            return;
+        }
+        Map<UUID, Money> netDebits = new LinkedHashMap<>();
+        Map<UUID, Integer> postingCounts = new HashMap<>();
+        for (Posting posting : transaction.getPostings()) {
+            Money amount = posting.getAmount();
+            netDebits.merge(posting.getAccountId(), posting.getType() == Posting.Type.DEBIT
+                    ? amount
+                    : Money.zero(amount.currency()).subtract(amount), Money::add);
+            postingCounts.merge(posting.getAccountId(), 1, Integer::sum);
+        }
+
+        LocalDateTime postedAt = transaction.getTimestamp();
+        boolean late = postedAt.isBefore(LocalDateTime.now().minus(settings.commitWindow()));
+        LocalDateTime asOf = postedAt.minus(settings.commitWindow());
+        for (Map.Entry<UUID, Money> entry : netDebits.entrySet()) {
+            UUID accountId = entry.getKey();
+            int postings = postingCounts.get(accountId);
+            Progress account = progress(accountId, postings);
+            if (late) {
+                Money netDebit = entry.getValue();
+                Money delta = account.debitNormal ? netDebit : Money.zero(netDebit.currency()).subtract(netDebit);
+                checkpointPort.shiftCheckpoints(accountId, postedAt, delta, postings);
+            }
+
+            boolean due;
+            synchronized (account) {
+                due = isDue(account, postings, postedAt) && holdsBalance(accountId, accounts);
+            }
+            if (due) {
+                checkpoint(accountId, asOf, account.debitNormal, accounts);
+            }
+            // A rolled back or retried posting leaves the progress alone
+            afterCommit(() -> {
+                synchronized (account) {
+                    if (due) {
+                        account.postings = 0;
+                        account.lastAsOf = asOf;
+                    } else {
+                        account.postings += postings;
+                    }
+                }
+            });
+        }
+    }
+
+    private boolean isDue(Progress account, int postings, LocalDateTime postedAt) {
+        return account.postings + postings >= settings.everyPostings()
+                || !postedAt.isBefore(account.lastAsOf.plus(settings.interval()));
+    }
+
+    private boolean holdsBalance(UUID accountId, AccountWorkingSet accounts) {
+        // The row of an account that isn't striped is always held by the transaction that posted to it
+        return !balanceStripes.isStriped(accountId)
+                || balanceStripes.all(accountId).stream().allMatch(accounts::holds);
+    }
+
+    private void checkpoint(UUID accountId, LocalDateTime asOf, boolean debitNormal, AccountWorkingSet accounts) {
+        Money balance = balanceOf(accountId, accounts);
+        // The balance also holds the postings timestamped after asOf, this transaction's among them
+        Money later = checkpointPort.sumNetDebit(accountId, balance.currency(), asOf, null);
+        checkpointPort.saveCheckpoint(new BalanceCheckpoint(accountId, asOf,
+                debitNormal ? balance.subtract(later) : balance.add(later), postingsUpTo(accountId, asOf)));
+    }
+
+    private long postingsUpTo(UUID accountId, LocalDateTime asOf) {
+        // Counted on from the previous checkpoint, so only the account's first one counts all of its postings
+        return checkpointPort.loadLatestCheckpoint(accountId, asOf)
+                .map(previous -> previous.postings() + checkpointPort.countPostings(accountId, previous.asOf(), asOf))
+                .orElseGet(() -> checkpointPort.countPostings(accountId, null, asOf));
+    }
+
+    private Money balanceOf(UUID accountId, AccountWorkingSet accounts) {
+        if (balanceStripes.isStriped(accountId)) {
+            return balanceStripes.all(accountId).stream()
+                    .map(stripeId -> accounts.get(stripeId).getBalance())
+                    .reduce(Money::add)
+                    .orElseThrow();
+        }
+        if (accounts.holds(accountId)) {
+            return accounts.get(accountId).getBalance();
+        }
+        // Conditionally updated without being read
+        return accountPort.load(accountId)
+                .orElseThrow(() -> new IllegalStateException("Account vanished while posting: " + accountId))
+                .getBalance();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * @param pendingPostings postings to the account already written by the calling, uncommitted transaction
+     */
+    private Progress progress(UUID accountId, int pendingPostings) {
+        return progress.get(accountId, id -> loadProgress(id, pendingPostings));
+    }
+
+    private Progress loadProgress(UUID accountId, int pendingPostings) {
+        Account account = accountPort.load(accountId)
+                .orElseThrow(() -> new IllegalStateException("Account vanished while posting: " + accountId));
+        LocalDateTime lastAsOf = checkpointPort.loadLatestCheckpoint(accountId, LocalDateTime.now())
+                .map(BalanceCheckpoint::asOf)
+                .orElse(null);
+        Progress loaded = new Progress(account.getType().isDebitNormal());
+        loaded.lastAsOf = lastAsOf != null ? lastAsOf : account.getCreatedAt();
+        // The calling transaction's postings are counted once it commits
+        long committed = checkpointPort.countPostings(accountId, lastAsOf, null) - pendingPostings;
+        loaded.postings = (int) Math.max(0, Math.min(Integer.MAX_VALUE, committed));
+        return loaded;
+    }
+
+    /**
+     * Committed postings since the last checkpoint of an account; counts postings committed by this process,
+     * so approximate when several instances post to the same account.
+     */
+    private static final class Progress {
+        private final boolean debitNormal;
+        private LocalDateTime lastAsOf;
+        private int postings;
+
+        private Progress(boolean debitNormal) {
+            this.debitNormal = debitNormal;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.mahmoud.ledger.application.service;
+
+import com.mahmoud.ledger.application.port.in.RetrieveBalanceAtUseCase;
+import com.mahmoud.ledger.application.port.out.AccountPort;
+import com.mahmoud.ledger.application.port.out.BalanceCheckpointPort;
+import com.mahmoud.ledger.domain.model.Account;
+import com.mahmoud.ledger.domain.model.BalanceCheckpoint;
+import com.mahmoud.ledger.domain.model.Money;
+import com.mahmoud.ledger.domain.model.Posting;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class BalanceHistoryService implements RetrieveBalanceAtUseCase {
+
+    private final AccountPort accountPort;
+    private final BalanceCheckpointPort balanceCheckpointPort;
+
+    /**
+     * Starts from the nearest checkpoint at or before {@code asOf} and adds only the postings after it, so
+     * the cost is bounded by the checkpoint interval rather than the age of the account.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Money getBalanceAt(UUID accountId, LocalDateTime asOf) {
+        if (asOf == null) {
+            throw new IllegalArgumentException("asOf cannot be null");
+        }
+        Account account = accountPort.load(accountId)
+                .orElseThrow(() -> new IllegalArgumentException("Account not found"));
+        Optional<BalanceCheckpoint> checkpoint = balanceCheckpointPort.loadLatestCheckpoint(accountId, asOf);
+
+        Money start = checkpoint.map(BalanceCheckpoint::balance)
+                .orElseGet(() -> Money.zero(account.getBalance().currency()));
+        Money netDebit = balanceCheckpointPort.sumNetDebit(accountId, start.currency(),
+                checkpoint.map(BalanceCheckpoint::asOf).orElse(null), asOf);
+        return account.isIncreasedBy(Posting.Type.DEBIT) ? start.add(netDebit) : start.subtract(netDebit);
+    }
+}
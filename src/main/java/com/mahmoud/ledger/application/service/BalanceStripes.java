@@ -0,0 +1,99 @@
+package com.mahmoud.ledger.application.service;
+
+import com.mahmoud.ledger.domain.model.Account;
+import com.mahmoud.ledger.domain.model.AccountType;
+import com.mahmoud.ledger.domain.model.Money;
+import com.mahmoud.ledger.domain.model.Posting;
+import com.mahmoud.ledger.domain.model.SystemAccounts;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Splits the balance of hot system accounts (Genesis, Revenue) into N independently
+ * locked rows, so concurrent deposits and transfers don't serialize on a single row.
+ * The logical balance of a striped account is the sum of its stripes.
+ */
+public final class BalanceStripes {
+
+    private final int count;
+    private final Map<UUID, AccountType> stripedAccounts;
+
+    /**
+     * @param stripedAccounts the striped accounts with their types, which tell the postings that decrease
+     *                        them before any stripe is read
+     */
+    public BalanceStripes(int count, Map<UUID, AccountType> stripedAccounts) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Stripe count must be at least 1");
+        }
+        this.count = count;
+        this.stripedAccounts = Map.copyOf(stripedAccounts);
+    }
+
+    public static BalanceStripes none() {
+        return new BalanceStripes(1, Map.of());
+    }
+
+    public boolean isStriped(UUID accountId) {
+        return count > 1 && stripedAccounts.containsKey(accountId);
+    }
+
+    /**
+     * Whether the posting decreases a striped account: it is checked against the logical balance, so it
+     * needs every stripe rather than the one picked for it.
+     */
+    public boolean drainsStripes(Posting posting) {
+        if (!isStriped(posting.getAccountId())) {
+            return false;
+        }
+        boolean debitIncreases = stripedAccounts.get(posting.getAccountId()).isDebitNormal();
+        return debitIncreases != (posting.getType() == Posting.Type.DEBIT);
+    }
+
+    /**
+     * Picks the stripe a posting lands on by hashing the transaction id.
+     */
+    public UUID pick(UUID accountId, UUID transactionId) {
+        return SystemAccounts.stripeId(accountId, Math.floorMod(transactionId.hashCode(), count));
+    }
+
+    /**
+     * All stripe ids of an account, in index order (which is also the locking order).
+     */
+    public List<UUID> all(UUID accountId) {
+        if (!isStriped(accountId)) {
+            return List.of(accountId);
+        }
+        return IntStream.range(0, count)
+                .mapToObj(i -> SystemAccounts.stripeId(accountId, i))
+                .toList();
+    }
+
+    /**
+     * The account with its logical balance, summing the balances of its other stripes into it when striped
+     * (stripe 0 is the account itself).
+     */
+    public Account withLogicalBalance(Account account, Function<UUID, Optional<Account>> loader) {
+        if (!isStriped(account.getId())) {
+            return account;
+        }
+        Money total = account.getBalance();
+        for (UUID stripeId : all(account.getId()).subList(1, count)) {
+            Money stripeBalance = loader.apply(stripeId)
+                    .map(Account::getBalance)
+                    .orElseThrow(() -> new IllegalStateException("Missing balance stripe: " + stripeId));
+            total = total.add(stripeBalance);
+        }
+        return new Account(account.getId(), account.getName(), account.getType(), total, account.getStatus(),
+                account.getCreatedAt());
+    }
+
+    public int count() {
+        return count;
+    }
+}
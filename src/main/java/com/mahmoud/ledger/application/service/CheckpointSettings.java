@@ -0,0 +1,31 @@
+package com.mahmoud.ledger.application.service;
+
+import java.time.Duration;
+
+/**
+ * @param enabled         whether the posting pipeline writes balance checkpoints
+ * @param everyPostings   postings to an account after which it is checkpointed again
+ * @param interval        longest time between two checkpoints of an account that keeps receiving postings
+ * @param commitWindow    how long a posting may take from its timestamp to its commit without shifting the
+ *                        checkpoints after it; checkpoints are taken that long before the triggering posting
+ * @param trackedAccounts accounts whose progress towards the next checkpoint is kept in memory
+ */
+public record CheckpointSettings(boolean enabled, int everyPostings, Duration interval, Duration commitWindow,
+        int trackedAccounts) {
+
+    public CheckpointSettings {
+        if (enabled && (everyPostings < 1 || !isPositive(interval) || !isPositive(commitWindow)
+                || trackedAccounts < 1)) {
+            throw new IllegalArgumentException(
+                    "Checkpoint posting count, interval, commit window and tracked accounts must be positive");
+        }
+    }
+
+    public static CheckpointSettings disabled() {
+        return new CheckpointSettings(false, 1, Duration.ofDays(1), Duration.ofSeconds(1), 1);
+    }
+
+    private static boolean isPositive(Duration duration) {
+        return !duration.isNegative() && !duration.isZero();
+    }
+}
@@ -0,0 +1,136 @@
+package com.mahmoud.ledger.application.service;
+
+import org.springframework.core.retry.RetryException;
+import org.springframework.core.retry.RetryListener;
+import org.springframework.core.retry.RetryPolicy;
+import org.springframework.core.retry.RetryTemplate;
+import org.springframework.core.retry.Retryable;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs a unit of work that lost a deadlock, timed out waiting for a row lock or failed an
+ * optimistic version check. Attempts are spaced with an exponential back-off plus jitter so that
+ * the colliding transactions don't collide again on the next attempt.
+ */
+public class ConcurrencyRetry {
+
+    /**
+     * Kinds of concurrency failure, told apart by the SQL state or error code the database reported.
+     */
+    public enum Conflict {
+        DEADLOCK,
+        LOCK_TIMEOUT,
+        VERSION_CONFLICT,
+        OTHER
+    }
+
+    private final RetryTemplate retryTemplate;
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+    private final Map<Conflict, LongAdder> conflicts = new EnumMap<>(Conflict.class);
+
+    public ConcurrencyRetry(int maxRetries, Duration delay, Duration jitter) {
+        RetryPolicy policy = RetryPolicy.builder()
+                .includes(ConcurrencyFailureException.class)
+                .maxRetries(maxRetries)
+                .delay(delay)
+                .jitter(jitter)
+                .multiplier(2)
+                .build();
+        for (Conflict conflict : Conflict.values()) {
+            conflicts.put(conflict, new LongAdder());
+        }
+        this.retryTemplate = new RetryTemplate(policy);
+        this.retryTemplate.setRetryListener(new RetryListener() {
+            @Override
+            public void beforeRetry(RetryPolicy retryPolicy, Retryable<?> retryable) {
+                retries.increment();
+            }
+
+            @Override
+            public void onRetryPolicyExhaustion(RetryPolicy retryPolicy, Retryable<?> retryable,
+                    RetryException exception) {
+                exhausted.increment();
+            }
+        });
+    }
+
+    public static ConcurrencyRetry none() {
+        return new ConcurrencyRetry(0, Duration.ZERO, Duration.ZERO);
+    }
+
+    /**
+     * The work must open (and commit) its own transaction, retrying inside an
+     * outer transaction is pointless since it is already marked rollback-only.
+     */
+    public <T> T execute(Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+        try {
+            return retryTemplate.execute(() -> {
+                try {
+                    return work.get();
+                } catch (ConcurrencyFailureException e) {
+                    conflicts.get(classify(e)).increment();
+                    throw e;
+                }
+            });
+        } catch (RetryException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Number of attempts that were re-run after a concurrency failure.
+     */
+    public long retries() {
+        return retries.sum();
+    }
+
+    /**
+     * Number of units of work that still failed after the last retry.
+     */
+    public long exhausted() {
+        return exhausted.sum();
+    }
+
+    /**
+     * Number of attempts, first ones included, that failed with the given kind of concurrency failure.
+     */
+    public long conflicts(Conflict conflict) {
+        return conflicts.get(conflict).sum();
+    }
+
+    static Conflict classify(ConcurrencyFailureException failure) {
+        if (failure instanceof OptimisticLockingFailureException) {
+            return Conflict.VERSION_CONFLICT;
+        }
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql) {
+                String state = sql.getSQLState() != null ? sql.getSQLState() : "";
+                // 40001 is a deadlock in H2 and MySQL, 40P01 in PostgreSQL
+                if (state.equals("40001") || state.equals("40P01")) {
+                    return Conflict.DEADLOCK;
+                }
+                // H2 reports lock timeouts as error 50200, PostgreSQL as 55P03
+                if (sql.getErrorCode() == 50200 || state.equals("HYT00") || state.equals("55P03")) {
+                    return Conflict.LOCK_TIMEOUT;
+                }
+            }
+        }
+        return Conflict.OTHER;
+    }
+}
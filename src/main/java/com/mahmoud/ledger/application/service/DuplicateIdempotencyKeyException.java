@@ -0,0 +1,12 @@
+package com.mahmoud.ledger.application.service;
+
+/**
+ * A transaction of a group commit carries an idempotency key that was already posted, so it was left out of
+ * the group. {@link IdempotencyGuard} answers it with the transaction posted under the key.
+ */
+class DuplicateIdempotencyKeyException extends IllegalStateException {
+
+    DuplicateIdempotencyKeyException(String key) {
+        super("Idempotency key " + key + " was already posted");
+    }
+}
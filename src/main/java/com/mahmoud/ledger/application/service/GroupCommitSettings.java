@@ -0,0 +1,25 @@
+package com.mahmoud.ledger.application.service;
+
+import java.time.Duration;
+
+/**
+ * @param enabled       whether single postings are coalesced into shared database transactions
+ * @param maxBatchSize  most postings committed together
+ * @param maxLinger     how long the committer waits for more postings once it has one
+ * @param queueCapacity postings waiting for the committer before callers are blocked
+ * @param commitTimeout how long a caller waits for its posting's group to commit once it is queued
+ */
+public record GroupCommitSettings(boolean enabled, int maxBatchSize, Duration maxLinger, int queueCapacity,
+        Duration commitTimeout) {
+
+    public GroupCommitSettings {
+        if (enabled && (maxBatchSize < 1 || queueCapacity < 1))
+            throw new IllegalArgumentException("Group commit batch size and queue capacity must be positive");
+        if (enabled && (commitTimeout == null || commitTimeout.isNegative() || commitTimeout.isZero()))
+            throw new IllegalArgumentException("Group commit timeout must be positive");
+    }
+
+    public static GroupCommitSettings disabled() {
+        return new GroupCommitSettings(false, 1, Duration.ZERO, 1, Duration.ZERO);
+    }
+}
@@ -0,0 +1,178 @@
+package com.mahmoud.ledger.application.service;
+
+import com.mahmoud.ledger.domain.model.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Coalesces transactions posted concurrently by many callers into one database transaction, so that
+ * the commit (and its fsync) is paid once per group instead of once per transaction.
+ * <p>
+ * Callers enqueue a validated transaction and block until a single committer thread has committed the
+ * group it was part of. The committer takes whatever is queued, lingers briefly for more, and hands the
+ * group to a function that reports a rejection (or null) per transaction, so that a transaction failing a
+ * business rule is rejected alone while its group-mates are still committed. A group whose database
+ * transaction fails as a whole is committed again one transaction at a time.
+ * <p>
+ * Whatever a group throws, errors included, fails that group's callers and leaves the committer running.
+ */
+class GroupCommitter implements AutoCloseable {
+
+    private record Pending(Transaction transaction, CompletableFuture<UUID> result) {
+    }
+
+    private final GroupCommitSettings settings;
+    private final Function<List<Transaction>, List<RuntimeException>> commitGroup;
+    private final BlockingQueue<Pending> queue;
+    private final Thread committer;
+    private volatile boolean running = true;
+
+    GroupCommitter(GroupCommitSettings settings, Function<List<Transaction>, List<RuntimeException>> commitGroup) {
+        this.settings = settings;
+        this.commitGroup = commitGroup;
+        this.queue = new ArrayBlockingQueue<>(settings.queueCapacity());
+        this.committer = new Thread(this::run, "ledger-group-committer");
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+
+    /**
+     * Blocks until the transaction is committed (returning its id) or rejected (throwing the rejection).
+     * Blocks as well while the queue is full, which is the back-pressure on callers. Each wait is bounded by
+     * the commit timeout.
+     *
+     * @throws RejectedExecutionException once the committer is closed, or if the transaction didn't get into
+     *                                    the queue or was still queued when the commit timeout ran out
+     * @throws CompletionException        if its group was taken but not committed within the commit timeout,
+     *                                    so it may or may not be committed, or failed with an error
+     */
+    UUID submit(Transaction transaction) {
+        if (!running) {
+            throw shuttingDown();
+        }
+        Pending pending = new Pending(transaction, new CompletableFuture<>());
+        try {
+            if (!queue.offer(pending, settings.commitTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new RejectedExecutionException("Group commit queue is full");
+            }
+            // Closed since the check above: the committer may have drained the queue for the last time already.
+            // Whoever removes the transaction from the queue, this caller or the committer, completes it.
+            if (!running && queue.remove(pending)) {
+                throw shuttingDown();
+            }
+            return pending.result().get(settings.commitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for group commit", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new CompletionException(e.getCause());
+        } catch (TimeoutException e) {
+            if (queue.remove(pending)) {
+                throw new RejectedExecutionException("Group commit queue did not drain in time");
+            }
+            // Taken by a group that is still committing
+            throw new CompletionException(e);
+        }
+    }
+
+    private void run() {
+        try {
+            commitUntilClosed();
+        } finally {
+            // Also reached if the committer dies: new callers fail fast instead of waiting on it
+            running = false;
+            Pending pending;
+            while ((pending = queue.poll()) != null) {
+                pending.result().completeExceptionally(shuttingDown());
+            }
+        }
+    }
+
+    private void commitUntilClosed() {
+        List<Pending> group = new ArrayList<>(settings.maxBatchSize());
+        while (running) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                queue.drainTo(group, settings.maxBatchSize() - group.size());
+
+                long deadline = System.nanoTime() + settings.maxLinger().toNanos();
+                while (group.size() < settings.maxBatchSize()) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                    queue.drainTo(group, settings.maxBatchSize() - group.size());
+                }
+                commit(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+                // Interrupted while lingering, before the group was committed
+                group.forEach(pending -> pending.result().completeExceptionally(shuttingDown()));
+            } catch (Throwable e) {
+                // An error out of the group, such as running out of memory: fail its callers, not the committer
+                group.forEach(pending -> pending.result().completeExceptionally(e));
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private static RejectedExecutionException shuttingDown() {
+        return new RejectedExecutionException("Ledger is shutting down");
+    }
+
+    private void commit(List<Pending> group) {
+        try {
+            List<RuntimeException> rejections = commitGroup.apply(group.stream().map(Pending::transaction).toList());
+            for (int i = 0; i < group.size(); i++) {
+                Pending pending = group.get(i);
+                if (rejections.get(i) == null) {
+                    pending.result().complete(pending.transaction().getId());
+                } else {
+                    pending.result().completeExceptionally(rejections.get(i));
+                }
+            }
+        } catch (RuntimeException e) {
+            // The group's database transaction itself failed (after retries): nobody was committed
+            if (group.size() == 1) {
+                group.get(0).result().completeExceptionally(e);
+                return;
+            }
+            // It may be down to a single transaction, like one losing a unique key to another instance: commit
+            // each on its own so that only that one fails
+            for (Pending pending : group) {
+                commit(List.of(pending));
+            }
+        }
+    }
+
+    /**
+     * Stops taking new groups. A group being committed is left to finish, only what is still queued is
+     * rejected; the committer notices within the queue poll interval, so nothing is interrupted.
+     */
+    @Override
+    public void close() {
+        running = false;
+    }
+}
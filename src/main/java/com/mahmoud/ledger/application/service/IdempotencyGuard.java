@@ -0,0 +1,117 @@
+package com.mahmoud.ledger.application.service;
+
+import com.mahmoud.ledger.application.port.out.IdempotencyPort;
+import com.mahmoud.ledger.application.port.out.IdempotencyPort.StoredKey;
+import com.mahmoud.ledger.domain.model.IdempotencyKey;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Posts a request at most once per idempotency key. A key already posted is answered with its transaction id
+ * before any account is touched, usually from the recent-keys cache. A retry arriving while the first attempt
+ * is still posting waits for its outcome rather than racing it. The unique key in the store settles the rare
+ * race between two instances: the loser rolls back and answers with the winner's transaction.
+ */
+public class IdempotencyGuard {
+
+    private final IdempotencyPort idempotencyPort;
+    private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyGuard(IdempotencyPort idempotencyPort) {
+        this.idempotencyPort = idempotencyPort;
+    }
+
+    /**
+     * @param storedWithTransaction whether the posting stores the key in the same database transaction as the
+     *                              transaction itself; otherwise it is stored once the posting returns
+     * @param posting               posts the request and returns the transaction id
+     */
+    public UUID execute(IdempotencyKey key, boolean storedWithTransaction, Supplier<UUID> posting) {
+        Optional<UUID> posted = lookup(key);
+        if (posted.isPresent()) {
+            return posted.get();
+        }
+
+        InFlight claim = new InFlight(key.requestHash(), new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(key.key(), claim);
+        if (running != null) {
+            return awaitRunning(key, running);
+        }
+        try {
+            // It may have committed between the lookup and the claim
+            posted = lookup(key);
+            UUID transactionId = posted.isPresent() ? posted.get() : post(key, storedWithTransaction, posting);
+            claim.result().complete(transactionId);
+            return transactionId;
+        } catch (RuntimeException e) {
+            claim.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key.key(), claim);
+        }
+    }
+
+    private UUID post(IdempotencyKey key, boolean storedWithTransaction, Supplier<UUID> posting) {
+        UUID transactionId;
+        try {
+            transactionId = posting.get();
+        } catch (DataIntegrityViolationException | DuplicateIdempotencyKeyException e) {
+            // Another instance committed the same key first
+            Optional<UUID> posted = lookup(key);
+            if (posted.isPresent()) {
+                return posted.get();
+            }
+            transactionId = posting.get();
+        }
+        if (storedWithTransaction) {
+            idempotencyPort.rememberIdempotencyKey(key, transactionId);
+        } else {
+            idempotencyPort.saveIdempotencyKey(key, transactionId);
+        }
+        return transactionId;
+    }
+
+    /**
+     * Whether a transaction was already posted under the key, checked by group commits right before storing
+     * the key, so that a duplicate is left out rather than failing the whole group on the unique key.
+     *
+     * @throws IllegalArgumentException if the key was posted for a different request
+     */
+    public boolean isPosted(IdempotencyKey key) {
+        return lookup(key).isPresent();
+    }
+
+    private Optional<UUID> lookup(IdempotencyKey key) {
+        Optional<StoredKey> stored = idempotencyPort.findIdempotencyKey(key.key());
+        stored.ifPresent(found -> checkSameRequest(key, found.requestHash()));
+        return stored.map(StoredKey::transactionId);
+    }
+
+    private static UUID awaitRunning(IdempotencyKey key, InFlight running) {
+        checkSameRequest(key, running.requestHash());
+        try {
+            return running.result().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static void checkSameRequest(IdempotencyKey key, String requestHash) {
+        if (!key.requestHash().equals(requestHash)) {
+            throw new IllegalArgumentException("Idempotency key " + key.key() + " was used for a different request");
+        }
+    }
+
+    private record InFlight(String requestHash, CompletableFuture<UUID> result) {
+    }
+}
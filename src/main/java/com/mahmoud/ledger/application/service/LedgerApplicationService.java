@@ -1,27 +1,53 @@
 package com.mahmoud.ledger.application.service;
 
+import com.mahmoud.ledger.application.port.in.AccountView;
 import com.mahmoud.ledger.application.port.in.CreateAccountCommand;
 import com.mahmoud.ledger.application.port.in.CreateAccountUseCase;
 import com.mahmoud.ledger.application.port.in.DepositFundsCommand;
 import com.mahmoud.ledger.application.port.in.DepositFundsUseCase;
+import com.mahmoud.ledger.application.port.in.PostTransactionBatchCommand;
 import com.mahmoud.ledger.application.port.in.PostTransactionCommand;
+import com.mahmoud.ledger.application.port.in.PostTransactionResult;
 import com.mahmoud.ledger.application.port.in.PostingCommand;
 import com.mahmoud.ledger.application.port.in.PostTransactionUseCase;
+import com.mahmoud.ledger.application.port.in.ReadConsistency;
 import com.mahmoud.ledger.application.port.in.RetrieveAccountUseCase;
 import com.mahmoud.ledger.application.port.in.TransferFundsCommand;
 import com.mahmoud.ledger.application.port.in.TransferFundsUseCase;
+import com.mahmoud.ledger.application.port.out.AccountLockPort;
 import com.mahmoud.ledger.application.port.out.AccountPort;
+import com.mahmoud.ledger.application.port.out.MetricsPort;
+import com.mahmoud.ledger.application.port.out.MetricsPort.PostingPhase;
 import com.mahmoud.ledger.application.port.out.TransactionPort;
 import com.mahmoud.ledger.domain.model.Account;
+import com.mahmoud.ledger.domain.model.IdGenerator;
+import com.mahmoud.ledger.domain.model.IdempotencyKey;
+import com.mahmoud.ledger.domain.model.InsufficientFundsException;
 import com.mahmoud.ledger.domain.model.Money;
 import com.mahmoud.ledger.domain.model.Posting;
 import com.mahmoud.ledger.domain.model.Transaction;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -30,30 +56,325 @@ public class LedgerApplicationService
         DepositFundsUseCase {
 
     private final AccountPort accountPort;
+    private final AccountLockPort accountLocks;
     private final TransactionPort transactionPort;
+    private final BalanceStripes balanceStripes;
+    private final TransactionOperations transactionOperations;
+    private final ConcurrencyRetry concurrencyRetry;
+    private final PostingMode postingMode;
+    private final GroupCommitSettings groupCommit;
+    private final BalanceCheckpointer balanceCheckpointer;
+    private final IdempotencyGuard idempotencyGuard;
+    private final MetricsPort metrics;
+    private final IdGenerator idGenerator;
+    private final AccountViewProjector accountViews;
+    private volatile GroupCommitter groupCommitter;
 
     @Override
     @Transactional
     public UUID createAccount(CreateAccountCommand command) {
-        UUID accountId = UUID.randomUUID();
-        Account account = Account.create(accountId, command.name(), com.mahmoud.ledger.domain.model.AccountType.ASSET,
-                command.currency());
-        accountPort.save(account);
-        return accountId;
+        return measured("create_account", () -> {
+            UUID accountId = idGenerator.nextId();
+            Account account = Account.create(accountId, command.name(),
+                    com.mahmoud.ledger.domain.model.AccountType.ASSET, command.currency());
+            accountPort.save(account);
+            return accountId;
+        });
     }
 
     @Override
     public Account getAccount(UUID accountId) {
-        return accountPort.load(accountId)
+        return getAccount(accountId, ReadConsistency.STRICT);
+    }
+
+    @Override
+    public Account getAccount(UUID accountId, ReadConsistency consistency) {
+        return measured("get_account", () -> loadAccount(accountId, consistency));
+    }
+
+    private Account loadAccount(UUID accountId, ReadConsistency consistency) {
+        if (consistency == ReadConsistency.EVENTUAL) {
+            return accountViews.view(accountId).toAccount();
+        }
+        Function<UUID, Optional<Account>> loader = consistency == ReadConsistency.CACHED
+                ? accountPort::loadCached
+                : accountPort::load;
+        Account account = loader.apply(accountId)
                 .orElseThrow(() -> new IllegalArgumentException("Account not found"));
+        // Logical balance of a striped account is the sum of its stripes
+        return balanceStripes.withLogicalBalance(account, loader);
+    }
+
+    @Override
+    public AccountView getAccountView(UUID accountId) {
+        return measured("get_account_view", () -> accountViews.view(accountId));
     }
 
     @Override
-    @Transactional
     public UUID postTransaction(PostTransactionCommand command) {
-        // 1. Create Transaction Domain Object (ID generated by Factory)
-        Transaction transaction = Transaction.create(command.description());
+        return measured("post_transaction", () -> post(toTransaction(command)));
+    }
+
+    @Override
+    public UUID postTransaction(UUID transactionId, PostTransactionCommand command) {
+        return measured("post_transaction",
+                () -> post(toTransaction(Transaction.create(transactionId, command.description()), command)));
+    }
+
+    /**
+     * Posts the transaction unless one was already posted under the key; then returns that transaction's id.
+     */
+    private UUID postIdempotently(PostTransactionCommand command, IdempotencyKey idempotencyKey) {
+        if (idempotencyKey == null) {
+            return post(toTransaction(command));
+        }
+        // The in-memory engine journals transactions on its own, its key is stored once it has acknowledged:
+        // a crash in between forgets the key, and a retry then posts again
+        boolean storedWithTransaction = postingMode != PostingMode.IN_MEMORY;
+        return idempotencyGuard.execute(idempotencyKey, storedWithTransaction, () -> {
+            Transaction transaction = toTransaction(command);
+            if (storedWithTransaction) {
+                transaction.assignIdempotencyKey(idempotencyKey);
+            }
+            return post(transaction);
+        });
+    }
+
+    private UUID post(Transaction transaction) {
+        metrics.recordPostings(transaction.getPostings().size());
+        if (postingMode == PostingMode.IN_MEMORY) {
+            // The engine behind the port applies, journals and acknowledges the transaction itself
+            transactionPort.save(transaction);
+            accountViews.projectAfterCommit(transaction);
+            return transaction.getId();
+        }
+
+        // Concurrent callers are coalesced into one database transaction, unless this call is part of
+        // a larger transaction that must commit (or roll back) as a unit
+        if (groupCommit.enabled() && !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return groupCommitter().submit(transaction);
+        }
+
+        // 3. Update Accounts and save Transaction, retried as a whole on deadlock / lock timeout
+        // or, in optimistic mode, when an account changed since it was read
+        return concurrencyRetry.execute(() -> inTransaction(() -> {
+            long start = System.nanoTime();
+            AccountWorkingSet accounts =
+                    new AccountWorkingSet(accountPort, accountLocks, postingMode != PostingMode.OPTIMISTIC);
+            List<UUID> checkpointRows = checkpointRows(transaction);
+            // Decreasing or checkpointing a striped account needs all of its stripes, locked with the other
+            // rows up front
+            if (postingMode == PostingMode.ATOMIC_DELTA && checkpointRows.isEmpty()
+                    && transaction.getPostings().stream().noneMatch(balanceStripes::drainsStripes)) {
+                applyNetDebits(transaction);
+            } else {
+                accounts.lock(Stream.concat(balanceRows(transaction).stream(), checkpointRows.stream()).toList());
+                applyPostings(transaction, accounts);
+            }
+            accounts.flush();
+            long saving = System.nanoTime();
+            metrics.recordPhase(PostingPhase.BALANCES, saving - start);
+
+            transactionPort.save(transaction);
+            balanceCheckpointer.recordPosted(transaction, accounts);
+            accountViews.projectAfterCommit(transaction);
+            metrics.recordPhase(PostingPhase.SAVE, System.nanoTime() - saving);
+            return transaction.getId();
+        }));
+    }
+
+    /**
+     * Runs the work in a database transaction, timing the commit unless it joins a transaction that commits
+     * later.
+     */
+    private <T> T inTransaction(Supplier<T> work) {
+        boolean commits = !TransactionSynchronizationManager.isActualTransactionActive();
+        long[] workDone = new long[1];
+        T result = transactionOperations.execute(status -> {
+            T value = work.get();
+            workDone[0] = System.nanoTime();
+            return value;
+        });
+        if (commits) {
+            metrics.recordPhase(PostingPhase.COMMIT, System.nanoTime() - workDone[0]);
+        }
+        return result;
+    }
+
+    /**
+     * Times a use case, and counts it as rejected if it broke a business rule.
+     */
+    private <T> T measured(String useCase, Supplier<T> work) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = work.get();
+            outcome = "success";
+            return result;
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            outcome = rejectionReason(e);
+            metrics.recordRejection(outcome);
+            throw e;
+        } finally {
+            metrics.recordUseCase(useCase, outcome, System.nanoTime() - start);
+        }
+    }
+
+    private static String rejectionReason(RuntimeException rejection) {
+        for (Throwable cause = rejection; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InsufficientFundsException) {
+                return "insufficient_funds";
+            }
+        }
+        return "validation";
+    }
+
+    @Override
+    public List<PostTransactionResult> postTransactions(PostTransactionBatchCommand command) {
+        return measured("post_batch", () -> postBatch(command));
+    }
+
+    private List<PostTransactionResult> postBatch(PostTransactionBatchCommand command) {
+        List<PostTransactionCommand> commands = command.transactions();
+        PostTransactionResult[] results = new PostTransactionResult[commands.size()];
+
+        // 1. Validate every transaction before touching any account
+        Map<Integer, Transaction> valid = new LinkedHashMap<>();
+        for (int i = 0; i < commands.size(); i++) {
+            try {
+                valid.put(i, toTransaction(commands.get(i)));
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                if (command.atomic()) {
+                    throw rejectedInBatch(i, e);
+                }
+                metrics.recordRejection(rejectionReason(e));
+                results[i] = PostTransactionResult.rejected(null, e.getMessage());
+            }
+        }
+
+        // 2. Apply and commit the valid ones together
+        List<Transaction> transactions = List.copyOf(valid.values());
+        transactions.forEach(transaction -> metrics.recordPostings(transaction.getPostings().size()));
+        List<RuntimeException> rejections = commitTogether(transactions, command.atomic());
+        int next = 0;
+        for (Integer i : valid.keySet()) {
+            Transaction transaction = transactions.get(next);
+            RuntimeException rejection = rejections.get(next++);
+            if (rejection != null) {
+                metrics.recordRejection(rejectionReason(rejection));
+            }
+            results[i] = rejection == null
+                    ? PostTransactionResult.posted(transaction.getId())
+                    : PostTransactionResult.rejected(transaction.getId(), rejection.getMessage());
+        }
+        return List.of(results);
+    }
+
+    /**
+     * Locks the union of the accounts touched by the transactions once and applies all of them in memory,
+     * in one database transaction. Unless atomic, a rejected transaction is undone without affecting its
+     * batch-mates: the returned list holds its rejection, and null for every posted transaction.
+     */
+    private List<RuntimeException> commitTogether(List<Transaction> transactions, boolean atomic) {
+        if (postingMode == PostingMode.IN_MEMORY) {
+            return postOneByOne(transactions, atomic);
+        }
+        return concurrencyRetry.execute(() -> inTransaction(() -> {
+            long start = System.nanoTime();
+            List<RuntimeException> rejections = new ArrayList<>(Collections.nCopies(transactions.size(), null));
+            AccountWorkingSet accounts =
+                    new AccountWorkingSet(accountPort, accountLocks, postingMode != PostingMode.OPTIMISTIC);
+            accounts.lock(transactions.stream()
+                    .flatMap(transaction -> Stream.concat(balanceRows(transaction).stream(),
+                            checkpointRows(transaction).stream()))
+                    .toList());
+
+            List<Transaction> posted = new ArrayList<>();
+            Set<String> keys = new HashSet<>();
+            for (int i = 0; i < transactions.size(); i++) {
+                accounts.mark();
+                try {
+                    checkNotPosted(transactions.get(i), keys);
+                    applyPostings(transactions.get(i), accounts);
+                    posted.add(transactions.get(i));
+                } catch (IllegalArgumentException | IllegalStateException e) {
+                    if (atomic) {
+                        throw rejectedInBatch(i, e);
+                    }
+                    accounts.undo();
+                    rejections.set(i, e);
+                }
+            }
+            accounts.flush();
+            long saving = System.nanoTime();
+            metrics.recordPhase(PostingPhase.BALANCES, saving - start);
+
+            if (!posted.isEmpty()) {
+                transactionPort.saveAll(posted);
+                posted.forEach(transaction -> balanceCheckpointer.recordPosted(transaction, accounts));
+                posted.forEach(accountViews::projectAfterCommit);
+            }
+            metrics.recordPhase(PostingPhase.SAVE, System.nanoTime() - saving);
+            return rejections;
+        }));
+    }
+
+    /**
+     * Rejects a transaction whose idempotency key was posted before, or earlier in the same group, instead of
+     * letting the key's unique constraint fail every transaction committed with it. Checked once the accounts
+     * are locked: a concurrent attempt of the same request locks the same accounts, so it has either committed
+     * its key by now or waits for this one.
+     */
+    private void checkNotPosted(Transaction transaction, Set<String> keys) {
+        IdempotencyKey key = transaction.getIdempotencyKey();
+        if (key != null && (!keys.add(key.key()) || idempotencyGuard.isPosted(key))) {
+            throw new DuplicateIdempotencyKeyException(key.key());
+        }
+    }
+
+    private List<RuntimeException> postOneByOne(List<Transaction> transactions, boolean atomic) {
+        if (atomic) {
+            throw new IllegalArgumentException("Atomic batches are not supported in in-memory posting mode");
+        }
+        List<RuntimeException> rejections = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            try {
+                transactionPort.save(transaction);
+                accountViews.projectAfterCommit(transaction);
+                rejections.add(null);
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                rejections.add(e);
+            }
+        }
+        return rejections;
+    }
+
+    private GroupCommitter groupCommitter() {
+        GroupCommitter committer = groupCommitter;
+        if (committer == null) {
+            synchronized (this) {
+                if (groupCommitter == null) {
+                    groupCommitter = new GroupCommitter(groupCommit, group -> commitTogether(group, false));
+                }
+                committer = groupCommitter;
+            }
+        }
+        return committer;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (groupCommitter != null) {
+            groupCommitter.close();
+        }
+    }
+
+    private Transaction toTransaction(PostTransactionCommand command) {
+        // 1. Create Transaction Domain Object
+        return toTransaction(Transaction.create(idGenerator.nextId(), command.description()), command);
+    }
 
+    static Transaction toTransaction(Transaction transaction, PostTransactionCommand command) {
         // 2. Add Postings and Validate
         for (PostingCommand postingCmd : command.postings()) {
             Money money = Money.of(postingCmd.amount(), postingCmd.currency());
@@ -61,25 +382,134 @@ public class LedgerApplicationService
             transaction.addPosting(posting);
         }
         transaction.validate(); // Business Rule: sum must be zero
+        return transaction;
+    }
+
+    private static RuntimeException rejectedInBatch(int index, RuntimeException cause) {
+        String message = "Transaction #" + index + " rejected: " + cause.getMessage();
+        return cause instanceof IllegalStateException
+                ? new IllegalStateException(message, cause)
+                : new IllegalArgumentException(message, cause);
+    }
+
+    /**
+     * The account rows holding the balances a transaction changes: for a striped account the picked stripe,
+     * or every stripe if the transaction decreases it.
+     */
+    private List<UUID> balanceRows(Transaction transaction) {
+        return transaction.getPostings().stream()
+                .flatMap(p -> balanceStripes.drainsStripes(p)
+                        ? balanceStripes.all(p.getAccountId()).stream()
+                        : Stream.of(balanceStripes.isStriped(p.getAccountId())
+                                ? balanceStripes.pick(p.getAccountId(), transaction.getId())
+                                : p.getAccountId()))
+                .toList();
+    }
+
+    /**
+     * The stripes of the striped accounts the transaction checkpoints: only a transaction holding all of them
+     * reads a logical balance that isn't moving.
+     */
+    private List<UUID> checkpointRows(Transaction transaction) {
+        return transaction.getPostings().stream()
+                .map(Posting::getAccountId)
+                .filter(balanceStripes::isStriped)
+                .distinct()
+                .filter(accountId -> balanceCheckpointer.isDue(accountId, transaction))
+                .flatMap(accountId -> balanceStripes.all(accountId).stream())
+                .toList();
+    }
 
-        // 3. Update Accounts (Atomic balance update)
+    /**
+     * Applies the postings to the rows returned by {@link #balanceRows}, which the working set must hold: read
+     * in one round trip with every other row the database transaction touches, locked in a deterministic (id)
+     * order unless optimistic.
+     */
+    private void applyPostings(Transaction transaction, AccountWorkingSet accounts) {
         for (Posting posting : transaction.getPostings()) {
-            Account account = accountPort.loadLocked(posting.getAccountId())
-                    .orElseThrow(() -> new IllegalArgumentException("Account not found: " + posting.getAccountId()));
+            if (balanceStripes.isStriped(posting.getAccountId())) {
+                postToStripes(transaction.getId(), posting, accounts);
+            } else {
+                accounts.post(posting.getAccountId(), posting);
+            }
+        }
+    }
 
-            account.postPosting(posting);
-            accountPort.save(account);
+    private void applyNetDebits(Transaction transaction) {
+        Currency currency = transaction.getPostings().get(0).getAmount().currency();
+
+        // One conditional update per balance row, issued in row id order so that concurrent
+        // transactions take the row locks held by their updates in the same order.
+        Map<UUID, Money> netDebitByRow = new TreeMap<>();
+        for (Posting posting : transaction.getPostings()) {
+            UUID accountId = posting.getAccountId();
+            UUID rowId = balanceStripes.isStriped(accountId)
+                    ? balanceStripes.pick(accountId, transaction.getId())
+                    : accountId;
+            Money amount = posting.getAmount();
+            netDebitByRow.merge(rowId, posting.getType() == Posting.Type.DEBIT
+                    ? amount
+                    : Money.zero(currency).subtract(amount), Money::add);
         }
 
-        // 4. Save Transaction
-        transactionPort.save(transaction);
+        netDebitByRow.forEach((rowId, netDebit) -> {
+            if (accountLocks.applyNetDebit(rowId, netDebit)) {
+                return;
+            }
+            throw rejectedNetDebit(rowId, currency);
+        });
+    }
 
-        return transaction.getId();
+    private RuntimeException rejectedNetDebit(UUID accountId, Currency currency) {
+        // A conditional update doesn't say why it matched no row, only this failure path reads the account
+        Account account = accountPort.load(accountId)
+                .orElseThrow(() -> new IllegalArgumentException("Account not found: " + accountId));
+        if (!account.getBalance().currency().equals(currency)) {
+            return new IllegalArgumentException("Posting currency mismatch");
+        }
+        return new InsufficientFundsException();
+    }
+
+    private void postToStripes(UUID transactionId, Posting posting, AccountWorkingSet accounts) {
+        UUID accountId = posting.getAccountId();
+        if (!balanceStripes.drainsStripes(posting)) {
+            accounts.post(balanceStripes.pick(accountId, transactionId), posting);
+            return;
+        }
+
+        // Decreasing a striped balance is checked against the logical balance: every stripe was locked
+        // up front, drain them one after another.
+        List<UUID> stripeIds = balanceStripes.all(accountId);
+        Money available = Money.zero(posting.getAmount().currency());
+        for (UUID id : stripeIds) {
+            available = available.add(accounts.get(id).getBalance());
+        }
+        long remaining = posting.getAmount().minorUnits();
+        if (available.minorUnits() < remaining) {
+            throw new InsufficientFundsException();
+        }
+
+        for (UUID id : stripeIds) {
+            long share = Math.min(accounts.get(id).getBalance().minorUnits(), remaining);
+            if (share > 0) {
+                accounts.post(id, new Posting(accountId, new Money(share, posting.getAmount().currency()),
+                        posting.getType()));
+                remaining -= share;
+            }
+        }
     }
 
     @Override
-    @Transactional
     public UUID transferFunds(TransferFundsCommand command) {
+        return transferFunds(command, null);
+    }
+
+    @Override
+    public UUID transferFunds(TransferFundsCommand command, String idempotencyKey) {
+        return measured("transfer", () -> transfer(command, idempotencyKey));
+    }
+
+    private UUID transfer(TransferFundsCommand command, String idempotencyKey) {
         // Construct the Postings
         PostingCommand creditSource = new PostingCommand(
                 command.fromAccountId(),
@@ -92,9 +522,11 @@ public class LedgerApplicationService
         // Always apply fee and route to Company Revenue System Account
         UUID revenueAccountId = com.mahmoud.ledger.domain.model.SystemAccounts.REVENUE_ACCOUNT_ID;
 
-        // Fee Logic: 10% to Revenue, 90% to Dest
-        BigDecimal feeAmount = command.amount().multiply(new java.math.BigDecimal("0.10"));
-        BigDecimal destAmount = command.amount().subtract(feeAmount);
+        // Fee Logic: 10% to Revenue (rounded half-even to whole minor units), the rest to Dest
+        Money amount = Money.of(command.amount(), command.currency());
+        Money fee = amount.fraction(1, 10);
+        BigDecimal feeAmount = fee.amount();
+        BigDecimal destAmount = amount.subtract(fee).amount();
 
         PostingCommand debitDest = new PostingCommand(
                 command.toAccountId(),
@@ -115,12 +547,21 @@ public class LedgerApplicationService
                 command.description() != null ? command.description() : "Transfer",
                 postings);
 
-        return postTransaction(txCommand);
+        return postIdempotently(txCommand, idempotencyKey(idempotencyKey, "transfer",
+                command.fromAccountId() + ">" + command.toAccountId(), amount, command.description()));
     }
 
     @Override
-    @Transactional
     public UUID depositFunds(DepositFundsCommand command) {
+        return depositFunds(command, null);
+    }
+
+    @Override
+    public UUID depositFunds(DepositFundsCommand command, String idempotencyKey) {
+        return measured("deposit", () -> deposit(command, idempotencyKey));
+    }
+
+    private UUID deposit(DepositFundsCommand command, String idempotencyKey) {
         UUID genesisId = com.mahmoud.ledger.domain.model.SystemAccounts.GENESIS_ACCOUNT_ID;
 
         PostingCommand creditGenesis = new PostingCommand(
@@ -139,6 +580,18 @@ public class LedgerApplicationService
                 command.description() != null ? command.description() : "Deposit",
                 java.util.List.of(creditGenesis, debitTarget));
 
-        return postTransaction(txCommand);
+        return postIdempotently(txCommand, idempotencyKey(idempotencyKey, "deposit",
+                command.accountId().toString(), Money.of(command.amount(), command.currency()),
+                command.description()));
+    }
+
+    private static IdempotencyKey idempotencyKey(String key, String operation, String accounts, Money amount,
+            String description) {
+        if (key == null) {
+            return null;
+        }
+        // The amount in minor units, so that a retry sending 10 for 10.00 is the same request
+        return IdempotencyKey.forRequest(key, String.join(":", operation, accounts, Long.toString(amount.minorUnits()),
+                amount.currency().getCurrencyCode(), String.valueOf(description)));
     }
 }
@@ -0,0 +1,29 @@
+package com.mahmoud.ledger.application.service;
+
+import com.mahmoud.ledger.application.port.in.LedgerEvent;
+import com.mahmoud.ledger.application.port.in.RetrieveLedgerEventsUseCase;
+import com.mahmoud.ledger.application.port.out.OutboxPort;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class LedgerEventService implements RetrieveLedgerEventsUseCase {
+
+    static final int MAX_LIMIT = 1000;
+
+    private final OutboxPort outboxPort;
+
+    @Override
+    public List<LedgerEvent> getEvents(long afterSequence, int limit) {
+        if (afterSequence < 0) {
+            throw new IllegalArgumentException("Sequence cannot be negative");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        return outboxPort.loadEvents(afterSequence, limit);
+    }
+}
@@ -0,0 +1,103 @@
+package com.mahmoud.ledger.application.service;
+
+import com.mahmoud.ledger.application.port.in.LedgerEvent;
+import com.mahmoud.ledger.application.port.out.LedgerEventSink;
+import com.mahmoud.ledger.application.port.out.OutboxPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Numbers the outbox and publishes it to the sink. A single relay thread numbers the entries committed since
+ * its last batch, then takes the lowest numbered ones, publishes them, and only then deletes them, so the outbox
+ * holds just the entries not published yet, and an entry is published again, under the same number, rather than
+ * lost when the sink fails or the service stops in between.
+ * <p>
+ * Numbering is left to the relay so that postings don't wait on each other for a number: the sequence follows
+ * the order in which the relay finds transactions committed, and every number is visible before the next one.
+ */
+public class OutboxRelay implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxSettings settings;
+    private final OutboxPort outbox;
+    private final LedgerEventSink sink;
+    private final Thread relay;
+    private volatile boolean running = true;
+    private volatile long published;
+    private volatile long lastSequence;
+
+    public OutboxRelay(OutboxSettings settings, OutboxPort outbox, LedgerEventSink sink) {
+        this.settings = settings;
+        this.outbox = outbox;
+        this.sink = sink;
+        this.relay = new Thread(this::run, "ledger-outbox-relay");
+        this.relay.setDaemon(true);
+        if (settings.enabled()) {
+            relay.start();
+        }
+    }
+
+    /**
+     * Numbers new outbox entries, then publishes and deletes one batch of the lowest numbered ones.
+     *
+     * @return entries published
+     */
+    int relayBatch() {
+        outbox.numberPending(settings.batchSize());
+        List<LedgerEvent> batch = outbox.loadPending(settings.batchSize());
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        sink.publish(batch);
+        long through = batch.get(batch.size() - 1).sequence();
+        outbox.deletePublished(through);
+        published += batch.size();
+        lastSequence = through;
+        return batch.size();
+    }
+
+    /**
+     * Outbox entries published since start-up.
+     */
+    public long published() {
+        return published;
+    }
+
+    /**
+     * Sequence of the last entry published since start-up, 0 before the first.
+     */
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                // A full batch suggests more are waiting
+                if (relayBatch() < settings.batchSize()) {
+                    Thread.sleep(settings.pollInterval().toMillis());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Publishing the outbox failed, retrying in {}", settings.pollInterval(), e);
+                try {
+                    Thread.sleep(settings.pollInterval().toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        relay.interrupt();
+    }
+}
@@ -0,0 +1,22 @@
+package com.mahmoud.ledger.application.service;
+
+import java.time.Duration;
+
+/**
+ * @param enabled      whether posted transactions are numbered and written to the outbox
+ * @param batchSize    outbox entries published and deleted together
+ * @param pollInterval how long the relay waits before looking again once the outbox is drained
+ */
+public record OutboxSettings(boolean enabled, int batchSize, Duration pollInterval) {
+
+    public OutboxSettings {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("Outbox batch size must be positive");
+        if (pollInterval.isNegative() || pollInterval.isZero())
+            throw new IllegalArgumentException("Outbox poll interval must be positive");
+    }
+
+    public static OutboxSettings disabled() {
+        return new OutboxSettings(false, 1, Duration.ofSeconds(1));
+    }
+}
@@ -0,0 +1,26 @@
+package com.mahmoud.ledger.application.service;
+
+/**
+ * How posting balances are written to the account store.
+ */
+public enum PostingMode {
+    /**
+     * Lock the accounts ({@code SELECT ... FOR UPDATE}), apply the postings in memory, save.
+     */
+    PESSIMISTIC,
+    /**
+     * One conditional {@code UPDATE ... SET balance = balance + delta} per account, without reading it first.
+     * The row count tells whether the balance would have gone negative.
+     */
+    ATOMIC_DELTA,
+    /**
+     * Read the accounts without locks, apply the postings in memory, save with a version check.
+     * A concurrent change fails the commit and the whole posting is re-read and re-applied.
+     */
+    OPTIMISTIC,
+    /**
+     * Balances are owned by an in-process engine behind the ports: {@code TransactionPort.save} applies the
+     * postings atomically and journals the transaction, without any database transaction or row lock.
+     */
+    IN_MEMORY
+}
@@ -0,0 +1,21 @@
+package com.mahmoud.ledger.application.service;
+
+/**
+ * @param enabled        whether account views are kept; without, each view is built from the ledger when read
+ * @param recentPostings newest postings kept per view
+ * @param queueCapacity  committed transactions waiting to be projected, beyond which their accounts' views are
+ *                       dropped and rebuilt when next read
+ */
+public record ReadModelSettings(boolean enabled, int recentPostings, int queueCapacity) {
+
+    public ReadModelSettings {
+        if (recentPostings < 1 || recentPostings > StatementService.MAX_LIMIT)
+            throw new IllegalArgumentException("Recent postings must be between 1 and " + StatementService.MAX_LIMIT);
+        if (queueCapacity < 1)
+            throw new IllegalArgumentException("Read model queue capacity must be positive");
+    }
+
+    public static ReadModelSettings disabled() {
+        return new ReadModelSettings(false, 10, 1);
+    }
+}
@@ -0,0 +1,239 @@
+package com.mahmoud.ledger.application.service;
+
+import com.mahmoud.ledger.application.port.in.BalanceMismatch;
+import com.mahmoud.ledger.application.port.in.ReconcileLedgerUseCase;
+import com.mahmoud.ledger.application.port.in.ReconciliationReport;
+import com.mahmoud.ledger.application.port.in.ReconciliationStatus;
+import com.mahmoud.ledger.application.port.out.ReconciliationPort;
+import com.mahmoud.ledger.application.port.out.ReconciliationPort.AccountTotals;
+import com.mahmoud.ledger.domain.model.SystemAccounts;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Trial balance of the whole ledger: every account's stored balance must equal the net of its postings under
+ * the Debit/Credit sign rules of its type, and the postings of each currency must net to zero.
+ * <p>
+ * The accounts are cut into ranges of about the same size, at account ids chosen when the run starts, and the
+ * ranges are checked in parallel on a fork-join pool, each by aggregate queries the database streams back.
+ * A range's outcome is recorded as soon as it is checked, so an interrupted or failed run resumes where it
+ * stopped; a throttle on accounts checked per second keeps the job from starving live traffic.
+ */
+@Service
+public class ReconciliationService implements ReconcileLedgerUseCase {
+
+    private static final Logger log = LoggerFactory.getLogger(ReconciliationService.class);
+
+    private static final UUID FIRST_ID = new UUID(0, 0);
+
+    private final ReconciliationPort reconciliationPort;
+    private final ReconciliationSettings settings;
+    // Balance row id -> logical account, for the stripes of striped accounts
+    private final Map<UUID, UUID> stripeOwners = new HashMap<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ledger-reconciliation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReconciliationService(ReconciliationPort reconciliationPort, ReconciliationSettings settings,
+            BalanceStripes balanceStripes) {
+        this.reconciliationPort = reconciliationPort;
+        this.settings = settings;
+        for (UUID accountId : List.of(SystemAccounts.GENESIS_ACCOUNT_ID, SystemAccounts.REVENUE_ACCOUNT_ID)) {
+            balanceStripes.all(accountId).forEach(rowId -> stripeOwners.put(rowId, accountId));
+        }
+    }
+
+    @Override
+    public UUID startReconciliation() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A reconciliation is already running");
+        }
+        try {
+            UUID runId = openRun();
+            runner.execute(() -> {
+                try {
+                    reconcile(runId);
+                } finally {
+                    running.set(false);
+                }
+            });
+            return runId;
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    @Scheduled(cron = "${ledger.reconciliation.cron:-}")
+    void scheduledReconciliation() {
+        try {
+            startReconciliation();
+        } catch (IllegalStateException e) {
+            log.info("Skipping scheduled reconciliation: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public Optional<ReconciliationReport> getReconciliation(UUID runId) {
+        return reconciliationPort.loadRun(runId);
+    }
+
+    @Override
+    public Optional<ReconciliationReport> getLatestReconciliation() {
+        return reconciliationPort.loadLatestRun();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // A run stopped here stays RUNNING and resumes from its recorded ranges next time
+        runner.shutdownNow();
+    }
+
+    private UUID openRun() {
+        Optional<ReconciliationReport> unfinished = reconciliationPort.loadUnfinishedRun();
+        if (unfinished.isPresent() && unfinished.get().ranges() == settings.ranges()) {
+            return unfinished.get().runId();
+        }
+        if (unfinished.isPresent()) {
+            // Ranges recorded under another split can't be matched up, start over
+            reconciliationPort.finishRun(unfinished.get().runId(), ReconciliationStatus.FAILED, LocalDateTime.now());
+        }
+        // Cut on the leading 64 bits only: the stripes of a striped account differ in the trailing ones and must
+        // land in the same range
+        List<UUID> splitPoints = reconciliationPort.accountSplitPoints(settings.ranges()).stream()
+                .map(id -> new UUID(id.getMostSignificantBits(), 0))
+                .toList();
+        return reconciliationPort.createRun(LocalDateTime.now(), settings.ranges(), splitPoints);
+    }
+
+    void reconcile(UUID runId) {
+        Set<Integer> completed = reconciliationPort.completedRanges(runId);
+        List<UUID> splitPoints = reconciliationPort.splitPoints(runId);
+        log.info("Reconciliation {} checking {} of {} account ranges", runId,
+                settings.ranges() - completed.size(), settings.ranges());
+        Throttle throttle = new Throttle(settings.accountsPerSecond());
+        ForkJoinPool pool = new ForkJoinPool(settings.parallelism());
+        long start = System.nanoTime();
+        try {
+            pool.invoke(new RangeTask(runId, splitPoints, 0, settings.ranges(), completed, throttle));
+            reconciliationPort.finishRun(runId, ReconciliationStatus.COMPLETED, LocalDateTime.now());
+            ReconciliationReport report = reconciliationPort.loadRun(runId).orElseThrow();
+            log.info("Reconciliation {} completed in {} ms: {} accounts, {} mismatches, net by currency {}",
+                    runId, (System.nanoTime() - start) / 1_000_000, report.accountsChecked(),
+                    report.mismatchCount(), report.netDebitByCurrency());
+        } catch (RuntimeException e) {
+            log.error("Reconciliation {} failed, it resumes on the next run", runId, e);
+            reconciliationPort.finishRun(runId, ReconciliationStatus.FAILED, LocalDateTime.now());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void checkRange(UUID runId, List<UUID> splitPoints, int range, Throttle throttle) {
+        long[] accounts = { 0 };
+        List<BalanceMismatch> mismatches = new ArrayList<>();
+        Map<String, BigDecimal> netDebitByCurrency = new HashMap<>();
+        // Striped accounts are only complete once all their rows have been seen
+        Map<UUID, AccountTotals> striped = new HashMap<>();
+
+        UUID upperBound = range + 1 < settings.ranges() ? lowerBound(splitPoints, range + 1) : null;
+        reconciliationPort.aggregateRange(lowerBound(splitPoints, range), upperBound,
+                totals -> {
+                    UUID owner = stripeOwners.get(totals.accountId());
+                    if (owner != null) {
+                        AccountTotals row = new AccountTotals(owner, totals.type(), totals.currency(),
+                                totals.storedBalance(), totals.netDebit());
+                        striped.merge(owner, row, (a, b) -> new AccountTotals(owner, a.type(), a.currency(),
+                                a.storedBalance().add(b.storedBalance()), a.netDebit().add(b.netDebit())));
+                        return;
+                    }
+                    accounts[0]++;
+                    check(totals).ifPresent(mismatches::add);
+                },
+                (currency, netDebit) -> netDebitByCurrency.merge(currency, netDebit, BigDecimal::add));
+        for (AccountTotals totals : striped.values()) {
+            accounts[0]++;
+            check(totals).ifPresent(mismatches::add);
+        }
+
+        reconciliationPort.saveRange(runId, range, accounts[0], netDebitByCurrency, mismatches);
+        try {
+            throttle.acquire(accounts[0]);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reconciliation interrupted", e);
+        }
+    }
+
+    private static Optional<BalanceMismatch> check(AccountTotals totals) {
+        BigDecimal posted = totals.type().isDebitNormal() ? totals.netDebit() : totals.netDebit().negate();
+        if (posted.compareTo(totals.storedBalance()) == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new BalanceMismatch(totals.accountId(), totals.currency(), totals.storedBalance(),
+                posted));
+    }
+
+    /**
+     * First id of a range. Ranges past the last split point are empty, but for the last range, which is open
+     * ended.
+     */
+    private static UUID lowerBound(List<UUID> splitPoints, int range) {
+        int point = Math.min(range, splitPoints.size());
+        return point == 0 ? FIRST_ID : splitPoints.get(point - 1);
+    }
+
+    /**
+     * Halves its share of the ranges until a single one is left, which it checks.
+     */
+    private final class RangeTask extends RecursiveAction {
+        private final UUID runId;
+        private final List<UUID> splitPoints;
+        private final int from;
+        private final int to;
+        private final Set<Integer> completed;
+        private final Throttle throttle;
+
+        private RangeTask(UUID runId, List<UUID> splitPoints, int from, int to, Set<Integer> completed,
+                Throttle throttle) {
+            this.runId = runId;
+            this.splitPoints = splitPoints;
+            this.from = from;
+            this.to = to;
+            this.completed = completed;
+            this.throttle = throttle;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RangeTask(runId, splitPoints, from, middle, completed, throttle),
+                        new RangeTask(runId, splitPoints, middle, to, completed, throttle));
+            } else if (!completed.contains(from)) {
+                checkRange(runId, splitPoints, from, throttle);
+            }
+        }
+    }
+}
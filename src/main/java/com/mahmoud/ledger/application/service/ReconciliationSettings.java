@@ -0,0 +1,18 @@
+package com.mahmoud.ledger.application.service;
+
+/**
+ * @param ranges            account id ranges the ledger is split into, each checked and recorded on its own
+ * @param parallelism       ranges checked at the same time
+ * @param accountsPerSecond most accounts checked per second over all ranges, 0 for no limit
+ */
+public record ReconciliationSettings(int ranges, int parallelism, int accountsPerSecond) {
+
+    public ReconciliationSettings {
+        if (ranges < 1 || ranges > 65536)
+            throw new IllegalArgumentException("Reconciliation ranges must be between 1 and 65536");
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Reconciliation parallelism must be positive");
+        if (accountsPerSecond < 0)
+            throw new IllegalArgumentException("Reconciliation rate cannot be negative");
+    }
+}
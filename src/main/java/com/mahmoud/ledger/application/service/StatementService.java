@@ -0,0 +1,43 @@
+package com.mahmoud.ledger.application.service;
+
+import com.mahmoud.ledger.application.port.in.RetrieveStatementUseCase;
+import com.mahmoud.ledger.application.port.in.StatementCursor;
+import com.mahmoud.ledger.application.port.in.StatementPage;
+import com.mahmoud.ledger.application.port.in.StatementQuery;
+import com.mahmoud.ledger.application.port.out.AccountPort;
+import com.mahmoud.ledger.application.port.out.StatementPort;
+import com.mahmoud.ledger.domain.model.StatementEntry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class StatementService implements RetrieveStatementUseCase {
+
+    static final int MAX_LIMIT = 500;
+
+    private final AccountPort accountPort;
+    private final StatementPort statementPort;
+
+    @Override
+    public StatementPage getStatement(StatementQuery query) {
+        if (query.limit() < 1 || query.limit() > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        if (accountPort.load(query.accountId()).isEmpty()) {
+            throw new IllegalArgumentException("Account not found");
+        }
+
+        // One extra row tells whether another page follows
+        List<StatementEntry> entries = statementPort.loadStatement(query.accountId(), query.after(),
+                query.limit() + 1);
+        if (entries.size() <= query.limit()) {
+            return new StatementPage(entries, null);
+        }
+        List<StatementEntry> page = entries.subList(0, query.limit());
+        StatementEntry last = page.get(page.size() - 1);
+        return new StatementPage(List.copyOf(page), new StatementCursor(last.postedAt(), last.postingId()));
+    }
+}
@@ -0,0 +1,16 @@
+package com.mahmoud.ledger.application.service;
+
+/**
+ * @param workers          threads posting queued submissions
+ * @param queueCapacity    submissions waiting for a worker before new ones are refused
+ * @param retainedStatuses outcomes of finished submissions kept for status queries
+ */
+public record SubmissionSettings(int workers, int queueCapacity, int retainedStatuses) {
+
+    public SubmissionSettings {
+        if (workers < 1 || queueCapacity < 1)
+            throw new IllegalArgumentException("Submission workers and queue capacity must be positive");
+        if (retainedStatuses < 0)
+            throw new IllegalArgumentException("Retained submission statuses cannot be negative");
+    }
+}
@@ -0,0 +1,35 @@
+package com.mahmoud.ledger.application.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces out work to a steady rate: a caller pays for the permits it takes by sleeping until the rate allows
+ * them. Idle time is not saved up, so a pause is never followed by a burst.
+ */
+final class Throttle {
+
+    private final double nanosPerPermit;
+    private long nextFreeNanos;
+
+    /**
+     * @param permitsPerSecond 0 for no limit
+     */
+    Throttle(int permitsPerSecond) {
+        this.nanosPerPermit = permitsPerSecond == 0 ? 0 : TimeUnit.SECONDS.toNanos(1) / (double) permitsPerSecond;
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    void acquire(long permits) throws InterruptedException {
+        if (nanosPerPermit == 0 || permits <= 0) {
+            return;
+        }
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long start = Math.max(now, nextFreeNanos);
+            nextFreeNanos = start + (long) (permits * nanosPerPermit);
+            waitNanos = nextFreeNanos - now;
+        }
+        TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+}
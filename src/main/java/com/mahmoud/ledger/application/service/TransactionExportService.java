@@ -0,0 +1,33 @@
+package com.mahmoud.ledger.application.service;
+
+import com.mahmoud.ledger.application.port.in.ExportQuery;
+import com.mahmoud.ledger.application.port.in.ExportSummary;
+import com.mahmoud.ledger.application.port.in.ExportTransactionsUseCase;
+import com.mahmoud.ledger.application.port.in.ExportedPosting;
+import com.mahmoud.ledger.application.port.out.TransactionExportPort;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+@Service
+@RequiredArgsConstructor
+public class TransactionExportService implements ExportTransactionsUseCase {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionExportService.class);
+
+    private final TransactionExportPort transactionExportPort;
+
+    @Override
+    public ExportSummary exportTransactions(ExportQuery query, Consumer<ExportedPosting> sink) {
+        long start = System.nanoTime();
+        long rows = transactionExportPort.streamPostings(query.from(), query.to(), sink);
+        ExportSummary summary = new ExportSummary(rows, Duration.ofNanos(System.nanoTime() - start));
+        log.info("Exported {} postings from [{}, {}) in {} ms ({} rows/s)", rows, query.from(), query.to(),
+                summary.elapsed().toMillis(), Math.round(summary.rowsPerSecond()));
+        return summary;
+    }
+}
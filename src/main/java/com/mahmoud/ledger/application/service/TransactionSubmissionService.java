@@ -0,0 +1,136 @@
+package com.mahmoud.ledger.application.service;
+
+import com.mahmoud.ledger.application.port.in.PostTransactionCommand;
+import com.mahmoud.ledger.application.port.in.PostTransactionUseCase;
+import com.mahmoud.ledger.application.port.in.SubmitTransactionUseCase;
+import com.mahmoud.ledger.application.port.in.SubmissionStatus;
+import com.mahmoud.ledger.application.port.in.TransactionStatus;
+import com.mahmoud.ledger.application.port.out.TransactionPort;
+import com.mahmoud.ledger.domain.model.IdGenerator;
+import com.mahmoud.ledger.domain.model.Transaction;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fire-and-forget posting: a submission is validated and queued, and a pool of workers posts it later, so the
+ * submitting thread never waits for row locks. The queue is bounded; once it is full new submissions are
+ * refused rather than queued without limit. Submissions live in memory only: those still queued when the
+ * process stops are lost, and outcomes are remembered for the most recent submissions only. A submission
+ * whose outcome was forgotten, or whose posting failed, is reported as posted if the ledger holds it.
+ */
+@Service
+public class TransactionSubmissionService implements SubmitTransactionUseCase {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionSubmissionService.class);
+
+    private final PostTransactionUseCase postTransactionUseCase;
+    private final TransactionPort transactionPort;
+    private final IdGenerator idGenerator;
+    private final ThreadPoolExecutor workers;
+    private final Map<UUID, TransactionStatus> pending = new ConcurrentHashMap<>();
+    // Finished submissions, oldest first
+    private final Map<UUID, TransactionStatus> finished;
+
+    public TransactionSubmissionService(PostTransactionUseCase postTransactionUseCase, TransactionPort transactionPort,
+            SubmissionSettings settings, IdGenerator idGenerator) {
+        this.postTransactionUseCase = postTransactionUseCase;
+        this.transactionPort = transactionPort;
+        this.idGenerator = idGenerator;
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(settings.workers(), settings.workers(), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(settings.queueCapacity()), runnable -> {
+                    Thread thread = new Thread(runnable, "ledger-submission-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.finished = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, TransactionStatus> eldest) {
+                return size() > settings.retainedStatuses();
+            }
+        };
+    }
+
+    @Override
+    public UUID submitTransaction(PostTransactionCommand command) {
+        // Rejected up front if posting would reject it whatever the balances
+        Transaction transaction = LedgerApplicationService.toTransaction(
+                Transaction.create(idGenerator.nextId(), command.description()), command);
+        UUID transactionId = transaction.getId();
+
+        pending.put(transactionId, TransactionStatus.pending(transactionId));
+        try {
+            workers.execute(() -> post(transactionId, command));
+        } catch (RejectedExecutionException e) {
+            pending.remove(transactionId);
+            throw new RejectedExecutionException("Submission queue is full", e);
+        }
+        return transactionId;
+    }
+
+    @Override
+    public Optional<TransactionStatus> getTransactionStatus(UUID transactionId) {
+        TransactionStatus status = pending.get(transactionId);
+        if (status != null) {
+            return Optional.of(status);
+        }
+        synchronized (finished) {
+            status = finished.get(transactionId);
+        }
+        if (status != null && status.status() != SubmissionStatus.FAILED) {
+            return Optional.of(status);
+        }
+        // Forgotten since, or failed in a way that may have posted it all the same
+        if (transactionPort.exists(transactionId)) {
+            return Optional.of(TransactionStatus.posted(transactionId));
+        }
+        return Optional.ofNullable(status);
+    }
+
+    /**
+     * Submissions waiting for a worker.
+     */
+    public int queued() {
+        return workers.getQueue().size();
+    }
+
+    private void post(UUID transactionId, PostTransactionCommand command) {
+        TransactionStatus status;
+        try {
+            postTransactionUseCase.postTransaction(transactionId, command);
+            status = TransactionStatus.posted(transactionId);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            status = TransactionStatus.rejected(transactionId, e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Posting submitted transaction {} failed", transactionId, e);
+            status = TransactionStatus.failed(transactionId, "Posting failed: " + e.getMessage());
+        }
+        synchronized (finished) {
+            finished.put(transactionId, status);
+        }
+        pending.remove(transactionId);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        // Let the workers drain what is queued for a while, then give up on the rest
+        workers.shutdown();
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("{} submitted transactions were not posted before shutdown",
+                    workers.shutdownNow().size());
+        }
+    }
+}
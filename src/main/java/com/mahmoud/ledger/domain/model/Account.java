@@ -1,65 +1,74 @@
 package com.mahmoud.ledger.domain.model;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Currency;
 import java.util.UUID;
 
 public class Account {
     private final UUID id;
     private final String name;
     private final AccountType type;
-    private Money balance;
+    private final Currency currency;
+    // Balance in minor units of the currency, updated in place by postings
+    private long balance;
     private AccountStatus status;
     private final LocalDateTime createdAt;
+    // Version of the stored state this object was loaded from, null until first persisted
+    private final Long version;
 
     public Account(UUID id, String name, AccountType type, Money balance, AccountStatus status,
             LocalDateTime createdAt) {
+        this(id, name, type, balance, status, createdAt, null);
+    }
+
+    public Account(UUID id, String name, AccountType type, Money balance, AccountStatus status,
+            LocalDateTime createdAt, Long version) {
         this.id = id;
         this.name = name;
         this.type = type;
-        this.balance = balance;
+        this.currency = balance.currency();
+        this.balance = balance.minorUnits();
         this.status = status;
         this.createdAt = createdAt;
+        this.version = version;
     }
 
     public static Account create(UUID id, String name, AccountType type, String currencyCode) {
         // Initialize with ZERO money in the given currency
-        return new Account(id, name, type, Money.of(BigDecimal.ZERO, currencyCode),
+        return new Account(id, name, type, Money.zero(Money.currency(currencyCode)),
                 AccountStatus.ACTIVE,
                 LocalDateTime.now());
     }
 
     public void postPosting(Posting posting) {
-        if (!posting.getAmount().currency().equals(this.balance.currency())) {
+        Money amount = posting.getAmount();
+        if (!amount.currency().equals(this.currency)) {
             throw new IllegalArgumentException("Posting currency mismatch");
         }
 
-        // Update balance logic based on Account Type
-        if (type == AccountType.ASSET || type == AccountType.EXPENSE) {
-            // Normal (Asset) Behavior: Debit +, Credit -
-            if (posting.getType() == Posting.Type.DEBIT) {
-                this.balance = this.balance.add(posting.getAmount());
-            } else {
-                Money newBalance = this.balance.subtract(posting.getAmount());
-                if (newBalance.amount().signum() < 0) {
-                    throw new IllegalStateException("Insufficient funds");
-                }
-                this.balance = newBalance;
-            }
+        if (isIncreasedBy(posting.getType())) {
+            this.balance = Money.addExact(this.balance, amount.minorUnits());
         } else {
-            // Inverted (Equity/Liability) Behavior: Credit +, Debit -
-            if (posting.getType() == Posting.Type.CREDIT) {
-                this.balance = this.balance.add(posting.getAmount());
-            } else {
-                Money newBalance = this.balance.subtract(posting.getAmount());
-                if (newBalance.amount().signum() < 0) {
-                    throw new IllegalStateException("Insufficient funds");
-                }
-                this.balance = newBalance;
+            long newBalance = Money.subtractExact(this.balance, amount.minorUnits());
+            if (newBalance < 0) {
+                throw new InsufficientFundsException();
             }
+            this.balance = newBalance;
         }
     }
 
+    /**
+     * Whether a posting of the given type increases this account's balance.
+     */
+    public boolean isIncreasedBy(Posting.Type postingType) {
+        if (type.isDebitNormal()) {
+            // Normal (Asset) Behavior: Debit +, Credit -
+            return postingType == Posting.Type.DEBIT;
+        }
+        // Inverted (Equity/Liability) Behavior: Credit +, Debit -
+        return postingType == Posting.Type.CREDIT;
+    }
+
     public UUID getId() {
         return id;
     }
@@ -73,7 +82,7 @@ public class Account {
     }
 
     public Money getBalance() {
-        return balance;
+        return new Money(balance, currency);
     }
 
     public AccountStatus getStatus() {
@@ -83,4 +92,8 @@ public class Account {
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
+
+    public Long getVersion() {
+        return version;
+    }
 }
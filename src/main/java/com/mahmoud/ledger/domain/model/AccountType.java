@@ -5,5 +5,13 @@ public enum AccountType {
     LIABILITY,
     EQUITY,
     REVENUE,
-    EXPENSE
+    EXPENSE;
+
+    /**
+     * Debit-normal accounts (Asset, Expense) increase with a Debit and decrease with a Credit,
+     * all other types behave the other way around.
+     */
+    public boolean isDebitNormal() {
+        return this == ASSET || this == EXPENSE;
+    }
 }
@@ -0,0 +1,12 @@
+package com.mahmoud.ledger.domain.model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * The balance of an account counting every posting timestamped at or before {@code asOf}.
+ *
+ * @param postings number of those postings
+ */
+public record BalanceCheckpoint(UUID accountId, LocalDateTime asOf, Money balance, long postings) {
+}
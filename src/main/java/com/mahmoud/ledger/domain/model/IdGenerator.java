@@ -0,0 +1,26 @@
+package com.mahmoud.ledger.domain.model;
+
+import java.util.UUID;
+
+/**
+ * Source of the ids of new accounts and transactions.
+ */
+@FunctionalInterface
+public interface IdGenerator {
+
+    UUID nextId();
+
+    /**
+     * Version 4 ids: every insert lands on a random leaf of the primary key index.
+     */
+    static IdGenerator random() {
+        return UUID::randomUUID;
+    }
+
+    /**
+     * Version 7 ids, ordered by creation time: inserts append to the right edge of the primary key index.
+     */
+    static IdGenerator timeOrdered() {
+        return TimeOrderedIdGenerator.SHARED;
+    }
+}
@@ -0,0 +1,34 @@
+package com.mahmoud.ledger.domain.model;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * A client-chosen key identifying one request, with a hash of the request it was first used for: a retry
+ * carries the same key and the same request, another request under the same key is a client error.
+ */
+public record IdempotencyKey(String key, String requestHash) {
+
+    public static final int MAX_LENGTH = 255;
+
+    public IdempotencyKey {
+        if (key == null || key.isBlank())
+            throw new IllegalArgumentException("Idempotency key cannot be empty");
+        if (key.length() > MAX_LENGTH)
+            throw new IllegalArgumentException("Idempotency key longer than " + MAX_LENGTH + " characters");
+    }
+
+    /**
+     * @param request a canonical form of the request, equal for equal requests
+     */
+    public static IdempotencyKey forRequest(String key, String request) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(request.getBytes(StandardCharsets.UTF_8));
+            return new IdempotencyKey(key, HexFormat.of().formatHex(hash));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
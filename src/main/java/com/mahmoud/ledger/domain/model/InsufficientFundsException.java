@@ -0,0 +1,11 @@
+package com.mahmoud.ledger.domain.model;
+
+/**
+ * A posting would take an account's balance below zero.
+ */
+public class InsufficientFundsException extends IllegalStateException {
+
+    public InsufficientFundsException() {
+        super("Insufficient funds");
+    }
+}
@@ -2,31 +2,118 @@ package com.mahmoud.ledger.domain.model;
 
 import java.math.BigDecimal;
 import java.util.Currency;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An amount held as a whole number of the currency's minor units (cents for USD, yen for JPY).
+ * Arithmetic is exact and overflow-checked; {@link BigDecimal} only appears when converting from and to
+ * the API and the database.
+ */
+public record Money(long minorUnits, Currency currency) {
+
+    // Currency.getInstance validates and synchronizes on every call, the hot path looks codes up here
+    private static final ConcurrentMap<String, Currency> CURRENCIES = new ConcurrentHashMap<>();
+
+    public Money {
+        Objects.requireNonNull(currency, "currency");
+        if (currency.getDefaultFractionDigits() < 0) {
+            throw new IllegalArgumentException("Unsupported currency: " + currency.getCurrencyCode());
+        }
+    }
 
-public record Money(BigDecimal amount, Currency currency) {
     public static Money of(BigDecimal amount, String currencyCode) {
-        return new Money(amount, Currency.getInstance(currencyCode));
+        return of(amount, currency(currencyCode));
+    }
+
+    /**
+     * Converts a decimal amount, which must not have more decimal places than the currency has minor units.
+     */
+    public static Money of(BigDecimal amount, Currency currency) {
+        try {
+            return new Money(amount.movePointRight(currency.getDefaultFractionDigits()).longValueExact(), currency);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount " + amount.toPlainString() + " is not a whole number of "
+                    + currency.getCurrencyCode() + " minor units", e);
+        }
+    }
+
+    public static Money zero(Currency currency) {
+        return new Money(0, currency);
+    }
+
+    /**
+     * The interned instance for an ISO 4217 code.
+     */
+    public static Currency currency(String currencyCode) {
+        Currency currency = CURRENCIES.get(currencyCode);
+        return currency != null ? currency : CURRENCIES.computeIfAbsent(currencyCode, Currency::getInstance);
+    }
+
+    /**
+     * The decimal amount, for the API and database edges.
+     */
+    public BigDecimal amount() {
+        return BigDecimal.valueOf(minorUnits, currency.getDefaultFractionDigits());
     }
 
     public Money add(Money other) {
         if (!this.currency.equals(other.currency)) {
             throw new IllegalArgumentException("Cannot add money of different currencies");
         }
-        return new Money(this.amount.add(other.amount), this.currency);
+        return new Money(addExact(this.minorUnits, other.minorUnits), this.currency);
     }
 
     public Money subtract(Money other) {
         if (!this.currency.equals(other.currency)) {
             throw new IllegalArgumentException("Cannot subtract money of different currencies");
         }
-        return new Money(this.amount.subtract(other.amount), this.currency);
+        return new Money(subtractExact(this.minorUnits, other.minorUnits), this.currency);
+    }
+
+    /**
+     * {@code numerator / denominator} of this amount, rounded half-even to whole minor units.
+     */
+    public Money fraction(long numerator, long denominator) {
+        if (denominator <= 0) {
+            throw new IllegalArgumentException("Denominator must be positive");
+        }
+        long product;
+        try {
+            product = Math.multiplyExact(minorUnits, numerator);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount out of range", e);
+        }
+        long quotient = product / denominator;
+        long twiceRemainder = Math.abs(product % denominator) * 2;
+        if (twiceRemainder > denominator || (twiceRemainder == denominator && (quotient & 1) != 0)) {
+            quotient += Long.signum(product);
+        }
+        return new Money(quotient, currency);
     }
 
     public boolean isPositive() {
-        return amount.compareTo(BigDecimal.ZERO) > 0;
+        return minorUnits > 0;
     }
 
     public boolean isNegative() {
-        return amount.compareTo(BigDecimal.ZERO) < 0;
+        return minorUnits < 0;
+    }
+
+    static long addExact(long a, long b) {
+        try {
+            return Math.addExact(a, b);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount out of range", e);
+        }
+    }
+
+    static long subtractExact(long a, long b) {
+        try {
+            return Math.subtractExact(a, b);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount out of range", e);
+        }
     }
 }
@@ -30,6 +30,13 @@ public class Posting {
         this.type = type;
     }
 
+    /**
+     * The posting that undoes this one: same account and amount, opposite direction.
+     */
+    public Posting reversed() {
+        return new Posting(accountId, amount, type == Type.DEBIT ? Type.CREDIT : Type.DEBIT);
+    }
+
     public UUID getAccountId() {
         return accountId;
     }
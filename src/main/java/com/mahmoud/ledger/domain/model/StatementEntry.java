@@ -0,0 +1,11 @@
+package com.mahmoud.ledger.domain.model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One line of an account statement: a posting to the account together with its transaction.
+ */
+public record StatementEntry(UUID postingId, UUID transactionId, LocalDateTime postedAt, String description,
+        Money amount, Posting.Type type) {
+}
@@ -10,4 +10,17 @@ public final class SystemAccounts {
     public static final UUID GENESIS_ACCOUNT_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
     // Using a separate ID for Revenue (Company Wallet)
     public static final UUID REVENUE_ACCOUNT_ID = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+    /**
+     * Deterministic id of a balance stripe of a system account.
+     * Stripe 0 is the account itself, stripe N is stored in the clock-seq field:
+     * Genesis stripe 3 -> 00000000-0000-0000-0003-000000000001.
+     */
+    public static UUID stripeId(UUID accountId, int stripe) {
+        if (stripe < 0 || stripe > 0xFFFF) {
+            throw new IllegalArgumentException("Stripe index out of range: " + stripe);
+        }
+        return new UUID(accountId.getMostSignificantBits(),
+                accountId.getLeastSignificantBits() | ((long) stripe << 48));
+    }
 }
@@ -0,0 +1,38 @@
+package com.mahmoud.ledger.domain.model;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * RFC 9562 version 7 UUIDs: a 48-bit Unix millisecond timestamp, then a 12-bit counter within the millisecond
+ * (the {@code rand_a} field), then 62 random bits. Timestamp and counter are taken together from one atomic,
+ * so ids are strictly increasing within the process, also across threads and when the clock steps back; a
+ * counter overflowing its 12 bits carries into the timestamp, which then runs ahead of the clock for a while.
+ */
+public final class TimeOrderedIdGenerator implements IdGenerator {
+
+    static final TimeOrderedIdGenerator SHARED = new TimeOrderedIdGenerator(System::currentTimeMillis);
+
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANT = 0x8000_0000_0000_0000L;
+    private static final long RANDOM_MASK = 0x3FFF_FFFF_FFFF_FFFFL;
+
+    private final LongSupplier clock;
+    // Timestamp << 12 | counter of the last id handed out
+    private final AtomicLong last = new AtomicLong();
+
+    public TimeOrderedIdGenerator(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public UUID nextId() {
+        long now = clock.getAsLong() << 12;
+        long stamp = last.updateAndGet(previous -> Math.max(now, previous + 1));
+        long mostSignificant = (stamp >>> 12) << 16 | VERSION | (stamp & 0xFFF);
+        long leastSignificant = VARIANT | (ThreadLocalRandom.current().nextLong() & RANDOM_MASK);
+        return new UUID(mostSignificant, leastSignificant);
+    }
+}
@@ -1,7 +1,7 @@
 package com.mahmoud.ledger.domain.model;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -12,6 +12,8 @@ public class Transaction {
     private final LocalDateTime timestamp;
     private final String description;
     private final List<Posting> postings;
+    // Set when the transaction was requested under an idempotency key, stored together with it
+    private IdempotencyKey idempotencyKey;
 
     public Transaction(UUID id, String description, LocalDateTime timestamp) {
         this.id = id;
@@ -21,7 +23,12 @@ public class Transaction {
     }
 
     public static Transaction create(String description) {
-        return new Transaction(UUID.randomUUID(), description, LocalDateTime.now());
+        return create(IdGenerator.timeOrdered().nextId(), description);
+    }
+
+    public static Transaction create(UUID id, String description) {
+        // Microseconds is what the database keeps, so the stored timestamp compares equal to this one
+        return new Transaction(id, description, LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
     }
 
     public void addPosting(Posting posting) {
@@ -40,23 +47,29 @@ public class Transaction {
             throw new IllegalStateException("Transaction must have postings");
         }
 
-        // Sum debits and credits
-        // Convention: Debit is positive, Credit is negative (or vice versa for
-        // balancing)
-        // If we sum them up:
-        // sum = (Debit amounts) - (Credit amounts) should be ZERO.
-
-        Money total = postings.stream()
-                .map(p -> p.getType() == Posting.Type.DEBIT ? p.getAmount()
-                        : new Money(p.getAmount().amount().negate(), p.getAmount().currency()))
-                .reduce(new Money(BigDecimal.ZERO, postings.get(0).getAmount().currency()), Money::add);
+        // Debits minus credits, in minor units, must be zero. Summed over longs so validation allocates nothing.
+        long netDebit = 0;
+        for (int i = 0; i < postings.size(); i++) {
+            Posting posting = postings.get(i);
+            netDebit = posting.getType() == Posting.Type.DEBIT
+                    ? Money.addExact(netDebit, posting.getAmount().minorUnits())
+                    : Money.subtractExact(netDebit, posting.getAmount().minorUnits());
+        }
 
-        if (total.amount().compareTo(BigDecimal.ZERO) != 0) {
-            throw new IllegalStateException(
-                    "Transaction postings must sum to zero. Current imbalance: " + total.amount());
+        if (netDebit != 0) {
+            throw new IllegalStateException("Transaction postings must sum to zero. Current imbalance: "
+                    + new Money(netDebit, postings.get(0).getAmount().currency()).amount());
         }
     }
 
+    public void assignIdempotencyKey(IdempotencyKey idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public IdempotencyKey getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
     public UUID getId() {
         return id;
     }
@@ -0,0 +1,44 @@
+package com.mahmoud.ledger.infrastructure.archive;
+
+import com.mahmoud.ledger.application.port.in.ArchivedSegment;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Catalog entry of an archive segment file. Written in the database transaction that deletes the archived rows
+ * from the ledger tables, so a segment file without an entry is a leftover of a failed run.
+ */
+@Entity
+@Table(name = "archive_segments")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ArchiveSegmentJpaEntity {
+    @Id
+    private UUID id;
+
+    @Column(nullable = false)
+    private LocalDateTime periodStart;
+
+    @Column(nullable = false)
+    private LocalDateTime periodEnd;
+
+    @Column(nullable = false)
+    private String fileName;
+
+    private long transactions;
+    private long postings;
+    private long bytes;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+
+    public ArchivedSegment toDomain() {
+        return new ArchivedSegment(id, periodStart, periodEnd, fileName, transactions, postings, bytes, archivedAt);
+    }
+}
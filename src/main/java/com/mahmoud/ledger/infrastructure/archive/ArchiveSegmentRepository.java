@@ -0,0 +1,11 @@
+package com.mahmoud.ledger.infrastructure.archive;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface ArchiveSegmentRepository extends JpaRepository<ArchiveSegmentJpaEntity, UUID> {
+
+    List<ArchiveSegmentJpaEntity> findAllByOrderByPeriodStartAscArchivedAtAsc();
+}
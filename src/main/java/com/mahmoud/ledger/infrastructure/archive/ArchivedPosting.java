@@ -0,0 +1,44 @@
+package com.mahmoud.ledger.infrastructure.archive;
+
+import com.mahmoud.ledger.domain.model.Money;
+import com.mahmoud.ledger.domain.model.Posting;
+import com.mahmoud.ledger.domain.model.StatementEntry;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * A posting moved to an archive segment, flattened with its transaction.
+ *
+ * @param ledgerSequence the transaction's ledger sequence, 0 if it had none
+ */
+record ArchivedPosting(UUID postingId, UUID transactionId, long ledgerSequence, LocalDateTime postedAt,
+        String description, UUID accountId, Posting.Type type, Money amount) {
+
+    /**
+     * UUIDs in the order the database sorts them: by their bytes, unsigned.
+     */
+    static final Comparator<UUID> UUID_ORDER = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    /**
+     * Account statement order, newest first.
+     */
+    static final Comparator<StatementEntry> NEWEST_FIRST = Comparator
+            .comparing(StatementEntry::postedAt)
+            .thenComparing(StatementEntry::postingId, UUID_ORDER)
+            .reversed();
+
+    StatementEntry toStatementEntry() {
+        return new StatementEntry(postingId, transactionId, postedAt, description, amount, type);
+    }
+
+    /**
+     * Debits minus credits, in minor units.
+     */
+    long netDebit() {
+        return type == Posting.Type.DEBIT ? amount.minorUnits() : -amount.minorUnits();
+    }
+}
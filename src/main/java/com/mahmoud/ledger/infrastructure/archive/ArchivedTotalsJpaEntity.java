@@ -0,0 +1,32 @@
+package com.mahmoud.ledger.infrastructure.archive;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * What the archived postings of an account add up to, so whole-history sums and counts, and the reconciliation
+ * job, don't have to read the segments.
+ */
+@Entity
+@Table(name = "archived_posting_totals")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ArchivedTotalsJpaEntity {
+    @Id
+    private UUID accountId;
+
+    @Column(nullable = false)
+    private String currency;
+
+    // Debits minus credits
+    @Column(nullable = false)
+    private BigDecimal netDebit;
+
+    private long postings;
+}
@@ -0,0 +1,8 @@
+package com.mahmoud.ledger.infrastructure.archive;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.UUID;
+
+public interface ArchivedTotalsRepository extends JpaRepository<ArchivedTotalsJpaEntity, UUID> {
+}
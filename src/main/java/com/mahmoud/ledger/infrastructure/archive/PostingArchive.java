@@ -0,0 +1,280 @@
+package com.mahmoud.ledger.infrastructure.archive;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mahmoud.ledger.application.port.in.ArchivedSegment;
+import com.mahmoud.ledger.application.port.in.StatementCursor;
+import com.mahmoud.ledger.domain.model.Money;
+import com.mahmoud.ledger.domain.model.StatementEntry;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * The archived part of the ledger, read through by statements and balance history: the catalogued segment files,
+ * their sparse indexes held in memory, and a bounded cache of decompressed blocks.
+ * <p>
+ * Reads that combine the ledger tables with the archive run through {@link #read}, which repeats them if a
+ * segment was added meanwhile. Adding a segment commits the deletion of its rows from the tables under the write
+ * side of the same lock, so a read sees the rows either in the tables or in the archive, never in both or neither.
+ */
+public class PostingArchive implements AutoCloseable {
+
+    private record Segment(ArchivedSegment catalog, SegmentFile file) {
+    }
+
+    private record BlockKey(UUID segmentId, int block) {
+    }
+
+    // Latest period end first: once a page is full, the first segment ending before its oldest line ends the search
+    private static final Comparator<Segment> NEWEST_PERIOD_FIRST = Comparator
+            .comparing((Segment segment) -> segment.catalog().periodEnd())
+            .thenComparing(segment -> segment.catalog().archivedAt())
+            .reversed();
+
+    // Lowest and highest posting ids in UUID_ORDER
+    private static final UUID FIRST_ID = new UUID(0, 0);
+    private static final UUID LAST_ID = new UUID(-1, -1);
+
+    private final Path directory;
+    private final ArchiveSegmentRepository segmentRepository;
+    private final ArchivedTotalsRepository totalsRepository;
+    private final Cache<BlockKey, List<ArchivedPosting>> blocks;
+    private final StampedLock cutover = new StampedLock();
+    private volatile List<Segment> segments = List.of();
+
+    public PostingArchive(Path directory, long cachedBlocks, ArchiveSegmentRepository segmentRepository,
+            ArchivedTotalsRepository totalsRepository) {
+        this.directory = directory;
+        this.segmentRepository = segmentRepository;
+        this.totalsRepository = totalsRepository;
+        this.blocks = Caffeine.newBuilder()
+                .maximumSize(cachedBlocks)
+                .build();
+    }
+
+    /**
+     * Opens the catalogued segments.
+     */
+    public void load() {
+        segments = segmentRepository.findAllByOrderByPeriodStartAscArchivedAtAsc().stream()
+                .map(entity -> new Segment(entity.toDomain(),
+                        SegmentFile.open(directory.resolve(entity.getFileName()))))
+                .sorted(NEWEST_PERIOD_FIRST)
+                .toList();
+    }
+
+    /**
+     * Runs reads of the ledger tables and the archive against the same set of segments.
+     */
+    public <T> T read(Supplier<T> reads) {
+        long stamp = cutover.tryOptimisticRead();
+        if (stamp != 0) {
+            T result = reads.get();
+            if (cutover.validate(stamp)) {
+                return result;
+            }
+        }
+        stamp = cutover.readLock();
+        try {
+            return reads.get();
+        } finally {
+            cutover.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Commits the deletion of a segment's rows from the ledger tables and adds the segment, as one step for
+     * {@link #read}ers.
+     */
+    void add(ArchivedSegment catalog, SegmentFile file, Runnable commit) {
+        long stamp = cutover.writeLock();
+        try {
+            commit.run();
+            List<Segment> added = new ArrayList<>(segments);
+            added.add(new Segment(catalog, file));
+            added.sort(NEWEST_PERIOD_FIRST);
+            segments = List.copyOf(added);
+        } finally {
+            cutover.unlockWrite(stamp);
+        }
+    }
+
+    Path directory() {
+        return directory;
+    }
+
+    List<ArchivedSegment> segments() {
+        return segments.stream()
+                .map(Segment::catalog)
+                .sorted(Comparator.comparing(ArchivedSegment::periodStart).thenComparing(ArchivedSegment::archivedAt))
+                .toList();
+    }
+
+    /**
+     * Completes a statement page read from the ledger tables with archived postings of the account.
+     *
+     * @param hot the page as read from the tables, newest first
+     */
+    public List<StatementEntry> mergeStatement(List<StatementEntry> hot, UUID accountId, StatementCursor after,
+            int limit) {
+        List<Segment> current = segments;
+        if (current.isEmpty()) {
+            return hot;
+        }
+        // Archived postings are older than every segment's period end; they only make the page if the tables
+        // didn't fill it with newer postings
+        LocalDateTime archivedBefore = current.get(0).catalog().periodEnd();
+        if (hot.size() == limit && !hot.get(limit - 1).postedAt().isBefore(archivedBefore)) {
+            return hot;
+        }
+
+        List<StatementEntry> archived = new ArrayList<>();
+        for (Segment segment : current) {
+            if (after != null && segment.catalog().periodStart().isAfter(after.postedAt())) {
+                continue;
+            }
+            if (archived.size() >= limit) {
+                archived.sort(ArchivedPosting.NEWEST_FIRST);
+                if (!segment.catalog().periodEnd().isAfter(archived.get(limit - 1).postedAt())) {
+                    break;
+                }
+            }
+            for (ArchivedPosting posting : postingsBefore(segment, accountId, after, limit)) {
+                archived.add(posting.toStatementEntry());
+            }
+        }
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        List<StatementEntry> merged = new ArrayList<>(hot);
+        merged.addAll(archived);
+        merged.sort(ArchivedPosting.NEWEST_FIRST);
+        return List.copyOf(merged.subList(0, Math.min(limit, merged.size())));
+    }
+
+    /**
+     * Debits minus credits of the account's archived postings timestamped in {@code (after, upTo]}, either bound
+     * open when null.
+     */
+    public Money netDebit(UUID accountId, Currency currency, LocalDateTime after, LocalDateTime upTo) {
+        List<Segment> current = segments;
+        if (current.isEmpty()) {
+            return Money.zero(currency);
+        }
+        if (after == null && (upTo == null || !upTo.isBefore(current.get(0).catalog().periodEnd()))) {
+            return totalsRepository.findById(accountId)
+                    .map(totals -> Money.of(totals.getNetDebit(), currency))
+                    .orElseGet(() -> Money.zero(currency));
+        }
+        long netDebit = 0;
+        for (Segment segment : current) {
+            if (overlaps(segment, after, upTo)) {
+                for (ArchivedPosting posting : postingsOf(segment, accountId, after, upTo)) {
+                    if (within(posting.postedAt(), after, upTo)) {
+                        netDebit = Math.addExact(netDebit, posting.netDebit());
+                    }
+                }
+            }
+        }
+        return new Money(netDebit, currency);
+    }
+
+    /**
+     * Archived postings of the account timestamped in {@code (after, upTo]}, either bound open when null.
+     */
+    public long countPostings(UUID accountId, LocalDateTime after, LocalDateTime upTo) {
+        List<Segment> current = segments;
+        if (current.isEmpty()) {
+            return 0;
+        }
+        if (after == null && (upTo == null || !upTo.isBefore(current.get(0).catalog().periodEnd()))) {
+            return totalsRepository.findById(accountId).map(ArchivedTotalsJpaEntity::getPostings).orElse(0L);
+        }
+        long count = 0;
+        for (Segment segment : current) {
+            if (overlaps(segment, after, upTo)) {
+                for (ArchivedPosting posting : postingsOf(segment, accountId, after, upTo)) {
+                    if (within(posting.postedAt(), after, upTo)) {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Segment segment : segments) {
+            segment.file().close();
+        }
+    }
+
+    /**
+     * Up to {@code limit} postings of the account before the cursor, or its newest when null, newest first:
+     * reads the account's blocks backwards from the cursor and stops once the page is full.
+     */
+    private List<ArchivedPosting> postingsBefore(Segment segment, UUID accountId, StatementCursor before,
+            int limit) {
+        List<ArchivedPosting> postings = new ArrayList<>();
+        List<Integer> candidates = segment.file().blocksOf(accountId, null, before);
+        for (int i = candidates.size() - 1; i >= 0 && postings.size() < limit; i--) {
+            List<ArchivedPosting> rows = block(segment, candidates.get(i));
+            for (int row = rows.size() - 1; row >= 0 && postings.size() < limit; row--) {
+                ArchivedPosting posting = rows.get(row);
+                if (posting.accountId().equals(accountId) && (before == null || isBefore(posting, before))) {
+                    postings.add(posting);
+                }
+            }
+        }
+        return postings;
+    }
+
+    /**
+     * Postings of the account read from the blocks that may hold those timestamped in {@code (after, upTo]}, some
+     * outside of it among them.
+     */
+    private List<ArchivedPosting> postingsOf(Segment segment, UUID accountId, LocalDateTime after,
+            LocalDateTime upTo) {
+        // Positions right after the last posting at after, and right after the last one at upTo
+        StatementCursor from = after != null ? new StatementCursor(after, LAST_ID) : null;
+        StatementCursor to = upTo != null ? new StatementCursor(upTo.plusNanos(1), FIRST_ID) : null;
+        List<ArchivedPosting> postings = new ArrayList<>();
+        for (int block : segment.file().blocksOf(accountId, from, to)) {
+            for (ArchivedPosting posting : block(segment, block)) {
+                if (posting.accountId().equals(accountId)) {
+                    postings.add(posting);
+                }
+            }
+        }
+        return postings;
+    }
+
+    private List<ArchivedPosting> block(Segment segment, int block) {
+        return blocks.get(new BlockKey(segment.catalog().id(), block), key -> segment.file().readBlock(key.block()));
+    }
+
+    private static boolean isBefore(ArchivedPosting posting, StatementCursor cursor) {
+        int byTime = posting.postedAt().compareTo(cursor.postedAt());
+        return byTime < 0
+                || byTime == 0 && ArchivedPosting.UUID_ORDER.compare(posting.postingId(), cursor.postingId()) < 0;
+    }
+
+    private static boolean overlaps(Segment segment, LocalDateTime after, LocalDateTime upTo) {
+        return (after == null || segment.catalog().periodEnd().isAfter(after))
+                && (upTo == null || !segment.catalog().periodStart().isAfter(upTo));
+    }
+
+    private static boolean within(LocalDateTime postedAt, LocalDateTime after, LocalDateTime upTo) {
+        return (after == null || postedAt.isAfter(after)) && (upTo == null || !postedAt.isAfter(upTo));
+    }
+}
@@ -0,0 +1,182 @@
+package com.mahmoud.ledger.infrastructure.archive;
+
+import com.mahmoud.ledger.application.port.in.ArchivedSegment;
+import com.mahmoud.ledger.application.port.out.PostingArchivePort;
+import com.mahmoud.ledger.domain.model.IdGenerator;
+import com.mahmoud.ledger.domain.model.Money;
+import com.mahmoud.ledger.domain.model.Posting;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Archives a period in two steps. The period's postings are streamed, in account id order, into a new segment
+ * file, which is forced to disk under its final name. Then one database transaction deletes the period from the
+ * ledger tables, adds the postings to the archived totals and catalogs the segment; its commit is made visible to
+ * readers together with the segment. If rows committed into the period after they were streamed, the deletion
+ * finds more rows than the segment holds and the run is rolled back.
+ */
+public class PostingArchiver implements PostingArchivePort {
+
+    private static final String POSTINGS_SQL = """
+            select p.id, t.id, t.ledger_sequence, p.posted_at, t.description, p.account_id, p.type, p.currency,
+                   p.amount
+            from postings p join transactions t on t.id = p.transaction_id
+            where t.timestamp >= ? and t.timestamp < ?
+            order by p.account_id, p.posted_at, p.id""";
+
+    private static final String UNPUBLISHED_SQL = """
+            select count(*) from outbox o join transactions t on t.id = o.transaction_id
+            where t.timestamp >= ? and t.timestamp < ?""";
+
+    private static final String DELETE_POSTINGS_SQL = """
+            delete from postings
+            where transaction_id in (select id from transactions where timestamp >= ? and timestamp < ?)""";
+
+    private static final String DELETE_TRANSACTIONS_SQL =
+            "delete from transactions where timestamp >= ? and timestamp < ?";
+
+    private record Totals(long netDebit, long postings) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final PostingArchive archive;
+    private final ArchiveSegmentRepository segmentRepository;
+    private final ArchivedTotalsRepository totalsRepository;
+    private final IdGenerator idGenerator;
+    private final int blockPostings;
+
+    public PostingArchiver(DataSource dataSource, int fetchSize, PlatformTransactionManager transactionManager,
+            PostingArchive archive, ArchiveSegmentRepository segmentRepository,
+            ArchivedTotalsRepository totalsRepository, IdGenerator idGenerator, int blockPostings) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionManager = transactionManager;
+        this.archive = archive;
+        this.segmentRepository = segmentRepository;
+        this.totalsRepository = totalsRepository;
+        this.idGenerator = idGenerator;
+        this.blockPostings = blockPostings;
+    }
+
+    @Override
+    public Optional<LocalDateTime> oldestTimestamp() {
+        return Optional.ofNullable(
+                jdbcTemplate.queryForObject("select min(timestamp) from transactions", LocalDateTime.class));
+    }
+
+    @Override
+    public ArchivedSegment archive(LocalDateTime from, LocalDateTime to) {
+        // Consumers of the ledger events would never see these transactions
+        if (jdbcTemplate.queryForObject(UNPUBLISHED_SQL, Long.class, from, to) > 0) {
+            throw new IllegalStateException("Transactions of " + from.toLocalDate()
+                    + " are not published to the ledger event sink yet");
+        }
+
+        UUID id = idGenerator.nextId();
+        String fileName = "postings-" + from.toLocalDate() + "-" + id + ".seg";
+        Path path = archive.directory().resolve(fileName);
+        Map<UUID, Totals> totals = new HashMap<>();
+        Map<UUID, String> currencies = new HashMap<>();
+        long bytes;
+        long postings;
+        try (SegmentFile.Writer writer = new SegmentFile.Writer(path, blockPostings)) {
+            jdbcTemplate.query(POSTINGS_SQL, resultSet -> {
+                ArchivedPosting posting = new ArchivedPosting(
+                        resultSet.getObject(1, UUID.class),
+                        resultSet.getObject(2, UUID.class),
+                        resultSet.getLong(3),
+                        resultSet.getObject(4, LocalDateTime.class),
+                        resultSet.getString(5),
+                        resultSet.getObject(6, UUID.class),
+                        Posting.Type.valueOf(resultSet.getString(7)),
+                        Money.of(resultSet.getBigDecimal(9), resultSet.getString(8)));
+                writer.append(posting);
+                totals.merge(posting.accountId(), new Totals(posting.netDebit(), 1),
+                        (a, b) -> new Totals(a.netDebit() + b.netDebit(), a.postings() + b.postings()));
+                currencies.putIfAbsent(posting.accountId(), resultSet.getString(8));
+            }, from, to);
+            postings = writer.postings();
+            bytes = writer.finish();
+        }
+
+        SegmentFile file = SegmentFile.open(path);
+        TransactionStatus transaction = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        try {
+            if (jdbcTemplate.update(DELETE_POSTINGS_SQL, from, to) != postings) {
+                throw new IllegalStateException("Transactions of " + from.toLocalDate()
+                        + " were posted while they were archived");
+            }
+            long transactions = jdbcTemplate.update(DELETE_TRANSACTIONS_SQL, from, to);
+            addTotals(totals, currencies);
+            ArchiveSegmentJpaEntity entity = new ArchiveSegmentJpaEntity();
+            entity.setId(id);
+            entity.setPeriodStart(from);
+            entity.setPeriodEnd(to);
+            entity.setFileName(fileName);
+            entity.setTransactions(transactions);
+            entity.setPostings(postings);
+            entity.setBytes(bytes);
+            entity.setArchivedAt(LocalDateTime.now());
+            segmentRepository.save(entity);
+            archive.add(entity.toDomain(), file, () -> transactionManager.commit(transaction));
+            return entity.toDomain();
+        } catch (RuntimeException e) {
+            if (!transaction.isCompleted()) {
+                transactionManager.rollback(transaction);
+            }
+            discard(file, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<ArchivedSegment> segments() {
+        return segmentRepository.findAllByOrderByPeriodStartAscArchivedAtAsc().stream()
+                .map(ArchiveSegmentJpaEntity::toDomain)
+                .toList();
+    }
+
+    private void addTotals(Map<UUID, Totals> totals, Map<UUID, String> currencies) {
+        Map<UUID, ArchivedTotalsJpaEntity> existing = new HashMap<>();
+        totalsRepository.findAllById(totals.keySet()).forEach(entity -> existing.put(entity.getAccountId(), entity));
+        List<ArchivedTotalsJpaEntity> updated = totals.entrySet().stream().map(entry -> {
+            Money netDebit = new Money(entry.getValue().netDebit(), Money.currency(currencies.get(entry.getKey())));
+            ArchivedTotalsJpaEntity entity = existing.get(entry.getKey());
+            if (entity == null) {
+                entity = new ArchivedTotalsJpaEntity();
+                entity.setAccountId(entry.getKey());
+                entity.setCurrency(netDebit.currency().getCurrencyCode());
+                entity.setNetDebit(netDebit.amount());
+                entity.setPostings(entry.getValue().postings());
+            } else {
+                entity.setNetDebit(entity.getNetDebit().add(netDebit.amount()));
+                entity.setPostings(entity.getPostings() + entry.getValue().postings());
+            }
+            return entity;
+        }).toList();
+        totalsRepository.saveAll(updated);
+    }
+
+    private static void discard(SegmentFile file, RuntimeException failure) {
+        try {
+            file.close();
+            Files.deleteIfExists(file.path());
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+    }
+}
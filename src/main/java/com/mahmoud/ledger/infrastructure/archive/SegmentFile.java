@@ -0,0 +1,443 @@
+package com.mahmoud.ledger.infrastructure.archive;
+
+import com.mahmoud.ledger.application.port.in.StatementCursor;
+import com.mahmoud.ledger.domain.model.Money;
+import com.mahmoud.ledger.domain.model.Posting;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * An immutable archive segment: the postings of one period, sorted by account id, then posting time and id,
+ * in deflate-compressed blocks followed by a sparse index of the blocks by account id:
+ * <pre>
+ * int    magic, int format version
+ * ...    blocks, each the compressed rows: posting id, transaction id, ledger sequence, timestamp (epoch second
+ *        + nano, UTC), description, account id, type, currency, amount in minor units
+ * int    number of blocks
+ * ...    per block: first and last account id, offset, compressed length, rows, CRC32C of the compressed bytes,
+ *        timestamp (epoch second + nano, UTC) and posting id of the first row
+ * long   offset of the index, int magic
+ * </pre>
+ * An account's postings are found by a binary search of the index followed by decompressing only the blocks
+ * whose account id range holds it; a statement page or time range seeks further, by the first row of each block.
+ * Segments of format version 1 have no first rows in their index and are read by account only.
+ * <p>
+ * Segments are written to a temporary file, forced to disk and then renamed, so a crash never leaves
+ * a half-written segment under its final name.
+ */
+class SegmentFile implements AutoCloseable {
+
+    private static final int MAGIC = 0x4C534547;
+    private static final int FORMAT = 2;
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int FOOTER_BYTES = Long.BYTES + Integer.BYTES;
+    private static final int INDEX_ENTRY_BYTES = 4 * Long.BYTES + Long.BYTES + 3 * Integer.BYTES
+            + Long.BYTES + Integer.BYTES + 2 * Long.BYTES;
+
+    /**
+     * @param firstPostedAt  timestamp of the first row, null in format version 1
+     * @param firstPostingId posting id of the first row, null in format version 1
+     */
+    record Block(UUID firstAccountId, UUID lastAccountId, long offset, int length, int rows, int checksum,
+            LocalDateTime firstPostedAt, UUID firstPostingId) {
+    }
+
+    private final Path path;
+    private final FileChannel channel;
+    private final List<Block> blocks;
+
+    private SegmentFile(Path path, FileChannel channel, List<Block> blocks) {
+        this.path = path;
+        this.channel = channel;
+        this.blocks = blocks;
+    }
+
+    static SegmentFile open(Path path) {
+        try {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                ByteBuffer header = readFully(channel, 0, HEADER_BYTES);
+                int format = header.getInt() == MAGIC ? header.getInt() : -1;
+                if (format != 1 && format != FORMAT) {
+                    throw new IllegalStateException("Not an archive segment of a known format: " + path);
+                }
+                ByteBuffer footer = readFully(channel, channel.size() - FOOTER_BYTES, FOOTER_BYTES);
+                long indexOffset = footer.getLong();
+                if (footer.getInt() != MAGIC) {
+                    throw new IllegalStateException("Not an archive segment: " + path);
+                }
+                ByteBuffer index = readFully(channel, indexOffset,
+                        (int) (channel.size() - FOOTER_BYTES - indexOffset));
+                int count = index.getInt();
+                List<Block> blocks = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    UUID firstAccountId = readUuid(index);
+                    UUID lastAccountId = readUuid(index);
+                    long offset = index.getLong();
+                    int length = index.getInt();
+                    int rows = index.getInt();
+                    int checksum = index.getInt();
+                    LocalDateTime firstPostedAt = format == 1 ? null : readTimestamp(index);
+                    UUID firstPostingId = format == 1 ? null : readUuid(index);
+                    blocks.add(new Block(firstAccountId, lastAccountId, offset, length, rows, checksum,
+                            firstPostedAt, firstPostingId));
+                }
+                return new SegmentFile(path, channel, List.copyOf(blocks));
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open archive segment " + path, e);
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    List<Block> blocks() {
+        return blocks;
+    }
+
+    /**
+     * Indexes of the blocks that may hold postings of the account.
+     */
+    List<Integer> blocksOf(UUID accountId) {
+        // First block whose last account id is not below the account; blocks are in account id order
+        int low = 0;
+        int high = blocks.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ArchivedPosting.UUID_ORDER.compare(blocks.get(middle).lastAccountId(), accountId) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        List<Integer> found = new ArrayList<>(1);
+        for (int i = low; i < blocks.size()
+                && ArchivedPosting.UUID_ORDER.compare(blocks.get(i).firstAccountId(), accountId) <= 0; i++) {
+            found.add(i);
+        }
+        return found;
+    }
+
+    /**
+     * Indexes of the account's blocks that may hold its postings positioned strictly between {@code after} and
+     * {@code before} in segment order, either bound open when null. A block spans from its first row up to the
+     * first row of the next one, so only the index is searched.
+     */
+    List<Integer> blocksOf(UUID accountId, StatementCursor after, StatementCursor before) {
+        List<Integer> range = blocksOf(accountId);
+        if (range.isEmpty() || blocks.get(range.get(0)).firstPostedAt() == null) {
+            return range;
+        }
+        int to = before != null ? countStarting(range, accountId, before, false) : range.size();
+        // The last block starting at or before the position holds the rows right after it
+        int from = after != null ? Math.max(0, countStarting(range, accountId, after, true) - 1) : 0;
+        return from < to ? range.subList(from, to) : List.of();
+    }
+
+    /**
+     * Blocks of the range whose first row comes before the position, or is the position if {@code orAt}.
+     */
+    private int countStarting(List<Integer> range, UUID accountId, StatementCursor position, boolean orAt) {
+        int low = 0;
+        int high = range.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compareFirstRow(blocks.get(range.get(middle)), accountId, position);
+            if (comparison < 0 || orAt && comparison == 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int compareFirstRow(Block block, UUID accountId, StatementCursor position) {
+        int byAccount = ArchivedPosting.UUID_ORDER.compare(block.firstAccountId(), accountId);
+        if (byAccount != 0) {
+            return byAccount;
+        }
+        int byTime = block.firstPostedAt().compareTo(position.postedAt());
+        return byTime != 0 ? byTime : ArchivedPosting.UUID_ORDER.compare(block.firstPostingId(), position.postingId());
+    }
+
+    /**
+     * Decompresses a block, checking it against its checksum.
+     */
+    List<ArchivedPosting> readBlock(int index) {
+        Block block = blocks.get(index);
+        try {
+            ByteBuffer compressed = readFully(channel, block.offset(), block.length());
+            CRC32C crc = new CRC32C();
+            crc.update(compressed.duplicate());
+            if ((int) crc.getValue() != block.checksum()) {
+                throw new IllegalStateException("Corrupt block " + index + " in archive segment " + path);
+            }
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(compressed);
+                ByteArrayOutputStream rows = new ByteArrayOutputStream(block.length() * 4);
+                byte[] chunk = new byte[16 * 1024];
+                while (!inflater.finished()) {
+                    int inflated = inflater.inflate(chunk);
+                    if (inflated == 0 && inflater.needsInput()) {
+                        throw new IllegalStateException("Truncated block " + index + " in archive segment " + path);
+                    }
+                    rows.write(chunk, 0, inflated);
+                }
+                return decodeRows(ByteBuffer.wrap(rows.toByteArray()), block.rows());
+            } finally {
+                inflater.end();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read archive segment " + path, e);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt block " + index + " in archive segment " + path, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static List<ArchivedPosting> decodeRows(ByteBuffer in, int rows) {
+        List<ArchivedPosting> postings = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            UUID postingId = readUuid(in);
+            UUID transactionId = readUuid(in);
+            long ledgerSequence = in.getLong();
+            LocalDateTime postedAt = readTimestamp(in);
+            String description = readString(in);
+            UUID accountId = readUuid(in);
+            Posting.Type type = Posting.Type.values()[in.get()];
+            String currency = readString(in);
+            postings.add(new ArchivedPosting(postingId, transactionId, ledgerSequence, postedAt, description,
+                    accountId, type, new Money(in.getLong(), Money.currency(currency))));
+        }
+        return postings;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static LocalDateTime readTimestamp(ByteBuffer in) {
+        return LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC);
+    }
+
+    private static UUID readUuid(ByteBuffer in) {
+        return new UUID(in.getLong(), in.getLong());
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a segment from postings handed over in account id, posting time and id order.
+     */
+    static class Writer implements AutoCloseable {
+
+        private final Path target;
+        private final Path temporary;
+        private final FileChannel channel;
+        private final int blockRows;
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private final List<Block> blocks = new ArrayList<>();
+        private final ByteArrayOutputStream rows = new ByteArrayOutputStream(64 * 1024);
+        private final DataOutputStream out = new DataOutputStream(rows);
+        private int rowsInBlock;
+        private UUID firstAccountId;
+        private UUID lastAccountId;
+        private LocalDateTime firstPostedAt;
+        private UUID firstPostingId;
+        private long position;
+        private long postings;
+        private boolean finished;
+
+        Writer(Path target, int blockRows) {
+            this.target = target;
+            this.temporary = target.resolveSibling(target.getFileName() + ".tmp");
+            this.blockRows = blockRows;
+            try {
+                Files.createDirectories(target.getParent());
+                this.channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(FORMAT).flip();
+                write(header);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot create archive segment " + target, e);
+            }
+        }
+
+        void append(ArchivedPosting posting) {
+            if (lastAccountId != null && ArchivedPosting.UUID_ORDER.compare(posting.accountId(), lastAccountId) < 0) {
+                throw new IllegalArgumentException("Postings must be appended in account id order");
+            }
+            try {
+                writeUuid(out, posting.postingId());
+                writeUuid(out, posting.transactionId());
+                out.writeLong(posting.ledgerSequence());
+                out.writeLong(posting.postedAt().toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(posting.postedAt().getNano());
+                writeString(out, posting.description());
+                writeUuid(out, posting.accountId());
+                out.writeByte(posting.type().ordinal());
+                writeString(out, posting.amount().currency().getCurrencyCode());
+                out.writeLong(posting.amount().minorUnits());
+                if (firstAccountId == null) {
+                    firstAccountId = posting.accountId();
+                    firstPostedAt = posting.postedAt();
+                    firstPostingId = posting.postingId();
+                }
+                lastAccountId = posting.accountId();
+                postings++;
+                if (++rowsInBlock == blockRows) {
+                    flushBlock();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot write archive segment " + target, e);
+            }
+        }
+
+        long postings() {
+            return postings;
+        }
+
+        /**
+         * Writes the index, forces the segment to disk and moves it to its final name.
+         *
+         * @return size of the segment in bytes
+         */
+        long finish() {
+            try {
+                flushBlock();
+                long indexOffset = position;
+                ByteBuffer index = ByteBuffer.allocate(Integer.BYTES + blocks.size() * INDEX_ENTRY_BYTES
+                        + FOOTER_BYTES);
+                index.putInt(blocks.size());
+                for (Block block : blocks) {
+                    putUuid(index, block.firstAccountId());
+                    putUuid(index, block.lastAccountId());
+                    index.putLong(block.offset()).putInt(block.length()).putInt(block.rows())
+                            .putInt(block.checksum());
+                    index.putLong(block.firstPostedAt().toEpochSecond(ZoneOffset.UTC))
+                            .putInt(block.firstPostedAt().getNano());
+                    putUuid(index, block.firstPostingId());
+                }
+                index.putLong(indexOffset).putInt(MAGIC);
+                write(index.flip());
+                channel.force(true);
+                channel.close();
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                finished = true;
+                return position;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot write archive segment " + target, e);
+            }
+        }
+
+        private void flushBlock() throws IOException {
+            if (rowsInBlock == 0) {
+                return;
+            }
+            out.flush();
+            deflater.reset();
+            deflater.setInput(rows.toByteArray());
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(rows.size() / 2);
+            byte[] chunk = new byte[16 * 1024];
+            while (!deflater.finished()) {
+                compressed.write(chunk, 0, deflater.deflate(chunk));
+            }
+            byte[] bytes = compressed.toByteArray();
+            CRC32C crc = new CRC32C();
+            crc.update(bytes);
+            blocks.add(new Block(firstAccountId, lastAccountId, position, bytes.length, rowsInBlock,
+                    (int) crc.getValue(), firstPostedAt, firstPostingId));
+            write(ByteBuffer.wrap(bytes));
+            rows.reset();
+            rowsInBlock = 0;
+            firstAccountId = null;
+        }
+
+        private void write(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer);
+            }
+        }
+
+        /**
+         * Discards the segment unless it was finished.
+         */
+        @Override
+        public void close() {
+            deflater.end();
+            if (finished) {
+                return;
+            }
+            try {
+                channel.close();
+                Files.deleteIfExists(temporary);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot discard archive segment " + target, e);
+            }
+        }
+
+        private static void putUuid(ByteBuffer out, UUID uuid) {
+            out.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+        }
+
+        private static void writeUuid(DataOutputStream out, UUID uuid) throws IOException {
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        }
+
+        private static void writeString(DataOutputStream out, String value) throws IOException {
+            if (value == null) {
+                out.writeInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.mahmoud.ledger.infrastructure.config;
+
+import com.mahmoud.ledger.application.port.in.ReadConsistency;
+import com.mahmoud.ledger.application.port.out.AccountPort;
+import com.mahmoud.ledger.application.port.out.BalanceCheckpointPort;
+import com.mahmoud.ledger.application.port.out.IdempotencyPort;
+import com.mahmoud.ledger.application.port.out.LedgerEventSink;
+import com.mahmoud.ledger.application.port.out.MetricsPort;
+import com.mahmoud.ledger.application.port.out.OutboxPort;
+import com.mahmoud.ledger.application.port.out.StatementPort;
+import com.mahmoud.ledger.application.service.AccountViewProjector;
+import com.mahmoud.ledger.application.service.ArchiveSettings;
+import com.mahmoud.ledger.application.service.BalanceCheckpointer;
+import com.mahmoud.ledger.application.service.BalanceStripes;
+import com.mahmoud.ledger.application.service.CheckpointSettings;
+import com.mahmoud.ledger.application.service.ConcurrencyRetry;
+import com.mahmoud.ledger.application.service.GroupCommitSettings;
+import com.mahmoud.ledger.application.service.IdempotencyGuard;
+import com.mahmoud.ledger.application.service.OutboxRelay;
+import com.mahmoud.ledger.application.service.OutboxSettings;
+import com.mahmoud.ledger.application.service.PostingMode;
+import com.mahmoud.ledger.application.service.ReadModelSettings;
+import com.mahmoud.ledger.application.service.ReconciliationSettings;
+import com.mahmoud.ledger.application.service.SubmissionSettings;
+import com.mahmoud.ledger.application.service.TransactionSubmissionService;
+import com.mahmoud.ledger.domain.model.AccountType;
+import com.mahmoud.ledger.domain.model.IdGenerator;
+import com.mahmoud.ledger.domain.model.SystemAccounts;
+import com.mahmoud.ledger.infrastructure.archive.ArchiveSegmentRepository;
+import com.mahmoud.ledger.infrastructure.archive.ArchivedTotalsRepository;
+import com.mahmoud.ledger.infrastructure.archive.PostingArchive;
+import com.mahmoud.ledger.infrastructure.archive.PostingArchiver;
+import com.mahmoud.ledger.infrastructure.persistence.AccountCache;
+import com.mahmoud.ledger.infrastructure.persistence.IdempotencyKeyRepository;
+import com.mahmoud.ledger.infrastructure.persistence.IdempotencyKeyStore;
+import com.mahmoud.ledger.infrastructure.outbox.NdjsonFileEventSink;
+import com.mahmoud.ledger.infrastructure.persistence.JdbcTransactionExporter;
+import com.mahmoud.ledger.infrastructure.persistence.LedgerSequence;
+import com.mahmoud.ledger.infrastructure.readmodel.AccountViewStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import tools.jackson.databind.json.JsonMapper;
+
+import javax.sql.DataSource;
+
+import java.util.Map;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(LedgerProperties.class)
+public class LedgerConfiguration {
+
+    @Bean
+    public BalanceStripes balanceStripes(LedgerProperties properties) {
+        return new BalanceStripes(properties.systemAccounts().stripes(), Map.of(
+                SystemAccounts.GENESIS_ACCOUNT_ID, AccountType.EQUITY,
+                SystemAccounts.REVENUE_ACCOUNT_ID, AccountType.ASSET));
+    }
+
+    @Bean
+    public ConcurrencyRetry concurrencyRetry(LedgerProperties properties) {
+        LedgerProperties.RetrySettings retry = properties.posting().retry();
+        return new ConcurrencyRetry(retry.maxRetries(), retry.delay(), retry.jitter());
+    }
+
+    @Bean
+    public MeterBinder concurrencyRetryMetrics(ConcurrencyRetry concurrencyRetry, PostingMode postingMode) {
+        return registry -> {
+            FunctionCounter.builder("ledger.posting.retries", concurrencyRetry, ConcurrencyRetry::retries)
+                    .description("Postings re-run after a deadlock, lock timeout or version conflict")
+                    .tag("mode", postingMode.name().toLowerCase())
+                    .register(registry);
+            FunctionCounter.builder("ledger.posting.retries.exhausted", concurrencyRetry, ConcurrencyRetry::exhausted)
+                    .description("Postings that still failed after the last retry")
+                    .tag("mode", postingMode.name().toLowerCase())
+                    .register(registry);
+            for (ConcurrencyRetry.Conflict conflict : ConcurrencyRetry.Conflict.values()) {
+                FunctionCounter.builder("ledger.posting.conflicts", concurrencyRetry,
+                                retry -> retry.conflicts(conflict))
+                        .description("Posting attempts that failed on a deadlock, lock timeout or version conflict")
+                        .tag("mode", postingMode.name().toLowerCase())
+                        .tag("conflict", conflict.name().toLowerCase())
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean
+    public AccountCache accountCache(LedgerProperties properties) {
+        LedgerProperties.CacheSettings cache = properties.cache();
+        return new AccountCache(cache.maximumSize(), cache.expireAfterWrite());
+    }
+
+    @Bean
+    public MeterBinder accountCacheMetrics(AccountCache accountCache) {
+        return registry -> CaffeineCacheMetrics.monitor(registry, accountCache.nativeCache(), "accounts");
+    }
+
+    @Bean
+    public IdempotencyKeyStore idempotencyKeyStore(IdempotencyKeyRepository repository,
+            TransactionOperations transactionOperations, LedgerProperties properties) {
+        LedgerProperties.IdempotencySettings idempotency = properties.idempotency();
+        return new IdempotencyKeyStore(repository, transactionOperations, idempotency.retention(),
+                idempotency.maximumCachedKeys());
+    }
+
+    @Bean
+    public MeterBinder idempotencyKeyCacheMetrics(IdempotencyKeyStore idempotencyKeyStore) {
+        return registry -> CaffeineCacheMetrics.monitor(registry, idempotencyKeyStore.nativeCache(),
+                "idempotency-keys");
+    }
+
+    @Bean
+    public IdempotencyGuard idempotencyGuard(IdempotencyPort idempotencyPort) {
+        return new IdempotencyGuard(idempotencyPort);
+    }
+
+    @Bean
+    public JdbcTransactionExporter transactionExporter(DataSource dataSource,
+            PlatformTransactionManager transactionManager, LedgerProperties properties) {
+        return new JdbcTransactionExporter(dataSource, transactionManager, properties.export().fetchSize());
+    }
+
+    @Bean
+    public ReadConsistency accountReadConsistency(LedgerProperties properties) {
+        return properties.cache().accountConsistency();
+    }
+
+    @Bean
+    public GroupCommitSettings groupCommitSettings(LedgerProperties properties) {
+        LedgerProperties.GroupCommit groupCommit = properties.posting().groupCommit();
+        return new GroupCommitSettings(groupCommit.enabled(), groupCommit.maxBatchSize(), groupCommit.maxLinger(),
+                groupCommit.queueCapacity(), groupCommit.commitTimeout());
+    }
+
+    @Bean
+    public BalanceCheckpointer balanceCheckpointer(LedgerProperties properties, AccountPort accountPort,
+            BalanceCheckpointPort balanceCheckpointPort, BalanceStripes balanceStripes) {
+        LedgerProperties.CheckpointSettings checkpoint = properties.checkpoint();
+        return new BalanceCheckpointer(
+                new CheckpointSettings(checkpoint.enabled(), checkpoint.everyPostings(), checkpoint.interval(),
+                        checkpoint.commitWindow(), checkpoint.trackedAccounts()),
+                accountPort, balanceCheckpointPort, balanceStripes);
+    }
+
+    @Bean
+    public ReconciliationSettings reconciliationSettings(LedgerProperties properties) {
+        LedgerProperties.ReconciliationSettings reconciliation = properties.reconciliation();
+        return new ReconciliationSettings(reconciliation.ranges(), reconciliation.parallelism(),
+                reconciliation.accountsPerSecond());
+    }
+
+    @Bean
+    public SubmissionSettings submissionSettings(LedgerProperties properties) {
+        LedgerProperties.SubmissionSettings submission = properties.submission();
+        return new SubmissionSettings(submission.workers(), submission.queueCapacity(),
+                submission.retainedStatuses());
+    }
+
+    @Bean
+    public MeterBinder submissionQueueMetrics(TransactionSubmissionService submissionService) {
+        return registry -> Gauge.builder("ledger.submission.queued", submissionService,
+                        TransactionSubmissionService::queued)
+                .description("Submitted transactions waiting for a worker")
+                .register(registry);
+    }
+
+    @Bean
+    public AccountViewStore accountViewStore(LedgerProperties properties) {
+        return new AccountViewStore(properties.readModel().maximumAccounts());
+    }
+
+    @Bean
+    public AccountViewProjector accountViewProjector(LedgerProperties properties, AccountPort accountPort,
+            StatementPort statementPort, BalanceCheckpointPort balanceCheckpointPort, AccountViewStore store,
+            BalanceStripes balanceStripes, MetricsPort metrics) {
+        LedgerProperties.ReadModelSettings readModel = properties.readModel();
+        return new AccountViewProjector(
+                new ReadModelSettings(readModel.enabled(), readModel.recentPostings(), readModel.queueCapacity()),
+                accountPort, statementPort, balanceCheckpointPort, store, balanceStripes, metrics);
+    }
+
+    @Bean
+    public MeterBinder accountViewMetrics(AccountViewStore store, AccountViewProjector projector) {
+        return registry -> {
+            CaffeineCacheMetrics.monitor(registry, store.nativeCache(), "account-views");
+            Gauge.builder("ledger.readmodel.pending", projector, AccountViewProjector::pending)
+                    .description("Committed transactions whose account views are not rebuilt yet")
+                    .register(registry);
+        };
+    }
+
+    // The counter row lives in a table created with the schema
+    @Bean
+    @DependsOn("entityManagerFactory")
+    public LedgerSequence ledgerSequence(DataSource dataSource, LedgerProperties properties) {
+        LedgerSequence sequence = new LedgerSequence(dataSource, properties.outbox().enabled());
+        sequence.initialize();
+        return sequence;
+    }
+
+    @Bean
+    public NdjsonFileEventSink ledgerEventSink(LedgerProperties properties, JsonMapper jsonMapper) {
+        return new NdjsonFileEventSink(properties.outbox().file(), jsonMapper);
+    }
+
+    @Bean
+    public OutboxRelay outboxRelay(LedgerProperties properties, OutboxPort outboxPort, LedgerEventSink sink) {
+        LedgerProperties.OutboxSettings outbox = properties.outbox();
+        return new OutboxRelay(new OutboxSettings(outbox.enabled(), outbox.batchSize(), outbox.pollInterval()),
+                outboxPort, sink);
+    }
+
+    @Bean
+    public MeterBinder outboxMetrics(OutboxRelay relay) {
+        return registry -> {
+            FunctionCounter.builder("ledger.outbox.published", relay, OutboxRelay::published)
+                    .description("Outbox entries published to the ledger event sink")
+                    .register(registry);
+            Gauge.builder("ledger.outbox.sequence", relay, OutboxRelay::lastSequence)
+                    .description("Ledger sequence of the last published transaction")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public ArchiveSettings archiveSettings(LedgerProperties properties) {
+        return new ArchiveSettings(properties.archive().olderThan(), properties.archive().period());
+    }
+
+    // The catalog lives in a table created with the schema
+    @Bean
+    @DependsOn("entityManagerFactory")
+    public PostingArchive postingArchive(LedgerProperties properties, ArchiveSegmentRepository segmentRepository,
+            ArchivedTotalsRepository totalsRepository) {
+        PostingArchive archive = new PostingArchive(properties.archive().directory(),
+                properties.archive().cachedBlocks(), segmentRepository, totalsRepository);
+        archive.load();
+        return archive;
+    }
+
+    @Bean
+    public PostingArchiver postingArchiver(DataSource dataSource, PlatformTransactionManager transactionManager,
+            PostingArchive archive, ArchiveSegmentRepository segmentRepository,
+            ArchivedTotalsRepository totalsRepository, IdGenerator idGenerator, LedgerProperties properties) {
+        return new PostingArchiver(dataSource, properties.export().fetchSize(), transactionManager, archive,
+                segmentRepository, totalsRepository, idGenerator, properties.archive().blockPostings());
+    }
+
+    @Bean
+    public IdGenerator idGenerator(LedgerProperties properties) {
+        return switch (properties.ids().generator()) {
+            case TIME_ORDERED -> IdGenerator.timeOrdered();
+            case RANDOM -> IdGenerator.random();
+        };
+    }
+
+    @Bean
+    public PostingMode postingMode(LedgerProperties properties) {
+        return properties.posting().mode();
+    }
+}
@@ -1,19 +1,27 @@
 package com.mahmoud.ledger.infrastructure.config;
 
 import com.mahmoud.ledger.application.port.out.AccountPort;
+import com.mahmoud.ledger.application.service.BalanceStripes;
 import com.mahmoud.ledger.domain.model.Account;
 import com.mahmoud.ledger.domain.model.AccountType;
+import com.mahmoud.ledger.domain.model.Money;
 import com.mahmoud.ledger.domain.model.SystemAccounts;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Optional;
+
 @Component
 @RequiredArgsConstructor
 public class LedgerDataInitializer implements CommandLineRunner {
 
+    private static final int MAX_STRIPE_INDEX = 0xFFFF;
+
     private final AccountPort accountPort;
+    private final BalanceStripes balanceStripes;
 
     @Override
     @Transactional
@@ -28,5 +36,35 @@ public class LedgerDataInitializer implements CommandLineRunner {
             accountPort.save(account);
             System.out.println("Initialized system account: " + name + " (" + id + ")");
         }
+
+        // Balance stripes beyond stripe 0 (the account itself). The stripe count may grow between
+        // restarts, but never shrink, otherwise the balance held by the dropped stripes is lost.
+        List<java.util.UUID> stripes = balanceStripes.all(id);
+        for (int i = 1; i < stripes.size(); i++) {
+            java.util.UUID stripeId = stripes.get(i);
+            if (accountPort.load(stripeId).isEmpty()) {
+                accountPort.save(Account.create(stripeId, name + " #" + i, type, "USD"));
+            }
+        }
+        checkNoDroppedStripeHoldsBalance(id, name, stripes.size());
+    }
+
+    /**
+     * Stripes are created in index order, so the ones left over from a larger stripe count follow the
+     * configured ones without gaps.
+     */
+    private void checkNoDroppedStripeHoldsBalance(java.util.UUID id, String name, int stripeCount) {
+        for (int i = stripeCount; i <= MAX_STRIPE_INDEX; i++) {
+            Optional<Account> dropped = accountPort.load(SystemAccounts.stripeId(id, i));
+            if (dropped.isEmpty()) {
+                return;
+            }
+            Money balance = dropped.get().getBalance();
+            if (balance.minorUnits() != 0) {
+                throw new IllegalStateException("Balance stripe #" + i + " of " + name + " holds "
+                        + balance.amount() + " " + balance.currency() + " but only " + stripeCount
+                        + " stripes are configured: the stripe count cannot shrink");
+            }
+        }
     }
 }
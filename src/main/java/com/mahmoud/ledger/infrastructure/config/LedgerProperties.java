@@ -0,0 +1,257 @@
+package com.mahmoud.ledger.infrastructure.config;
+
+import com.mahmoud.ledger.application.port.in.ReadConsistency;
+import com.mahmoud.ledger.application.service.ArchivePeriod;
+import com.mahmoud.ledger.application.service.PostingMode;
+import com.mahmoud.ledger.infrastructure.journal.FsyncPolicy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "ledger")
+public record LedgerProperties(
+        @DefaultValue SystemAccountSettings systemAccounts,
+        @DefaultValue PostingSettings posting,
+        @DefaultValue EngineSettings engine,
+        @DefaultValue JournalSettings journal,
+        @DefaultValue CacheSettings cache,
+        @DefaultValue ExportSettings export,
+        @DefaultValue CheckpointSettings checkpoint,
+        @DefaultValue ReconciliationSettings reconciliation,
+        @DefaultValue IdempotencySettings idempotency,
+        @DefaultValue SubmissionSettings submission,
+        @DefaultValue IdSettings ids,
+        @DefaultValue PersistenceSettings persistence,
+        @DefaultValue ReadModelSettings readModel,
+        @DefaultValue OutboxSettings outbox,
+        @DefaultValue ArchiveSettings archive) {
+
+    /**
+     * @param stripes number of independently locked balance rows of Genesis and Revenue
+     */
+    public record SystemAccountSettings(@DefaultValue("1") int stripes) {
+    }
+
+    /**
+     * @param mode how balances are written, {@code pessimistic} (lock, load, save),
+     *             {@code atomic-delta} (conditional in-place update) or {@code optimistic}
+     *             (load, save with version check) or {@code in-memory} (single-writer engine, see
+     *             {@link EngineSettings})
+     */
+    public record PostingSettings(
+            @DefaultValue("pessimistic") PostingMode mode,
+            @DefaultValue RetrySettings retry,
+            @DefaultValue GroupCommit groupCommit) {
+    }
+
+    /**
+     * Retry of postings that lost a deadlock, timed out waiting for a lock or failed a version check.
+     */
+    public record RetrySettings(
+            @DefaultValue("3") int maxRetries,
+            @DefaultValue("10ms") Duration delay,
+            @DefaultValue("10ms") Duration jitter) {
+    }
+
+    /**
+     * Coalescing of concurrent single postings into shared database transactions.
+     */
+    public record GroupCommit(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("64") int maxBatchSize,
+            @DefaultValue("2ms") Duration maxLinger,
+            @DefaultValue("1024") int queueCapacity,
+            @DefaultValue("30s") Duration commitTimeout) {
+    }
+
+    /**
+     * The in-memory engine used by the {@code in-memory} posting mode.
+     *
+     * @param partitions        number of single-writer threads the accounts are spread over
+     * @param flushInterval     how long the background writer to the database waits for more work
+     * @param flushBatchSize    journaled transactions written to the database per database transaction
+     * @param snapshotDirectory where balance snapshots are written
+     * @param snapshotInterval  how often balances are snapshotted, bounding the journal replayed on start-up
+     * @param snapshotsRetained snapshots kept, older ones are deleted
+     */
+    public record EngineSettings(
+            @DefaultValue("4") int partitions,
+            @DefaultValue("50ms") Duration flushInterval,
+            @DefaultValue("500") int flushBatchSize,
+            @DefaultValue("data/snapshots") Path snapshotDirectory,
+            @DefaultValue("5m") Duration snapshotInterval,
+            @DefaultValue("2") int snapshotsRetained) {
+    }
+
+    /**
+     * The journal every transaction accepted by the in-memory engine is appended to before it is acknowledged.
+     *
+     * @param directory     where the memory-mapped segment files live
+     * @param segmentSize   size of each segment file
+     * @param fsync         when appends are forced to disk: {@code every-write}, {@code interval} or {@code batch}
+     * @param fsyncInterval period of the background force with {@code interval}
+     * @param fsyncBatch    appends per force with {@code batch}
+     */
+    public record JournalSettings(
+            @DefaultValue("data/journal") Path directory,
+            @DefaultValue("64MB") DataSize segmentSize,
+            @DefaultValue("every-write") FsyncPolicy fsync,
+            @DefaultValue("10ms") Duration fsyncInterval,
+            @DefaultValue("64") int fsyncBatch) {
+    }
+
+    /**
+     * Cache of committed account states in front of account reads.
+     *
+     * @param maximumSize        accounts kept, least recently used ones are evicted beyond it
+     * @param expireAfterWrite   how long an entry is served before it is read again
+     * @param accountConsistency default for {@code GET /api/accounts/{id}}: {@code cached} or {@code strict}
+     */
+    public record CacheSettings(
+            @DefaultValue("10000") long maximumSize,
+            @DefaultValue("5s") Duration expireAfterWrite,
+            @DefaultValue("cached") ReadConsistency accountConsistency) {
+    }
+
+    /**
+     * Bulk export of transactions.
+     *
+     * @param fetchSize rows the JDBC driver fetches per round trip of the export cursor
+     */
+    public record ExportSettings(@DefaultValue("1000") int fetchSize) {
+    }
+
+    /**
+     * Balance checkpoints written by the posting pipeline for point-in-time balance queries.
+     *
+     * @param everyPostings   postings to an account after which it is checkpointed again
+     * @param interval        longest time between two checkpoints of an account that keeps receiving postings
+     * @param commitWindow    how long a posting may take from its timestamp to its commit without shifting the
+     *                        checkpoints after it; checkpoints are taken that long before the triggering posting
+     * @param trackedAccounts accounts whose count of postings since their last checkpoint is kept in memory
+     */
+    public record CheckpointSettings(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("1000") int everyPostings,
+            @DefaultValue("1d") Duration interval,
+            @DefaultValue("5s") Duration commitWindow,
+            @DefaultValue("100000") int trackedAccounts) {
+    }
+
+    /**
+     * The reconciliation job checking stored balances against postings.
+     *
+     * @param cron              when it runs on its own, {@code -} for on demand only
+     * @param ranges            account id ranges the ledger is split into, the unit of parallelism and of resuming
+     * @param parallelism       ranges checked at the same time
+     * @param accountsPerSecond most accounts checked per second, 0 for no limit
+     */
+    public record ReconciliationSettings(
+            @DefaultValue("-") String cron,
+            @DefaultValue("256") int ranges,
+            @DefaultValue("4") int parallelism,
+            @DefaultValue("50000") int accountsPerSecond) {
+    }
+
+    /**
+     * Idempotency keys of transfers and deposits.
+     *
+     * @param retention         how long a key is remembered, after which it may be reused
+     * @param maximumCachedKeys recently used keys answered from memory
+     * @param purgeInterval     how often expired keys are deleted from the database
+     */
+    public record IdempotencySettings(
+            @DefaultValue("24h") Duration retention,
+            @DefaultValue("100000") long maximumCachedKeys,
+            @DefaultValue("1m") Duration purgeInterval) {
+    }
+
+    /**
+     * Asynchronous submission of transactions through {@code POST /api/transactions/async}.
+     *
+     * @param workers          threads posting queued submissions
+     * @param queueCapacity    submissions queued before new ones are refused with {@code 503}
+     * @param retainedStatuses outcomes of finished submissions kept for {@code GET /api/transactions/{id}/status}
+     */
+    public record SubmissionSettings(
+            @DefaultValue("8") int workers,
+            @DefaultValue("10000") int queueCapacity,
+            @DefaultValue("100000") int retainedStatuses) {
+    }
+
+    /**
+     * Ids of new accounts and transactions.
+     *
+     * @param generator {@code time-ordered} (UUIDv7, appended to the right edge of the primary key indexes) or
+     *                  {@code random} (UUIDv4)
+     */
+    public record IdSettings(@DefaultValue("time-ordered") Generator generator) {
+
+        public enum Generator {
+            TIME_ORDERED, RANDOM
+        }
+    }
+
+    /**
+     * @param transactionWriter how posted transactions are inserted: {@code jdbc} (batched INSERTs of the rows)
+     *                          or {@code jpa} (through the entity mappings)
+     */
+    public record PersistenceSettings(@DefaultValue("jdbc") TransactionWriter transactionWriter) {
+
+        public enum TransactionWriter {
+            JDBC, JPA
+        }
+    }
+
+    /**
+     * The account read model behind {@code GET /api/accounts/{id}/view} and {@code consistency=eventual} reads.
+     *
+     * @param recentPostings  newest postings kept per account
+     * @param maximumAccounts account views kept, least recently used ones are evicted beyond it
+     * @param queueCapacity   committed transactions waiting to be projected
+     */
+    public record ReadModelSettings(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("10") int recentPostings,
+            @DefaultValue("100000") long maximumAccounts,
+            @DefaultValue("10000") int queueCapacity) {
+    }
+
+    /**
+     * The transactional outbox numbering posted transactions and publishing them to downstream consumers.
+     *
+     * @param enabled      whether posted transactions are written to the outbox, to be numbered and published by
+     *                     the relay
+     * @param batchSize    outbox entries numbered, published and deleted together
+     * @param pollInterval how long the relay waits once the outbox is drained
+     * @param file         the newline-delimited JSON file events are appended to
+     */
+    public record OutboxSettings(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("500") int batchSize,
+            @DefaultValue("100ms") Duration pollInterval,
+            @DefaultValue("data/outbox/ledger-events.ndjson") Path file) {
+    }
+
+    /**
+     * Moving old postings out of the ledger tables into compressed archive segment files.
+     *
+     * @param cron          when it runs on its own, {@code -} for on demand only
+     * @param olderThan     age a period must have fully reached before it is archived
+     * @param period        span of time covered by one segment, {@code day} or {@code month}
+     * @param directory     where segment files are written
+     * @param blockPostings postings compressed together, the unit read back from a segment
+     * @param cachedBlocks  decompressed blocks kept in memory
+     */
+    public record ArchiveSettings(
+            @DefaultValue("-") String cron,
+            @DefaultValue("365d") Duration olderThan,
+            @DefaultValue("month") ArchivePeriod period,
+            @DefaultValue("data/archive") Path directory,
+            @DefaultValue("1024") int blockPostings,
+            @DefaultValue("256") long cachedBlocks) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.mahmoud.ledger.infrastructure.engine;
+
+import com.mahmoud.ledger.domain.model.AccountStatus;
+import com.mahmoud.ledger.domain.model.Money;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Every balance as it stood right after the journal record {@code lastSequence} was applied.
+ *
+ * @param flushedSequence every journal record up to it was in the database when the snapshot was taken; the
+ *                        records after it, up to {@code lastSequence}, may not be
+ */
+record BalanceSnapshot(long lastSequence, long flushedSequence, List<Entry> balances) {
+
+    record Entry(UUID accountId, Money balance, AccountStatus status) {
+    }
+}
@@ -0,0 +1,155 @@
+package com.mahmoud.ledger.infrastructure.engine;
+
+import com.mahmoud.ledger.domain.model.AccountStatus;
+import com.mahmoud.ledger.domain.model.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Snapshot files, one per snapshot, named after the journal sequence they were taken at:
+ * <pre>
+ * int    magic, int format version
+ * long   last sequence
+ * long   flushed sequence (since format 2)
+ * int    number of balances
+ * ...    per balance: account id, status, currency, balance in minor units
+ * int    CRC32C of everything before it
+ * </pre>
+ * A snapshot is written to a temporary file, forced to disk and then renamed, so a crash never leaves a
+ * half-written snapshot under its final name.
+ */
+class BalanceSnapshotStore {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceSnapshotStore.class);
+
+    private static final int MAGIC = 0x4C534E50;
+    private static final int FORMAT = 2;
+    private static final String SUFFIX = ".snapshot";
+
+    private final Path directory;
+    private final int retained;
+
+    BalanceSnapshotStore(Path directory, int retained) {
+        this.directory = directory;
+        this.retained = retained;
+    }
+
+    void write(BalanceSnapshot snapshot) {
+        try {
+            Files.createDirectories(directory);
+            Path target = directory.resolve(String.format("%020d%s", snapshot.lastSequence(), SUFFIX));
+            Path temp = directory.resolve(target.getFileName() + ".tmp");
+            try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+                CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file), new CRC32C());
+                DataOutputStream out = new DataOutputStream(checked);
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT);
+                out.writeLong(snapshot.lastSequence());
+                out.writeLong(snapshot.flushedSequence());
+                out.writeInt(snapshot.balances().size());
+                for (BalanceSnapshot.Entry entry : snapshot.balances()) {
+                    out.writeLong(entry.accountId().getMostSignificantBits());
+                    out.writeLong(entry.accountId().getLeastSignificantBits());
+                    out.writeByte(entry.status().ordinal());
+                    out.writeUTF(entry.balance().currency().getCurrencyCode());
+                    out.writeLong(entry.balance().minorUnits());
+                }
+                out.writeInt((int) checked.getChecksum().getValue());
+                out.flush();
+                file.getFD().sync();
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            prune();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write balance snapshot to " + directory, e);
+        }
+    }
+
+    /**
+     * The newest snapshot that reads back intact, if any.
+     */
+    Optional<BalanceSnapshot> latest() {
+        for (Path file : snapshots(Comparator.reverseOrder())) {
+            try {
+                return Optional.of(read(file));
+            } catch (IOException | RuntimeException e) {
+                log.warn("Skipping unreadable balance snapshot {}", file, e);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static BalanceSnapshot read(Path file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            CheckedInputStream checked = new CheckedInputStream(in, new CRC32C());
+            DataInputStream data = new DataInputStream(checked);
+            if (data.readInt() != MAGIC) {
+                throw new IOException("Not a balance snapshot");
+            }
+            int format = data.readInt();
+            if (format < 1 || format > FORMAT) {
+                throw new IOException("Unknown balance snapshot format " + format);
+            }
+            long lastSequence = data.readLong();
+            // Format 1 didn't record what was flushed: nothing is assumed to be
+            long flushedSequence = format >= 2 ? data.readLong() : 0;
+            int count = data.readInt();
+            List<BalanceSnapshot.Entry> balances = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                UUID accountId = new UUID(data.readLong(), data.readLong());
+                AccountStatus status = AccountStatus.values()[data.readByte()];
+                Currency currency = Money.currency(data.readUTF());
+                Money balance = new Money(data.readLong(), currency);
+                balances.add(new BalanceSnapshot.Entry(accountId, balance, status));
+            }
+            int expected = (int) checked.getChecksum().getValue();
+            if (new DataInputStream(in).readInt() != expected) {
+                throw new IOException("Checksum mismatch");
+            }
+            return new BalanceSnapshot(lastSequence, flushedSequence, balances);
+        }
+    }
+
+    private void prune() throws IOException {
+        List<Path> newestFirst = snapshots(Comparator.reverseOrder());
+        for (Path stale : newestFirst.subList(Math.min(retained, newestFirst.size()), newestFirst.size())) {
+            Files.deleteIfExists(stale);
+        }
+    }
+
+    private List<Path> snapshots(Comparator<Path> order) {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+                    .sorted(order)
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list balance snapshots in " + directory, e);
+        }
+    }
+}
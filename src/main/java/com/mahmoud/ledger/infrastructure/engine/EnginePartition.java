@@ -0,0 +1,51 @@
+package com.mahmoud.ledger.infrastructure.engine;
+
+import com.mahmoud.ledger.domain.model.Account;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A slice of the accounts, owned by a single writer thread. Account state is only read or mutated by
+ * tasks running on that thread (or by the sequencer while the thread is parked on a barrier), so no
+ * locks are needed around it.
+ */
+class EnginePartition {
+
+    private final Map<UUID, Account> accounts = new ConcurrentHashMap<>();
+    private final ExecutorService writer;
+
+    EnginePartition(int index) {
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ledger-engine-partition-" + index);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Only safe from the writer thread, from the sequencer holding the partition, or before the engine starts.
+     */
+    Map<UUID, Account> accounts() {
+        return accounts;
+    }
+
+    <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, writer);
+    }
+
+    void execute(Runnable task) {
+        writer.execute(task);
+    }
+
+    void shutdown() throws InterruptedException {
+        writer.shutdown();
+        writer.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,449 @@
+package com.mahmoud.ledger.infrastructure.engine;
+
+import com.mahmoud.ledger.application.port.out.AccountPort;
+import com.mahmoud.ledger.application.port.out.TransactionPort;
+import com.mahmoud.ledger.domain.model.Account;
+import com.mahmoud.ledger.domain.model.AccountStatus;
+import com.mahmoud.ledger.domain.model.InsufficientFundsException;
+import com.mahmoud.ledger.domain.model.Money;
+import com.mahmoud.ledger.domain.model.Posting;
+import com.mahmoud.ledger.domain.model.Transaction;
+import com.mahmoud.ledger.infrastructure.config.LedgerProperties;
+import com.mahmoud.ledger.infrastructure.journal.MappedSegmentJournal;
+import com.mahmoud.ledger.infrastructure.journal.TransactionJournal;
+import com.mahmoud.ledger.infrastructure.persistence.AccountJpaEntity;
+import com.mahmoud.ledger.infrastructure.persistence.AccountRepository;
+import com.mahmoud.ledger.infrastructure.persistence.PersistenceAdapter;
+import com.mahmoud.ledger.infrastructure.persistence.TransactionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Keeps every balance in memory and applies postings without database locks. Accounts are partitioned
+ * over single-writer threads: a transaction whose accounts share a partition runs on that partition's
+ * thread, one that spans partitions runs on the sequencer thread while all partitions it touches are
+ * parked. Each accepted transaction is appended to the journal before it is acknowledged, and written
+ * to the database afterwards by a background flusher.
+ * <p>
+ * Balances are snapshotted periodically and on shutdown. Start-up loads the latest snapshot and replays
+ * only the journal records after it, so its cost is bounded by the number of accounts plus the records
+ * of one snapshot interval, not by the ledger's history. A snapshot may cover records the flusher had not
+ * written yet, so it also records how far the database was flushed: the records between the two are read
+ * again on start-up and those missing from the database are flushed, their balances already being in the
+ * snapshot.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "ledger.posting.mode", havingValue = "in-memory")
+public class InMemoryLedgerEngine implements AccountPort, TransactionPort {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryLedgerEngine.class);
+
+    private record Replayed(long sequence, Transaction transaction, boolean flushed) {
+    }
+
+    private final PersistenceAdapter persistenceAdapter;
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionJournal journal;
+    private final JpaFlusher flusher;
+    private final BalanceSnapshotStore snapshots;
+    private final Duration snapshotInterval;
+    private final ScheduledExecutorService snapshotter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ledger-engine-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile long lastSnapshotSequence = -1;
+    private volatile long lastSnapshotFlushed = -1;
+    private final EnginePartition[] partitions;
+    private final ExecutorService sequencer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ledger-engine-sequencer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public InMemoryLedgerEngine(PersistenceAdapter persistenceAdapter,
+            AccountRepository accountRepository,
+            TransactionRepository transactionRepository,
+            TransactionOperations transactionOperations,
+            LedgerProperties properties) {
+        LedgerProperties.EngineSettings settings = properties.engine();
+        LedgerProperties.JournalSettings journalSettings = properties.journal();
+        this.persistenceAdapter = persistenceAdapter;
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.journal = new MappedSegmentJournal(journalSettings.directory(),
+                Math.toIntExact(journalSettings.segmentSize().toBytes()), journalSettings.fsync(),
+                journalSettings.fsyncInterval(), journalSettings.fsyncBatch());
+        this.flusher = new JpaFlusher(persistenceAdapter, accountRepository, transactionOperations,
+                settings.flushInterval(), settings.flushBatchSize());
+        this.snapshots = new BalanceSnapshotStore(settings.snapshotDirectory(), settings.snapshotsRetained());
+        this.snapshotInterval = settings.snapshotInterval();
+        this.partitions = new EnginePartition[settings.partitions()];
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i] = new EnginePartition(i);
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        long started = System.nanoTime();
+        // Nothing is submitted to the partitions yet, so this thread may fill them directly
+        accountRepository.findAll().stream()
+                .map(AccountJpaEntity::toDomain)
+                .forEach(account -> partitionOf(account.getId()).accounts().put(account.getId(), account));
+
+        Optional<BalanceSnapshot> snapshot = snapshots.latest();
+        snapshot.ifPresent(this::restore);
+        long snapshotSequence = snapshot.map(BalanceSnapshot::lastSequence).orElse(0L);
+        long afterSequence = snapshot.map(taken -> Math.min(taken.lastSequence(), taken.flushedSequence()))
+                .orElse(0L);
+        long restored = System.nanoTime();
+
+        int[] replayed = {0};
+        List<Replayed> covered = new ArrayList<>();
+        journal.replay(afterSequence, (sequence, transaction) -> {
+            boolean flushed = transactionRepository.existsById(transaction.getId());
+            if (sequence <= snapshotSequence) {
+                // Already in the snapshot's balances, only the database may be missing it
+                covered.add(new Replayed(sequence, transaction, flushed));
+                return;
+            }
+            if (!covered.isEmpty()) {
+                replayed[0] += enqueueUnflushed(covered);
+                covered.clear();
+            }
+            // Without a snapshot the balances come from the database, which already holds flushed records
+            if (snapshot.isEmpty() && flushed) {
+                return;
+            }
+            try {
+                Map<UUID, Money> balancesAfter = apply(transaction);
+                if (!flushed) {
+                    flusher.enqueue(new JpaFlusher.Item(sequence, transaction, balancesAfter));
+                }
+                replayed[0]++;
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                log.error("Journaled transaction {} no longer applies, skipped", transaction.getId(), e);
+            }
+        });
+        replayed[0] += enqueueUnflushed(covered);
+        long finished = System.nanoTime();
+
+        log.info("Ledger engine started in {} ms: snapshot at sequence {} restored in {} ms, "
+                        + "{} journal records replayed in {} ms",
+                TimeUnit.NANOSECONDS.toMillis(finished - started),
+                snapshot.map(BalanceSnapshot::lastSequence).map(String::valueOf).orElse("none"),
+                TimeUnit.NANOSECONDS.toMillis(restored - started),
+                replayed[0],
+                TimeUnit.NANOSECONDS.toMillis(finished - restored));
+
+        flusher.start();
+        if (snapshot.isEmpty() || replayed[0] > 0) {
+            snapshots.write(capture());
+        }
+        snapshotter.scheduleWithFixedDelay(this::scheduledSnapshot, snapshotInterval.toMillis(),
+                snapshotInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Puts the snapshot's balances over those loaded from the database. Accounts missing from it were
+     * created after it was taken, all their postings are in the journal tail.
+     */
+    private void restore(BalanceSnapshot snapshot) {
+        Map<UUID, BalanceSnapshot.Entry> byId = new HashMap<>();
+        snapshot.balances().forEach(entry -> byId.put(entry.accountId(), entry));
+        for (EnginePartition partition : partitions) {
+            partition.accounts().replaceAll((id, account) -> {
+                BalanceSnapshot.Entry entry = byId.get(id);
+                Money balance = entry != null ? entry.balance()
+                        : Money.zero(account.getBalance().currency());
+                AccountStatus status = entry != null ? entry.status() : account.getStatus();
+                return new Account(id, account.getName(), account.getType(), balance, status,
+                        account.getCreatedAt(), account.getVersion());
+            });
+        }
+    }
+
+    /**
+     * Flushes the records of a snapshot that never reached the database, oldest first. The balances each one
+     * left behind are recovered by taking the later covered records back out of the snapshot's balances.
+     *
+     * @return the number of records flushed again
+     */
+    private int enqueueUnflushed(List<Replayed> covered) {
+        Map<UUID, Account> balances = new HashMap<>();
+        Deque<JpaFlusher.Item> unflushed = new ArrayDeque<>();
+        for (int i = covered.size() - 1; i >= 0; i--) {
+            Replayed record = covered.get(i);
+            List<Posting> postings = record.transaction().getPostings();
+            if (!record.flushed()) {
+                Map<UUID, Money> balancesAfter = new HashMap<>();
+                postings.forEach(posting -> balancesAfter.put(posting.getAccountId(),
+                        balances.computeIfAbsent(posting.getAccountId(), id -> copy(accountOf(id))).getBalance()));
+                unflushed.addFirst(new JpaFlusher.Item(record.sequence(), record.transaction(), balancesAfter));
+            }
+            for (int j = postings.size() - 1; j >= 0; j--) {
+                Posting posting = postings.get(j);
+                balances.computeIfAbsent(posting.getAccountId(), id -> copy(accountOf(id)))
+                        .postPosting(posting.reversed());
+            }
+        }
+        unflushed.forEach(flusher::enqueue);
+        return unflushed.size();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        snapshotter.shutdownNow();
+        sequencer.shutdown();
+        sequencer.awaitTermination(10, TimeUnit.SECONDS);
+        for (EnginePartition partition : partitions) {
+            partition.shutdown();
+        }
+        // Writers are stopped; once the flusher has drained, a clean restart replays nothing
+        flusher.close();
+        snapshots.write(capture());
+        journal.close();
+    }
+
+    /**
+     * Takes and writes a snapshot of every balance. Writers are paused only while the balances are copied.
+     */
+    public void snapshot() {
+        BalanceSnapshot snapshot = await(CompletableFuture.supplyAsync(
+                () -> whileParked(List.of(partitions), this::capture), sequencer));
+        snapshots.write(snapshot);
+        lastSnapshotSequence = snapshot.lastSequence();
+        lastSnapshotFlushed = snapshot.flushedSequence();
+    }
+
+    private void scheduledSnapshot() {
+        try {
+            long lastSequence = journal.lastSequence();
+            if (lastSequence != lastSnapshotSequence || flusher.flushedThrough(lastSequence) != lastSnapshotFlushed) {
+                snapshot();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Balance snapshot failed", e);
+        }
+    }
+
+    /**
+     * Only consistent while no writer runs: from the sequencer holding every partition, or when stopped.
+     */
+    private BalanceSnapshot capture() {
+        List<BalanceSnapshot.Entry> balances = new ArrayList<>();
+        for (EnginePartition partition : partitions) {
+            partition.accounts().values().forEach(account -> balances.add(
+                    new BalanceSnapshot.Entry(account.getId(), account.getBalance(), account.getStatus())));
+        }
+        long lastSequence = journal.lastSequence();
+        return new BalanceSnapshot(lastSequence, flusher.flushedThrough(lastSequence), balances);
+    }
+
+    /**
+     * Journaled transactions not yet written to the database.
+     */
+    public int unflushed() {
+        return flusher.pending();
+    }
+
+    @Override
+    public Account save(Account account) {
+        // New accounts go straight to the database, so that the flusher only ever updates existing rows
+        Account saved = persistenceAdapter.save(account);
+        EnginePartition partition = partitionOf(saved.getId());
+        await(partition.submit(() -> partition.accounts().put(saved.getId(), saved)));
+        return copy(saved);
+    }
+
+    @Override
+    public Optional<Account> load(UUID accountId) {
+        EnginePartition partition = partitionOf(accountId);
+        return await(partition.submit(() -> Optional.ofNullable(partition.accounts().get(accountId))
+                .map(InMemoryLedgerEngine::copy)));
+    }
+
+    @Override
+    public Optional<Account> loadCached(UUID accountId) {
+        // Memory is the cache
+        return load(accountId);
+    }
+
+    @Override
+    public List<Account> loadAll(Collection<UUID> accountIds) {
+        return accountIds.stream()
+                .map(this::load)
+                .flatMap(Optional::stream)
+                .toList();
+    }
+
+    /**
+     * Applies, journals and acknowledges the transaction. Rejections surface like in the database modes:
+     * {@link IllegalArgumentException} for unknown accounts and currency mismatches,
+     * {@link InsufficientFundsException} for insufficient funds.
+     */
+    @Override
+    public Transaction save(Transaction transaction) {
+        await(post(transaction));
+        return transaction;
+    }
+
+    @Override
+    public void saveAll(List<Transaction> transactions) {
+        transactions.forEach(this::save);
+    }
+
+    /**
+     * Only sees the transaction once the flusher has written it.
+     */
+    @Override
+    public boolean exists(UUID transactionId) {
+        return persistenceAdapter.exists(transactionId);
+    }
+
+    private CompletableFuture<Void> post(Transaction transaction) {
+        Set<EnginePartition> involved = new LinkedHashSet<>();
+        transaction.getPostings().forEach(posting -> involved.add(partitionOf(posting.getAccountId())));
+
+        if (involved.size() == 1) {
+            return involved.iterator().next().submit(() -> {
+                applyAndJournal(transaction);
+                return null;
+            });
+        }
+        return CompletableFuture.runAsync(() -> whileParked(involved, () -> {
+            applyAndJournal(transaction);
+            return null;
+        }), sequencer);
+    }
+
+    /**
+     * Runs on the sequencer: parks the writers of the given partitions, so that their accounts can be
+     * touched from here, and releases them once the work is done.
+     */
+    private <T> T whileParked(Collection<EnginePartition> involved, Supplier<T> work) {
+        CountDownLatch parked = new CountDownLatch(involved.size());
+        CountDownLatch release = new CountDownLatch(1);
+        involved.forEach(partition -> partition.execute(() -> {
+            parked.countDown();
+            awaitUninterruptibly(release);
+        }));
+        try {
+            awaitUninterruptibly(parked);
+            return work.get();
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private void applyAndJournal(Transaction transaction) {
+        Map<UUID, Money> balancesAfter = apply(transaction);
+        long sequence;
+        try {
+            sequence = journal.append(transaction);
+        } catch (RuntimeException e) {
+            undo(transaction, transaction.getPostings().size());
+            throw e;
+        }
+        flusher.enqueue(new JpaFlusher.Item(sequence, transaction, balancesAfter));
+    }
+
+    /**
+     * Applies all postings or none of them, returning the balances they leave behind.
+     */
+    private Map<UUID, Money> apply(Transaction transaction) {
+        List<Posting> postings = transaction.getPostings();
+        for (int i = 0; i < postings.size(); i++) {
+            try {
+                accountOf(postings.get(i).getAccountId()).postPosting(postings.get(i));
+            } catch (RuntimeException e) {
+                undo(transaction, i);
+                throw e;
+            }
+        }
+        Map<UUID, Money> balancesAfter = new HashMap<>();
+        postings.forEach(posting -> balancesAfter.put(posting.getAccountId(),
+                accountOf(posting.getAccountId()).getBalance()));
+        return balancesAfter;
+    }
+
+    private void undo(Transaction transaction, int applied) {
+        List<Posting> postings = transaction.getPostings();
+        for (int i = applied - 1; i >= 0; i--) {
+            accountOf(postings.get(i).getAccountId()).postPosting(postings.get(i).reversed());
+        }
+    }
+
+    private Account accountOf(UUID accountId) {
+        Account account = partitionOf(accountId).accounts().get(accountId);
+        if (account == null) {
+            throw new IllegalArgumentException("Account not found: " + accountId);
+        }
+        return account;
+    }
+
+    private EnginePartition partitionOf(UUID accountId) {
+        return partitions[Math.floorMod(accountId.hashCode(), partitions.length)];
+    }
+
+    private static Account copy(Account account) {
+        return new Account(account.getId(), account.getName(), account.getType(), account.getBalance(),
+                account.getStatus(), account.getCreatedAt(), account.getVersion());
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.mahmoud.ledger.infrastructure.engine;
+
+import com.mahmoud.ledger.domain.model.Money;
+import com.mahmoud.ledger.domain.model.Transaction;
+import com.mahmoud.ledger.infrastructure.persistence.AccountRepository;
+import com.mahmoud.ledger.infrastructure.persistence.PersistenceAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes journaled transactions, and the balances they left behind, to the JPA system of record in the
+ * background. Items are queued in the order the engine applied them, so per account the last item of a
+ * batch carries its latest balance. Each batch is one database transaction: a transaction is in the
+ * database if and only if its balance effects are.
+ */
+class JpaFlusher implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(JpaFlusher.class);
+
+    /**
+     * @param sequence the transaction's journal record
+     */
+    record Item(long sequence, Transaction transaction, Map<UUID, Money> balancesAfter) {
+    }
+
+    private final PersistenceAdapter persistenceAdapter;
+    private final AccountRepository accountRepository;
+    private final TransactionOperations transactionOperations;
+    private final Duration interval;
+    private final int batchSize;
+    private final BlockingQueue<Item> queue = new LinkedBlockingQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final NavigableSet<Long> unflushed = new ConcurrentSkipListSet<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    JpaFlusher(PersistenceAdapter persistenceAdapter, AccountRepository accountRepository,
+            TransactionOperations transactionOperations, Duration interval, int batchSize) {
+        this.persistenceAdapter = persistenceAdapter;
+        this.accountRepository = accountRepository;
+        this.transactionOperations = transactionOperations;
+        this.interval = interval;
+        this.batchSize = batchSize;
+        this.thread = new Thread(this::run, "ledger-engine-flusher");
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void enqueue(Item item) {
+        pending.incrementAndGet();
+        unflushed.add(item.sequence());
+        queue.add(item);
+    }
+
+    /**
+     * The journal sequence up to which every record is in the database, given the journal's last one. Exact
+     * only while no record is being appended; otherwise a sequence from before the ongoing appends.
+     */
+    long flushedThrough(long lastSequence) {
+        Long oldest = unflushed.ceiling(Long.MIN_VALUE);
+        return oldest != null ? oldest - 1 : lastSequence;
+    }
+
+    /**
+     * Journaled transactions not yet committed to the database, queued or in the batch being written.
+     */
+    int pending() {
+        return pending.get();
+    }
+
+    private void run() {
+        List<Item> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Item first = queue.poll(interval.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                if (flushUntilDone(batch)) {
+                    batch.forEach(item -> unflushed.remove(item.sequence()));
+                }
+                pending.addAndGet(-batch.size());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * @return false if the flusher gave up on the batch because it is shutting down
+     */
+    private boolean flushUntilDone(List<Item> batch) throws InterruptedException {
+        while (true) {
+            try {
+                flush(batch);
+                return true;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    // The journal still has them, they are replayed on the next start
+                    log.error("Giving up flushing {} journaled transactions on shutdown", batch.size(), e);
+                    return false;
+                }
+                log.warn("Flushing {} journaled transactions failed, retrying", batch.size(), e);
+                Thread.sleep(interval.toMillis());
+            }
+        }
+    }
+
+    private void flush(List<Item> batch) {
+        Map<UUID, Money> latestBalances = new HashMap<>();
+        batch.forEach(item -> latestBalances.putAll(item.balancesAfter()));
+
+        transactionOperations.executeWithoutResult(status -> {
+            persistenceAdapter.saveAll(batch.stream().map(Item::transaction).toList());
+            latestBalances.forEach((accountId, balance) ->
+                    accountRepository.updateBalance(accountId, balance.amount()));
+        });
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            thread.join(Duration.ofSeconds(10).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
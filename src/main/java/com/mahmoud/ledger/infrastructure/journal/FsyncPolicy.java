@@ -0,0 +1,20 @@
+package com.mahmoud.ledger.infrastructure.journal;
+
+/**
+ * When appended journal records are forced from the page cache to disk.
+ */
+public enum FsyncPolicy {
+    /**
+     * Before every append returns. Nothing acknowledged is lost on power failure.
+     */
+    EVERY_WRITE,
+    /**
+     * In the background, at a fixed interval. At most one interval of acknowledged records is lost on
+     * power failure; a process crash alone loses nothing, the mapped pages are still written back.
+     */
+    INTERVAL,
+    /**
+     * Once a batch of records has been appended since the last force.
+     */
+    BATCH
+}
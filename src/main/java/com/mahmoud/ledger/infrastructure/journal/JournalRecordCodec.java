@@ -0,0 +1,124 @@
+package com.mahmoud.ledger.infrastructure.journal;
+
+import com.mahmoud.ledger.domain.model.Money;
+import com.mahmoud.ledger.domain.model.Posting;
+import com.mahmoud.ledger.domain.model.Transaction;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Currency;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+/**
+ * Compact binary form of a {@link Transaction} and its postings:
+ * <pre>
+ * int    payload length
+ * ...    payload: id, timestamp (epoch second + nano, UTC), description, postings
+ *               (account id, type, currency, amount in minor units)
+ * int    CRC32C of the payload
+ * </pre>
+ */
+public final class JournalRecordCodec {
+
+    static final int HEADER_BYTES = Integer.BYTES;
+    static final int TRAILER_BYTES = Integer.BYTES;
+
+    private JournalRecordCodec() {
+    }
+
+    /**
+     * Encodes a complete record, length prefix and checksum included.
+     */
+    public static byte[] encode(Transaction transaction) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0); // length placeholder
+
+            writeUuid(out, transaction.getId());
+            out.writeLong(transaction.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(transaction.getTimestamp().getNano());
+            writeString(out, transaction.getDescription());
+            out.writeShort(transaction.getPostings().size());
+            for (Posting posting : transaction.getPostings()) {
+                writeUuid(out, posting.getAccountId());
+                out.writeByte(posting.getType().ordinal());
+                writeString(out, posting.getAmount().currency().getCurrencyCode());
+                out.writeLong(posting.getAmount().minorUnits());
+            }
+            out.writeInt(0); // checksum placeholder
+            out.flush();
+
+            ByteBuffer record = ByteBuffer.wrap(bytes.toByteArray());
+            int payloadLength = record.capacity() - HEADER_BYTES - TRAILER_BYTES;
+            record.putInt(0, payloadLength);
+            record.putInt(HEADER_BYTES + payloadLength, checksum(record, HEADER_BYTES, payloadLength));
+            return record.array();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Decodes the payload of a record whose length prefix has already been read.
+     * Returns null if the checksum doesn't match.
+     */
+    public static Transaction decode(ByteBuffer payload, int expectedChecksum) {
+        if (checksum(payload, payload.position(), payload.remaining()) != expectedChecksum) {
+            return null;
+        }
+        UUID id = readUuid(payload);
+        LocalDateTime timestamp = LocalDateTime.ofEpochSecond(payload.getLong(), payload.getInt(), ZoneOffset.UTC);
+        Transaction transaction = new Transaction(id, readString(payload), timestamp);
+        int postings = payload.getShort();
+        for (int i = 0; i < postings; i++) {
+            UUID accountId = readUuid(payload);
+            Posting.Type type = Posting.Type.values()[payload.get()];
+            Currency currency = Money.currency(readString(payload));
+            transaction.addPosting(new Posting(accountId, new Money(payload.getLong(), currency), type));
+        }
+        return transaction;
+    }
+
+    static int checksum(ByteBuffer buffer, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().position(offset).limit(offset + length));
+        return (int) crc.getValue();
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID uuid) throws IOException {
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(ByteBuffer in) {
+        return new UUID(in.getLong(), in.getLong());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
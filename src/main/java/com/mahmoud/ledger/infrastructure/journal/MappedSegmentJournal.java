@@ -0,0 +1,235 @@
+package com.mahmoud.ledger.infrastructure.journal;
+
+import com.mahmoud.ledger.domain.model.Transaction;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Journal kept in fixed-size, memory-mapped segment files. Appends are copies into the mapped segment,
+ * made durable according to the {@link FsyncPolicy}. A segment that can't take the next record is closed
+ * and a new one started; each segment file is named after the sequence number of its first record.
+ * <p>
+ * Segments are pre-allocated, so their unused tail reads as zeros: a zero length prefix ends a segment.
+ * A torn record left at the tail by a crash is zeroed on open, so that records appended afterwards stay
+ * reachable by {@link #replay}.
+ */
+public class MappedSegmentJournal implements TransactionJournal {
+
+    static final String SEGMENT_SUFFIX = ".segment";
+    private static final byte[] ZEROS = new byte[64 * 1024];
+
+    private final Path directory;
+    private final int segmentSize;
+    private final FsyncPolicy fsyncPolicy;
+    private final int fsyncBatch;
+    private final ScheduledExecutorService syncer;
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long nextSequence;
+    private int unsynced;
+
+    public MappedSegmentJournal(Path directory, int segmentSize, FsyncPolicy fsyncPolicy, Duration fsyncInterval,
+            int fsyncBatch) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncBatch = fsyncBatch;
+        try {
+            Files.createDirectories(directory);
+            List<Segment> segments = segments();
+            if (segments.isEmpty()) {
+                openSegment(1);
+            } else {
+                Segment last = segments.get(segments.size() - 1);
+                openSegment(last.base());
+                Scan scan = scan(segment.duplicate().clear(), last.base(), Long.MAX_VALUE, (sequence, tx) -> {
+                });
+                segment.position(scan.end());
+                zeroFrom(scan.end());
+                nextSequence = last.base() + scan.records();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open journal in " + directory, e);
+        }
+
+        if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            this.syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ledger-journal-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            syncer.scheduleWithFixedDelay(this::sync, fsyncInterval.toMillis(), fsyncInterval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        } else {
+            this.syncer = null;
+        }
+    }
+
+    @Override
+    public synchronized long append(Transaction transaction) {
+        byte[] record = JournalRecordCodec.encode(transaction);
+        if (record.length > segmentSize) {
+            throw new IllegalArgumentException("Transaction too large for a journal segment: " + record.length);
+        }
+        if (segment.remaining() < record.length) {
+            roll();
+        }
+        int start = segment.position();
+        segment.put(record);
+        unsynced++;
+        if (fsyncPolicy == FsyncPolicy.EVERY_WRITE) {
+            segment.force(start, record.length);
+            unsynced = 0;
+        } else if (fsyncPolicy == FsyncPolicy.BATCH && unsynced >= fsyncBatch) {
+            segment.force();
+            unsynced = 0;
+        }
+        return nextSequence++;
+    }
+
+    @Override
+    public synchronized long lastSequence() {
+        return nextSequence - 1;
+    }
+
+    @Override
+    public void replay(long afterSequence, RecordConsumer consumer) {
+        try {
+            List<Segment> segments = segments();
+            for (int i = 0; i < segments.size(); i++) {
+                // Every record of a segment precedes the next segment's first one
+                if (i + 1 < segments.size() && segments.get(i + 1).base() <= afterSequence + 1) {
+                    continue;
+                }
+                Segment current = segments.get(i);
+                Scan scan;
+                try (FileChannel in = FileChannel.open(current.path(), StandardOpenOption.READ)) {
+                    scan = scan(in.map(FileChannel.MapMode.READ_ONLY, 0, in.size()), current.base(), afterSequence,
+                            consumer);
+                }
+                if (!scan.intact()) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot replay journal in " + directory, e);
+        }
+    }
+
+    /**
+     * Forces records appended since the last force to disk.
+     */
+    public void sync() {
+        MappedByteBuffer toForce;
+        synchronized (this) {
+            if (unsynced == 0) {
+                return;
+            }
+            toForce = segment;
+            unsynced = 0;
+        }
+        toForce.force();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (syncer != null) {
+            syncer.shutdownNow();
+        }
+        segment.force();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void roll() {
+        segment.force();
+        unsynced = 0;
+        try {
+            channel.close();
+            openSegment(nextSequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot start journal segment in " + directory, e);
+        }
+    }
+
+    private void openSegment(long base) throws IOException {
+        Path path = directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        nextSequence = base;
+    }
+
+    private void zeroFrom(int position) {
+        ByteBuffer tail = segment.duplicate().position(position);
+        while (tail.hasRemaining()) {
+            tail.put(ZEROS, 0, Math.min(ZEROS.length, tail.remaining()));
+        }
+        segment.force();
+    }
+
+    private List<Segment> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .map(path -> {
+                        String name = path.getFileName().toString();
+                        return new Segment(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())),
+                                path);
+                    })
+                    .sorted((a, b) -> Long.compare(a.base(), b.base()))
+                    .toList();
+        }
+    }
+
+    /**
+     * Walks the records of one segment, feeding those numbered after {@code afterSequence} to the consumer.
+     */
+    private static Scan scan(ByteBuffer buffer, long base, long afterSequence, RecordConsumer consumer) {
+        long sequence = base;
+        while (buffer.remaining() >= JournalRecordCodec.HEADER_BYTES) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            if (length == 0) {
+                return new Scan(sequence - base, start, true);
+            }
+            if (length < 0 || length > buffer.remaining() - JournalRecordCodec.TRAILER_BYTES) {
+                return new Scan(sequence - base, start, false); // torn write at the tail
+            }
+            ByteBuffer payload = buffer.slice(buffer.position(), length);
+            int checksum = buffer.getInt(buffer.position() + length);
+            Transaction transaction = JournalRecordCodec.decode(payload, checksum);
+            if (transaction == null) {
+                return new Scan(sequence - base, start, false);
+            }
+            if (sequence > afterSequence) {
+                consumer.accept(sequence, transaction);
+            }
+            buffer.position(buffer.position() + length + JournalRecordCodec.TRAILER_BYTES);
+            sequence++;
+        }
+        return new Scan(sequence - base, buffer.position(), true);
+    }
+
+    private record Segment(long base, Path path) {
+    }
+
+    private record Scan(long records, int end, boolean intact) {
+    }
+}
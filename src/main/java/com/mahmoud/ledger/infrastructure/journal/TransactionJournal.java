@@ -0,0 +1,34 @@
+package com.mahmoud.ledger.infrastructure.journal;
+
+import com.mahmoud.ledger.domain.model.Transaction;
+
+/**
+ * Append-only, sequential log of posted transactions. Records are numbered in append order, starting at 1.
+ */
+public interface TransactionJournal extends AutoCloseable {
+
+    /**
+     * Appends the transaction and returns its sequence number. Once this returns the record is as durable
+     * as the journal's fsync policy makes it.
+     */
+    long append(Transaction transaction);
+
+    /**
+     * Sequence number of the last appended record, 0 while the journal is empty.
+     */
+    long lastSequence();
+
+    /**
+     * Reads every intact record numbered after {@code afterSequence}, in append order.
+     * A torn or corrupt record ends the replay.
+     */
+    void replay(long afterSequence, RecordConsumer consumer);
+
+    @Override
+    void close();
+
+    @FunctionalInterface
+    interface RecordConsumer {
+        void accept(long sequence, Transaction transaction);
+    }
+}
@@ -0,0 +1,91 @@
+package com.mahmoud.ledger.infrastructure.metrics;
+
+import com.mahmoud.ledger.application.port.out.MetricsPort;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the posting pipeline's measurements as Micrometer meters. Timers carry percentile histograms, so
+ * percentiles can be aggregated across instances by the metrics backend (Prometheus {@code histogram_quantile}).
+ */
+@Component
+public class MicrometerMetrics implements MetricsPort {
+
+    private final MeterRegistry registry;
+    private final Map<PostingPhase, Timer> phases = new EnumMap<>(PostingPhase.class);
+    private final DistributionSummary postings;
+    private final Timer lockWait;
+    private final Timer readModelLag;
+
+    public MicrometerMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (PostingPhase phase : PostingPhase.values()) {
+            phases.put(phase, Timer.builder("ledger.posting.phase")
+                    .description("Time a posting's database transaction spends in each phase")
+                    .tag("phase", phase.name().toLowerCase())
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        this.postings = DistributionSummary.builder("ledger.transaction.postings")
+                .description("Postings per transaction")
+                .baseUnit("postings")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.lockWait = Timer.builder("ledger.account.lock.wait")
+                .description("Time taken by queries locking account rows")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.readModelLag = Timer.builder("ledger.readmodel.lag")
+                .description("Time from a commit until the account views it touched were rebuilt")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    @Override
+    public void recordUseCase(String useCase, String outcome, long nanos) {
+        // Looked up per call: the registry caches meters by name and tags
+        Timer.builder("ledger.usecase")
+                .description("Time taken by ledger use cases")
+                .tag("usecase", useCase)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordPhase(PostingPhase phase, long nanos) {
+        phases.get(phase).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordPostings(int count) {
+        postings.record(count);
+    }
+
+    @Override
+    public void recordRejection(String reason) {
+        Counter.builder("ledger.posting.rejections")
+                .description("Postings rejected by a business rule")
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+    }
+
+    @Override
+    public void recordLockWait(long nanos) {
+        lockWait.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordReadModelLag(long nanos) {
+        readModelLag.record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
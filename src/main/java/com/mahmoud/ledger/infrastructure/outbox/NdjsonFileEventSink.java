@@ -0,0 +1,61 @@
+package com.mahmoud.ledger.infrastructure.outbox;
+
+import com.mahmoud.ledger.application.port.in.LedgerEvent;
+import com.mahmoud.ledger.application.port.out.LedgerEventSink;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends events to a file, one JSON object per line, and forces each batch to disk before it counts as
+ * published. A consumer tails the file and skips lines whose sequence it has already processed.
+ */
+public class NdjsonFileEventSink implements LedgerEventSink, AutoCloseable {
+
+    private final JsonMapper jsonMapper;
+    private final FileChannel channel;
+
+    public NdjsonFileEventSink(Path file, JsonMapper jsonMapper) {
+        this.jsonMapper = jsonMapper;
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open ledger event file " + file, e);
+        }
+    }
+
+    @Override
+    public synchronized void publish(List<LedgerEvent> events) {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(events.size() * 256);
+        for (LedgerEvent event : events) {
+            lines.writeBytes(jsonMapper.writeValueAsBytes(event));
+            lines.write('\n');
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Writing ledger events failed", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,64 @@
+package com.mahmoud.ledger.infrastructure.persistence;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mahmoud.ledger.domain.model.Account;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Bounded, expiring cache of committed account states. Writers invalidate an account once their
+ * transaction has committed, never before: until then readers keep getting the previous committed
+ * state. A read that loaded the old state concurrently with the commit is discarded too, since
+ * invalidation waits for a load in progress on the same key.
+ */
+public class AccountCache {
+
+    private final Cache<UUID, Account> cache;
+
+    public AccountCache(long maximumSize, Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns a private copy of the cached account, loading it on a miss. Unknown accounts aren't cached.
+     */
+    Optional<Account> get(UUID accountId, Function<UUID, Optional<Account>> loader) {
+        return Optional.ofNullable(cache.get(accountId, id -> loader.apply(id).orElse(null)))
+                .map(AccountCache::copy);
+    }
+
+    void invalidateAfterCommit(UUID accountId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.invalidate(accountId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.invalidate(accountId);
+            }
+        });
+    }
+
+    /**
+     * The underlying cache, for metrics.
+     */
+    public Cache<UUID, Account> nativeCache() {
+        return cache;
+    }
+
+    private static Account copy(Account account) {
+        return new Account(account.getId(), account.getName(), account.getType(), account.getBalance(),
+                account.getStatus(), account.getCreatedAt(), account.getVersion());
+    }
+}
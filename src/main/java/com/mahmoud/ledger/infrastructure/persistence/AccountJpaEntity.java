@@ -36,12 +36,20 @@ public class AccountJpaEntity {
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
+    @Version
+    private Long version;
+
     // Default constructor for JPA
     protected AccountJpaEntity() {
     }
 
     public AccountJpaEntity(UUID id, String name, BigDecimal balanceAmount, String currency, AccountStatus status,
             AccountType type, LocalDateTime createdAt) {
+        this(id, name, balanceAmount, currency, status, type, createdAt, null);
+    }
+
+    public AccountJpaEntity(UUID id, String name, BigDecimal balanceAmount, String currency, AccountStatus status,
+            AccountType type, LocalDateTime createdAt, Long version) {
         this.id = id;
         this.name = name;
         this.balanceAmount = balanceAmount;
@@ -49,6 +57,7 @@ public class AccountJpaEntity {
         this.status = status;
         this.type = type;
         this.createdAt = createdAt;
+        this.version = version;
     }
 
     public UUID getId() {
@@ -79,6 +88,10 @@ public class AccountJpaEntity {
         return createdAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public static AccountJpaEntity fromDomain(Account account) {
         return new AccountJpaEntity(
                 account.getId(),
@@ -87,10 +100,11 @@ public class AccountJpaEntity {
                 account.getBalance().currency().getCurrencyCode(),
                 account.getStatus(),
                 account.getType(),
-                account.getCreatedAt());
+                account.getCreatedAt(),
+                account.getVersion());
     }
 
     public Account toDomain() {
-        return new Account(id, name, type, Money.of(balanceAmount, currency), status, createdAt);
+        return new Account(id, name, type, Money.of(balanceAmount, currency), status, createdAt, version);
     }
 }
@@ -1,11 +1,16 @@
 package com.mahmoud.ledger.infrastructure.persistence;
 
+import com.mahmoud.ledger.domain.model.AccountType;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -13,4 +18,31 @@ public interface AccountRepository extends JpaRepository<AccountJpaEntity, UUID>
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("select a from AccountJpaEntity a where a.id = :id")
     Optional<AccountJpaEntity> findByIdLocked(@Param("id") UUID id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from AccountJpaEntity a where a.id in :ids order by a.id")
+    List<AccountJpaEntity> findAllByIdLocked(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Conditional balance update: debit-normal types add {@code netDebit}, the others add {@code netCredit}
+     * (its negation). Returns 0 when the account is unknown, in another currency or would go negative.
+     * A copy of the account already in the persistence context is left stale, the caller evicts it.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            update AccountJpaEntity a
+            set a.balanceAmount = a.balanceAmount + case when a.type in :debitNormal then :netDebit else :netCredit end,
+                a.version = a.version + 1
+            where a.id = :id and a.currency = :currency
+            and a.balanceAmount + case when a.type in :debitNormal then :netDebit else :netCredit end >= 0
+            """)
+    int applyNetDebit(@Param("id") UUID id,
+            @Param("netDebit") BigDecimal netDebit,
+            @Param("netCredit") BigDecimal netCredit,
+            @Param("currency") String currency,
+            @Param("debitNormal") Collection<AccountType> debitNormal);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update AccountJpaEntity a set a.balanceAmount = :balance, a.version = a.version + 1 where a.id = :id")
+    int updateBalance(@Param("id") UUID id, @Param("balance") BigDecimal balance);
 }
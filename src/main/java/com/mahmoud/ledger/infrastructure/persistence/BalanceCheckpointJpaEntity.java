@@ -0,0 +1,53 @@
+package com.mahmoud.ledger.infrastructure.persistence;
+
+import com.mahmoud.ledger.domain.model.BalanceCheckpoint;
+import com.mahmoud.ledger.domain.model.Money;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "balance_checkpoints", indexes = @Index(name = "idx_balance_checkpoints_account_as_of",
+        columnList = "account_id, as_of"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class BalanceCheckpointJpaEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID accountId;
+
+    @Column(nullable = false)
+    private LocalDateTime asOf;
+
+    @Column(nullable = false)
+    private BigDecimal balance;
+
+    @Column(nullable = false)
+    private String currency;
+
+    @Column(nullable = false)
+    private long postings;
+
+    public static BalanceCheckpointJpaEntity fromDomain(BalanceCheckpoint checkpoint) {
+        BalanceCheckpointJpaEntity entity = new BalanceCheckpointJpaEntity();
+        entity.setAccountId(checkpoint.accountId());
+        entity.setAsOf(checkpoint.asOf());
+        entity.setBalance(checkpoint.balance().amount());
+        entity.setCurrency(checkpoint.balance().currency().getCurrencyCode());
+        entity.setPostings(checkpoint.postings());
+        return entity;
+    }
+
+    public BalanceCheckpoint toDomain() {
+        return new BalanceCheckpoint(accountId, asOf, Money.of(balance, currency), postings);
+    }
+}
@@ -0,0 +1,28 @@
+package com.mahmoud.ledger.infrastructure.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface BalanceCheckpointRepository extends JpaRepository<BalanceCheckpointJpaEntity, UUID> {
+
+    Optional<BalanceCheckpointJpaEntity> findFirstByAccountIdAndAsOfLessThanEqualOrderByAsOfDesc(UUID accountId,
+            LocalDateTime asOf);
+
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            update BalanceCheckpointJpaEntity c
+            set c.balance = c.balance + :delta, c.postings = c.postings + :postings
+            where c.accountId = :accountId and c.asOf >= :postedAt
+            """)
+    int shift(@Param("accountId") UUID accountId,
+            @Param("postedAt") LocalDateTime postedAt,
+            @Param("delta") BigDecimal delta,
+            @Param("postings") long postings);
+}
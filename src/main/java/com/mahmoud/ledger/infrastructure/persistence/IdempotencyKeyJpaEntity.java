@@ -0,0 +1,54 @@
+package com.mahmoud.ledger.infrastructure.persistence;
+
+import com.mahmoud.ledger.domain.model.IdempotencyKey;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_keys_created_at",
+        columnList = "created_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class IdempotencyKeyJpaEntity implements Persistable<String> {
+    @Id
+    @Column(name = "idempotency_key", length = IdempotencyKey.MAX_LENGTH)
+    private String key;
+
+    @Column(nullable = false)
+    private String requestHash;
+
+    @Column(nullable = false)
+    private UUID transactionId;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public static IdempotencyKeyJpaEntity of(IdempotencyKey key, UUID transactionId, LocalDateTime createdAt) {
+        IdempotencyKeyJpaEntity entity = new IdempotencyKeyJpaEntity();
+        entity.setKey(key.key());
+        entity.setRequestHash(key.requestHash());
+        entity.setTransactionId(transactionId);
+        entity.setCreatedAt(createdAt);
+        return entity;
+    }
+
+    @Override
+    public String getId() {
+        return key;
+    }
+
+    /**
+     * Keys are only ever inserted: a key taken concurrently fails on the primary key instead of being merged.
+     */
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -0,0 +1,98 @@
+package com.mahmoud.ledger.infrastructure.persistence;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.mahmoud.ledger.application.port.out.IdempotencyPort;
+import com.mahmoud.ledger.domain.model.IdempotencyKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Idempotency keys in the {@code idempotency_keys} table, fronted by a bounded cache of recently used keys that
+ * answers the usual duplicate, a client retrying shortly after, without a query. Keys expire after the retention
+ * period: cached ones are evicted in the background, stored ones are deleted by a periodic purge and ignored
+ * once expired until then.
+ */
+public class IdempotencyKeyStore implements IdempotencyPort {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyKeyStore.class);
+
+    private final IdempotencyKeyRepository repository;
+    private final TransactionOperations transactionOperations;
+    private final Duration retention;
+    private final Cache<String, StoredKey> recentKeys;
+
+    public IdempotencyKeyStore(IdempotencyKeyRepository repository, TransactionOperations transactionOperations,
+            Duration retention, long maximumCachedKeys) {
+        this.repository = repository;
+        this.transactionOperations = transactionOperations;
+        this.retention = retention;
+        this.recentKeys = Caffeine.newBuilder()
+                .maximumSize(maximumCachedKeys)
+                .expireAfterWrite(retention)
+                .scheduler(Scheduler.systemScheduler())
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public Optional<StoredKey> findIdempotencyKey(String key) {
+        StoredKey cached = recentKeys.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<IdempotencyKeyJpaEntity> stored = repository.findById(key);
+        if (stored.isEmpty()) {
+            return Optional.empty();
+        }
+        IdempotencyKeyJpaEntity entity = stored.get();
+        if (entity.getCreatedAt().isBefore(expiredBefore())) {
+            // Not purged yet; make room for the key's reuse
+            transactionOperations.executeWithoutResult(status -> repository.deleteById(key));
+            return Optional.empty();
+        }
+        StoredKey found = new StoredKey(entity.getRequestHash(), entity.getTransactionId());
+        recentKeys.put(key, found);
+        return Optional.of(found);
+    }
+
+    @Override
+    public void saveIdempotencyKey(IdempotencyKey key, UUID transactionId) {
+        transactionOperations.executeWithoutResult(status ->
+                repository.save(IdempotencyKeyJpaEntity.of(key, transactionId, LocalDateTime.now())));
+        rememberIdempotencyKey(key, transactionId);
+    }
+
+    @Override
+    public void rememberIdempotencyKey(IdempotencyKey key, UUID transactionId) {
+        recentKeys.put(key.key(), new StoredKey(key.requestHash(), transactionId));
+    }
+
+    @Scheduled(fixedDelayString = "${ledger.idempotency.purge-interval:1m}",
+            initialDelayString = "${ledger.idempotency.purge-interval:1m}")
+    public void purgeExpired() {
+        Integer purged = transactionOperations.execute(status -> repository.deleteCreatedBefore(expiredBefore()));
+        if (purged != null && purged > 0) {
+            log.debug("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    /**
+     * The underlying cache, for metrics.
+     */
+    public Cache<String, StoredKey> nativeCache() {
+        return recentKeys;
+    }
+
+    private LocalDateTime expiredBefore() {
+        return LocalDateTime.now().minus(retention);
+    }
+}
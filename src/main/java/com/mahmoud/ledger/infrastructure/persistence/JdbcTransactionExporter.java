@@ -0,0 +1,63 @@
+package com.mahmoud.ledger.infrastructure.persistence;
+
+import com.mahmoud.ledger.application.port.in.ExportedPosting;
+import com.mahmoud.ledger.application.port.out.TransactionExportPort;
+import com.mahmoud.ledger.domain.model.Posting;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Streams export rows from a forward-only, read-only JDBC cursor. Rows are mapped one at a time and handed to
+ * the sink while the cursor is open, so memory does not grow with the size of the range; no entity or
+ * persistence context is involved.
+ */
+public class JdbcTransactionExporter implements TransactionExportPort {
+
+    private static final String EXPORT_SQL = """
+            select t.id, t.timestamp, t.description, p.id, p.account_id, p.type, p.amount, p.currency
+            from transactions t
+            join postings p on p.transaction_id = t.id
+            where t.timestamp >= ? and t.timestamp < ?
+            order by t.timestamp, t.id, p.id""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public JdbcTransactionExporter(DataSource dataSource, PlatformTransactionManager transactionManager,
+            int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public long streamPostings(LocalDateTime from, LocalDateTime to, Consumer<ExportedPosting> sink) {
+        // Drivers such as PostgreSQL only honour the fetch size inside a transaction, otherwise they
+        // read the whole result up front
+        Long rows = readOnlyTransaction.execute(status -> {
+            long[] count = { 0 };
+            jdbcTemplate.query(EXPORT_SQL, resultSet -> {
+                sink.accept(new ExportedPosting(
+                        resultSet.getObject(1, UUID.class),
+                        resultSet.getTimestamp(2).toLocalDateTime(),
+                        resultSet.getString(3),
+                        resultSet.getObject(4, UUID.class),
+                        resultSet.getObject(5, UUID.class),
+                        Posting.Type.valueOf(resultSet.getString(6)),
+                        resultSet.getBigDecimal(7),
+                        resultSet.getString(8)));
+                count[0]++;
+            }, Timestamp.valueOf(from), Timestamp.valueOf(to));
+            return count[0];
+        });
+        return rows != null ? rows : 0;
+    }
+}
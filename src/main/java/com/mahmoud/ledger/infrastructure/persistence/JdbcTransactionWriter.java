@@ -0,0 +1,81 @@
+package com.mahmoud.ledger.infrastructure.persistence;
+
+import com.mahmoud.ledger.domain.model.IdGenerator;
+import com.mahmoud.ledger.domain.model.Posting;
+import com.mahmoud.ledger.domain.model.Transaction;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the rows directly: one batched INSERT for the transactions, one for all their postings with
+ * {@code transaction_id} already set, one for their idempotency keys and one for their outbox entries. No
+ * entities are created, so nothing is added to the persistence context, and posting ids come from the
+ * configured {@link IdGenerator}. Shares the connection and database transaction of the JPA writes around it.
+ */
+@Component
+@ConditionalOnProperty(name = "ledger.persistence.transaction-writer", havingValue = "jdbc", matchIfMissing = true)
+class JdbcTransactionWriter implements TransactionWriter {
+
+    private static final String INSERT_TRANSACTION_SQL = """
+            insert into transactions (id, timestamp, description) values (?, ?, ?)""";
+
+    private static final String INSERT_POSTING_SQL = """
+            insert into postings (id, transaction_id, account_id, posted_at, amount, currency, type)
+            values (?, ?, ?, ?, ?, ?, ?)""";
+
+    private static final String INSERT_IDEMPOTENCY_KEY_SQL = """
+            insert into idempotency_keys (idempotency_key, request_hash, transaction_id, created_at)
+            values (?, ?, ?, ?)""";
+
+    private static final String INSERT_OUTBOX_SQL = """
+            insert into outbox (transaction_id) values (?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdGenerator idGenerator;
+
+    JdbcTransactionWriter(DataSource dataSource, IdGenerator idGenerator) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.idGenerator = idGenerator;
+    }
+
+    @Override
+    public void insert(List<Transaction> transactions, boolean outbox) {
+        List<Object[]> transactionRows = new ArrayList<>(transactions.size());
+        List<Object[]> postingRows = new ArrayList<>(transactions.size() * 2);
+        List<Object[]> keyRows = new ArrayList<>();
+        List<Object[]> outboxRows = new ArrayList<>(transactions.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (Transaction transaction : transactions) {
+            Timestamp timestamp = Timestamp.valueOf(transaction.getTimestamp());
+            transactionRows.add(new Object[] { transaction.getId(), timestamp, transaction.getDescription() });
+            if (outbox) {
+                outboxRows.add(new Object[] { transaction.getId() });
+            }
+            for (Posting posting : transaction.getPostings()) {
+                postingRows.add(new Object[] { idGenerator.nextId(), transaction.getId(), posting.getAccountId(),
+                        timestamp, posting.getAmount().amount(), posting.getAmount().currency().getCurrencyCode(),
+                        posting.getType().name() });
+            }
+            if (transaction.getIdempotencyKey() != null) {
+                keyRows.add(new Object[] { transaction.getIdempotencyKey().key(),
+                        transaction.getIdempotencyKey().requestHash(), transaction.getId(), now });
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION_SQL, transactionRows);
+        jdbcTemplate.batchUpdate(INSERT_POSTING_SQL, postingRows);
+        if (!keyRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_IDEMPOTENCY_KEY_SQL, keyRows);
+        }
+        if (!outboxRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_OUTBOX_SQL, outboxRows);
+        }
+    }
+}
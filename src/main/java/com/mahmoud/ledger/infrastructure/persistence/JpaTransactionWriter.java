@@ -0,0 +1,45 @@
+package com.mahmoud.ledger.infrastructure.persistence;
+
+import com.mahmoud.ledger.domain.model.Transaction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Writes through the entity mappings. Hibernate inserts each posting and then sets its {@code transaction_id}
+ * with an UPDATE of its own, as the postings are joined by a column of the owning side only.
+ */
+@Component
+@ConditionalOnProperty(name = "ledger.persistence.transaction-writer", havingValue = "jpa")
+@RequiredArgsConstructor
+class JpaTransactionWriter implements TransactionWriter {
+
+    private final TransactionRepository transactionRepository;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final OutboxRepository outboxRepository;
+
+    @Override
+    public void insert(List<Transaction> transactions, boolean outbox) {
+        List<TransactionJpaEntity> entities = transactions.stream()
+                .map(TransactionJpaEntity::fromDomain)
+                .toList();
+        transactionRepository.saveAll(entities);
+        if (outbox) {
+            outboxRepository.saveAll(entities.stream()
+                    .map(entity -> OutboxJpaEntity.of(entity.getId()))
+                    .toList());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<IdempotencyKeyJpaEntity> keys = transactions.stream()
+                .filter(transaction -> transaction.getIdempotencyKey() != null)
+                .map(transaction -> IdempotencyKeyJpaEntity.of(transaction.getIdempotencyKey(), transaction.getId(),
+                        now))
+                .toList();
+        if (!keys.isEmpty()) {
+            idempotencyKeyRepository.saveAll(keys);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.mahmoud.ledger.infrastructure.persistence;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Numbers posted transactions with the ledger sequence: gap-free and increasing in the order the outbox relay
+ * finds them committed.
+ * <p>
+ * Postings only insert an unnumbered outbox entry, so they never wait on each other for a number. The relay
+ * numbers the entries it finds by incrementing a counter row in a database transaction of its own; the row
+ * stays locked until that transaction ends, so numbers become visible in order, and a rollback gives them back.
+ */
+public class LedgerSequence {
+
+    /**
+     * Handed out instead of a number when the outbox is disabled.
+     */
+    public static final long NONE = 0;
+
+    private static final String INITIALIZE_SQL = """
+            insert into ledger_sequence (id, last_sequence)
+            select 1, coalesce(max(ledger_sequence), 0) from transactions
+            where not exists (select 1 from ledger_sequence)""";
+
+    private static final String INCREMENT_SQL = """
+            update ledger_sequence set last_sequence = last_sequence + ? where id = 1""";
+
+    private static final String LAST_SQL = "select last_sequence from ledger_sequence where id = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    public LedgerSequence(DataSource dataSource, boolean enabled) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.enabled = enabled;
+    }
+
+    /**
+     * Creates the counter row, continuing after the highest number already given to a transaction.
+     */
+    public void initialize() {
+        if (enabled) {
+            jdbcTemplate.update(INITIALIZE_SQL);
+        }
+    }
+
+    /**
+     * Whether posted transactions are written to the outbox to be numbered.
+     */
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * Takes the next {@code count} numbers within the caller's database transaction.
+     *
+     * @return the first of them, or {@link #NONE} when the outbox is disabled
+     */
+    long next(int count) {
+        if (!enabled || count == 0) {
+            return NONE;
+        }
+        if (jdbcTemplate.update(INCREMENT_SQL, count) != 1) {
+            throw new IllegalStateException("Ledger sequence is not initialized");
+        }
+        Long last = jdbcTemplate.queryForObject(LAST_SQL, Long.class);
+        return last - count + 1;
+    }
+}
@@ -0,0 +1,23 @@
+package com.mahmoud.ledger.infrastructure.persistence;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * The single row holding the last ledger sequence handed out. Only mapped to have the table created; it is
+ * read and written by {@link LedgerSequence}.
+ */
+@Entity
+@Table(name = "ledger_sequence")
+@Getter
+@Setter
+@NoArgsConstructor
+public class LedgerSequenceJpaEntity {
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private long lastSequence;
+}
@@ -0,0 +1,128 @@
+package com.mahmoud.ledger.infrastructure.persistence;
+
+import com.mahmoud.ledger.application.port.in.LedgerEvent;
+import com.mahmoud.ledger.application.port.out.OutboxPort;
+import com.mahmoud.ledger.domain.model.Posting;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Events are read with one query each: a page of outbox entries or numbered transactions, joined with the
+ * transactions and postings they refer to. Entries are numbered in a database transaction of their own, which
+ * holds the ledger sequence row until it commits.
+ */
+@Component
+public class OutboxAdapter implements OutboxPort {
+
+    private static final String EVENT_COLUMNS = """
+            t.ledger_sequence, t.id, t.timestamp, t.description,
+            p.id, p.account_id, p.type, p.amount, p.currency""";
+
+    private static final String PENDING_SQL = """
+            select %s
+            from (select ledger_sequence, transaction_id from outbox where ledger_sequence is not null
+                  order by ledger_sequence fetch first ? rows only) o
+            join transactions t on t.id = o.transaction_id
+            join postings p on p.transaction_id = t.id
+            order by t.ledger_sequence, p.id""".formatted(EVENT_COLUMNS);
+
+    private static final String EVENTS_SQL = """
+            select %s
+            from (select id, timestamp, description, ledger_sequence from transactions
+                  where ledger_sequence > ? order by ledger_sequence fetch first ? rows only) t
+            join postings p on p.transaction_id = t.id
+            order by t.ledger_sequence, p.id""".formatted(EVENT_COLUMNS);
+
+    private static final String UNNUMBERED_SQL = """
+            select o.transaction_id
+            from outbox o join transactions t on t.id = o.transaction_id
+            where o.ledger_sequence is null
+            order by t.timestamp, t.id
+            fetch first ? rows only""";
+
+    private static final String NUMBER_ENTRY_SQL = """
+            update outbox set ledger_sequence = ? where transaction_id = ? and ledger_sequence is null""";
+
+    private static final String NUMBER_TRANSACTION_SQL = "update transactions set ledger_sequence = ? where id = ?";
+
+    private static final String DELETE_PUBLISHED_SQL = "delete from outbox where ledger_sequence <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LedgerSequence ledgerSequence;
+
+    public OutboxAdapter(DataSource dataSource, PlatformTransactionManager transactionManager,
+            LedgerSequence ledgerSequence) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ledgerSequence = ledgerSequence;
+    }
+
+    @Override
+    public int numberPending(int limit) {
+        return transactionTemplate.execute(status -> {
+            List<UUID> transactionIds = jdbcTemplate.queryForList(UNNUMBERED_SQL, UUID.class, limit);
+            if (transactionIds.isEmpty()) {
+                return 0;
+            }
+            long sequence = ledgerSequence.next(transactionIds.size());
+            List<Object[]> rows = new ArrayList<>(transactionIds.size());
+            for (UUID transactionId : transactionIds) {
+                rows.add(new Object[] { sequence++, transactionId });
+            }
+            for (int updated : jdbcTemplate.batchUpdate(NUMBER_ENTRY_SQL, rows)) {
+                if (updated != 1) {
+                    throw new IllegalStateException("Outbox entry was numbered concurrently");
+                }
+            }
+            jdbcTemplate.batchUpdate(NUMBER_TRANSACTION_SQL, rows);
+            return transactionIds.size();
+        });
+    }
+
+    @Override
+    public List<LedgerEvent> loadPending(int limit) {
+        return jdbcTemplate.query(PENDING_SQL, OutboxAdapter::toEvents, limit);
+    }
+
+    @Override
+    public void deletePublished(long throughSequence) {
+        jdbcTemplate.update(DELETE_PUBLISHED_SQL, throughSequence);
+    }
+
+    @Override
+    public List<LedgerEvent> loadEvents(long afterSequence, int limit) {
+        return jdbcTemplate.query(EVENTS_SQL, OutboxAdapter::toEvents, afterSequence, limit);
+    }
+
+    /**
+     * Folds the posting rows, ordered by sequence, into one event per transaction.
+     */
+    private static List<LedgerEvent> toEvents(ResultSet rs) throws SQLException {
+        List<LedgerEvent> events = new ArrayList<>();
+        List<LedgerEvent.Line> lines = null;
+        while (rs.next()) {
+            long sequence = rs.getLong(1);
+            if (events.isEmpty() || events.get(events.size() - 1).sequence() != sequence) {
+                lines = new ArrayList<>();
+                events.add(new LedgerEvent(sequence, rs.getObject(2, UUID.class),
+                        rs.getTimestamp(3).toLocalDateTime(), rs.getString(4), lines));
+            }
+            lines.add(new LedgerEvent.Line(rs.getObject(5, UUID.class), rs.getObject(6, UUID.class),
+                    Posting.Type.valueOf(rs.getString(7)), rs.getBigDecimal(8), rs.getString(9)));
+        }
+        return events.stream()
+                .map(event -> new LedgerEvent(event.sequence(), event.transactionId(), event.timestamp(),
+                        event.description(), List.copyOf(event.postings())))
+                .toList();
+    }
+}
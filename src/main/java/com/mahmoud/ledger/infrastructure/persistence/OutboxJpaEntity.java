@@ -0,0 +1,42 @@
+package com.mahmoud.ledger.infrastructure.persistence;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.util.UUID;
+
+/**
+ * A posted transaction waiting to be published, numbered by the relay and deleted once it has published it.
+ */
+@Entity
+@Table(name = "outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+public class OutboxJpaEntity implements Persistable<UUID> {
+    @Id
+    private UUID transactionId;
+
+    // Null until the relay numbers the entry
+    @Column(unique = true)
+    private Long ledgerSequence;
+
+    public static OutboxJpaEntity of(UUID transactionId) {
+        OutboxJpaEntity entity = new OutboxJpaEntity();
+        entity.setTransactionId(transactionId);
+        return entity;
+    }
+
+    @Override
+    public UUID getId() {
+        return transactionId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
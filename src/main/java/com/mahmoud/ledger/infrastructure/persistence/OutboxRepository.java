@@ -0,0 +1,8 @@
+package com.mahmoud.ledger.infrastructure.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.UUID;
+
+public interface OutboxRepository extends JpaRepository<OutboxJpaEntity, UUID> {
+}
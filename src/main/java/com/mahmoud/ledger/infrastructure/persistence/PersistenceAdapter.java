@@ -1,25 +1,57 @@
 package com.mahmoud.ledger.infrastructure.persistence;
 
+import com.mahmoud.ledger.application.port.in.StatementCursor;
+import com.mahmoud.ledger.application.port.out.AccountLockPort;
 import com.mahmoud.ledger.application.port.out.AccountPort;
+import com.mahmoud.ledger.application.port.out.BalanceCheckpointPort;
+import com.mahmoud.ledger.application.port.out.MetricsPort;
+import com.mahmoud.ledger.application.port.out.StatementPort;
 import com.mahmoud.ledger.application.port.out.TransactionPort;
 import com.mahmoud.ledger.domain.model.Account;
+import com.mahmoud.ledger.domain.model.AccountType;
+import com.mahmoud.ledger.domain.model.BalanceCheckpoint;
+import com.mahmoud.ledger.domain.model.Money;
+import com.mahmoud.ledger.domain.model.Posting;
+import com.mahmoud.ledger.domain.model.StatementEntry;
 import com.mahmoud.ledger.domain.model.Transaction;
+import com.mahmoud.ledger.infrastructure.archive.PostingArchive;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Component;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Component
 @RequiredArgsConstructor
-public class PersistenceAdapter implements AccountPort, TransactionPort {
+public class PersistenceAdapter
+        implements AccountPort, AccountLockPort, TransactionPort, StatementPort, BalanceCheckpointPort {
+
+    private static final List<AccountType> DEBIT_NORMAL_TYPES = Arrays.stream(AccountType.values())
+            .filter(AccountType::isDebitNormal)
+            .toList();
 
     private final AccountRepository accountRepository;
     private final TransactionRepository transactionRepository;
+    private final AccountCache accountCache;
+    private final EntityManager entityManager;
+    private final BalanceCheckpointRepository balanceCheckpointRepository;
+    private final TransactionWriter transactionWriter;
+    private final LedgerSequence ledgerSequence;
+    private final PostingArchive postingArchive;
+    private final MetricsPort metrics;
 
     @Override
     public Account save(Account account) {
         AccountJpaEntity entity = AccountJpaEntity.fromDomain(account);
         AccountJpaEntity saved = accountRepository.save(entity);
+        accountCache.invalidateAfterCommit(account.getId());
         return saved.toDomain();
     }
 
@@ -29,16 +61,136 @@ public class PersistenceAdapter implements AccountPort, TransactionPort {
                 .map(AccountJpaEntity::toDomain);
     }
 
+    @Override
+    public Optional<Account> loadCached(UUID accountId) {
+        return accountCache.get(accountId, this::load);
+    }
+
     @Override
     public Optional<Account> loadLocked(UUID accountId) {
-        return accountRepository.findByIdLocked(accountId)
-                .map(AccountJpaEntity::toDomain);
+        long start = System.nanoTime();
+        Optional<AccountJpaEntity> locked = accountRepository.findByIdLocked(accountId);
+        metrics.recordLockWait(System.nanoTime() - start);
+        return locked.map(AccountJpaEntity::toDomain);
+    }
+
+    @Override
+    public List<Account> loadAll(Collection<UUID> accountIds) {
+        return accountRepository.findAllById(accountIds).stream()
+                .map(AccountJpaEntity::toDomain)
+                .toList();
+    }
+
+    @Override
+    public List<Account> loadAllLocked(Collection<UUID> accountIds) {
+        long start = System.nanoTime();
+        List<AccountJpaEntity> locked = accountRepository.findAllByIdLocked(accountIds);
+        metrics.recordLockWait(System.nanoTime() - start);
+        return locked.stream()
+                .map(AccountJpaEntity::toDomain)
+                .toList();
+    }
+
+    @Override
+    public boolean applyNetDebit(UUID accountId, Money netDebit) {
+        boolean applied = accountRepository.applyNetDebit(
+                accountId,
+                netDebit.amount(),
+                netDebit.amount().negate(),
+                netDebit.currency().getCurrencyCode(),
+                DEBIT_NORMAL_TYPES) == 1;
+        if (applied) {
+            // Only this account's row changed behind the persistence context, the rest of it stays valid
+            entityManager.detach(entityManager.getReference(AccountJpaEntity.class, accountId));
+            accountCache.invalidateAfterCommit(accountId);
+        }
+        return applied;
     }
 
     @Override
     public Transaction save(Transaction transaction) {
-        TransactionJpaEntity entity = TransactionJpaEntity.fromDomain(transaction);
-        TransactionJpaEntity saved = transactionRepository.save(entity);
-        return saved.toDomain();
+        saveAll(List.of(transaction));
+        return transaction;
+    }
+
+    @Override
+    public void saveAll(List<Transaction> transactions) {
+        transactionWriter.insert(transactions, ledgerSequence.enabled());
+    }
+
+    @Override
+    public boolean exists(UUID transactionId) {
+        return transactionRepository.existsById(transactionId);
+    }
+
+    @Override
+    public List<StatementEntry> loadStatement(UUID accountId, StatementCursor after, int limit) {
+        return postingArchive.read(() -> postingArchive.mergeStatement(
+                loadHotStatement(accountId, after, limit), accountId, after, limit));
+    }
+
+    private List<StatementEntry> loadHotStatement(UUID accountId, StatementCursor after, int limit) {
+        List<StatementRow> rows = after == null
+                ? transactionRepository.findStatement(accountId, Limit.of(limit))
+                : transactionRepository.findStatementAfter(accountId, after.postedAt(), after.postingId(),
+                        Limit.of(limit));
+        return rows.stream()
+                .map(row -> new StatementEntry(row.postingId(), row.transactionId(), row.postedAt(),
+                        row.description(), Money.of(row.amount(), row.currency()), row.type()))
+                .toList();
+    }
+
+    @Override
+    public Optional<BalanceCheckpoint> loadLatestCheckpoint(UUID accountId, LocalDateTime asOf) {
+        return balanceCheckpointRepository.findFirstByAccountIdAndAsOfLessThanEqualOrderByAsOfDesc(accountId, asOf)
+                .map(BalanceCheckpointJpaEntity::toDomain);
+    }
+
+    @Override
+    public void saveCheckpoint(BalanceCheckpoint checkpoint) {
+        balanceCheckpointRepository.save(BalanceCheckpointJpaEntity.fromDomain(checkpoint));
+    }
+
+    @Override
+    public void shiftCheckpoints(UUID accountId, LocalDateTime postedAt, Money delta, long postings) {
+        balanceCheckpointRepository.shift(accountId, postedAt, delta.amount(), postings);
+    }
+
+    @Override
+    public Money sumNetDebit(UUID accountId, Currency currency, LocalDateTime after, LocalDateTime upTo) {
+        if (after == null && upTo == null) {
+            throw new IllegalArgumentException("At least one bound is required");
+        }
+        return postingArchive.read(() -> sumHotNetDebit(accountId, currency, after, upTo)
+                .add(postingArchive.netDebit(accountId, currency, after, upTo)));
+    }
+
+    private Money sumHotNetDebit(UUID accountId, Currency currency, LocalDateTime after, LocalDateTime upTo) {
+        BigDecimal sum;
+        if (after == null) {
+            sum = transactionRepository.sumNetDebitUpTo(accountId, upTo, Posting.Type.DEBIT);
+        } else if (upTo == null) {
+            sum = transactionRepository.sumNetDebitAfter(accountId, after, Posting.Type.DEBIT);
+        } else {
+            sum = transactionRepository.sumNetDebitBetween(accountId, after, upTo, Posting.Type.DEBIT);
+        }
+        return Money.of(sum, currency);
+    }
+
+    @Override
+    public long countPostings(UUID accountId, LocalDateTime after, LocalDateTime upTo) {
+        return postingArchive.read(() -> countHotPostings(accountId, after, upTo)
+                + postingArchive.countPostings(accountId, after, upTo));
+    }
+
+    private long countHotPostings(UUID accountId, LocalDateTime after, LocalDateTime upTo) {
+        if (after == null) {
+            return upTo == null
+                    ? transactionRepository.countPostings(accountId)
+                    : transactionRepository.countPostingsUpTo(accountId, upTo);
+        }
+        return upTo == null
+                ? transactionRepository.countPostingsAfter(accountId, after)
+                : transactionRepository.countPostingsBetween(accountId, after, upTo);
     }
 }
@@ -6,22 +6,31 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.UuidGenerator;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "postings")
+// Account statements seek on (account_id, posted_at, id), newest first
+@Table(name = "postings", indexes = @Index(name = "idx_postings_account_posted_at",
+        columnList = "account_id, posted_at, id"))
 @Getter
 @Setter
 @NoArgsConstructor
 public class PostingJpaEntity {
+    // Time-ordered like the transaction ids, so posting inserts append to the primary key index
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(style = UuidGenerator.Style.VERSION_7)
     private UUID id;
 
     private UUID accountId;
 
+    // Timestamp of the owning transaction, copied here so statements read one index range
+    @Column(nullable = false)
+    private LocalDateTime postedAt;
+
     // Manual embedding for Money
     private BigDecimal amount;
     private String currency; // ISO code
@@ -29,9 +38,10 @@ public class PostingJpaEntity {
     @Enumerated(EnumType.STRING)
     private Posting.Type type;
 
-    public static PostingJpaEntity fromDomain(Posting posting) {
+    public static PostingJpaEntity fromDomain(Posting posting, LocalDateTime postedAt) {
         PostingJpaEntity entity = new PostingJpaEntity();
         entity.setAccountId(posting.getAccountId());
+        entity.setPostedAt(postedAt);
         entity.setAmount(posting.getAmount().amount());
         entity.setCurrency(posting.getAmount().currency().getCurrencyCode());
         entity.setType(posting.getType());
@@ -0,0 +1,205 @@
+package com.mahmoud.ledger.infrastructure.persistence;
+
+import com.mahmoud.ledger.application.port.in.BalanceMismatch;
+import com.mahmoud.ledger.application.port.in.ReconciliationReport;
+import com.mahmoud.ledger.application.port.in.ReconciliationStatus;
+import com.mahmoud.ledger.application.port.out.ReconciliationPort;
+import com.mahmoud.ledger.domain.model.AccountType;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Range aggregates are grouped by the database and streamed back row by row; run bookkeeping goes through JPA.
+ * Archived postings are counted through their per-account totals.
+ */
+@Component
+public class ReconciliationAdapter implements ReconciliationPort {
+
+    private static final String NET_DEBIT = "case when p.type = 'DEBIT' then p.amount else -p.amount end";
+
+    private static final String ACCOUNT_TOTALS_SQL = """
+            select a.id, a.type, a.currency, a.balance_amount, coalesce(sum(%s), 0) + coalesce(z.net_debit, 0)
+            from accounts a
+            left join postings p on p.account_id = a.id
+            left join archived_posting_totals z on z.account_id = a.id
+            where a.id >= ? %s
+            group by a.id, a.type, a.currency, a.balance_amount, z.net_debit""";
+
+    private static final String CURRENCY_TOTALS_SQL = """
+            select currency, sum(net_debit) from (
+                select p.currency, %s as net_debit
+                from postings p
+                where p.account_id >= ? %s
+                union all
+                select z.currency, z.net_debit
+                from archived_posting_totals z
+                where z.account_id >= ? %s
+            ) totals
+            group by currency""";
+
+    // Every step-th account id in id order, skipping the first one, which starts the first range anyway
+    private static final String SPLIT_POINTS_SQL = """
+            select id from (
+                select id, row_number() over (order by id) as row_index from accounts
+            ) numbered
+            where row_index > 1 and mod(row_index - 1, ?) = 0
+            order by id
+            fetch first ? rows only""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate snapshotTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final ReconciliationRunRepository runRepository;
+    private final ReconciliationRangeRepository rangeRepository;
+    private final ReconciliationMismatchRepository mismatchRepository;
+
+    public ReconciliationAdapter(DataSource dataSource, PlatformTransactionManager transactionManager,
+            ReconciliationRunRepository runRepository, ReconciliationRangeRepository rangeRepository,
+            ReconciliationMismatchRepository mismatchRepository) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(1000);
+        // Both aggregates of a range must see the same postings
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setReadOnly(true);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.runRepository = runRepository;
+        this.rangeRepository = rangeRepository;
+        this.mismatchRepository = mismatchRepository;
+    }
+
+    @Override
+    public void aggregateRange(UUID from, UUID to, Consumer<AccountTotals> accounts,
+            BiConsumer<String, BigDecimal> netDebitByCurrency) {
+        Object[] bounds = to == null ? new Object[] { from } : new Object[] { from, to };
+        Object[] bothBounds = to == null ? new Object[] { from, from } : new Object[] { from, to, from, to };
+        snapshotTransaction.executeWithoutResult(status -> {
+            jdbcTemplate.query(ACCOUNT_TOTALS_SQL.formatted(NET_DEBIT, to == null ? "" : "and a.id < ?"),
+                    resultSet -> {
+                        accounts.accept(new AccountTotals(
+                                resultSet.getObject(1, UUID.class),
+                                AccountType.valueOf(resultSet.getString(2)),
+                                resultSet.getString(3),
+                                resultSet.getBigDecimal(4),
+                                resultSet.getBigDecimal(5)));
+                    }, bounds);
+            jdbcTemplate.query(CURRENCY_TOTALS_SQL.formatted(NET_DEBIT, to == null ? "" : "and p.account_id < ?",
+                            to == null ? "" : "and z.account_id < ?"),
+                    resultSet -> {
+                        netDebitByCurrency.accept(resultSet.getString(1), resultSet.getBigDecimal(2));
+                    }, bothBounds);
+        });
+    }
+
+    @Override
+    public List<UUID> accountSplitPoints(int ranges) {
+        return snapshotTransaction.execute(status -> {
+            long accounts = jdbcTemplate.queryForObject("select count(*) from accounts", Long.class);
+            long step = Math.max(1, (accounts + ranges - 1) / ranges);
+            return jdbcTemplate.query(SPLIT_POINTS_SQL, (resultSet, row) -> resultSet.getObject(1, UUID.class),
+                    step, ranges - 1);
+        });
+    }
+
+    @Override
+    public UUID createRun(LocalDateTime startedAt, int ranges, List<UUID> splitPoints) {
+        ReconciliationRunJpaEntity run = new ReconciliationRunJpaEntity();
+        run.setId(UUID.randomUUID());
+        run.setStartedAt(startedAt);
+        run.setStatus(ReconciliationStatus.RUNNING);
+        run.setRanges(ranges);
+        run.setSplitPoints(ReconciliationRunJpaEntity.encodeSplitPoints(splitPoints));
+        return runRepository.save(run).getId();
+    }
+
+    @Override
+    public List<UUID> splitPoints(UUID runId) {
+        return runRepository.findById(runId)
+                .map(ReconciliationRunJpaEntity::decodeSplitPoints)
+                .orElse(List.of());
+    }
+
+    @Override
+    public Optional<ReconciliationReport> loadUnfinishedRun() {
+        return loadLatestRun().filter(run -> run.status() != ReconciliationStatus.COMPLETED);
+    }
+
+    @Override
+    public Set<Integer> completedRanges(UUID runId) {
+        return rangeRepository.findByRunId(runId).stream()
+                .map(ReconciliationRangeJpaEntity::getRangeIndex)
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public void saveRange(UUID runId, int range, long accountsChecked, Map<String, BigDecimal> netDebitByCurrency,
+            List<BalanceMismatch> mismatches) {
+        writeTransaction.executeWithoutResult(status -> {
+            ReconciliationRangeJpaEntity entity = new ReconciliationRangeJpaEntity();
+            entity.setRunId(runId);
+            entity.setRangeIndex(range);
+            entity.setAccountsChecked(accountsChecked);
+            entity.setMismatches(mismatches.size());
+            entity.setNetDebits(ReconciliationRangeJpaEntity.encodeNetDebits(netDebitByCurrency));
+            rangeRepository.save(entity);
+            mismatchRepository.saveAll(mismatches.stream()
+                    .map(mismatch -> ReconciliationMismatchJpaEntity.fromDomain(runId, mismatch))
+                    .toList());
+        });
+    }
+
+    @Override
+    public void finishRun(UUID runId, ReconciliationStatus status, LocalDateTime finishedAt) {
+        writeTransaction.executeWithoutResult(tx -> runRepository.findById(runId).ifPresent(run -> {
+            run.setStatus(status);
+            run.setFinishedAt(finishedAt);
+        }));
+    }
+
+    @Override
+    public Optional<ReconciliationReport> loadRun(UUID runId) {
+        return runRepository.findById(runId).map(this::toReport);
+    }
+
+    @Override
+    public Optional<ReconciliationReport> loadLatestRun() {
+        return runRepository.findFirstByOrderByStartedAtDesc().map(this::toReport);
+    }
+
+    private ReconciliationReport toReport(ReconciliationRunJpaEntity run) {
+        List<ReconciliationRangeJpaEntity> ranges = rangeRepository.findByRunId(run.getId());
+        long accounts = 0;
+        long mismatches = 0;
+        Map<String, BigDecimal> netDebitByCurrency = new TreeMap<>();
+        for (ReconciliationRangeJpaEntity range : ranges) {
+            accounts += range.getAccountsChecked();
+            mismatches += range.getMismatches();
+            range.decodeNetDebits()
+                    .forEach((currency, net) -> netDebitByCurrency.merge(currency, net, BigDecimal::add));
+        }
+        List<BalanceMismatch> listed = mismatchRepository
+                .findByRunIdOrderByAccountId(run.getId(), Limit.of(ReconciliationReport.MAX_LISTED_MISMATCHES))
+                .stream()
+                .map(ReconciliationMismatchJpaEntity::toDomain)
+                .toList();
+        return new ReconciliationReport(run.getId(), run.getStatus(), run.getStartedAt(), run.getFinishedAt(),
+                run.getRanges(), ranges.size(), accounts, mismatches, listed, netDebitByCurrency);
+    }
+}
@@ -0,0 +1,51 @@
+package com.mahmoud.ledger.infrastructure.persistence;
+
+import com.mahmoud.ledger.application.port.in.BalanceMismatch;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Entity
+@Table(name = "reconciliation_mismatches", indexes = @Index(name = "idx_reconciliation_mismatches_run",
+        columnList = "run_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class ReconciliationMismatchJpaEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID runId;
+
+    @Column(nullable = false)
+    private UUID accountId;
+
+    @Column(nullable = false)
+    private String currency;
+
+    @Column(nullable = false)
+    private BigDecimal storedBalance;
+
+    @Column(nullable = false)
+    private BigDecimal postedBalance;
+
+    public static ReconciliationMismatchJpaEntity fromDomain(UUID runId, BalanceMismatch mismatch) {
+        ReconciliationMismatchJpaEntity entity = new ReconciliationMismatchJpaEntity();
+        entity.setRunId(runId);
+        entity.setAccountId(mismatch.accountId());
+        entity.setCurrency(mismatch.currency());
+        entity.setStoredBalance(mismatch.storedBalance());
+        entity.setPostedBalance(mismatch.postedBalance());
+        return entity;
+    }
+
+    public BalanceMismatch toDomain() {
+        return new BalanceMismatch(accountId, currency, storedBalance, postedBalance);
+    }
+}
@@ -0,0 +1,12 @@
+package com.mahmoud.ledger.infrastructure.persistence;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface ReconciliationMismatchRepository extends JpaRepository<ReconciliationMismatchJpaEntity, UUID> {
+
+    List<ReconciliationMismatchJpaEntity> findByRunIdOrderByAccountId(UUID runId, Limit limit);
+}
@@ -0,0 +1,65 @@
+package com.mahmoud.ledger.infrastructure.persistence;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * A checked account id range of a reconciliation run.
+ */
+@Entity
+@Table(name = "reconciliation_ranges", uniqueConstraints = @UniqueConstraint(
+        name = "uk_reconciliation_ranges_run_range", columnNames = { "run_id", "range_index" }))
+@Getter
+@Setter
+@NoArgsConstructor
+public class ReconciliationRangeJpaEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID runId;
+
+    @Column(nullable = false)
+    private int rangeIndex;
+
+    @Column(nullable = false)
+    private long accountsChecked;
+
+    @Column(nullable = false)
+    private int mismatches;
+
+    // Net debit of the range's postings per currency, as "USD=0.00;EUR=-1.50"
+    @Column(nullable = false, length = 4000)
+    private String netDebits;
+
+    public static String encodeNetDebits(Map<String, BigDecimal> netDebitByCurrency) {
+        StringBuilder encoded = new StringBuilder();
+        new TreeMap<>(netDebitByCurrency).forEach((currency, net) -> {
+            if (!encoded.isEmpty()) {
+                encoded.append(';');
+            }
+            encoded.append(currency).append('=').append(net.toPlainString());
+        });
+        return encoded.toString();
+    }
+
+    public Map<String, BigDecimal> decodeNetDebits() {
+        Map<String, BigDecimal> decoded = new TreeMap<>();
+        if (netDebits.isEmpty()) {
+            return decoded;
+        }
+        for (String entry : netDebits.split(";")) {
+            int separator = entry.indexOf('=');
+            decoded.put(entry.substring(0, separator), new BigDecimal(entry.substring(separator + 1)));
+        }
+        return decoded;
+    }
+}
@@ -0,0 +1,11 @@
+package com.mahmoud.ledger.infrastructure.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface ReconciliationRangeRepository extends JpaRepository<ReconciliationRangeJpaEntity, UUID> {
+
+    List<ReconciliationRangeJpaEntity> findByRunId(UUID runId);
+}
@@ -0,0 +1,50 @@
+package com.mahmoud.ledger.infrastructure.persistence;
+
+import com.mahmoud.ledger.application.port.in.ReconciliationStatus;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Entity
+@Table(name = "reconciliation_runs")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ReconciliationRunJpaEntity {
+    @Id
+    private UUID id;
+
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReconciliationStatus status;
+
+    @Column(nullable = false)
+    private int ranges;
+
+    // First ids of ranges 1 and up, comma separated
+    @Lob
+    private String splitPoints;
+
+    public static String encodeSplitPoints(List<UUID> splitPoints) {
+        return splitPoints.stream().map(UUID::toString).collect(Collectors.joining(","));
+    }
+
+    public List<UUID> decodeSplitPoints() {
+        if (splitPoints == null || splitPoints.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(splitPoints.split(",")).map(UUID::fromString).toList();
+    }
+}
@@ -0,0 +1,11 @@
+package com.mahmoud.ledger.infrastructure.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface ReconciliationRunRepository extends JpaRepository<ReconciliationRunJpaEntity, UUID> {
+
+    Optional<ReconciliationRunJpaEntity> findFirstByOrderByStartedAtDesc();
+}
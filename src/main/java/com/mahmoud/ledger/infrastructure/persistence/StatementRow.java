@@ -0,0 +1,14 @@
+package com.mahmoud.ledger.infrastructure.persistence;
+
+import com.mahmoud.ledger.domain.model.Posting;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A posting joined with its transaction, as read for account statements.
+ */
+public record StatementRow(UUID postingId, UUID transactionId, LocalDateTime postedAt, String description,
+        BigDecimal amount, String currency, Posting.Type type) {
+}
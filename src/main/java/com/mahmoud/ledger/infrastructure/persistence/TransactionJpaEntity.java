@@ -5,6 +5,7 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -13,17 +14,22 @@ import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Entity
-@Table(name = "transactions")
+// Exports scan a timestamp range in (timestamp, id) order
+@Table(name = "transactions", indexes = @Index(name = "idx_transactions_timestamp", columnList = "timestamp, id"))
 @Getter
 @Setter
 @NoArgsConstructor
-public class TransactionJpaEntity {
+public class TransactionJpaEntity implements Persistable<UUID> {
     @Id
     private UUID id;
 
     private LocalDateTime timestamp;
     private String description;
 
+    // Position in the ledger, null for transactions posted while the outbox was disabled
+    @Column(unique = true)
+    private Long ledgerSequence;
+
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
     @JoinColumn(name = "transaction_id")
     private List<PostingJpaEntity> postings = new ArrayList<>();
@@ -35,13 +41,22 @@ public class TransactionJpaEntity {
         entity.setDescription(transaction.getDescription());
 
         List<PostingJpaEntity> postingEntities = transaction.getPostings().stream()
-                .map(PostingJpaEntity::fromDomain)
+                .map(posting -> PostingJpaEntity.fromDomain(posting, transaction.getTimestamp()))
                 .collect(Collectors.toList());
         entity.setPostings(postingEntities);
 
         return entity;
     }
 
+    /**
+     * Transactions are immutable once posted, so saving one is always an insert: its assigned id would
+     * otherwise make the repository merge it, selecting the row first to find out it doesn't exist.
+     */
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
     public Transaction toDomain() {
         Transaction tx = new Transaction(id, description, timestamp);
         postings.forEach(p -> tx.addPosting(p.toDomain()));
@@ -1,7 +1,89 @@
 package com.mahmoud.ledger.infrastructure.persistence;
 
+import com.mahmoud.ledger.domain.model.Posting;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 public interface TransactionRepository extends JpaRepository<TransactionJpaEntity, UUID> {
+
+    @Query("""
+            select new com.mahmoud.ledger.infrastructure.persistence.StatementRow(
+                p.id, t.id, p.postedAt, t.description, p.amount, p.currency, p.type)
+            from TransactionJpaEntity t join t.postings p
+            where p.accountId = :accountId
+            order by p.postedAt desc, p.id desc
+            """)
+    List<StatementRow> findStatement(@Param("accountId") UUID accountId, Limit limit);
+
+    /**
+     * The page after the posting {@code (postedAt, postingId)}: a seek on the account's index range, so it
+     * costs the same however deep into the history it starts.
+     */
+    @Query("""
+            select new com.mahmoud.ledger.infrastructure.persistence.StatementRow(
+                p.id, t.id, p.postedAt, t.description, p.amount, p.currency, p.type)
+            from TransactionJpaEntity t join t.postings p
+            where p.accountId = :accountId
+            and (p.postedAt < :postedAt or (p.postedAt = :postedAt and p.id < :postingId))
+            order by p.postedAt desc, p.id desc
+            """)
+    List<StatementRow> findStatementAfter(@Param("accountId") UUID accountId,
+            @Param("postedAt") LocalDateTime postedAt,
+            @Param("postingId") UUID postingId,
+            Limit limit);
+
+    /**
+     * Debits minus credits of the account's postings timestamped in {@code (after, upTo]}.
+     */
+    @Query("""
+            select coalesce(sum(case when p.type = :debit then p.amount else -p.amount end), 0)
+            from PostingJpaEntity p
+            where p.accountId = :accountId and p.postedAt > :after and p.postedAt <= :upTo
+            """)
+    BigDecimal sumNetDebitBetween(@Param("accountId") UUID accountId,
+            @Param("after") LocalDateTime after,
+            @Param("upTo") LocalDateTime upTo,
+            @Param("debit") Posting.Type debit);
+
+    @Query("""
+            select coalesce(sum(case when p.type = :debit then p.amount else -p.amount end), 0)
+            from PostingJpaEntity p
+            where p.accountId = :accountId and p.postedAt <= :upTo
+            """)
+    BigDecimal sumNetDebitUpTo(@Param("accountId") UUID accountId,
+            @Param("upTo") LocalDateTime upTo,
+            @Param("debit") Posting.Type debit);
+
+    @Query("""
+            select coalesce(sum(case when p.type = :debit then p.amount else -p.amount end), 0)
+            from PostingJpaEntity p
+            where p.accountId = :accountId and p.postedAt > :after
+            """)
+    BigDecimal sumNetDebitAfter(@Param("accountId") UUID accountId,
+            @Param("after") LocalDateTime after,
+            @Param("debit") Posting.Type debit);
+
+    @Query("""
+            select count(p) from PostingJpaEntity p
+            where p.accountId = :accountId and p.postedAt > :after and p.postedAt <= :upTo
+            """)
+    long countPostingsBetween(@Param("accountId") UUID accountId,
+            @Param("after") LocalDateTime after,
+            @Param("upTo") LocalDateTime upTo);
+
+    @Query("select count(p) from PostingJpaEntity p where p.accountId = :accountId and p.postedAt <= :upTo")
+    long countPostingsUpTo(@Param("accountId") UUID accountId, @Param("upTo") LocalDateTime upTo);
+
+    @Query("select count(p) from PostingJpaEntity p where p.accountId = :accountId and p.postedAt > :after")
+    long countPostingsAfter(@Param("accountId") UUID accountId, @Param("after") LocalDateTime after);
+
+    @Query("select count(p) from PostingJpaEntity p where p.accountId = :accountId")
+    long countPostings(@Param("accountId") UUID accountId);
 }
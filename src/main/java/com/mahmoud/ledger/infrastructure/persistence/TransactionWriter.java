@@ -0,0 +1,17 @@
+package com.mahmoud.ledger.infrastructure.persistence;
+
+import com.mahmoud.ledger.domain.model.Transaction;
+
+import java.util.List;
+
+/**
+ * Inserts posted transactions, their postings, the idempotency keys they were requested under and their outbox
+ * entries, within the caller's database transaction. Chosen with {@code ledger.persistence.transaction-writer}.
+ */
+interface TransactionWriter {
+
+    /**
+     * @param outbox whether to add the transactions to the outbox, where the relay numbers and publishes them
+     */
+    void insert(List<Transaction> transactions, boolean outbox);
+}
@@ -0,0 +1,47 @@
+package com.mahmoud.ledger.infrastructure.readmodel;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mahmoud.ledger.application.port.in.AccountView;
+import com.mahmoud.ledger.application.port.out.AccountViewPort;
+
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Account views held in memory, one hash lookup per read. Bounded: the least recently used views are evicted
+ * and rebuilt when read again. Views are immutable, so they are handed out as they are stored.
+ */
+public class AccountViewStore implements AccountViewPort {
+
+    private final Cache<UUID, AccountView> views;
+
+    public AccountViewStore(long maximumAccounts) {
+        this.views = Caffeine.newBuilder()
+                .maximumSize(maximumAccounts)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public AccountView get(UUID accountId, Function<UUID, AccountView> loader) {
+        return views.get(accountId, loader);
+    }
+
+    @Override
+    public void put(AccountView view) {
+        views.put(view.accountId(), view);
+    }
+
+    @Override
+    public void invalidate(UUID accountId) {
+        views.invalidate(accountId);
+    }
+
+    /**
+     * The underlying cache, for metrics.
+     */
+    public Cache<UUID, AccountView> nativeCache() {
+        return views;
+    }
+}
@@ -0,0 +1,237 @@
+package com.mahmoud.ledger;
+
+import com.mahmoud.ledger.application.port.in.CreateAccountCommand;
+import com.mahmoud.ledger.application.port.in.DepositFundsCommand;
+import com.mahmoud.ledger.application.port.in.PostTransactionCommand;
+import com.mahmoud.ledger.application.port.in.PostingCommand;
+import com.mahmoud.ledger.domain.model.Posting;
+import com.mahmoud.ledger.infrastructure.archive.ArchiveSegmentRepository;
+import com.mahmoud.ledger.infrastructure.archive.ArchivedTotalsRepository;
+import com.mahmoud.ledger.infrastructure.archive.PostingArchive;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.resttestclient.autoconfigure.AutoConfigureRestTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.client.RestTestClient;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureRestTestClient
+@ActiveProfiles("test")
+class ArchiveIntegrationTest {
+
+    private static final Path ARCHIVE_DIRECTORY = createArchiveDirectory();
+
+    record Line(UUID postingId, LocalDateTime postedAt, String description, String type, BigDecimal amount) {
+    }
+
+    record Statement(List<Line> postings, String nextCursor) {
+    }
+
+    record Balance(BigDecimal balance) {
+    }
+
+    record Segment(UUID id, LocalDateTime periodStart, LocalDateTime periodEnd, String file, long transactions,
+            long postings, long bytes) {
+    }
+
+    record Report(String status, long mismatchCount, Map<String, BigDecimal> netDebitByCurrency, boolean balanced) {
+    }
+
+    @DynamicPropertySource
+    static void archive(DynamicPropertyRegistry registry) {
+        registry.add("ledger.archive.directory", ARCHIVE_DIRECTORY::toString);
+        registry.add("ledger.archive.older-than", () -> "2d");
+        registry.add("ledger.archive.period", () -> "day");
+        registry.add("ledger.archive.block-postings", () -> "3");
+        // Balances as of past instants are summed from postings only
+        registry.add("ledger.checkpoint.enabled", () -> "false");
+    }
+
+    @Autowired
+    private RestTestClient restClient;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ArchiveSegmentRepository segmentRepository;
+
+    @Autowired
+    private ArchivedTotalsRepository totalsRepository;
+
+    @Test
+    void given_OldPostings_When_Archived_Then_StatementsBalancesAndReconciliationAreUnchanged() throws Exception {
+        UUID aliceId = createAccount("Alice");
+        UUID bobId = createAccount("Bob");
+        deposit(aliceId, "100.00");
+        LocalDateTime depositedBy = LocalDateTime.now();
+        for (int i = 1; i <= 7; i++) {
+            pay(aliceId, bobId, i + ".00", "Payment " + i);
+        }
+        // Age what was posted so far: the deposit by eleven days, the payments by ten
+        jdbcTemplate.update("update transactions set timestamp = dateadd(day, -10, timestamp)");
+        jdbcTemplate.update("update postings set posted_at = dateadd(day, -10, posted_at)");
+        jdbcTemplate.update("update transactions set timestamp = dateadd(day, -1, timestamp) where timestamp <= ?",
+                depositedBy.minusDays(10));
+        jdbcTemplate.update("update postings set posted_at = dateadd(day, -1, posted_at) where posted_at <= ?",
+                depositedBy.minusDays(10));
+        pay(aliceId, bobId, "8.00", "Payment 8");
+        awaitOutboxDrained();
+
+        List<Line> bobBefore = statement(bobId, 3);
+        List<Line> aliceBefore = statement(aliceId, 2);
+        List<LocalDateTime> instants = new ArrayList<>();
+        bobBefore.forEach(line -> instants.add(line.postedAt()));
+        instants.add(bobBefore.get(3).postedAt().minusNanos(1));
+        instants.add(LocalDateTime.now());
+        List<BigDecimal> bobBalancesBefore = instants.stream().map(asOf -> balanceAt(bobId, asOf)).toList();
+
+        List<Segment> archived = List.of(restClient.post().uri("/api/archives")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Segment[].class)
+                .returnResult().getResponseBody());
+
+        assertThat(archived).hasSizeGreaterThanOrEqualTo(2);
+        assertThat(archived.stream().mapToLong(Segment::transactions).sum()).isEqualTo(8);
+        assertThat(archived.stream().mapToLong(Segment::postings).sum()).isEqualTo(16);
+        assertThat(archived).allSatisfy(segment -> assertThat(ARCHIVE_DIRECTORY.resolve(segment.file())).exists());
+        assertThat(jdbcTemplate.queryForObject("select count(*) from postings where account_id in (?, ?)",
+                Long.class, aliceId, bobId)).isEqualTo(2);
+
+        assertThat(statement(bobId, 3)).isEqualTo(bobBefore);
+        assertThat(statement(aliceId, 2)).isEqualTo(aliceBefore);
+        assertThat(statement(bobId, 50)).isEqualTo(bobBefore);
+        assertThat(instants.stream().map(asOf -> balanceAt(bobId, asOf)).toList())
+                .usingElementComparator(BigDecimal::compareTo)
+                .isEqualTo(bobBalancesBefore);
+        assertThat(bobBalancesBefore.get(bobBalancesBefore.size() - 1)).isEqualByComparingTo("36.00");
+
+        Report report = reconcile();
+        assertThat(report.balanced()).isTrue();
+        assertThat(report.netDebitByCurrency().get("USD")).isEqualByComparingTo("0");
+
+        assertThat(restClient.get().uri("/api/archives")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Segment[].class)
+                .returnResult().getResponseBody())
+                .extracting(Segment::id)
+                .containsExactlyInAnyOrderElementsOf(archived.stream().map(Segment::id).toList());
+
+        // Opened again from the catalog, as after a restart
+        try (PostingArchive reopened = new PostingArchive(ARCHIVE_DIRECTORY, 16, segmentRepository,
+                totalsRepository)) {
+            reopened.load();
+            assertThat(reopened.countPostings(bobId, null, null)).isEqualTo(7);
+        }
+
+        assertThat(restClient.post().uri("/api/archives")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Segment[].class)
+                .returnResult().getResponseBody()).isEmpty();
+    }
+
+    private List<Line> statement(UUID accountId, int limit) {
+        List<Line> lines = new ArrayList<>();
+        String cursor = null;
+        do {
+            Statement page = restClient.get()
+                    .uri("/api/accounts/" + accountId + "/postings?limit=" + limit
+                            + (cursor != null ? "&after=" + cursor : ""))
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(Statement.class)
+                    .returnResult().getResponseBody();
+            lines.addAll(page.postings());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return lines;
+    }
+
+    private BigDecimal balanceAt(UUID accountId, LocalDateTime asOf) {
+        return restClient.get().uri("/api/accounts/" + accountId + "/balance?asOf=" + asOf)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Balance.class)
+                .returnResult().getResponseBody().balance();
+    }
+
+    private Report reconcile() throws InterruptedException {
+        UUID runId = restClient.post().uri("/api/reconciliations")
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectBody(UUID.class)
+                .returnResult().getResponseBody();
+        for (int attempt = 0; attempt < 200; attempt++) {
+            Report report = restClient.get().uri("/api/reconciliations/" + runId)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(Report.class)
+                    .returnResult().getResponseBody();
+            if (!report.status().equals("RUNNING")) {
+                return report;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Reconciliation " + runId + " did not finish");
+    }
+
+    private void awaitOutboxDrained() throws InterruptedException {
+        for (int attempt = 0; attempt < 200
+                && jdbcTemplate.queryForObject("select count(*) from outbox", Long.class) > 0; attempt++) {
+            Thread.sleep(25);
+        }
+    }
+
+    private void pay(UUID fromId, UUID toId, String amount, String description) {
+        restClient.post().uri("/api/transactions")
+                .body(new PostTransactionCommand(description, List.of(
+                        new PostingCommand(fromId, new BigDecimal(amount), "USD", Posting.Type.CREDIT),
+                        new PostingCommand(toId, new BigDecimal(amount), "USD", Posting.Type.DEBIT))))
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    private void deposit(UUID accountId, String amount) {
+        restClient.post().uri("/api/deposits")
+                .body(new DepositFundsCommand(accountId, new BigDecimal(amount), "USD", "Deposit"))
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    private UUID createAccount(String name) {
+        return restClient.post().uri("/api/accounts")
+                .body(new CreateAccountCommand(name, "USD"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(UUID.class)
+                .returnResult().getResponseBody();
+    }
+
+    private static Path createArchiveDirectory() {
+        try {
+            return Files.createTempDirectory("ledger-archive");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.mahmoud.ledger;
+
+import com.mahmoud.ledger.application.port.in.CreateAccountCommand;
+import com.mahmoud.ledger.application.port.in.DepositFundsCommand;
+import com.mahmoud.ledger.infrastructure.persistence.BalanceCheckpointRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.resttestclient.autoconfigure.AutoConfigureRestTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.client.RestTestClient;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "ledger.checkpoint.every-postings=2")
+@AutoConfigureRestTestClient
+@ActiveProfiles("test")
+class BalanceCheckpointIntegrationTest {
+
+    @Autowired
+    private RestTestClient restClient;
+
+    @Autowired
+    private BalanceCheckpointRepository checkpointRepository;
+
+    @Test
+    void given_CheckpointedAccount_When_BalanceAsOfPastInstants_Then_EachMatchesPostingsUpToThatInstant()
+            throws InterruptedException {
+        UUID aliceId = restClient.post().uri("/api/accounts")
+                .body(new CreateAccountCommand("Alice", "USD"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(UUID.class)
+                .returnResult().getResponseBody();
+
+        List<LocalDateTime> instants = new ArrayList<>();
+        instants.add(LocalDateTime.now());
+        for (int i = 1; i <= 5; i++) {
+            Thread.sleep(5);
+            restClient.post().uri("/api/deposits")
+                    .body(new DepositFundsCommand(aliceId, new BigDecimal(i + ".00"), "USD", "Deposit " + i))
+                    .exchange()
+                    .expectStatus().isOk();
+            Thread.sleep(5);
+            instants.add(LocalDateTime.now());
+        }
+
+        assertThat(checkpointRepository.findAll())
+                .filteredOn(checkpoint -> checkpoint.getAccountId().equals(aliceId))
+                .hasSize(2);
+        // 0, 1, 1+2, 1+2+3, ...
+        double expected = 0;
+        for (int i = 0; i < instants.size(); i++) {
+            expected += i;
+            restClient.get().uri("/api/accounts/" + aliceId + "/balance?asOf=" + instants.get(i))
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$.balance").isEqualTo(expected);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.mahmoud.ledger;
+
+import com.mahmoud.ledger.application.port.in.CreateAccountCommand;
+import com.mahmoud.ledger.application.port.in.DepositFundsCommand;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.resttestclient.autoconfigure.AutoConfigureRestTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.client.RestTestClient;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureRestTestClient
+@ActiveProfiles("test")
+class IdempotencyIntegrationTest {
+
+    @Autowired
+    private RestTestClient restClient;
+
+    @Test
+    void given_RetriedDeposit_When_SameIdempotencyKey_Then_PostedOnceAndSameTransactionReturned() {
+        UUID aliceId = createAccount("Alice");
+        String key = UUID.randomUUID().toString();
+        DepositFundsCommand deposit = new DepositFundsCommand(aliceId, new BigDecimal("100.00"), "USD", "Salary");
+
+        UUID first = deposit(deposit, key);
+        UUID retry = deposit(deposit, key);
+
+        assertThat(retry).isEqualTo(first);
+        // The same amount written differently is the same request
+        assertThat(deposit(new DepositFundsCommand(aliceId, new BigDecimal("100"), "USD", "Salary"), key))
+                .isEqualTo(first);
+        restClient.get().uri("/api/accounts/" + aliceId + "?consistency=STRICT")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.balance").isEqualTo(100.0);
+
+        // The same key for a different request is a client error
+        restClient.post().uri("/api/deposits")
+                .header("Idempotency-Key", key)
+                .body(new DepositFundsCommand(aliceId, new BigDecimal("200.00"), "USD", "Salary"))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    private UUID createAccount(String name) {
+        return restClient.post().uri("/api/accounts")
+                .body(new CreateAccountCommand(name, "USD"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(UUID.class)
+                .returnResult().getResponseBody();
+    }
+
+    private UUID deposit(DepositFundsCommand command, String key) {
+        return restClient.post().uri("/api/deposits")
+                .header("Idempotency-Key", key)
+                .body(command)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(UUID.class)
+                .returnResult().getResponseBody();
+    }
+}
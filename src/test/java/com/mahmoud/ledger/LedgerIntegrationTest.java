@@ -1,6 +1,7 @@
 package com.mahmoud.ledger;
 
 import com.mahmoud.ledger.application.port.in.CreateAccountCommand;
+import com.mahmoud.ledger.application.port.in.PostTransactionBatchCommand;
 import com.mahmoud.ledger.application.port.in.PostTransactionCommand;
 import com.mahmoud.ledger.application.port.in.PostingCommand;
 import com.mahmoud.ledger.application.port.in.TransferFundsCommand;
@@ -13,7 +14,9 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.client.RestTestClient;
 
 import java.math.BigDecimal;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -146,6 +149,175 @@ public class LedgerIntegrationTest {
                 verifyBalance(revenueId, new BigDecimal("5.0"));
         }
 
+        @Test
+        void given_BatchWithOverdraft_When_Posted_Then_OnlyValidTransactionsArePosted() {
+                UUID genesisId = com.mahmoud.ledger.domain.model.SystemAccounts.GENESIS_ACCOUNT_ID;
+                UUID aliceId = createAccountHelper(new CreateAccountCommand("Alice", "USD"));
+                UUID bobId = createAccountHelper(new CreateAccountCommand("Bob", "USD"));
+
+                PostTransactionCommand fundAlice = new PostTransactionCommand(
+                                "Fund Alice",
+                                List.of(
+                                                new PostingCommand(genesisId, new BigDecimal("100.00"), "USD",
+                                                                Posting.Type.CREDIT),
+                                                new PostingCommand(aliceId, new BigDecimal("100.00"), "USD",
+                                                                Posting.Type.DEBIT)));
+                PostTransactionCommand bobOverdraft = new PostTransactionCommand(
+                                "Bob pays Alice",
+                                List.of(
+                                                new PostingCommand(bobId, new BigDecimal("10.00"), "USD",
+                                                                Posting.Type.CREDIT),
+                                                new PostingCommand(aliceId, new BigDecimal("10.00"), "USD",
+                                                                Posting.Type.DEBIT)));
+
+                restClient.post().uri("/api/transactions/batch")
+                                .body(new PostTransactionBatchCommand(List.of(fundAlice, bobOverdraft), false))
+                                .exchange()
+                                .expectStatus().isOk()
+                                .expectBody()
+                                .jsonPath("$[0].posted").isEqualTo(true)
+                                .jsonPath("$[1].posted").isEqualTo(false)
+                                .jsonPath("$[1].error").isEqualTo("Insufficient funds");
+
+                verifyBalance(aliceId, new BigDecimal("100.0"));
+                verifyBalance(bobId, new BigDecimal("0.0"));
+        }
+
+        @Test
+        void given_BatchAboveTheLimit_When_Posted_Then_Rejected() {
+                UUID genesisId = com.mahmoud.ledger.domain.model.SystemAccounts.GENESIS_ACCOUNT_ID;
+                UUID aliceId = createAccountHelper(new CreateAccountCommand("Alice", "USD"));
+                PostTransactionCommand fundAlice = new PostTransactionCommand(
+                                "Fund Alice",
+                                List.of(
+                                                new PostingCommand(genesisId, new BigDecimal("1.00"), "USD",
+                                                                Posting.Type.CREDIT),
+                                                new PostingCommand(aliceId, new BigDecimal("1.00"), "USD",
+                                                                Posting.Type.DEBIT)));
+
+                List<PostTransactionCommand> tooMany = Collections.nCopies(
+                                PostTransactionBatchCommand.MAX_TRANSACTIONS + 1, fundAlice);
+
+                restClient.post().uri("/api/transactions/batch")
+                                .body(Map.of("transactions", tooMany, "atomic", false))
+                                .exchange()
+                                .expectStatus().isBadRequest();
+
+                verifyBalance(aliceId, new BigDecimal("0.0"));
+        }
+
+        @Test
+        void given_CachedBalance_When_DepositCommits_Then_CachedAndStrictReadsSeeIt() {
+                UUID aliceId = createAccountHelper(new CreateAccountCommand("Alice", "USD"));
+                verifyBalance(aliceId, new BigDecimal("0.0")); // warms the cache
+
+                restClient.post().uri("/api/deposits")
+                                .body(new com.mahmoud.ledger.application.port.in.DepositFundsCommand(
+                                                aliceId, new BigDecimal("30.00"), "USD", "Deposit"))
+                                .exchange()
+                                .expectStatus().isOk();
+
+                verifyBalance(aliceId, new BigDecimal("30.0"));
+                restClient.get().uri("/api/accounts/" + aliceId + "?consistency=STRICT")
+                                .exchange()
+                                .expectStatus().isOk()
+                                .expectBody()
+                                .jsonPath("$.balance").isEqualTo(30.0);
+        }
+
+        @Test
+        void given_ManyPostings_When_PagingStatement_Then_NewestFirstWithoutGapsOrDuplicates() {
+                UUID aliceId = createAccountHelper(new CreateAccountCommand("Alice", "USD"));
+                for (int i = 1; i <= 5; i++) {
+                        restClient.post().uri("/api/deposits")
+                                        .body(new com.mahmoud.ledger.application.port.in.DepositFundsCommand(
+                                                        aliceId, new BigDecimal(i + ".00"), "USD", "Deposit " + i))
+                                        .exchange()
+                                        .expectStatus().isOk();
+                }
+
+                List<String> descriptions = new java.util.ArrayList<>();
+                String cursor = null;
+                int pages = 0;
+                do {
+                        StatementBody page = restClient.get()
+                                        .uri("/api/accounts/" + aliceId + "/postings?limit=2"
+                                                        + (cursor != null ? "&after=" + cursor : ""))
+                                        .exchange()
+                                        .expectStatus().isOk()
+                                        .expectBody(StatementBody.class)
+                                        .returnResult().getResponseBody();
+                        page.postings().forEach(line -> descriptions.add(line.description()));
+                        cursor = page.nextCursor();
+                        pages++;
+                } while (cursor != null);
+
+                org.assertj.core.api.Assertions.assertThat(pages).isEqualTo(3);
+                org.assertj.core.api.Assertions.assertThat(descriptions)
+                                .containsExactly("Deposit 5", "Deposit 4", "Deposit 3", "Deposit 2", "Deposit 1");
+        }
+
+        @Test
+        void given_MalformedCursor_When_PagingStatement_Then_BadRequest() {
+                UUID aliceId = createAccountHelper(new CreateAccountCommand("Alice", "USD"));
+
+                restClient.get().uri("/api/accounts/" + aliceId + "/postings?after=not-a-cursor")
+                                .exchange()
+                                .expectStatus().isBadRequest();
+        }
+
+        @Test
+        void given_Transactions_When_Exported_Then_EveryPostingIsStreamedInEachFormat() throws Exception {
+                UUID aliceId = createAccountHelper(new CreateAccountCommand("Alice", "USD"));
+                for (int i = 1; i <= 3; i++) {
+                        restClient.post().uri("/api/deposits")
+                                        .body(new com.mahmoud.ledger.application.port.in.DepositFundsCommand(
+                                                        aliceId, new BigDecimal(i + ".00"), "USD", "Export, \"" + i + "\""))
+                                        .exchange()
+                                        .expectStatus().isOk();
+                }
+                java.time.LocalDateTime now = java.time.LocalDateTime.now();
+                String range = "from=" + now.minusHours(1) + "&to=" + now.plusHours(1);
+
+                String ndjson = restClient.get().uri("/api/transactions/export?" + range)
+                                .exchange()
+                                .expectStatus().isOk()
+                                .expectBody(String.class)
+                                .returnResult().getResponseBody();
+                List<String> aliceLines = ndjson.lines().filter(line -> line.contains(aliceId.toString())).toList();
+                org.assertj.core.api.Assertions.assertThat(aliceLines).hasSize(3);
+                org.assertj.core.api.Assertions.assertThat(aliceLines.get(0)).contains("\"amount\":1.00");
+
+                String csv = restClient.get().uri("/api/transactions/export?format=csv&" + range)
+                                .exchange()
+                                .expectStatus().isOk()
+                                .expectBody(String.class)
+                                .returnResult().getResponseBody();
+                org.assertj.core.api.Assertions.assertThat(csv).startsWith("transaction_id,timestamp,description");
+                org.assertj.core.api.Assertions.assertThat(csv.lines().filter(line -> line.contains(aliceId.toString())))
+                                .hasSize(3)
+                                .allMatch(line -> line.contains(",\"Export, \"\"") && line.contains(",DEBIT,"));
+
+                byte[] gzipped = restClient.get().uri("/api/transactions/export?gzip=true&" + range)
+                                .exchange()
+                                .expectStatus().isOk()
+                                .expectBody(byte[].class)
+                                .returnResult().getResponseBody();
+                try (java.util.zip.GZIPInputStream in = new java.util.zip.GZIPInputStream(
+                                new java.io.ByteArrayInputStream(gzipped))) {
+                        org.assertj.core.api.Assertions.assertThat(
+                                        new String(in.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8))
+                                        .isEqualTo(ndjson);
+                }
+        }
+
+        @Test
+        void given_InvertedRange_When_Exported_Then_BadRequest() {
+                restClient.get().uri("/api/transactions/export?from=2026-01-02T00:00:00&to=2026-01-01T00:00:00")
+                                .exchange()
+                                .expectStatus().isBadRequest();
+        }
+
         private UUID createAccountHelper(CreateAccountCommand cmd) {
                 return restClient.post().uri("/api/accounts")
                                 .body(cmd)
@@ -162,4 +334,10 @@ public class LedgerIntegrationTest {
                                 .expectBody()
                                 .jsonPath("$.balance").isEqualTo(expectedAmount.doubleValue());
         }
+
+        record StatementBody(List<StatementLine> postings, String nextCursor) {
+        }
+
+        record StatementLine(UUID postingId, String description, BigDecimal amount) {
+        }
 }
@@ -0,0 +1,79 @@
+package com.mahmoud.ledger;
+
+import com.mahmoud.ledger.application.port.in.CreateAccountCommand;
+import com.mahmoud.ledger.application.port.in.DepositFundsCommand;
+import com.mahmoud.ledger.application.port.in.PostTransactionCommand;
+import com.mahmoud.ledger.application.port.in.PostingCommand;
+import com.mahmoud.ledger.domain.model.Posting;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.resttestclient.autoconfigure.AutoConfigureRestTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.client.RestTestClient;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureRestTestClient
+@ActiveProfiles("test")
+class MetricsIntegrationTest {
+
+    @Autowired
+    private RestTestClient restClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void given_PostedAndRejectedTransactions_When_MetricsScraped_Then_PipelineIsMeasured() {
+        UUID aliceId = createAccount("Alice");
+        UUID bobId = createAccount("Bob");
+        double rejectedBefore = meterRegistry.counter("ledger.posting.rejections", "reason", "insufficient_funds")
+                .count();
+
+        restClient.post().uri("/api/deposits")
+                .body(new DepositFundsCommand(aliceId, new BigDecimal("10.00"), "USD", null))
+                .exchange()
+                .expectStatus().isOk();
+        restClient.post().uri("/api/transactions")
+                .body(new PostTransactionCommand("Bob overdraws", List.of(
+                        new PostingCommand(bobId, new BigDecimal("5.00"), "USD", Posting.Type.CREDIT),
+                        new PostingCommand(aliceId, new BigDecimal("5.00"), "USD", Posting.Type.DEBIT))))
+                .exchange()
+                .expectStatus().isEqualTo(409);
+
+        assertThat(meterRegistry.get("ledger.usecase").tags("usecase", "deposit", "outcome", "success").timer()
+                .count()).isPositive();
+        assertThat(meterRegistry.get("ledger.usecase")
+                .tags("usecase", "post_transaction", "outcome", "insufficient_funds").timer().count()).isPositive();
+        assertThat(meterRegistry.counter("ledger.posting.rejections", "reason", "insufficient_funds").count())
+                .isEqualTo(rejectedBefore + 1);
+        assertThat(meterRegistry.get("ledger.transaction.postings").summary().count()).isPositive();
+        assertThat(meterRegistry.get("ledger.posting.phase").tag("phase", "commit").timer().count()).isPositive();
+
+        String scrape = restClient.get().uri("/actuator/prometheus")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult().getResponseBody();
+        assertThat(scrape)
+                .contains("ledger_account_lock_wait_seconds_bucket")
+                .contains("ledger_posting_phase_seconds_bucket{phase=\"balances\"")
+                .containsPattern("http_server_requests_seconds_bucket\\{[^}]*uri=\"/api/deposits\"");
+    }
+
+    private UUID createAccount(String name) {
+        return restClient.post().uri("/api/accounts")
+                .body(new CreateAccountCommand(name, "USD"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(UUID.class)
+                .returnResult().getResponseBody();
+    }
+}
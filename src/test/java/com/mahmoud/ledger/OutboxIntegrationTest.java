@@ -0,0 +1,179 @@
+package com.mahmoud.ledger;
+
+import com.mahmoud.ledger.application.port.in.CreateAccountCommand;
+import com.mahmoud.ledger.application.port.in.DepositFundsCommand;
+import com.mahmoud.ledger.application.port.in.TransferFundsCommand;
+import com.mahmoud.ledger.application.service.OutboxRelay;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.resttestclient.autoconfigure.AutoConfigureRestTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.client.RestTestClient;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureRestTestClient
+@ActiveProfiles("test")
+class OutboxIntegrationTest {
+
+    private static final Path EVENT_FILE = createEventFile();
+    private static final Pattern SEQUENCE = Pattern.compile("^\\{\"sequence\":(\\d+),");
+
+    record Line(UUID postingId, UUID accountId, String type, BigDecimal amount, String currency) {
+    }
+
+    record Event(long sequence, UUID transactionId, String description, List<Line> postings) {
+    }
+
+    record Page(List<Event> events, long nextAfter) {
+    }
+
+    @DynamicPropertySource
+    static void outboxFile(DynamicPropertyRegistry registry) {
+        registry.add("ledger.outbox.file", EVENT_FILE::toString);
+        registry.add("ledger.outbox.poll-interval", () -> "20ms");
+        registry.add("ledger.outbox.batch-size", () -> "7");
+    }
+
+    @Autowired
+    private RestTestClient restClient;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void given_ConcurrentPostings_When_Relayed_Then_EveryTransactionIsPublishedOnceInGapFreeOrder()
+            throws Exception {
+        long start = readAll(0).stream().mapToLong(Event::sequence).max().orElse(0);
+        UUID aliceId = createAccount("Alice");
+        UUID bobId = createAccount("Bob");
+        deposit(aliceId, "100.00");
+
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> transfers = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                // Alice can only afford 20 of them, the rejected ones must not leave gaps
+                transfers.add(clients.submit(() -> restClient.post().uri("/api/transfers")
+                        .body(new TransferFundsCommand(aliceId, bobId, new BigDecimal("5.00"), "USD", null))
+                        .exchange()
+                        .returnResult(String.class)
+                        .getStatus().value()));
+            }
+            for (Future<Integer> transfer : transfers) {
+                assertThat(transfer.get()).isIn(200, 409);
+            }
+        } finally {
+            clients.shutdown();
+        }
+
+        List<Event> events = readAll(start);
+        assertThat(events).hasSize(21);
+        for (int i = 0; i < events.size(); i++) {
+            assertThat(events.get(i).sequence()).isEqualTo(start + 1 + i);
+        }
+        assertThat(events.get(0).description()).isEqualTo("Deposit");
+        assertThat(events.get(1).postings()).hasSize(3);
+
+        // Resuming from a cursor picks up right after it
+        Page resumed = page(start + 10, 5);
+        assertThat(resumed.events()).extracting(Event::sequence)
+                .containsExactly(start + 11, start + 12, start + 13, start + 14, start + 15);
+        assertThat(resumed.nextAfter()).isEqualTo(start + 15);
+
+        long last = start + events.size();
+        awaitPublished(last);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from outbox", Long.class)).isZero();
+        List<Long> published = publishedSequences();
+        assertThat(published).isSorted().doesNotHaveDuplicates().contains(start + 1, last);
+        assertThat(published.get(published.size() - 1) - published.get(0) + 1).isEqualTo(published.size());
+    }
+
+    @Test
+    void given_InvalidCursor_When_EventsRequested_Then_BadRequest() {
+        restClient.get().uri("/api/ledger-events?after=-1")
+                .exchange()
+                .expectStatus().isBadRequest();
+        restClient.get().uri("/api/ledger-events?limit=0")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    private List<Event> readAll(long after) {
+        List<Event> events = new ArrayList<>();
+        for (Page page = page(after, 10); !page.events().isEmpty(); page = page(page.nextAfter(), 10)) {
+            events.addAll(page.events());
+        }
+        return events;
+    }
+
+    private Page page(long after, int limit) {
+        return restClient.get().uri("/api/ledger-events?after=" + after + "&limit=" + limit)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Page.class)
+                .returnResult().getResponseBody();
+    }
+
+    private void awaitPublished(long sequence) throws InterruptedException {
+        for (int attempt = 0; attempt < 200 && outboxRelay.lastSequence() < sequence; attempt++) {
+            Thread.sleep(25);
+        }
+        assertThat(outboxRelay.lastSequence()).isEqualTo(sequence);
+    }
+
+    private static List<Long> publishedSequences() throws IOException {
+        List<Long> sequences = new ArrayList<>();
+        for (String line : Files.readAllLines(EVENT_FILE)) {
+            Matcher matcher = SEQUENCE.matcher(line);
+            assertThat(matcher.find()).as(line).isTrue();
+            sequences.add(Long.parseLong(matcher.group(1)));
+        }
+        return sequences;
+    }
+
+    private void deposit(UUID accountId, String amount) {
+        restClient.post().uri("/api/deposits")
+                .body(new DepositFundsCommand(accountId, new BigDecimal(amount), "USD", null))
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    private UUID createAccount(String name) {
+        return restClient.post().uri("/api/accounts")
+                .body(new CreateAccountCommand(name, "USD"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(UUID.class)
+                .returnResult().getResponseBody();
+    }
+
+    private static Path createEventFile() {
+        try {
+            return Files.createTempDirectory("ledger-outbox").resolve("ledger-events.ndjson");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
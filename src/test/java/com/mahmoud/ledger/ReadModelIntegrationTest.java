@@ -0,0 +1,117 @@
+package com.mahmoud.ledger;
+
+import com.mahmoud.ledger.application.port.in.CreateAccountCommand;
+import com.mahmoud.ledger.application.port.in.DepositFundsCommand;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.resttestclient.autoconfigure.AutoConfigureRestTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.client.RestTestClient;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureRestTestClient
+@ActiveProfiles("test")
+class ReadModelIntegrationTest {
+
+    record Line(UUID postingId, UUID transactionId, LocalDateTime postedAt, String description, String type,
+            BigDecimal amount, String currency) {
+    }
+
+    record View(UUID id, String name, String currency, BigDecimal balance, String status,
+            LocalDateTime lastActivityAt, long postingCount, List<Line> recentPostings, LocalDateTime refreshedAt) {
+    }
+
+    record AccountResponse(UUID id, String name, String currency, BigDecimal balance, String status) {
+    }
+
+    @Autowired
+    private RestTestClient restClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void given_CachedView_When_DepositCommits_Then_ViewIsProjected() throws InterruptedException {
+        UUID aliceId = createAccount("Alice");
+        View before = view(aliceId);
+        assertThat(before.balance()).isEqualByComparingTo("0.00");
+        assertThat(before.postingCount()).isZero();
+        assertThat(before.recentPostings()).isEmpty();
+
+        deposit(aliceId, "25.00");
+
+        View after = awaitView(aliceId, "25.00");
+        assertThat(after.postingCount()).isEqualTo(1);
+        assertThat(after.lastActivityAt()).isNotNull();
+        assertThat(after.recentPostings()).singleElement()
+                .satisfies(line -> assertThat(line.amount()).isEqualByComparingTo("25.00"));
+        assertThat(after.refreshedAt()).isAfterOrEqualTo(before.refreshedAt());
+        assertThat(meterRegistry.get("ledger.readmodel.lag").timer().count()).isPositive();
+    }
+
+    @Test
+    void given_EventualConsistency_When_AccountRead_Then_ServedFromReadModel() throws InterruptedException {
+        UUID bobId = createAccount("Bob");
+        deposit(bobId, "12.50");
+        awaitView(bobId, "12.50");
+
+        AccountResponse account = restClient.get().uri("/api/accounts/" + bobId + "?consistency=EVENTUAL")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(AccountResponse.class)
+                .returnResult().getResponseBody();
+
+        assertThat(account.name()).isEqualTo("Bob");
+        assertThat(account.balance()).isEqualByComparingTo("12.50");
+    }
+
+    @Test
+    void given_UnknownAccount_When_ViewRequested_Then_BadRequest() {
+        restClient.get().uri("/api/accounts/" + UUID.randomUUID() + "/view")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    private View awaitView(UUID accountId, String balance) throws InterruptedException {
+        View view = view(accountId);
+        for (int attempt = 0; attempt < 200 && view.balance().compareTo(new BigDecimal(balance)) != 0; attempt++) {
+            Thread.sleep(25);
+            view = view(accountId);
+        }
+        assertThat(view.balance()).isEqualByComparingTo(balance);
+        return view;
+    }
+
+    private View view(UUID accountId) {
+        return restClient.get().uri("/api/accounts/" + accountId + "/view")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(View.class)
+                .returnResult().getResponseBody();
+    }
+
+    private void deposit(UUID accountId, String amount) {
+        restClient.post().uri("/api/deposits")
+                .body(new DepositFundsCommand(accountId, new BigDecimal(amount), "USD", null))
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    private UUID createAccount(String name) {
+        return restClient.post().uri("/api/accounts")
+                .body(new CreateAccountCommand(name, "USD"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(UUID.class)
+                .returnResult().getResponseBody();
+    }
+}
@@ -0,0 +1,115 @@
+package com.mahmoud.ledger;
+
+import com.mahmoud.ledger.application.port.in.CreateAccountCommand;
+import com.mahmoud.ledger.application.port.in.DepositFundsCommand;
+import com.mahmoud.ledger.application.port.in.PostTransactionCommand;
+import com.mahmoud.ledger.application.port.in.PostingCommand;
+import com.mahmoud.ledger.domain.model.Posting;
+import com.mahmoud.ledger.infrastructure.persistence.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.resttestclient.autoconfigure.AutoConfigureRestTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.client.RestTestClient;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureRestTestClient
+@ActiveProfiles("test")
+class ReconciliationIntegrationTest {
+
+    @Autowired
+    private RestTestClient restClient;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionOperations transactionOperations;
+
+    @Test
+    void given_PostedLedger_When_Reconciled_Then_BalancedUntilABalanceIsTamperedWith() throws InterruptedException {
+        UUID aliceId = createAccount("Alice");
+        UUID bobId = createAccount("Bob");
+        restClient.post().uri("/api/deposits")
+                .body(new DepositFundsCommand(aliceId, new BigDecimal("100.00"), "USD", "Deposit"))
+                .exchange()
+                .expectStatus().isOk();
+        // A plain transaction rather than a transfer, whose fee would move the Revenue balance other tests check
+        restClient.post().uri("/api/transactions")
+                .body(new PostTransactionCommand("Alice pays Bob", List.of(
+                        new PostingCommand(aliceId, new BigDecimal("40.00"), "USD", Posting.Type.CREDIT),
+                        new PostingCommand(bobId, new BigDecimal("40.00"), "USD", Posting.Type.DEBIT))))
+                .exchange()
+                .expectStatus().isOk();
+
+        Report clean = reconcile();
+        assertThat(clean.status()).isEqualTo("COMPLETED");
+        assertThat(clean.balanced()).isTrue();
+        assertThat(clean.accountsChecked()).isGreaterThanOrEqualTo(4);
+        assertThat(clean.netDebitByCurrency().get("USD")).isEqualByComparingTo("0");
+
+        setStoredBalance(bobId, "99.00");
+        try {
+            Report tampered = reconcile();
+            assertThat(tampered.balanced()).isFalse();
+            assertThat(tampered.mismatchCount()).isEqualTo(1);
+            assertThat(tampered.mismatches()).singleElement().satisfies(mismatch -> {
+                assertThat(mismatch.accountId()).isEqualTo(bobId);
+                assertThat(mismatch.storedBalance()).isEqualByComparingTo("99.00");
+                assertThat(mismatch.postedBalance()).isEqualByComparingTo("40.00");
+            });
+        } finally {
+            setStoredBalance(bobId, "40.00");
+        }
+    }
+
+    private Report reconcile() throws InterruptedException {
+        UUID runId = restClient.post().uri("/api/reconciliations")
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectBody(UUID.class)
+                .returnResult().getResponseBody();
+        for (int attempt = 0; attempt < 200; attempt++) {
+            Report report = restClient.get().uri("/api/reconciliations/" + runId)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(Report.class)
+                    .returnResult().getResponseBody();
+            if (!report.status().equals("RUNNING")) {
+                return report;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Reconciliation " + runId + " did not finish");
+    }
+
+    private void setStoredBalance(UUID accountId, String balance) {
+        transactionOperations.executeWithoutResult(
+                status -> accountRepository.updateBalance(accountId, new BigDecimal(balance)));
+    }
+
+    private UUID createAccount(String name) {
+        return restClient.post().uri("/api/accounts")
+                .body(new CreateAccountCommand(name, "USD"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(UUID.class)
+                .returnResult().getResponseBody();
+    }
+
+    record Report(String status, long accountsChecked, long mismatchCount, List<Mismatch> mismatches,
+            Map<String, BigDecimal> netDebitByCurrency, boolean balanced) {
+    }
+
+    record Mismatch(UUID accountId, BigDecimal storedBalance, BigDecimal postedBalance) {
+    }
+}
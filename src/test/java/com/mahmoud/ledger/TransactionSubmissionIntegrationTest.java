@@ -0,0 +1,88 @@
+package com.mahmoud.ledger;
+
+import com.mahmoud.ledger.application.port.in.CreateAccountCommand;
+import com.mahmoud.ledger.application.port.in.PostTransactionCommand;
+import com.mahmoud.ledger.application.port.in.PostingCommand;
+import com.mahmoud.ledger.domain.model.Posting;
+import com.mahmoud.ledger.domain.model.SystemAccounts;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.resttestclient.autoconfigure.AutoConfigureRestTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.client.RestTestClient;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureRestTestClient
+@ActiveProfiles("test")
+class TransactionSubmissionIntegrationTest {
+
+    @Autowired
+    private RestTestClient restClient;
+
+    @Test
+    void given_SubmittedTransactions_When_Polled_Then_PostedOrRejectedWithReason() throws InterruptedException {
+        UUID aliceId = restClient.post().uri("/api/accounts")
+                .body(new CreateAccountCommand("Alice", "USD"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(UUID.class)
+                .returnResult().getResponseBody();
+
+        UUID funding = submit(new PostTransactionCommand("Fund Alice", List.of(
+                new PostingCommand(SystemAccounts.GENESIS_ACCOUNT_ID, new BigDecimal("50.00"), "USD",
+                        Posting.Type.CREDIT),
+                new PostingCommand(aliceId, new BigDecimal("50.00"), "USD", Posting.Type.DEBIT))));
+        assertThat(awaitFinished(funding)).containsEntry("status", "POSTED");
+
+        UUID overdraft = submit(new PostTransactionCommand("Alice overdraws", List.of(
+                new PostingCommand(aliceId, new BigDecimal("80.00"), "USD", Posting.Type.CREDIT),
+                new PostingCommand(SystemAccounts.GENESIS_ACCOUNT_ID, new BigDecimal("80.00"), "USD",
+                        Posting.Type.DEBIT))));
+        assertThat(awaitFinished(overdraft))
+                .containsEntry("status", "REJECTED")
+                .containsEntry("reason", "Insufficient funds");
+
+        // Unbalanced transactions never reach the queue
+        restClient.post().uri("/api/transactions/async")
+                .body(new PostTransactionCommand("Unbalanced", List.of(
+                        new PostingCommand(aliceId, new BigDecimal("1.00"), "USD", Posting.Type.DEBIT))))
+                .exchange()
+                .expectStatus().isEqualTo(409);
+        restClient.get().uri("/api/transactions/" + UUID.randomUUID() + "/status")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    private UUID submit(PostTransactionCommand command) {
+        return restClient.post().uri("/api/transactions/async")
+                .body(command)
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectBody(UUID.class)
+                .returnResult().getResponseBody();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> awaitFinished(UUID transactionId) throws InterruptedException {
+        for (int attempt = 0; attempt < 500; attempt++) {
+            Map<String, Object> status = restClient.get().uri("/api/transactions/" + transactionId + "/status")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(Map.class)
+                    .returnResult().getResponseBody();
+            if (!"PENDING".equals(status.get("status"))) {
+                return status;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Submission " + transactionId + " still pending");
+    }
+}
@@ -0,0 +1,205 @@
+package com.mahmoud.ledger.application.service;
+
+import com.mahmoud.ledger.application.port.in.AccountView;
+import com.mahmoud.ledger.application.port.out.AccountPort;
+import com.mahmoud.ledger.application.port.out.AccountViewPort;
+import com.mahmoud.ledger.application.port.out.BalanceCheckpointPort;
+import com.mahmoud.ledger.application.port.out.MetricsPort;
+import com.mahmoud.ledger.application.port.out.StatementPort;
+import com.mahmoud.ledger.domain.model.Account;
+import com.mahmoud.ledger.domain.model.AccountStatus;
+import com.mahmoud.ledger.domain.model.AccountType;
+import com.mahmoud.ledger.domain.model.BalanceCheckpoint;
+import com.mahmoud.ledger.domain.model.Money;
+import com.mahmoud.ledger.domain.model.Posting;
+import com.mahmoud.ledger.domain.model.StatementEntry;
+import com.mahmoud.ledger.domain.model.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountViewProjectorTest {
+
+    private static final LocalDateTime POSTED_AT = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @Mock
+    private AccountPort accountPort;
+
+    @Mock
+    private StatementPort statementPort;
+
+    @Mock
+    private BalanceCheckpointPort balanceCheckpointPort;
+
+    private final MapStore store = new MapStore();
+    private final CountDownLatch projected = new CountDownLatch(1);
+    private final UUID aliceId = UUID.randomUUID();
+    private final UUID bobId = UUID.randomUUID();
+    private AccountViewProjector projector;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(accountPort.load(aliceId)).thenReturn(Optional.of(account(aliceId, 7000)));
+        lenient().when(accountPort.load(bobId)).thenReturn(Optional.of(account(bobId, 3000)));
+        lenient().when(statementPort.loadStatement(any(), isNull(), eq(5))).thenReturn(List.of(
+                new StatementEntry(UUID.randomUUID(), UUID.randomUUID(), POSTED_AT, "Latest",
+                        new Money(3000, Money.currency("USD")), Posting.Type.DEBIT)));
+        lenient().when(balanceCheckpointPort.countPostings(any(), isNull(), isNull())).thenReturn(2L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (projector != null) {
+            projector.close();
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testCommittedTransactionRebuildsTheViewsOfItsAccounts() throws InterruptedException {
+        projector = projector(100);
+
+        projector.projectAfterCommit(transfer());
+
+        assertTrue(projected.await(5, TimeUnit.SECONDS));
+        AccountView bob = store.awaitView(bobId);
+        assertEquals(new Money(3000, Money.currency("USD")), bob.balance());
+        assertEquals(2, bob.postingCount());
+        assertEquals(POSTED_AT, bob.lastActivityAt());
+        assertEquals("Latest", bob.recentPostings().get(0).description());
+        assertNotNull(store.awaitView(aliceId));
+    }
+
+    @Test
+    void testNothingIsProjectedBeforeTheCommit() throws InterruptedException {
+        projector = projector(100);
+        TransactionSynchronizationManager.initSynchronization();
+
+        projector.projectAfterCommit(transfer());
+        assertFalse(projected.await(200, TimeUnit.MILLISECONDS));
+        assertTrue(store.views.isEmpty());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertTrue(projected.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testUnknownViewIsBuiltWhenRead() {
+        projector = projector(100);
+
+        AccountView alice = projector.view(aliceId);
+
+        assertEquals(new Money(7000, Money.currency("USD")), alice.balance());
+        assertSame(alice, store.views.get(aliceId));
+    }
+
+    @Test
+    void testPostingCountOfACheckpointedAccountOnlyCountsPostingsAfterTheCheckpoint() {
+        projector = projector(100);
+        LocalDateTime asOf = POSTED_AT.minusHours(1);
+        when(balanceCheckpointPort.loadLatestCheckpoint(eq(bobId), any())).thenReturn(Optional.of(
+                new BalanceCheckpoint(bobId, asOf, new Money(2000, Money.currency("USD")), 40)));
+        when(balanceCheckpointPort.countPostings(bobId, asOf, null)).thenReturn(3L);
+
+        AccountView bob = projector.view(bobId);
+
+        assertEquals(43, bob.postingCount());
+        verify(balanceCheckpointPort, never()).countPostings(eq(bobId), isNull(), any());
+    }
+
+    @Test
+    void testViewsOfUpdatesThatDontFitTheQueueAreDropped() {
+        projector = projector(1);
+        store.views.put(bobId, projector.view(bobId));
+        // Hold the projector on its first batch so the second one has to queue
+        CountDownLatch release = new CountDownLatch(1);
+        store.blockPutsUntil(release);
+
+        projector.projectAfterCommit(transfer());
+        projector.projectAfterCommit(transfer());
+        projector.projectAfterCommit(transfer());
+
+        assertFalse(store.views.containsKey(bobId));
+        release.countDown();
+    }
+
+    private AccountViewProjector projector(int queueCapacity) {
+        MetricsPort metrics = mock(MetricsPort.class);
+        lenient().doAnswer(invocation -> {
+            projected.countDown();
+            return null;
+        }).when(metrics).recordReadModelLag(anyLong());
+        return new AccountViewProjector(new ReadModelSettings(true, 5, queueCapacity), accountPort, statementPort,
+                balanceCheckpointPort, store, BalanceStripes.none(), metrics);
+    }
+
+    private Transaction transfer() {
+        Transaction transaction = Transaction.create("Transfer");
+        transaction.addPosting(new Posting(aliceId, new Money(3000, Money.currency("USD")), Posting.Type.CREDIT));
+        transaction.addPosting(new Posting(bobId, new Money(3000, Money.currency("USD")), Posting.Type.DEBIT));
+        return transaction;
+    }
+
+    private static Account account(UUID id, long balance) {
+        return new Account(id, "Account", AccountType.ASSET, new Money(balance, Money.currency("USD")),
+                AccountStatus.ACTIVE, POSTED_AT.minusDays(1));
+    }
+
+    private static final class MapStore implements AccountViewPort {
+        private final Map<UUID, AccountView> views = new ConcurrentHashMap<>();
+        private volatile CountDownLatch putsReleased = new CountDownLatch(0);
+
+        @Override
+        public AccountView get(UUID accountId, Function<UUID, AccountView> loader) {
+            return views.computeIfAbsent(accountId, loader);
+        }
+
+        @Override
+        public void put(AccountView view) {
+            try {
+                putsReleased.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            views.put(view.accountId(), view);
+        }
+
+        @Override
+        public void invalidate(UUID accountId) {
+            views.remove(accountId);
+        }
+
+        void blockPutsUntil(CountDownLatch release) {
+            putsReleased = release;
+        }
+
+        AccountView awaitView(UUID accountId) throws InterruptedException {
+            for (int i = 0; i < 100 && !views.containsKey(accountId); i++) {
+                Thread.sleep(50);
+            }
+            return views.get(accountId);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.mahmoud.ledger.application.service;
+
+import com.mahmoud.ledger.application.port.out.AccountPort;
+import com.mahmoud.ledger.application.port.out.BalanceCheckpointPort;
+import com.mahmoud.ledger.domain.model.Account;
+import com.mahmoud.ledger.domain.model.AccountStatus;
+import com.mahmoud.ledger.domain.model.AccountType;
+import com.mahmoud.ledger.domain.model.BalanceCheckpoint;
+import com.mahmoud.ledger.domain.model.Money;
+import com.mahmoud.ledger.domain.model.Posting;
+import com.mahmoud.ledger.domain.model.SystemAccounts;
+import com.mahmoud.ledger.domain.model.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceCheckpointerTest {
+
+    private static final Currency USD = Money.currency("USD");
+    private static final Duration COMMIT_WINDOW = Duration.ofSeconds(1);
+
+    @Mock
+    private AccountPort accountPort;
+
+    @Mock
+    private BalanceCheckpointPort checkpointPort;
+
+    private final UUID assetId = UUID.randomUUID();
+    private final UUID equityId = SystemAccounts.GENESIS_ACCOUNT_ID;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(checkpointPort.loadLatestCheckpoint(any(), any())).thenReturn(Optional.empty());
+        lenient().when(checkpointPort.sumNetDebit(any(), any(), any(), any())).thenReturn(Money.zero(USD));
+        // Counted when the progress is first loaded, the store already holds the transaction being recorded
+        lenient().when(checkpointPort.countPostings(any(), isNull(), isNull())).thenReturn(1L);
+        lenient().when(accountPort.load(assetId)).thenReturn(Optional.of(account(assetId, AccountType.ASSET, 0)));
+        lenient().when(accountPort.load(equityId)).thenReturn(Optional.of(account(equityId, AccountType.EQUITY, 0)));
+    }
+
+    @Test
+    void testCheckpointIsWrittenEveryNPostingsWithoutLaterPostings() {
+        BalanceCheckpointer checkpointer = checkpointer(2, BalanceStripes.none());
+        Transaction first = transfer(1000);
+        Transaction second = transfer(500);
+
+        checkpointer.recordPosted(first, noRows());
+        verify(checkpointPort, never()).saveCheckpoint(any());
+
+        // The asset account now holds 15.00, of which 2.00 were posted by transactions timestamped later
+        LocalDateTime asOf = second.getTimestamp().minus(COMMIT_WINDOW);
+        when(accountPort.load(assetId)).thenReturn(Optional.of(account(assetId, AccountType.ASSET, 1700)));
+        lenient().when(checkpointPort.sumNetDebit(eq(assetId), eq(USD), eq(asOf), isNull()))
+                .thenReturn(new Money(200, USD));
+        lenient().when(checkpointPort.countPostings(assetId, null, asOf)).thenReturn(1L);
+        checkpointer.recordPosted(second, noRows());
+
+        ArgumentCaptor<BalanceCheckpoint> saved = ArgumentCaptor.forClass(BalanceCheckpoint.class);
+        verify(checkpointPort, atLeastOnce()).saveCheckpoint(saved.capture());
+        BalanceCheckpoint asset = saved.getAllValues().stream()
+                .filter(checkpoint -> checkpoint.accountId().equals(assetId))
+                .findFirst().orElseThrow();
+        assertEquals(asOf, asset.asOf());
+        assertEquals(new Money(1500, USD), asset.balance());
+        assertEquals(1, asset.postings());
+    }
+
+    @Test
+    void testOnlyPostingsCommittingAfterTheWindowShiftLaterCheckpointsInBalanceTerms() {
+        BalanceCheckpointer checkpointer = checkpointer(1000, BalanceStripes.none());
+        Transaction late = transfer(1000, LocalDateTime.now().minus(COMMIT_WINDOW.multipliedBy(2)));
+
+        checkpointer.recordPosted(transfer(1000), noRows());
+        verify(checkpointPort, never()).shiftCheckpoints(any(), any(), any(), anyLong());
+
+        checkpointer.recordPosted(late, noRows());
+        // Debit raises the asset balance, credit raises the equity balance
+        verify(checkpointPort).shiftCheckpoints(assetId, late.getTimestamp(), new Money(1000, USD), 1);
+        verify(checkpointPort).shiftCheckpoints(equityId, late.getTimestamp(), new Money(1000, USD), 1);
+        verify(checkpointPort, never()).saveCheckpoint(any());
+    }
+
+    @Test
+    void testStripedAccountIsCheckpointedOnItsLogicalBalanceWhenAllStripesAreHeld() {
+        BalanceStripes stripes = new BalanceStripes(2, Map.of(equityId, AccountType.EQUITY));
+        BalanceCheckpointer checkpointer = checkpointer(1, stripes);
+        Transaction transaction = transfer(1000);
+        assertTrue(checkpointer.isDue(equityId, transaction));
+
+        // Holding a single stripe, only the asset account is checkpointed
+        checkpointer.recordPosted(transaction, noRows());
+        verify(checkpointPort).saveCheckpoint(argThat(checkpoint -> checkpoint.accountId().equals(assetId)));
+        verify(checkpointPort, never()).saveCheckpoint(argThat(checkpoint -> checkpoint.accountId().equals(equityId)));
+
+        AccountWorkingSet accounts = new AccountWorkingSet(accountPort, null, false);
+        when(accountPort.loadAll(any())).thenReturn(List.of(
+                account(equityId, AccountType.EQUITY, 3000),
+                account(stripes.all(equityId).get(1), AccountType.EQUITY, 500)));
+        accounts.lock(stripes.all(equityId));
+        checkpointer.recordPosted(transfer(1000), accounts);
+
+        verify(checkpointPort).saveCheckpoint(argThat(checkpoint -> checkpoint.accountId().equals(equityId)
+                && checkpoint.balance().equals(new Money(3500, USD))));
+    }
+
+    @Test
+    void testRolledBackPostingIsNotCounted() {
+        BalanceCheckpointer checkpointer = checkpointer(2, BalanceStripes.none());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            checkpointer.recordPosted(transfer(1000), noRows());
+        } finally {
+            // Rolled back: the afterCommit callbacks never run
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        checkpointer.recordPosted(transfer(1000), noRows());
+        verify(checkpointPort, never()).saveCheckpoint(any());
+
+        checkpointer.recordPosted(transfer(1000), noRows());
+        verify(checkpointPort).saveCheckpoint(argThat(checkpoint -> checkpoint.accountId().equals(assetId)));
+    }
+
+    @Test
+    void testAccountVanishingWhilePostingIsAConflict() {
+        BalanceCheckpointer checkpointer = checkpointer(2, BalanceStripes.none());
+        when(accountPort.load(assetId)).thenReturn(Optional.empty());
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> checkpointer.recordPosted(transfer(1000), noRows()));
+        assertEquals("Account vanished while posting: " + assetId, ex.getMessage());
+    }
+
+    private BalanceCheckpointer checkpointer(int everyPostings, BalanceStripes stripes) {
+        return new BalanceCheckpointer(
+                new CheckpointSettings(true, everyPostings, Duration.ofDays(1), COMMIT_WINDOW, 100),
+                accountPort, checkpointPort, stripes);
+    }
+
+    private AccountWorkingSet noRows() {
+        return new AccountWorkingSet(accountPort, null, true);
+    }
+
+    private Transaction transfer(long minorUnits) {
+        return transfer(minorUnits, LocalDateTime.now());
+    }
+
+    private Transaction transfer(long minorUnits, LocalDateTime timestamp) {
+        Transaction transaction = new Transaction(UUID.randomUUID(), "Deposit", timestamp);
+        transaction.addPosting(new Posting(equityId, new Money(minorUnits, USD), Posting.Type.CREDIT));
+        transaction.addPosting(new Posting(assetId, new Money(minorUnits, USD), Posting.Type.DEBIT));
+        return transaction;
+    }
+
+    private static Account account(UUID id, AccountType type, long balance) {
+        return new Account(id, "Account", type, new Money(balance, USD), AccountStatus.ACTIVE,
+                LocalDateTime.now());
+    }
+}
@@ -0,0 +1,34 @@
+package com.mahmoud.ledger.application.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.PessimisticLockingFailureException;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyRetryTest {
+
+    @Test
+    void given_DeadlockThenLockTimeout_When_Retried_Then_EachConflictIsCountedByKind() {
+        ConcurrencyRetry retry = new ConcurrencyRetry(2, Duration.ofMillis(1), Duration.ofMillis(1));
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = retry.execute(() -> switch (attempts.incrementAndGet()) {
+            case 1 -> throw new CannotAcquireLockException("Deadlock",
+                    new SQLException("Deadlock detected", "40001", 40001));
+            case 2 -> throw new PessimisticLockingFailureException("Lock timeout",
+                    new SQLException("Timeout trying to lock table", "HYT00", 50200));
+            default -> "posted";
+        });
+
+        assertEquals("posted", result);
+        assertEquals(2, retry.retries());
+        assertEquals(1, retry.conflicts(ConcurrencyRetry.Conflict.DEADLOCK));
+        assertEquals(1, retry.conflicts(ConcurrencyRetry.Conflict.LOCK_TIMEOUT));
+        assertEquals(0, retry.conflicts(ConcurrencyRetry.Conflict.OTHER));
+    }
+}
@@ -0,0 +1,213 @@
+package com.mahmoud.ledger.application.service;
+
+import com.mahmoud.ledger.domain.model.Transaction;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroupCommitterTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Test
+    void testConcurrentSubmissionsAreCommittedTogether() throws Exception {
+        List<Integer> groupSizes = Collections.synchronizedList(new ArrayList<>());
+        GroupCommitSettings settings = new GroupCommitSettings(true, 16, Duration.ofMillis(50), 64, TIMEOUT);
+
+        try (GroupCommitter committer = new GroupCommitter(settings, group -> {
+            groupSizes.add(group.size());
+            return Collections.nCopies(group.size(), null);
+        })) {
+            ExecutorService callers = Executors.newFixedThreadPool(16);
+            List<Transaction> transactions = new ArrayList<>();
+            List<Future<UUID>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                Transaction transaction = Transaction.create("Tx " + i);
+                transactions.add(transaction);
+                results.add(callers.submit(() -> committer.submit(transaction)));
+            }
+
+            for (int i = 0; i < 16; i++) {
+                assertEquals(transactions.get(i).getId(), results.get(i).get());
+            }
+            callers.shutdown();
+        }
+
+        assertEquals(16, groupSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(groupSizes.size() < 16, "expected postings to share commits, got " + groupSizes);
+    }
+
+    @Test
+    void testRejectedTransactionDoesNotFailItsGroupMates() throws Exception {
+        GroupCommitSettings settings = new GroupCommitSettings(true, 8, Duration.ofMillis(50), 16, TIMEOUT);
+
+        try (GroupCommitter committer = new GroupCommitter(settings, group -> group.stream()
+                .map(t -> t.getDescription().equals("bad")
+                        ? (RuntimeException) new IllegalStateException("Insufficient funds")
+                        : null)
+                .toList())) {
+            ExecutorService callers = Executors.newFixedThreadPool(2);
+            Future<UUID> good = callers.submit(() -> committer.submit(Transaction.create("good")));
+            Future<UUID> bad = callers.submit(() -> committer.submit(Transaction.create("bad")));
+
+            assertNotNull(good.get());
+            Exception ex = assertThrows(Exception.class, bad::get);
+            assertInstanceOf(IllegalStateException.class, ex.getCause());
+            callers.shutdown();
+        }
+    }
+
+    @Test
+    void testFailedGroupIsCommittedAgainOneByOneSoOnlyTheCulpritFails() throws Exception {
+        GroupCommitSettings settings = new GroupCommitSettings(true, 8, Duration.ofMillis(50), 16, TIMEOUT);
+        List<Integer> groupSizes = Collections.synchronizedList(new ArrayList<>());
+
+        try (GroupCommitter committer = new GroupCommitter(settings, group -> {
+            groupSizes.add(group.size());
+            if (group.stream().anyMatch(t -> t.getDescription().equals("duplicate key"))) {
+                throw new DataIntegrityViolationException("Unique index violated");
+            }
+            return Collections.nCopies(group.size(), null);
+        })) {
+            ExecutorService callers = Executors.newFixedThreadPool(2);
+            Future<UUID> good = callers.submit(() -> committer.submit(Transaction.create("good")));
+            Future<UUID> bad = callers.submit(() -> committer.submit(Transaction.create("duplicate key")));
+
+            assertNotNull(good.get());
+            Exception ex = assertThrows(Exception.class, bad::get);
+            assertInstanceOf(DataIntegrityViolationException.class, ex.getCause());
+            callers.shutdown();
+        }
+    }
+
+    @Test
+    void testSubmissionsRacingCloseAreCommittedOrRejectedAsUnavailable() throws Exception {
+        GroupCommitSettings settings = new GroupCommitSettings(true, 4, Duration.ofMillis(1), 8, TIMEOUT);
+        GroupCommitter committer = new GroupCommitter(settings, group -> Collections.nCopies(group.size(), null));
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<Future<UUID>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            results.add(callers.submit(() -> committer.submit(Transaction.create("Tx"))));
+        }
+
+        committer.close();
+
+        // Every caller returns: none is left waiting on a transaction queued after the committer stopped
+        for (Future<UUID> result : results) {
+            try {
+                assertNotNull(result.get(5, TimeUnit.SECONDS));
+            } catch (ExecutionException e) {
+                assertInstanceOf(RejectedExecutionException.class, e.getCause());
+            }
+        }
+        assertThrows(RejectedExecutionException.class, () -> committer.submit(Transaction.create("Tx")));
+        callers.shutdown();
+    }
+
+    @Test
+    void testErrorFromAGroupFailsItsCallersAndTheCommitterKeepsRunning() {
+        GroupCommitSettings settings = new GroupCommitSettings(true, 8, Duration.ofMillis(1), 16, TIMEOUT);
+        AtomicBoolean overflow = new AtomicBoolean(true);
+
+        try (GroupCommitter committer = new GroupCommitter(settings, group -> {
+            if (overflow.getAndSet(false)) {
+                throw new StackOverflowError();
+            }
+            return Collections.nCopies(group.size(), null);
+        })) {
+            CompletionException ex = assertThrows(CompletionException.class,
+                    () -> committer.submit(Transaction.create("Tx")));
+            assertInstanceOf(StackOverflowError.class, ex.getCause());
+
+            Transaction next = Transaction.create("Next");
+            assertEquals(next.getId(), committer.submit(next));
+        }
+    }
+
+    @Test
+    void testCallersStopWaitingOnAStuckCommitAfterTheTimeout() throws Exception {
+        GroupCommitSettings settings = new GroupCommitSettings(true, 1, Duration.ofMillis(1), 16,
+                Duration.ofMillis(200));
+        CountDownLatch stuck = new CountDownLatch(1);
+
+        try (GroupCommitter committer = new GroupCommitter(settings, group -> {
+            awaitQuietly(stuck);
+            return Collections.nCopies(group.size(), null);
+        })) {
+            ExecutorService callers = Executors.newFixedThreadPool(2);
+            Future<UUID> committing = callers.submit(() -> committer.submit(Transaction.create("Committing")));
+            Thread.sleep(50);
+            Future<UUID> queued = callers.submit(() -> committer.submit(Transaction.create("Queued")));
+
+            // The first may still commit, the second never left the queue
+            Exception unknown = assertThrows(ExecutionException.class, () -> committing.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(CompletionException.class, unknown.getCause());
+            Exception rejected = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(RejectedExecutionException.class, rejected.getCause());
+            stuck.countDown();
+            callers.shutdown();
+        }
+    }
+
+    @Test
+    void testCloseLetsTheCommitInProgressFinishUninterrupted() throws Exception {
+        GroupCommitSettings settings = new GroupCommitSettings(true, 8, Duration.ofMillis(1), 16, TIMEOUT);
+        CountDownLatch committing = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        GroupCommitter committer = new GroupCommitter(settings, group -> {
+            committing.countDown();
+            awaitQuietly(closed);
+            interrupted.set(Thread.currentThread().isInterrupted());
+            return Collections.nCopies(group.size(), null);
+        });
+        ExecutorService callers = Executors.newSingleThreadExecutor();
+        Transaction transaction = Transaction.create("Tx");
+        Future<UUID> result = callers.submit(() -> committer.submit(transaction));
+
+        assertTrue(committing.await(5, TimeUnit.SECONDS));
+        committer.close();
+        closed.countDown();
+
+        assertEquals(transaction.getId(), result.get(5, TimeUnit.SECONDS));
+        assertFalse(interrupted.get());
+        callers.shutdown();
+    }
+
+    @Test
+    void testFailedGroupFailsEveryCaller() {
+        GroupCommitSettings settings = new GroupCommitSettings(true, 8, Duration.ofMillis(1), 16, TIMEOUT);
+
+        try (GroupCommitter committer = new GroupCommitter(settings, group -> {
+            throw new IllegalStateException("Database unavailable");
+        })) {
+            IllegalStateException ex = assertThrows(IllegalStateException.class,
+                    () -> committer.submit(Transaction.create("Tx")));
+            assertEquals("Database unavailable", ex.getMessage());
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
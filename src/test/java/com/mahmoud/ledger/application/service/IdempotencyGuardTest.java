@@ -0,0 +1,126 @@
+package com.mahmoud.ledger.application.service;
+
+import com.mahmoud.ledger.application.port.out.IdempotencyPort;
+import com.mahmoud.ledger.application.port.out.IdempotencyPort.StoredKey;
+import com.mahmoud.ledger.domain.model.IdempotencyKey;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyGuardTest {
+
+    private static final IdempotencyKey KEY = IdempotencyKey.forRequest("key-1", "deposit:100 USD");
+
+    @Mock
+    private IdempotencyPort idempotencyPort;
+
+    @Test
+    void given_KnownKey_When_Executed_Then_ReturnsStoredTransactionWithoutPosting() {
+        UUID posted = UUID.randomUUID();
+        when(idempotencyPort.findIdempotencyKey("key-1"))
+                .thenReturn(Optional.of(new StoredKey(KEY.requestHash(), posted)));
+        IdempotencyGuard guard = new IdempotencyGuard(idempotencyPort);
+
+        UUID result = guard.execute(KEY, true, () -> fail("Posted twice"));
+
+        assertEquals(posted, result);
+    }
+
+    @Test
+    void given_KeyOfAnotherRequest_When_Executed_Then_Rejected() {
+        when(idempotencyPort.findIdempotencyKey("key-1"))
+                .thenReturn(Optional.of(new StoredKey(KEY.requestHash(), UUID.randomUUID())));
+        IdempotencyGuard guard = new IdempotencyGuard(idempotencyPort);
+        IdempotencyKey other = IdempotencyKey.forRequest("key-1", "deposit:200 USD");
+
+        assertThrows(IllegalArgumentException.class, () -> guard.execute(other, true, UUID::randomUUID));
+    }
+
+    @Test
+    void given_RetryWhileFirstAttemptPosts_When_Executed_Then_PostedOnce() throws Exception {
+        Map<String, StoredKey> stored = new ConcurrentHashMap<>();
+        when(idempotencyPort.findIdempotencyKey("key-1"))
+                .thenAnswer(invocation -> Optional.ofNullable(stored.get("key-1")));
+        doAnswer(invocation -> stored.put("key-1", new StoredKey(KEY.requestHash(), invocation.getArgument(1))))
+                .when(idempotencyPort).rememberIdempotencyKey(eq(KEY), any());
+        IdempotencyGuard guard = new IdempotencyGuard(idempotencyPort);
+        UUID posted = UUID.randomUUID();
+        AtomicInteger postings = new AtomicInteger();
+        CountDownLatch posting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<UUID> first = CompletableFuture.supplyAsync(() -> guard.execute(KEY, true, () -> {
+            postings.incrementAndGet();
+            posting.countDown();
+            await(release);
+            return posted;
+        }));
+        assertTrue(posting.await(5, TimeUnit.SECONDS));
+        CompletableFuture<UUID> retry = CompletableFuture.supplyAsync(() -> guard.execute(KEY, true, () -> {
+            postings.incrementAndGet();
+            return UUID.randomUUID();
+        }));
+        release.countDown();
+
+        assertEquals(posted, first.get(5, TimeUnit.SECONDS));
+        assertEquals(posted, retry.get(5, TimeUnit.SECONDS));
+        assertEquals(1, postings.get());
+        verify(idempotencyPort).rememberIdempotencyKey(KEY, posted);
+    }
+
+    @Test
+    void given_KeyTakenByAnotherInstance_When_Committing_Then_ReturnsTheWinnersTransaction() {
+        UUID winner = UUID.randomUUID();
+        when(idempotencyPort.findIdempotencyKey("key-1"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(new StoredKey(KEY.requestHash(), winner)));
+        IdempotencyGuard guard = new IdempotencyGuard(idempotencyPort);
+
+        UUID result = guard.execute(KEY, true, () -> {
+            throw new DataIntegrityViolationException("Duplicate idempotency key");
+        });
+
+        assertEquals(winner, result);
+        verify(idempotencyPort, never()).rememberIdempotencyKey(any(), any());
+    }
+
+    @Test
+    void given_KeyFoundPostedByTheGroupCommit_When_Committing_Then_ReturnsThePostedTransaction() {
+        UUID posted = UUID.randomUUID();
+        when(idempotencyPort.findIdempotencyKey("key-1"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(new StoredKey(KEY.requestHash(), posted)));
+        IdempotencyGuard guard = new IdempotencyGuard(idempotencyPort);
+
+        UUID result = guard.execute(KEY, true, () -> {
+            throw new DuplicateIdempotencyKeyException("key-1");
+        });
+
+        assertEquals(posted, result);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
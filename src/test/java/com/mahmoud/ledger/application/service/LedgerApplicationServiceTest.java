@@ -1,15 +1,26 @@
 package com.mahmoud.ledger.application.service;
 
 import com.mahmoud.ledger.application.port.in.CreateAccountCommand;
+import com.mahmoud.ledger.application.port.in.DepositFundsCommand;
+import com.mahmoud.ledger.application.port.in.PostTransactionBatchCommand;
 import com.mahmoud.ledger.application.port.in.PostTransactionCommand;
+import com.mahmoud.ledger.application.port.in.PostTransactionResult;
 import com.mahmoud.ledger.application.port.in.PostingCommand;
 import com.mahmoud.ledger.application.port.in.TransferFundsCommand;
+import com.mahmoud.ledger.application.port.out.AccountLockPort;
 import com.mahmoud.ledger.application.port.out.AccountPort;
+import com.mahmoud.ledger.application.port.out.IdempotencyPort;
+import com.mahmoud.ledger.application.port.out.IdempotencyPort.StoredKey;
+import com.mahmoud.ledger.application.port.out.MetricsPort;
 import com.mahmoud.ledger.application.port.out.TransactionPort;
 import com.mahmoud.ledger.domain.model.Account;
 import com.mahmoud.ledger.domain.model.AccountType;
+import com.mahmoud.ledger.domain.model.IdGenerator;
+import com.mahmoud.ledger.domain.model.IdempotencyKey;
+import com.mahmoud.ledger.domain.model.InsufficientFundsException;
 import com.mahmoud.ledger.domain.model.Money;
 import com.mahmoud.ledger.domain.model.Posting;
+import com.mahmoud.ledger.domain.model.SystemAccounts;
 import com.mahmoud.ledger.domain.model.Transaction;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,13 +28,25 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,14 +55,20 @@ class LedgerApplicationServiceTest {
     @Mock
     private AccountPort accountPort;
 
+    @Mock
+    private AccountLockPort accountLocks;
+
     @Mock
     private TransactionPort transactionPort;
 
+    @Mock
+    private IdempotencyPort idempotencyPort;
+
     private LedgerApplicationService service;
 
     @BeforeEach
     void setUp() {
-        service = new LedgerApplicationService(accountPort, transactionPort);
+        service = newService(BalanceStripes.none());
     }
 
     @Test
@@ -66,8 +95,7 @@ class LedgerApplicationServiceTest {
         // Seed account2 with funds so it can be credited (decreased)
         account2.postPosting(new Posting(acc2, Money.of(new BigDecimal("200"), "USD"), Posting.Type.DEBIT));
 
-        when(accountPort.loadLocked(acc1)).thenReturn(Optional.of(account1));
-        when(accountPort.loadLocked(acc2)).thenReturn(Optional.of(account2));
+        when(accountLocks.loadAllLocked(anyCollection())).thenReturn(List.of(account1, account2));
 
         // 2. Execute
         PostingCommand p1 = new PostingCommand(acc1, new BigDecimal("100"), "USD", Posting.Type.DEBIT);
@@ -80,15 +108,15 @@ class LedgerApplicationServiceTest {
         // 3. Verify
         assertNotNull(txId);
 
-        // Verify Locking was used
-        verify(accountPort).loadLocked(acc1);
-        verify(accountPort).loadLocked(acc2);
+        // Verify Locking was used, in a single round trip
+        verify(accountLocks).loadAllLocked(argThat(ids -> ids.containsAll(List.of(acc1, acc2))));
+        verify(accountLocks, never()).loadLocked(any());
 
         // Verify Balances Updated (Asset Logic)
         // Acc1 Debit 100 -> +100
         // Acc2 started 200 -> Credit 100 -> 100
-        assertEquals(new BigDecimal("100"), account1.getBalance().amount());
-        assertEquals(new BigDecimal("100"), account2.getBalance().amount());
+        assertEquals(new BigDecimal("100.00"), account1.getBalance().amount());
+        assertEquals(new BigDecimal("100.00"), account2.getBalance().amount());
 
         // Verify Save called
         verify(accountPort, times(2)).save(any(Account.class));
@@ -109,9 +137,7 @@ class LedgerApplicationServiceTest {
         // Seed Source with 100 USD
         source.postPosting(new Posting(sourceId, Money.of(new BigDecimal("100"), "USD"), Posting.Type.DEBIT));
 
-        when(accountPort.loadLocked(sourceId)).thenReturn(Optional.of(source));
-        when(accountPort.loadLocked(destId)).thenReturn(Optional.of(dest));
-        when(accountPort.loadLocked(revenueId)).thenReturn(Optional.of(revenue)); // Mock Revenue fetch
+        when(accountLocks.loadAllLocked(anyCollection())).thenReturn(List.of(source, dest, revenue));
 
         // 2. Execute Transfer (50 USD)
         // Logic:
@@ -125,7 +151,7 @@ class LedgerApplicationServiceTest {
         // 3. Verify balance updates
 
         // Source: 100 - 50 = 50
-        assertEquals(new BigDecimal("50"), source.getBalance().amount());
+        assertEquals(new BigDecimal("50.00"), source.getBalance().amount());
 
         // Dest: 0 + 45 = 45
         assertEquals(new BigDecimal("45.00"), dest.getBalance().amount());
@@ -133,16 +159,14 @@ class LedgerApplicationServiceTest {
         // Revenue: 0 + 5 = 5
         assertEquals(new BigDecimal("5.00"), revenue.getBalance().amount());
 
-        verify(accountPort).loadLocked(sourceId);
-        verify(accountPort).loadLocked(destId);
-        verify(accountPort).loadLocked(revenueId);
+        verify(accountLocks).loadAllLocked(argThat(ids -> ids.containsAll(List.of(sourceId, destId, revenueId))));
         verify(transactionPort).save(any(Transaction.class));
     }
 
     @Test
     void testTransactionFailsIfAccountNotFound() {
         UUID acc1 = UUID.randomUUID();
-        when(accountPort.loadLocked(acc1)).thenReturn(Optional.empty());
+        when(accountLocks.loadAllLocked(anyCollection())).thenReturn(List.of());
 
         PostingCommand p1 = new PostingCommand(acc1, new BigDecimal("100"), "USD", Posting.Type.DEBIT);
         PostTransactionCommand command = new PostTransactionCommand("Bad Acc", List.of(p1));
@@ -158,4 +182,352 @@ class LedgerApplicationServiceTest {
 
         assertThrows(IllegalArgumentException.class, () -> service.postTransaction(balancedCommand));
     }
+
+    @Test
+    void testStripedRevenueReceivesFeeOnSingleStripe() {
+        BalanceStripes stripes = new BalanceStripes(4, Map.of(SystemAccounts.REVENUE_ACCOUNT_ID, AccountType.ASSET));
+        service = newService(stripes);
+
+        UUID sourceId = UUID.randomUUID();
+        UUID destId = UUID.randomUUID();
+        Account source = Account.create(sourceId, "Source", AccountType.ASSET, "USD");
+        source.postPosting(new Posting(sourceId, Money.of(new BigDecimal("100"), "USD"), Posting.Type.DEBIT));
+        Account dest = Account.create(destId, "Dest", AccountType.ASSET, "USD");
+
+        Account[] revenueStripe = new Account[1];
+        when(accountLocks.loadAllLocked(anyCollection())).thenAnswer(inv -> {
+            Collection<UUID> ids = inv.getArgument(0);
+            UUID stripeId = ids.stream()
+                    .filter(id -> stripes.all(SystemAccounts.REVENUE_ACCOUNT_ID).contains(id))
+                    .findFirst().orElseThrow();
+            revenueStripe[0] = Account.create(stripeId, "Revenue stripe", AccountType.ASSET, "USD");
+            return List.of(source, dest, revenueStripe[0]);
+        });
+
+        service.transferFunds(new TransferFundsCommand(sourceId, destId, new BigDecimal("50"), "USD", "Striped"));
+
+        // Exactly one stripe is locked and it takes the whole fee
+        verify(accountLocks).loadAllLocked(argThat(ids -> ids.size() == 3));
+        assertEquals(new BigDecimal("5.00"), revenueStripe[0].getBalance().amount());
+    }
+
+    @Test
+    void testGetStripedAccountSumsStripes() {
+        UUID revenueId = SystemAccounts.REVENUE_ACCOUNT_ID;
+        BalanceStripes stripes = new BalanceStripes(3, Map.of(revenueId, AccountType.ASSET));
+        service = newService(stripes);
+
+        for (UUID stripeId : stripes.all(revenueId)) {
+            Account stripe = Account.create(stripeId, "Revenue", AccountType.ASSET, "USD");
+            stripe.postPosting(new Posting(stripeId, Money.of(new BigDecimal("10"), "USD"), Posting.Type.DEBIT));
+            when(accountPort.load(stripeId)).thenReturn(Optional.of(stripe));
+        }
+
+        Account revenue = service.getAccount(revenueId);
+
+        assertEquals(revenueId, revenue.getId());
+        assertEquals(new BigDecimal("30.00"), revenue.getBalance().amount());
+    }
+
+    @Test
+    void testStripedAccountIsDrainedAcrossStripes() {
+        UUID revenueId = SystemAccounts.REVENUE_ACCOUNT_ID;
+        BalanceStripes stripes = new BalanceStripes(2, Map.of(revenueId, AccountType.ASSET));
+        service = newService(stripes);
+
+        // Each stripe holds 10, the payout of 15 only fits the logical balance
+        Map<UUID, Account> rows = new HashMap<>();
+        for (UUID stripeId : stripes.all(revenueId)) {
+            Account stripe = Account.create(stripeId, "Revenue", AccountType.ASSET, "USD");
+            stripe.postPosting(new Posting(stripeId, Money.of(new BigDecimal("10"), "USD"), Posting.Type.DEBIT));
+            rows.put(stripeId, stripe);
+        }
+        UUID payeeId = UUID.randomUUID();
+        Account payee = Account.create(payeeId, "Payee", AccountType.ASSET, "USD");
+        rows.put(payeeId, payee);
+        when(accountLocks.loadAllLocked(anyCollection())).thenAnswer(inv -> {
+            Collection<UUID> ids = inv.getArgument(0);
+            return ids.stream().map(rows::get).toList();
+        });
+
+        service.postTransaction(new PostTransactionCommand("Payout", List.of(
+                new PostingCommand(revenueId, new BigDecimal("15"), "USD", Posting.Type.CREDIT),
+                new PostingCommand(payeeId, new BigDecimal("15"), "USD", Posting.Type.DEBIT))));
+
+        assertEquals(new BigDecimal("15.00"), payee.getBalance().amount());
+        assertEquals(new BigDecimal("5.00"), rows.values().stream()
+                .filter(a -> !a.getId().equals(payeeId))
+                .map(a -> a.getBalance().amount())
+                .reduce(BigDecimal.ZERO, BigDecimal::add));
+        // payee + both drained stripes, all locked in a single round
+        verify(accountPort, times(3)).save(any(Account.class));
+        verify(accountLocks).loadAllLocked(argThat(ids -> ids.size() == 3));
+    }
+
+    @Test
+    void testAtomicDeltaLocksAllStripesUpFrontWhenDecreasingStripedAccount() {
+        UUID revenueId = SystemAccounts.REVENUE_ACCOUNT_ID;
+        BalanceStripes stripes = new BalanceStripes(2, Map.of(revenueId, AccountType.ASSET));
+        service = newService(stripes, PostingMode.ATOMIC_DELTA);
+
+        Map<UUID, Account> rows = new HashMap<>();
+        for (UUID stripeId : stripes.all(revenueId)) {
+            Account stripe = Account.create(stripeId, "Revenue", AccountType.ASSET, "USD");
+            stripe.postPosting(new Posting(stripeId, Money.of(new BigDecimal("10"), "USD"), Posting.Type.DEBIT));
+            rows.put(stripeId, stripe);
+        }
+        UUID payeeId = UUID.randomUUID();
+        rows.put(payeeId, Account.create(payeeId, "Payee", AccountType.ASSET, "USD"));
+        when(accountLocks.loadAllLocked(anyCollection())).thenAnswer(inv -> {
+            Collection<UUID> ids = inv.getArgument(0);
+            return ids.stream().map(rows::get).toList();
+        });
+
+        service.postTransaction(new PostTransactionCommand("Payout", List.of(
+                new PostingCommand(revenueId, new BigDecimal("15"), "USD", Posting.Type.CREDIT),
+                new PostingCommand(payeeId, new BigDecimal("15"), "USD", Posting.Type.DEBIT))));
+
+        verify(accountLocks).loadAllLocked(argThat(ids -> ids.size() == 3));
+        verify(accountLocks, never()).applyNetDebit(any(), any());
+    }
+
+    @Test
+    void testPostingsToSameAccountAreSavedOnce() {
+        UUID acc1 = UUID.randomUUID();
+        UUID acc2 = UUID.randomUUID();
+        Account account1 = Account.create(acc1, "Acc 1", AccountType.ASSET, "USD");
+        Account account2 = Account.create(acc2, "Acc 2", AccountType.ASSET, "USD");
+        account2.postPosting(new Posting(acc2, Money.of(new BigDecimal("100"), "USD"), Posting.Type.DEBIT));
+        when(accountLocks.loadAllLocked(anyCollection())).thenReturn(List.of(account1, account2));
+
+        service.postTransaction(new PostTransactionCommand("Split", List.of(
+                new PostingCommand(acc1, new BigDecimal("30"), "USD", Posting.Type.DEBIT),
+                new PostingCommand(acc1, new BigDecimal("70"), "USD", Posting.Type.DEBIT),
+                new PostingCommand(acc2, new BigDecimal("100"), "USD", Posting.Type.CREDIT))));
+
+        verify(accountLocks).loadAllLocked(argThat(ids -> ids.size() == 2));
+        verify(accountPort, times(1)).save(account1);
+        verify(accountPort, times(1)).save(account2);
+        assertEquals(new BigDecimal("100.00"), account1.getBalance().amount());
+    }
+
+    @Test
+    void testLockFailureIsRetried() {
+        service = new LedgerApplicationService(accountPort, accountLocks, transactionPort, BalanceStripes.none(),
+                TransactionOperations.withoutTransaction(),
+                new ConcurrencyRetry(2, Duration.ofMillis(1), Duration.ofMillis(1)), PostingMode.PESSIMISTIC,
+                GroupCommitSettings.disabled(), BalanceCheckpointer.none(),
+                new IdempotencyGuard(idempotencyPort), MetricsPort.none(), IdGenerator.timeOrdered(),
+                AccountViewProjector.none());
+        UUID acc1 = UUID.randomUUID();
+        UUID acc2 = UUID.randomUUID();
+        Account account2 = Account.create(acc2, "Acc 2", AccountType.ASSET, "USD");
+        account2.postPosting(new Posting(acc2, Money.of(new BigDecimal("100"), "USD"), Posting.Type.DEBIT));
+        when(accountLocks.loadAllLocked(anyCollection()))
+                .thenThrow(new CannotAcquireLockException("Deadlock"))
+                .thenReturn(List.of(Account.create(acc1, "Acc 1", AccountType.ASSET, "USD"), account2));
+
+        UUID txId = service.postTransaction(new PostTransactionCommand("Retried", List.of(
+                new PostingCommand(acc1, new BigDecimal("100"), "USD", Posting.Type.DEBIT),
+                new PostingCommand(acc2, new BigDecimal("100"), "USD", Posting.Type.CREDIT))));
+
+        assertNotNull(txId);
+        verify(accountLocks, times(2)).loadAllLocked(anyCollection());
+        verify(transactionPort, times(1)).save(any(Transaction.class));
+    }
+
+    @Test
+    void testAtomicDeltaModeUpdatesBalancesWithoutLoading() {
+        service = newService(BalanceStripes.none(), PostingMode.ATOMIC_DELTA);
+        UUID acc1 = UUID.randomUUID();
+        UUID acc2 = UUID.randomUUID();
+        when(accountLocks.applyNetDebit(any(UUID.class), any(Money.class))).thenReturn(true);
+
+        service.postTransaction(new PostTransactionCommand("Atomic", List.of(
+                new PostingCommand(acc1, new BigDecimal("30"), "USD", Posting.Type.DEBIT),
+                new PostingCommand(acc1, new BigDecimal("70"), "USD", Posting.Type.DEBIT),
+                new PostingCommand(acc2, new BigDecimal("100"), "USD", Posting.Type.CREDIT))));
+
+        verify(accountLocks).applyNetDebit(acc1, Money.of(new BigDecimal("100"), "USD"));
+        verify(accountLocks).applyNetDebit(acc2, Money.of(new BigDecimal("-100"), "USD"));
+        verify(accountLocks, never()).loadAllLocked(anyCollection());
+        verify(accountPort, never()).save(any(Account.class));
+        verify(transactionPort).save(any(Transaction.class));
+    }
+
+    @Test
+    void testAtomicDeltaModeRejectsInsufficientFunds() {
+        service = newService(BalanceStripes.none(), PostingMode.ATOMIC_DELTA);
+        UUID acc1 = UUID.randomUUID();
+        UUID acc2 = UUID.randomUUID();
+        when(accountLocks.applyNetDebit(any(UUID.class), any(Money.class)))
+                .thenAnswer(inv -> inv.<Money>getArgument(1).isPositive());
+        when(accountPort.load(any(UUID.class)))
+                .thenAnswer(inv -> Optional.of(Account.create(inv.getArgument(0), "Acc", AccountType.ASSET, "USD")));
+
+        PostTransactionCommand command = new PostTransactionCommand("Overdraft", List.of(
+                new PostingCommand(acc1, new BigDecimal("100"), "USD", Posting.Type.DEBIT),
+                new PostingCommand(acc2, new BigDecimal("100"), "USD", Posting.Type.CREDIT)));
+
+        InsufficientFundsException ex = assertThrows(InsufficientFundsException.class,
+                () -> service.postTransaction(command));
+        assertEquals("Insufficient funds", ex.getMessage());
+        verify(transactionPort, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    void testAtomicDeltaModeRejectsNetDebitOutOfRange() {
+        service = newService(BalanceStripes.none(), PostingMode.ATOMIC_DELTA);
+        UUID acc1 = UUID.randomUUID();
+        UUID acc2 = UUID.randomUUID();
+        BigDecimal amount = new BigDecimal("60000000000000000");
+
+        // Balanced step by step, but the two debits to acc1 don't fit in a long together
+        PostTransactionCommand command = new PostTransactionCommand("Oversized", List.of(
+                new PostingCommand(acc1, amount, "USD", Posting.Type.DEBIT),
+                new PostingCommand(acc2, amount, "USD", Posting.Type.CREDIT),
+                new PostingCommand(acc1, amount, "USD", Posting.Type.DEBIT),
+                new PostingCommand(acc2, amount, "USD", Posting.Type.CREDIT)));
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> service.postTransaction(command));
+        assertEquals("Amount out of range", ex.getMessage());
+        verify(accountLocks, never()).applyNetDebit(any(), any());
+        verify(transactionPort, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    void testOptimisticModeReappliesPostingsAfterVersionConflict() {
+        ConcurrencyRetry retry = new ConcurrencyRetry(2, Duration.ofMillis(1), Duration.ofMillis(1));
+        service = new LedgerApplicationService(accountPort, accountLocks, transactionPort, BalanceStripes.none(),
+                TransactionOperations.withoutTransaction(), retry, PostingMode.OPTIMISTIC,
+                GroupCommitSettings.disabled(), BalanceCheckpointer.none(),
+                new IdempotencyGuard(idempotencyPort), MetricsPort.none(), IdGenerator.timeOrdered(),
+                AccountViewProjector.none());
+        UUID acc1 = UUID.randomUUID();
+        UUID acc2 = UUID.randomUUID();
+        // Every read returns the current stored state: acc2 holds 100
+        when(accountPort.loadAll(anyCollection())).thenAnswer(inv -> {
+            Account funded = Account.create(acc2, "Acc 2", AccountType.ASSET, "USD");
+            funded.postPosting(new Posting(acc2, Money.of(new BigDecimal("100"), "USD"), Posting.Type.DEBIT));
+            return List.of(Account.create(acc1, "Acc 1", AccountType.ASSET, "USD"), funded);
+        });
+        Map<UUID, BigDecimal> saved = new HashMap<>();
+        when(accountPort.save(any(Account.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Account.class, acc1))
+                .thenAnswer(inv -> {
+                    Account account = inv.getArgument(0);
+                    saved.put(account.getId(), account.getBalance().amount());
+                    return account;
+                });
+
+        service.postTransaction(new PostTransactionCommand("Optimistic", List.of(
+                new PostingCommand(acc1, new BigDecimal("100"), "USD", Posting.Type.DEBIT),
+                new PostingCommand(acc2, new BigDecimal("100"), "USD", Posting.Type.CREDIT))));
+
+        verify(accountPort, times(2)).loadAll(anyCollection());
+        verify(accountLocks, never()).loadAllLocked(anyCollection());
+        // Second attempt re-applied the postings on fresh state, not on top of the failed attempt
+        assertEquals(Map.of(acc1, new BigDecimal("100.00"), acc2, new BigDecimal("0.00")), saved);
+        assertEquals(1, retry.retries());
+        assertEquals(1, retry.conflicts(ConcurrencyRetry.Conflict.VERSION_CONFLICT));
+    }
+
+    @Test
+    void testBatchRejectsFailingTransactionWithoutAffectingOthers() {
+        UUID acc1 = UUID.randomUUID();
+        UUID acc2 = UUID.randomUUID();
+        Account account1 = Account.create(acc1, "Acc 1", AccountType.ASSET, "USD");
+        Account account2 = Account.create(acc2, "Acc 2", AccountType.ASSET, "USD");
+        account2.postPosting(new Posting(acc2, Money.of(new BigDecimal("100"), "USD"), Posting.Type.DEBIT));
+        when(accountLocks.loadAllLocked(anyCollection())).thenReturn(List.of(account1, account2));
+
+        PostTransactionCommand move60 = new PostTransactionCommand("Move 60", List.of(
+                new PostingCommand(acc1, new BigDecimal("60"), "USD", Posting.Type.DEBIT),
+                new PostingCommand(acc2, new BigDecimal("60"), "USD", Posting.Type.CREDIT)));
+        PostTransactionCommand unbalanced = new PostTransactionCommand("Unbalanced", List.of(
+                new PostingCommand(acc1, new BigDecimal("10"), "USD", Posting.Type.DEBIT)));
+
+        List<PostTransactionResult> results = service.postTransactions(
+                new PostTransactionBatchCommand(List.of(move60, unbalanced, move60), false));
+
+        assertTrue(results.get(0).posted());
+        assertFalse(results.get(1).posted());
+        // Only 40 left on acc2, the second move is rejected and undone
+        assertFalse(results.get(2).posted());
+        assertEquals("Insufficient funds", results.get(2).error());
+        assertEquals(new BigDecimal("60.00"), account1.getBalance().amount());
+        assertEquals(new BigDecimal("40.00"), account2.getBalance().amount());
+
+        verify(accountLocks, times(1)).loadAllLocked(anyCollection());
+        verify(accountPort, times(2)).save(any(Account.class));
+        verify(transactionPort).saveAll(argThat(posted -> posted.size() == 1));
+    }
+
+    @Test
+    void testAtomicBatchFailsAsAWhole() {
+        UUID acc1 = UUID.randomUUID();
+        UUID acc2 = UUID.randomUUID();
+        Account account2 = Account.create(acc2, "Acc 2", AccountType.ASSET, "USD");
+        account2.postPosting(new Posting(acc2, Money.of(new BigDecimal("100"), "USD"), Posting.Type.DEBIT));
+        when(accountLocks.loadAllLocked(anyCollection()))
+                .thenReturn(List.of(Account.create(acc1, "Acc 1", AccountType.ASSET, "USD"), account2));
+
+        PostTransactionCommand move60 = new PostTransactionCommand("Move 60", List.of(
+                new PostingCommand(acc1, new BigDecimal("60"), "USD", Posting.Type.DEBIT),
+                new PostingCommand(acc2, new BigDecimal("60"), "USD", Posting.Type.CREDIT)));
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> service.postTransactions(
+                new PostTransactionBatchCommand(List.of(move60, move60), true)));
+        assertTrue(ex.getMessage().startsWith("Transaction #1 rejected"));
+        verify(transactionPort, never()).saveAll(any());
+    }
+
+    @Test
+    void testGroupCommitLeavesOutATransactionWhoseKeyWasPostedMeanwhile() {
+        UUID aliceId = UUID.randomUUID();
+        when(accountLocks.loadAllLocked(anyCollection())).thenReturn(List.of(
+                Account.create(SystemAccounts.GENESIS_ACCOUNT_ID, "Genesis", AccountType.EQUITY, "USD"),
+                Account.create(aliceId, "Alice", AccountType.ASSET, "USD")));
+        Map<String, StoredKey> stored = new ConcurrentHashMap<>();
+        doAnswer(invocation -> stored.put("key-1",
+                new StoredKey(invocation.<IdempotencyKey>getArgument(0).requestHash(), invocation.getArgument(1))))
+                .when(idempotencyPort).rememberIdempotencyKey(any(), any());
+        // The retry's own two checks miss the stored key, as if another instance committed it right after them
+        AtomicInteger missed = new AtomicInteger();
+        when(idempotencyPort.findIdempotencyKey("key-1")).thenAnswer(invocation ->
+                stored.containsKey("key-1") && missed.incrementAndGet() > 2
+                        ? Optional.of(stored.get("key-1"))
+                        : Optional.empty());
+        service = new LedgerApplicationService(accountPort, accountLocks, transactionPort, BalanceStripes.none(),
+                TransactionOperations.withoutTransaction(), ConcurrencyRetry.none(), PostingMode.PESSIMISTIC,
+                new GroupCommitSettings(true, 8, Duration.ofMillis(1), 16, Duration.ofSeconds(5)),
+                BalanceCheckpointer.none(),
+                new IdempotencyGuard(idempotencyPort), MetricsPort.none(), IdGenerator.timeOrdered(),
+                AccountViewProjector.none());
+        try {
+            DepositFundsCommand deposit = new DepositFundsCommand(aliceId, new BigDecimal("10.00"), "USD", null);
+            UUID first = service.depositFunds(deposit, "key-1");
+            // Posted before, and the same request: 10 is 10.00
+            UUID retry = service.depositFunds(new DepositFundsCommand(aliceId, new BigDecimal("10"), "USD", null),
+                    "key-1");
+
+            assertEquals(first, retry);
+            verify(transactionPort, times(1)).saveAll(any());
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private LedgerApplicationService newService(BalanceStripes stripes) {
+        return newService(stripes, PostingMode.PESSIMISTIC);
+    }
+
+    private LedgerApplicationService newService(BalanceStripes stripes, PostingMode mode) {
+        return new LedgerApplicationService(accountPort, accountLocks, transactionPort, stripes,
+                TransactionOperations.withoutTransaction(), ConcurrencyRetry.none(), mode,
+                GroupCommitSettings.disabled(), BalanceCheckpointer.none(),
+                new IdempotencyGuard(idempotencyPort), MetricsPort.none(), IdGenerator.timeOrdered(),
+                AccountViewProjector.none());
+    }
 }
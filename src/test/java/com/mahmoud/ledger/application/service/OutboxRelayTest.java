@@ -0,0 +1,79 @@
+package com.mahmoud.ledger.application.service;
+
+import com.mahmoud.ledger.application.port.in.LedgerEvent;
+import com.mahmoud.ledger.application.port.out.LedgerEventSink;
+import com.mahmoud.ledger.application.port.out.OutboxPort;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxPort outbox;
+
+    @Mock
+    private LedgerEventSink sink;
+
+    @Test
+    void testBatchIsDeletedOnlyAfterItWasPublished() {
+        List<LedgerEvent> batch = List.of(event(7), event(8));
+        when(outbox.loadPending(2)).thenReturn(batch);
+        OutboxRelay relay = relay();
+
+        assertEquals(2, relay.relayBatch());
+
+        InOrder order = inOrder(sink, outbox);
+        order.verify(outbox).numberPending(2);
+        order.verify(outbox).loadPending(2);
+        order.verify(sink).publish(batch);
+        order.verify(outbox).deletePublished(8);
+        assertEquals(2, relay.published());
+        assertEquals(8, relay.lastSequence());
+    }
+
+    @Test
+    void testFailedBatchStaysInTheOutboxAndIsPublishedAgain() {
+        List<LedgerEvent> batch = List.of(event(1));
+        when(outbox.loadPending(2)).thenReturn(batch);
+        doThrow(new IllegalStateException("Sink unavailable")).doNothing().when(sink).publish(batch);
+        OutboxRelay relay = relay();
+
+        assertThrows(IllegalStateException.class, relay::relayBatch);
+        verify(outbox, never()).deletePublished(anyLong());
+
+        assertEquals(1, relay.relayBatch());
+        verify(sink, times(2)).publish(batch);
+        verify(outbox).deletePublished(1);
+    }
+
+    @Test
+    void testDrainedOutboxPublishesNothing() {
+        when(outbox.loadPending(2)).thenReturn(List.of());
+
+        assertEquals(0, relay().relayBatch());
+
+        verifyNoInteractions(sink);
+        verify(outbox, never()).deletePublished(anyLong());
+    }
+
+    private OutboxRelay relay() {
+        // Disabled, so no relay thread competes with the test's calls
+        return new OutboxRelay(new OutboxSettings(false, 2, Duration.ofMillis(10)), outbox, sink);
+    }
+
+    private static LedgerEvent event(long sequence) {
+        return new LedgerEvent(sequence, UUID.randomUUID(), LocalDateTime.now(), "Deposit", List.of());
+    }
+}
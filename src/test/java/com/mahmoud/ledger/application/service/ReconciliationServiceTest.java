@@ -0,0 +1,127 @@
+package com.mahmoud.ledger.application.service;
+
+import com.mahmoud.ledger.application.port.in.BalanceMismatch;
+import com.mahmoud.ledger.application.port.in.ReconciliationStatus;
+import com.mahmoud.ledger.application.port.out.ReconciliationPort;
+import com.mahmoud.ledger.application.port.out.ReconciliationPort.AccountTotals;
+import com.mahmoud.ledger.domain.model.AccountType;
+import com.mahmoud.ledger.domain.model.SystemAccounts;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReconciliationServiceTest {
+
+    private static final UUID RUN_ID = UUID.randomUUID();
+    private static final List<UUID> QUARTERS = List.of(new UUID(0x4000_0000_0000_0000L, 0),
+            new UUID(0x8000_0000_0000_0000L, 0), new UUID(0xC000_0000_0000_0000L, 0));
+
+    @Mock
+    private ReconciliationPort reconciliationPort;
+
+    @Test
+    void testStoredBalancesAreComparedUnderSignRulesWithStripesSummed() {
+        UUID alice = new UUID(0x4000_0000_0000_0000L, 1);
+        UUID bob = new UUID(0x4000_0000_0000_0000L, 2);
+        UUID genesis = SystemAccounts.GENESIS_ACCOUNT_ID;
+        Map<UUID, List<AccountTotals>> rowsByRangeStart = Map.of(
+                new UUID(0, 0), List.of(
+                        // Genesis is credit-normal, its 150.00 is split over two stripes
+                        totals(genesis, AccountType.EQUITY, "100.00", "-150.00"),
+                        totals(SystemAccounts.stripeId(genesis, 1), AccountType.EQUITY, "50.00", "0")),
+                new UUID(0x4000_0000_0000_0000L, 0), List.of(
+                        totals(alice, AccountType.ASSET, "100.00", "100.00"),
+                        totals(bob, AccountType.ASSET, "60.00", "50.00")));
+        stubRanges(rowsByRangeStart, Map.of("USD", new BigDecimal("0.00")));
+        when(reconciliationPort.splitPoints(RUN_ID)).thenReturn(QUARTERS);
+
+        service(new BalanceStripes(2, Map.of(genesis, AccountType.EQUITY)), 4).reconcile(RUN_ID);
+
+        ArgumentCaptor<List<BalanceMismatch>> mismatches = ArgumentCaptor.captor();
+        verify(reconciliationPort).saveRange(eq(RUN_ID), eq(0), eq(1L), anyMap(), eq(List.of()));
+        verify(reconciliationPort).saveRange(eq(RUN_ID), eq(1), eq(2L), anyMap(), mismatches.capture());
+        assertEquals(List.of(new BalanceMismatch(bob, "USD", new BigDecimal("60.00"), new BigDecimal("50.00"))),
+                mismatches.getValue());
+        verify(reconciliationPort).finishRun(eq(RUN_ID), eq(ReconciliationStatus.COMPLETED), any());
+    }
+
+    @Test
+    void testResumedRunSkipsRecordedRanges() {
+        when(reconciliationPort.completedRanges(RUN_ID)).thenReturn(Set.of(0, 2));
+        when(reconciliationPort.splitPoints(RUN_ID)).thenReturn(QUARTERS);
+        List<UUID> checked = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            checked.add(invocation.getArgument(0));
+            return null;
+        }).when(reconciliationPort).aggregateRange(any(), any(), any(), any());
+
+        service(BalanceStripes.none(), 4).reconcile(RUN_ID);
+
+        assertEquals(Set.of(new UUID(0x4000_0000_0000_0000L, 0), new UUID(0xC000_0000_0000_0000L, 0)),
+                Set.copyOf(checked));
+        verify(reconciliationPort).aggregateRange(eq(new UUID(0xC000_0000_0000_0000L, 0)), isNull(), any(), any());
+        verify(reconciliationPort, never()).saveRange(any(), eq(0), anyLong(), any(), any());
+        verify(reconciliationPort, never()).saveRange(any(), eq(2), anyLong(), any(), any());
+    }
+
+    @Test
+    void testRangesPastTheLastSplitPointAreEmptyButTheLast() {
+        UUID splitPoint = new UUID(0x0190_0000_0000_7000L, 0);
+        when(reconciliationPort.splitPoints(RUN_ID)).thenReturn(List.of(splitPoint));
+
+        service(BalanceStripes.none(), 4).reconcile(RUN_ID);
+
+        verify(reconciliationPort).aggregateRange(eq(new UUID(0, 0)), eq(splitPoint), any(), any());
+        verify(reconciliationPort, times(2)).aggregateRange(eq(splitPoint), eq(splitPoint), any(), any());
+        verify(reconciliationPort).aggregateRange(eq(splitPoint), isNull(), any(), any());
+        verify(reconciliationPort).finishRun(eq(RUN_ID), eq(ReconciliationStatus.COMPLETED), any());
+    }
+
+    @Test
+    void testFailedRangeMarksRunFailed() {
+        doThrow(new IllegalStateException("connection lost"))
+                .when(reconciliationPort).aggregateRange(any(), any(), any(), any());
+
+        service(BalanceStripes.none(), 2).reconcile(RUN_ID);
+
+        verify(reconciliationPort).finishRun(eq(RUN_ID), eq(ReconciliationStatus.FAILED), any());
+        verify(reconciliationPort, never()).finishRun(eq(RUN_ID), eq(ReconciliationStatus.COMPLETED), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubRanges(Map<UUID, List<AccountTotals>> rowsByRangeStart, Map<String, BigDecimal> netByCurrency) {
+        doAnswer(invocation -> {
+            UUID from = invocation.getArgument(0);
+            Consumer<AccountTotals> accounts = invocation.getArgument(2);
+            BiConsumer<String, BigDecimal> currencies = invocation.getArgument(3);
+            rowsByRangeStart.getOrDefault(from, List.of()).forEach(accounts);
+            netByCurrency.forEach(currencies);
+            return null;
+        }).when(reconciliationPort).aggregateRange(any(), any(), any(Consumer.class), any(BiConsumer.class));
+    }
+
+    private ReconciliationService service(BalanceStripes stripes, int ranges) {
+        return new ReconciliationService(reconciliationPort, new ReconciliationSettings(ranges, 2, 0), stripes);
+    }
+
+    private static AccountTotals totals(UUID id, AccountType type, String stored, String netDebit) {
+        return new AccountTotals(id, type, "USD", new BigDecimal(stored), new BigDecimal(netDebit));
+    }
+}
@@ -0,0 +1,146 @@
+package com.mahmoud.ledger.application.service;
+
+import com.mahmoud.ledger.application.port.in.PostTransactionCommand;
+import com.mahmoud.ledger.application.port.in.PostTransactionUseCase;
+import com.mahmoud.ledger.application.port.in.PostingCommand;
+import com.mahmoud.ledger.application.port.in.SubmissionStatus;
+import com.mahmoud.ledger.application.port.in.TransactionStatus;
+import com.mahmoud.ledger.application.port.out.TransactionPort;
+import com.mahmoud.ledger.domain.model.IdGenerator;
+import com.mahmoud.ledger.domain.model.Posting;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionSubmissionServiceTest {
+
+    private static final UUID ALICE = UUID.randomUUID();
+    private static final UUID BOB = UUID.randomUUID();
+
+    @Mock
+    private PostTransactionUseCase postTransactionUseCase;
+
+    @Mock
+    private TransactionPort transactionPort;
+
+    @Test
+    void given_UnbalancedTransaction_When_Submitted_Then_RejectedWithoutQueueing() {
+        TransactionSubmissionService service = new TransactionSubmissionService(postTransactionUseCase, transactionPort,
+                new SubmissionSettings(1, 1, 10), IdGenerator.timeOrdered());
+
+        assertThrows(IllegalStateException.class, () -> service.submitTransaction(transfer("10", "9")));
+        verifyNoInteractions(postTransactionUseCase);
+    }
+
+    @Test
+    void given_RejectedPosting_When_Finished_Then_StatusCarriesTheReason() throws Exception {
+        TransactionSubmissionService service = new TransactionSubmissionService(postTransactionUseCase, transactionPort,
+                new SubmissionSettings(1, 1, 10), IdGenerator.timeOrdered());
+        when(postTransactionUseCase.postTransaction(any(), any()))
+                .thenThrow(new IllegalStateException("Insufficient funds"));
+
+        UUID transactionId = service.submitTransaction(transfer("10", "10"));
+
+        TransactionStatus status = awaitFinished(service, transactionId);
+        assertEquals(SubmissionStatus.REJECTED, status.status());
+        assertEquals("Insufficient funds", status.reason());
+        verify(postTransactionUseCase).postTransaction(eq(transactionId), any());
+    }
+
+    @Test
+    void given_InfrastructureFailure_When_Finished_Then_StatusIsFailedNotRejected() throws Exception {
+        TransactionSubmissionService service = new TransactionSubmissionService(postTransactionUseCase, transactionPort,
+                new SubmissionSettings(1, 1, 10), IdGenerator.timeOrdered());
+        when(postTransactionUseCase.postTransaction(any(), any()))
+                .thenThrow(new RuntimeException("Connection refused"));
+
+        UUID transactionId = service.submitTransaction(transfer("10", "10"));
+
+        TransactionStatus status = awaitFinished(service, transactionId);
+        assertEquals(SubmissionStatus.FAILED, status.status());
+        assertEquals("Posting failed: Connection refused", status.reason());
+    }
+
+    @Test
+    void given_FailureAfterTheCommit_When_StatusIsRead_Then_Posted() throws Exception {
+        TransactionSubmissionService service = new TransactionSubmissionService(postTransactionUseCase, transactionPort,
+                new SubmissionSettings(1, 1, 10), IdGenerator.timeOrdered());
+        CountDownLatch failed = new CountDownLatch(1);
+        when(postTransactionUseCase.postTransaction(any(), any())).thenAnswer(invocation -> {
+            failed.countDown();
+            throw new RuntimeException("Commit outcome unknown");
+        });
+
+        UUID transactionId = service.submitTransaction(transfer("10", "10"));
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+        when(transactionPort.exists(transactionId)).thenReturn(true);
+
+        assertEquals(SubmissionStatus.POSTED, awaitFinished(service, transactionId).status());
+    }
+
+    @Test
+    void given_ForgottenStatus_When_StatusIsRead_Then_LedgerIsAsked() {
+        TransactionSubmissionService service = new TransactionSubmissionService(postTransactionUseCase, transactionPort,
+                new SubmissionSettings(1, 1, 10), IdGenerator.timeOrdered());
+        UUID posted = UUID.randomUUID();
+        when(transactionPort.exists(posted)).thenReturn(true);
+
+        assertEquals(SubmissionStatus.POSTED, service.getTransactionStatus(posted).orElseThrow().status());
+        assertTrue(service.getTransactionStatus(UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    void given_FullQueue_When_Submitted_Then_Refused() throws Exception {
+        TransactionSubmissionService service = new TransactionSubmissionService(postTransactionUseCase, transactionPort,
+                new SubmissionSettings(1, 1, 10), IdGenerator.timeOrdered());
+        CountDownLatch posting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(postTransactionUseCase.postTransaction(any(), any())).thenAnswer(invocation -> {
+            posting.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+
+        UUID first = service.submitTransaction(transfer("10", "10"));
+        assertTrue(posting.await(5, TimeUnit.SECONDS));
+        UUID queued = service.submitTransaction(transfer("10", "10"));
+
+        assertThrows(RejectedExecutionException.class, () -> service.submitTransaction(transfer("10", "10")));
+        assertEquals(SubmissionStatus.PENDING, service.getTransactionStatus(queued).orElseThrow().status());
+
+        release.countDown();
+        assertEquals(SubmissionStatus.POSTED, awaitFinished(service, first).status());
+        assertEquals(SubmissionStatus.POSTED, awaitFinished(service, queued).status());
+    }
+
+    private static TransactionStatus awaitFinished(TransactionSubmissionService service, UUID transactionId)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            TransactionStatus status = service.getTransactionStatus(transactionId).orElseThrow();
+            if (status.status() != SubmissionStatus.PENDING) {
+                return status;
+            }
+            Thread.sleep(5);
+        }
+        return fail("Submission still pending");
+    }
+
+    private static PostTransactionCommand transfer(String debit, String credit) {
+        return new PostTransactionCommand("Transfer", List.of(
+                new PostingCommand(ALICE, new BigDecimal(debit), "USD", Posting.Type.DEBIT),
+                new PostingCommand(BOB, new BigDecimal(credit), "USD", Posting.Type.CREDIT)));
+    }
+}
@@ -0,0 +1,110 @@
+package com.mahmoud.ledger.benchmark;
+
+import com.mahmoud.ledger.domain.model.Account;
+import com.mahmoud.ledger.domain.model.AccountType;
+import com.mahmoud.ledger.domain.model.Money;
+import com.mahmoud.ledger.domain.model.Posting;
+import com.mahmoud.ledger.domain.model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The domain operations every posting goes through: balance updates, the zero-sum check over a transaction's
+ * postings and money arithmetic. Baseline in operations per second; run with the {@code benchmark} profile
+ * for allocation per operation as well.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DomainBenchmark {
+
+    private Account account;
+    private Posting debit;
+    private Posting credit;
+    private Money balance;
+    private Money amount;
+    private BigDecimal decimalAmount;
+    private Currency usd;
+
+    @Setup
+    public void setUp() {
+        UUID accountId = UUID.randomUUID();
+        account = Account.create(accountId, "Benchmark", AccountType.ASSET, "USD");
+        debit = new Posting(accountId, Money.of(new BigDecimal("1.25"), "USD"), Posting.Type.DEBIT);
+        credit = debit.reversed();
+
+        usd = Currency.getInstance("USD");
+        balance = Money.of(new BigDecimal("1000.00"), usd);
+        amount = Money.of(new BigDecimal("1.25"), usd);
+        decimalAmount = new BigDecimal("1.25");
+    }
+
+    @Benchmark
+    public Transaction validate(BalancedTransaction balanced) {
+        balanced.transaction.validate();
+        return balanced.transaction;
+    }
+
+    @Benchmark
+    public Account postPosting() {
+        // A debit and its reversal, so the balance doesn't drift across iterations
+        account.postPosting(debit);
+        account.postPosting(credit);
+        return account;
+    }
+
+    @Benchmark
+    public Money moneyAdd() {
+        return balance.add(amount);
+    }
+
+    @Benchmark
+    public Money moneyOf() {
+        return Money.of(decimalAmount, usd);
+    }
+
+    @Benchmark
+    public Money moneyOfCurrencyCode() {
+        return Money.of(decimalAmount, "USD");
+    }
+
+    /**
+     * A transaction of {@code postings - 1} debits of 1.00 balanced by one credit.
+     */
+    @State(Scope.Thread)
+    public static class BalancedTransaction {
+
+        @Param({"2", "10", "100"})
+        public int postings;
+
+        Transaction transaction;
+
+        @Setup
+        public void setUp() {
+            transaction = Transaction.create("Benchmark");
+            for (int i = 1; i < postings; i++) {
+                transaction.addPosting(new Posting(UUID.randomUUID(), Money.of(new BigDecimal("1.00"), "USD"),
+                        Posting.Type.DEBIT));
+            }
+            transaction.addPosting(new Posting(UUID.randomUUID(), Money.of(BigDecimal.valueOf(postings - 1), "USD"),
+                    Posting.Type.CREDIT));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.mahmoud.ledger.benchmark;
+
+import com.mahmoud.ledger.domain.model.IdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Primary key inserts into a file-backed H2 table with a small page cache, random against time-ordered ids.
+ * Random ids land on any leaf of the index, so once the index outgrows the cache most inserts read a page and
+ * split it half full; time-ordered ids append to the rightmost leaf. Scores are rows per second; the database
+ * file size and rows written are printed at the end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdInsertBenchmark {
+
+    private static final int BATCH = 1000;
+
+    @Param({ "RANDOM", "TIME_ORDERED" })
+    public String generator;
+
+    private Path directory;
+    private Connection connection;
+    private PreparedStatement insert;
+    private IdGenerator idGenerator;
+
+    @Setup(Level.Trial)
+    public void openDatabase() throws Exception {
+        idGenerator = generator.equals("RANDOM") ? IdGenerator.random() : IdGenerator.timeOrdered();
+        directory = Files.createTempDirectory("id-insert-benchmark");
+        connection = DriverManager.getConnection("jdbc:h2:file:" + directory.resolve("ledger") + ";CACHE_SIZE=4096");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table transactions (id uuid primary key, timestamp timestamp(6), "
+                    + "description varchar(255))");
+        }
+        connection.setAutoCommit(false);
+        insert = connection.prepareStatement("insert into transactions (id, timestamp, description) values (?, ?, ?)");
+    }
+
+    @TearDown(Level.Trial)
+    public void closeDatabase() throws Exception {
+        long rows;
+        try (Statement statement = connection.createStatement();
+                ResultSet count = statement.executeQuery("select count(*) from transactions")) {
+            count.next();
+            rows = count.getLong(1);
+        }
+        connection.close();
+        long bytes = Files.size(directory.resolve("ledger.mv.db"));
+        System.out.printf("%n%s: %d rows, database file %d KB, %.1f bytes per row%n", generator, rows,
+                bytes / 1024, (double) bytes / rows);
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void insertBatch() throws SQLException {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (int i = 0; i < BATCH; i++) {
+            insert.setObject(1, idGenerator.nextId());
+            insert.setTimestamp(2, now);
+            insert.setString(3, "Benchmark");
+            insert.addBatch();
+        }
+        insert.executeBatch();
+        connection.commit();
+    }
+}
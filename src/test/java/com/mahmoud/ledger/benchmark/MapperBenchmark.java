@@ -0,0 +1,78 @@
+package com.mahmoud.ledger.benchmark;
+
+import com.mahmoud.ledger.domain.model.Account;
+import com.mahmoud.ledger.domain.model.AccountType;
+import com.mahmoud.ledger.domain.model.Money;
+import com.mahmoud.ledger.domain.model.Posting;
+import com.mahmoud.ledger.domain.model.Transaction;
+import com.mahmoud.ledger.infrastructure.persistence.AccountJpaEntity;
+import com.mahmoud.ledger.infrastructure.persistence.TransactionJpaEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping between the domain model and the JPA entities, paid on every account load and save and on every
+ * transaction saved. A transfer-shaped transaction (three postings) is mapped.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private Account account;
+    private AccountJpaEntity accountEntity;
+    private Transaction transaction;
+    private TransactionJpaEntity transactionEntity;
+
+    @Setup
+    public void setUp() {
+        account = Account.create(UUID.randomUUID(), "Benchmark", AccountType.ASSET, "USD");
+        account.postPosting(new Posting(account.getId(), Money.of(new BigDecimal("100.00"), "USD"),
+                Posting.Type.DEBIT));
+        accountEntity = AccountJpaEntity.fromDomain(account);
+
+        transaction = Transaction.create("Benchmark");
+        transaction.addPosting(new Posting(UUID.randomUUID(), Money.of(new BigDecimal("50.00"), "USD"),
+                Posting.Type.CREDIT));
+        transaction.addPosting(new Posting(UUID.randomUUID(), Money.of(new BigDecimal("45.00"), "USD"),
+                Posting.Type.DEBIT));
+        transaction.addPosting(new Posting(UUID.randomUUID(), Money.of(new BigDecimal("5.00"), "USD"),
+                Posting.Type.DEBIT));
+        transactionEntity = TransactionJpaEntity.fromDomain(transaction);
+    }
+
+    @Benchmark
+    public AccountJpaEntity accountFromDomain() {
+        return AccountJpaEntity.fromDomain(account);
+    }
+
+    @Benchmark
+    public Account accountToDomain() {
+        return accountEntity.toDomain();
+    }
+
+    @Benchmark
+    public TransactionJpaEntity transactionFromDomain() {
+        return TransactionJpaEntity.fromDomain(transaction);
+    }
+
+    @Benchmark
+    public Transaction transactionToDomain() {
+        return transactionEntity.toDomain();
+    }
+}
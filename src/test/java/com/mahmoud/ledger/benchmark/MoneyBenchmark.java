@@ -0,0 +1,139 @@
+package com.mahmoud.ledger.benchmark;
+
+import com.mahmoud.ledger.domain.model.Account;
+import com.mahmoud.ledger.domain.model.AccountType;
+import com.mahmoud.ledger.domain.model.Money;
+import com.mahmoud.ledger.domain.model.Posting;
+import com.mahmoud.ledger.domain.model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation and balance updates with minor-unit {@link Money} against the previous {@code BigDecimal}
+ * implementation, reproduced here as {@link DecimalMoney}. Run {@link #main} from the IDE or the test
+ * classpath; the GC profiler reports allocation per operation ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private Transaction transaction;
+    private List<DecimalPosting> decimalPostings;
+    private Account account;
+    private Posting debit;
+    private Posting credit;
+    private DecimalMoney decimalBalance;
+    private DecimalMoney decimalAmount;
+
+    @Setup
+    public void setUp() {
+        UUID from = UUID.randomUUID();
+        UUID to = UUID.randomUUID();
+        UUID revenue = UUID.randomUUID();
+        transaction = Transaction.create("Benchmark");
+        transaction.addPosting(new Posting(from, Money.of(new BigDecimal("50.00"), "USD"), Posting.Type.CREDIT));
+        transaction.addPosting(new Posting(to, Money.of(new BigDecimal("45.00"), "USD"), Posting.Type.DEBIT));
+        transaction.addPosting(new Posting(revenue, Money.of(new BigDecimal("5.00"), "USD"), Posting.Type.DEBIT));
+
+        Currency usd = Currency.getInstance("USD");
+        decimalPostings = List.of(
+                new DecimalPosting(new DecimalMoney(new BigDecimal("50.00"), usd), Posting.Type.CREDIT),
+                new DecimalPosting(new DecimalMoney(new BigDecimal("45.00"), usd), Posting.Type.DEBIT),
+                new DecimalPosting(new DecimalMoney(new BigDecimal("5.00"), usd), Posting.Type.DEBIT));
+
+        account = Account.create(to, "Benchmark", AccountType.ASSET, "USD");
+        debit = new Posting(to, Money.of(new BigDecimal("1.25"), "USD"), Posting.Type.DEBIT);
+        credit = debit.reversed();
+        decimalBalance = new DecimalMoney(new BigDecimal("0.00"), usd);
+        decimalAmount = new DecimalMoney(new BigDecimal("1.25"), usd);
+    }
+
+    @Benchmark
+    public Transaction validateMinorUnits() {
+        transaction.validate();
+        return transaction;
+    }
+
+    @Benchmark
+    public DecimalMoney validateBigDecimal() {
+        DecimalMoney total = decimalPostings.stream()
+                .map(p -> p.type() == Posting.Type.DEBIT ? p.amount()
+                        : new DecimalMoney(p.amount().amount().negate(), p.amount().currency()))
+                .reduce(new DecimalMoney(BigDecimal.ZERO, decimalPostings.get(0).amount().currency()),
+                        DecimalMoney::add);
+        if (total.amount().compareTo(BigDecimal.ZERO) != 0) {
+            throw new IllegalStateException("Unbalanced");
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Account postMinorUnits() {
+        account.postPosting(debit);
+        account.postPosting(credit);
+        return account;
+    }
+
+    @Benchmark
+    public DecimalMoney postBigDecimal() {
+        decimalBalance = decimalBalance.add(decimalAmount);
+        DecimalMoney decreased = decimalBalance.subtract(decimalAmount);
+        if (decreased.amount().signum() < 0) {
+            throw new IllegalStateException("Insufficient funds");
+        }
+        decimalBalance = decreased;
+        return decimalBalance;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MoneyBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+    /**
+     * Money as it was before minor units.
+     */
+    public record DecimalMoney(BigDecimal amount, Currency currency) {
+
+        DecimalMoney add(DecimalMoney other) {
+            if (!currency.equals(other.currency)) {
+                throw new IllegalArgumentException("Cannot add money of different currencies");
+            }
+            return new DecimalMoney(amount.add(other.amount), currency);
+        }
+
+        DecimalMoney subtract(DecimalMoney other) {
+            if (!currency.equals(other.currency)) {
+                throw new IllegalArgumentException("Cannot subtract money of different currencies");
+            }
+            return new DecimalMoney(amount.subtract(other.amount), currency);
+        }
+    }
+
+    record DecimalPosting(DecimalMoney amount, Posting.Type type) {
+    }
+}
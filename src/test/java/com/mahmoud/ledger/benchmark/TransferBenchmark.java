@@ -0,0 +1,77 @@
+package com.mahmoud.ledger.benchmark;
+
+import com.mahmoud.ledger.LedgerApplication;
+import com.mahmoud.ledger.application.port.in.CreateAccountCommand;
+import com.mahmoud.ledger.application.port.in.CreateAccountUseCase;
+import com.mahmoud.ledger.application.port.in.DepositFundsCommand;
+import com.mahmoud.ledger.application.port.in.DepositFundsUseCase;
+import com.mahmoud.ledger.application.port.in.TransferFundsCommand;
+import com.mahmoud.ledger.application.port.in.TransferFundsUseCase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A transfer end to end through the application service: account locking, balance updates, the transaction
+ * insert and the commit, against the embedded H2 database in the configured posting mode
+ * ({@code -jvmArgsAppend -Dledger.posting.mode=...} to compare modes). Single-threaded, so this is the cost of
+ * one posting without contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransferBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private TransferFundsUseCase transferFundsUseCase;
+    private TransferFundsCommand transfer;
+
+    @Setup(Level.Trial)
+    public void startLedger() {
+        context = new SpringApplicationBuilder(LedgerApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "spring.datasource.generate-unique-name=true",
+                        "logging.level.root=WARN")
+                .run();
+        transferFundsUseCase = context.getBean(TransferFundsUseCase.class);
+
+        CreateAccountUseCase accounts = context.getBean(CreateAccountUseCase.class);
+        UUID alice = accounts.createAccount(new CreateAccountCommand("Alice", "USD"));
+        UUID bob = accounts.createAccount(new CreateAccountCommand("Bob", "USD"));
+        // Enough for every transfer a run can make
+        context.getBean(DepositFundsUseCase.class)
+                .depositFunds(new DepositFundsCommand(alice, new BigDecimal("1000000000.00"), "USD", "Benchmark"));
+        transfer = new TransferFundsCommand(alice, bob, new BigDecimal("1.00"), "USD", "Benchmark");
+    }
+
+    @TearDown(Level.Trial)
+    public void stopLedger() {
+        context.close();
+    }
+
+    @Benchmark
+    public UUID transferFunds() {
+        return transferFundsUseCase.transferFunds(transfer);
+    }
+}
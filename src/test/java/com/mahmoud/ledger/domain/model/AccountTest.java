@@ -15,7 +15,7 @@ class AccountTest {
         Posting debit = new Posting(account.getId(), Money.of(new BigDecimal("100"), "USD"), Posting.Type.DEBIT);
         account.postPosting(debit);
 
-        assertEquals(new BigDecimal("100"), account.getBalance().amount());
+        assertEquals(new BigDecimal("100.00"), account.getBalance().amount());
     }
 
     @Test
@@ -30,7 +30,7 @@ class AccountTest {
         Posting credit = new Posting(account.getId(), Money.of(new BigDecimal("40"), "USD"), Posting.Type.CREDIT);
         account.postPosting(credit);
 
-        assertEquals(new BigDecimal("60"), account.getBalance().amount());
+        assertEquals(new BigDecimal("60.00"), account.getBalance().amount());
     }
 
     @Test
@@ -48,6 +48,6 @@ class AccountTest {
         Posting credit = new Posting(account.getId(), Money.of(new BigDecimal("100"), "USD"), Posting.Type.CREDIT);
         account.postPosting(credit);
 
-        assertEquals(new BigDecimal("100"), account.getBalance().amount());
+        assertEquals(new BigDecimal("100.00"), account.getBalance().amount());
     }
 }
@@ -2,6 +2,7 @@ package com.mahmoud.ledger.domain.model;
 
 import org.junit.jupiter.api.Test;
 import java.math.BigDecimal;
+import java.util.Currency;
 import static org.junit.jupiter.api.Assertions.*;
 
 class MoneyTest {
@@ -18,18 +19,18 @@ class MoneyTest {
     void testAddSameCurrency() {
         Money m1 = Money.of(new BigDecimal("50"), "USD");
         Money m2 = Money.of(new BigDecimal("25"), "USD");
-        Money result = m1.add(new Money(m2.amount(), m2.currency()));
+        Money result = m1.add(new Money(m2.minorUnits(), m2.currency()));
 
-        assertEquals(new BigDecimal("75"), result.amount());
+        assertEquals(new BigDecimal("75.00"), result.amount());
     }
 
     @Test
     void testSubtractSameCurrency() {
         Money m1 = Money.of(new BigDecimal("50"), "USD");
         Money m2 = Money.of(new BigDecimal("25"), "USD");
-        Money result = m1.subtract(new Money(m2.amount(), m2.currency()));
+        Money result = m1.subtract(new Money(m2.minorUnits(), m2.currency()));
 
-        assertEquals(new BigDecimal("25"), result.amount());
+        assertEquals(new BigDecimal("25.00"), result.amount());
     }
 
     @Test
@@ -37,6 +38,42 @@ class MoneyTest {
         Money m1 = Money.of(new BigDecimal("50"), "USD");
         Money m2 = Money.of(new BigDecimal("50"), "EUR");
 
-        assertThrows(IllegalArgumentException.class, () -> m1.add(new Money(m2.amount(), m2.currency())));
+        assertThrows(IllegalArgumentException.class, () -> m1.add(new Money(m2.minorUnits(), m2.currency())));
+    }
+
+    @Test
+    void testAmountIsHeldInMinorUnitsOfTheCurrency() {
+        assertEquals(12345, Money.of(new BigDecimal("123.45"), "USD").minorUnits());
+        assertEquals(500, Money.of(new BigDecimal("500"), "JPY").minorUnits());
+        assertEquals(new BigDecimal("1.50"), Money.of(new BigDecimal("1.5"), "USD").amount());
+    }
+
+    @Test
+    void testMoreDecimalPlacesThanTheCurrencyAllowsIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Money.of(new BigDecimal("1.005"), "USD"));
+        assertThrows(IllegalArgumentException.class, () -> Money.of(new BigDecimal("1.5"), "JPY"));
+    }
+
+    @Test
+    void testFractionRoundsHalfEven() {
+        assertEquals(500, Money.of(new BigDecimal("50.00"), "USD").fraction(1, 10).minorUnits());
+        assertEquals(2, new Money(25, Currency.getInstance("USD")).fraction(1, 10).minorUnits()); // 2.5 -> 2
+        assertEquals(4, new Money(35, Currency.getInstance("USD")).fraction(1, 10).minorUnits()); // 3.5 -> 4
+        assertEquals(3, new Money(26, Currency.getInstance("USD")).fraction(1, 10).minorUnits()); // 2.6 -> 3
+    }
+
+    @Test
+    void testOverflowIsRejected() {
+        Money max = new Money(Long.MAX_VALUE, Currency.getInstance("USD"));
+        Money cent = new Money(1, Currency.getInstance("USD"));
+
+        assertThrows(IllegalArgumentException.class, () -> max.add(cent));
+        assertThrows(IllegalArgumentException.class, () -> max.fraction(2, 1));
+    }
+
+    @Test
+    void testCurrencyLookupIsInterned() {
+        assertSame(Money.currency("USD"), Money.currency("USD"));
+        assertThrows(IllegalArgumentException.class, () -> Money.currency("XYZ"));
     }
 }
@@ -0,0 +1,63 @@
+package com.mahmoud.ledger.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedIdGeneratorTest {
+
+    @Test
+    void testIdsAreVersion7WithTheMillisecondTimestampInFront() {
+        long millis = 0x0190_1234_5678L;
+        UUID id = new TimeOrderedIdGenerator(() -> millis).nextId();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        assertEquals(millis, id.getMostSignificantBits() >>> 16);
+    }
+
+    @Test
+    void testIdsIncreaseWithinAMillisecondAndWhenTheClockStepsBack() {
+        AtomicLong clock = new AtomicLong(1_000);
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(clock::get);
+
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) { // more than the 4096 ids a millisecond's counter holds
+            ids.add(generator.nextId());
+        }
+        clock.set(900);
+        ids.add(generator.nextId());
+
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(Long.compareUnsigned(ids.get(i - 1).getMostSignificantBits(),
+                    ids.get(i).getMostSignificantBits()) < 0, "id " + i + " is not after the one before");
+        }
+    }
+
+    @Test
+    void testConcurrentCallersNeverGetTheSameId() throws InterruptedException {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(System::currentTimeMillis);
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    ids.add(generator.nextId());
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(40_000, ids.size());
+    }
+}
@@ -0,0 +1,144 @@
+package com.mahmoud.ledger.infrastructure.archive;
+
+import com.mahmoud.ledger.application.port.in.StatementCursor;
+import com.mahmoud.ledger.domain.model.Money;
+import com.mahmoud.ledger.domain.model.Posting;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SegmentFileTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void given_WrittenSegment_When_ReadByAccount_Then_OnlyTheBlocksOfTheAccountHoldItsPostings() throws IOException {
+        // Accounts sorted the way the database sorts them, three postings each, two postings per block
+        List<UUID> accounts = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            accounts.add(UUID.randomUUID());
+        }
+        accounts.sort(ArchivedPosting.UUID_ORDER);
+        List<ArchivedPosting> postings = new ArrayList<>();
+        for (UUID account : accounts) {
+            for (int i = 0; i < 3; i++) {
+                Posting.Type type = i % 2 == 0 ? Posting.Type.DEBIT : Posting.Type.CREDIT;
+                postings.add(posting(account, DAY.plusHours(i), type, 100 + i));
+            }
+        }
+
+        Path path = dir.resolve("postings.seg");
+        try (SegmentFile.Writer writer = new SegmentFile.Writer(path, 2)) {
+            postings.forEach(writer::append);
+            assertThat(writer.finish()).isEqualTo(Files.size(path));
+        }
+        assertThat(dir.resolve("postings.seg.tmp")).doesNotExist();
+
+        try (SegmentFile segment = SegmentFile.open(path)) {
+            assertThat(segment.blocks()).hasSize(8);
+            for (UUID account : accounts) {
+                List<ArchivedPosting> read = new ArrayList<>();
+                for (int block : segment.blocksOf(account)) {
+                    segment.readBlock(block).stream()
+                            .filter(posting -> posting.accountId().equals(account))
+                            .forEach(read::add);
+                }
+                assertThat(segment.blocksOf(account)).hasSizeLessThanOrEqualTo(2);
+                assertThat(read).containsExactlyElementsOf(postings.stream()
+                        .filter(posting -> posting.accountId().equals(account))
+                        .toList());
+            }
+        }
+    }
+
+    @Test
+    void given_AccountSpanningManyBlocks_When_SeekingAPosition_Then_OnlyTheBlocksAroundItAreReturned()
+            throws IOException {
+        UUID account = UUID.randomUUID();
+        List<ArchivedPosting> postings = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            postings.add(posting(account, DAY.plusMinutes(i), Posting.Type.DEBIT, i));
+        }
+
+        Path path = dir.resolve("postings.seg");
+        try (SegmentFile.Writer writer = new SegmentFile.Writer(path, 2)) {
+            postings.forEach(writer::append);
+            writer.finish();
+        }
+
+        try (SegmentFile segment = SegmentFile.open(path)) {
+            assertThat(segment.blocksOf(account, null, null)).hasSize(10);
+            // Postings 0..8 lie before the ninth one, which starts block 4
+            StatementCursor ninth = new StatementCursor(postings.get(8).postedAt(), postings.get(8).postingId());
+            assertThat(segment.blocksOf(account, null, ninth)).containsExactly(0, 1, 2, 3);
+            // Postings after the ninth one start in its own block
+            assertThat(segment.blocksOf(account, ninth, null)).containsExactly(4, 5, 6, 7, 8, 9);
+            StatementCursor twelfth = new StatementCursor(postings.get(11).postedAt(), postings.get(11).postingId());
+            assertThat(segment.blocksOf(account, ninth, twelfth)).containsExactly(4, 5);
+        }
+    }
+
+    @Test
+    void given_UnfinishedWriter_When_Closed_Then_NothingIsLeftBehind() {
+        Path path = dir.resolve("postings.seg");
+        try (SegmentFile.Writer writer = new SegmentFile.Writer(path, 2)) {
+            writer.append(posting(UUID.randomUUID(), DAY, Posting.Type.DEBIT, 1));
+        }
+
+        assertThat(path).doesNotExist();
+        assertThat(dir.resolve("postings.seg.tmp")).doesNotExist();
+    }
+
+    @Test
+    void given_CorruptedBlock_When_Read_Then_ChecksumMismatchIsReported() throws IOException {
+        UUID account = UUID.randomUUID();
+        Path path = dir.resolve("postings.seg");
+        try (SegmentFile.Writer writer = new SegmentFile.Writer(path, 2)) {
+            writer.append(posting(account, DAY, Posting.Type.DEBIT, 1));
+            writer.finish();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            // First byte of the first block, right after the header
+            channel.write(ByteBuffer.wrap(new byte[] { 0x7F }), 8);
+        }
+
+        try (SegmentFile segment = SegmentFile.open(path)) {
+            assertThatThrownBy(() -> segment.readBlock(0))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("Corrupt block 0");
+        }
+    }
+
+    @Test
+    void given_PostingsOutOfAccountOrder_When_Appended_Then_Rejected() {
+        List<UUID> accounts = new ArrayList<>(List.of(UUID.randomUUID(), UUID.randomUUID()));
+        accounts.sort(ArchivedPosting.UUID_ORDER);
+
+        try (SegmentFile.Writer writer = new SegmentFile.Writer(dir.resolve("postings.seg"), 2)) {
+            writer.append(posting(accounts.get(1), DAY, Posting.Type.DEBIT, 1));
+            assertThatThrownBy(() -> writer.append(posting(accounts.get(0), DAY, Posting.Type.DEBIT, 1)))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    private static ArchivedPosting posting(UUID accountId, LocalDateTime postedAt, Posting.Type type, long cents) {
+        return new ArchivedPosting(UUID.randomUUID(), UUID.randomUUID(), 7, postedAt, "Posting at " + postedAt,
+                accountId, type, new Money(cents, Money.currency("USD")));
+    }
+}
@@ -0,0 +1,68 @@
+package com.mahmoud.ledger.infrastructure.config;
+
+import com.mahmoud.ledger.application.port.out.AccountPort;
+import com.mahmoud.ledger.application.service.BalanceStripes;
+import com.mahmoud.ledger.domain.model.Account;
+import com.mahmoud.ledger.domain.model.AccountType;
+import com.mahmoud.ledger.domain.model.Money;
+import com.mahmoud.ledger.domain.model.Posting;
+import com.mahmoud.ledger.domain.model.SystemAccounts;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerDataInitializerTest {
+
+    private static final UUID GENESIS = SystemAccounts.GENESIS_ACCOUNT_ID;
+
+    @Mock
+    private AccountPort accountPort;
+
+    @Test
+    void given_DroppedStripeHoldingBalance_When_Starting_Then_Fails() {
+        // Two stripes configured, stripe #2 was left by a larger count and still holds 5
+        Account dropped = Account.create(SystemAccounts.stripeId(GENESIS, 2), "Genesis #2", AccountType.EQUITY, "USD");
+        dropped.postPosting(new Posting(dropped.getId(), Money.of(new BigDecimal("5"), "USD"), Posting.Type.CREDIT));
+        when(accountPort.load(any())).thenAnswer(inv -> Optional.of(
+                Account.create(inv.getArgument(0), "System", AccountType.EQUITY, "USD")));
+        when(accountPort.load(dropped.getId())).thenReturn(Optional.of(dropped));
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> initializer(2).run());
+
+        assertTrue(ex.getMessage().contains("stripe count cannot shrink"));
+    }
+
+    @Test
+    void given_DroppedStripesEmpty_When_Starting_Then_Succeeds() {
+        UUID lastStripe = SystemAccounts.stripeId(GENESIS, 3);
+        when(accountPort.load(any())).thenAnswer(inv -> {
+            UUID id = inv.getArgument(0);
+            // Rows of four stripes exist for both system accounts, all of them empty
+            return id.getLeastSignificantBits() >>> 48 < 4
+                    ? Optional.of(Account.create(id, "System", AccountType.EQUITY, "USD"))
+                    : Optional.empty();
+        });
+
+        assertDoesNotThrow(() -> initializer(2).run());
+
+        verify(accountPort).load(lastStripe);
+        verify(accountPort, never()).save(any());
+    }
+
+    private LedgerDataInitializer initializer(int stripes) {
+        return new LedgerDataInitializer(accountPort, new BalanceStripes(stripes, Map.of(
+                SystemAccounts.GENESIS_ACCOUNT_ID, AccountType.EQUITY,
+                SystemAccounts.REVENUE_ACCOUNT_ID, AccountType.ASSET)));
+    }
+}
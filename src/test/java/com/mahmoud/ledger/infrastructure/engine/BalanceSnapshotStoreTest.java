@@ -0,0 +1,64 @@
+package com.mahmoud.ledger.infrastructure.engine;
+
+import com.mahmoud.ledger.domain.model.AccountStatus;
+import com.mahmoud.ledger.domain.model.Money;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BalanceSnapshotStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void given_WrittenSnapshots_When_Latest_Then_NewestIsReadBackAndOldOnesArePruned() throws IOException {
+        BalanceSnapshotStore store = new BalanceSnapshotStore(dir, 2);
+        BalanceSnapshot.Entry alice = new BalanceSnapshot.Entry(UUID.randomUUID(),
+                Money.of(new BigDecimal("12.34"), "USD"), AccountStatus.ACTIVE);
+        BalanceSnapshot.Entry bob = new BalanceSnapshot.Entry(UUID.randomUUID(),
+                Money.of(new BigDecimal("0.00"), "EUR"), AccountStatus.FROZEN);
+
+        store.write(new BalanceSnapshot(10, 10, List.of(alice)));
+        store.write(new BalanceSnapshot(20, 20, List.of(alice)));
+        store.write(new BalanceSnapshot(30, 30, List.of(alice, bob)));
+
+        assertThat(store.latest()).contains(new BalanceSnapshot(30, 30, List.of(alice, bob)));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertThat(files.count()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void given_CorruptNewestSnapshot_When_Latest_Then_FallsBackToPrevious() throws IOException {
+        BalanceSnapshotStore store = new BalanceSnapshotStore(dir, 2);
+        BalanceSnapshot.Entry alice = new BalanceSnapshot.Entry(UUID.randomUUID(),
+                Money.of(new BigDecimal("5.00"), "USD"), AccountStatus.ACTIVE);
+        store.write(new BalanceSnapshot(1, 1, List.of(alice)));
+        store.write(new BalanceSnapshot(2, 2, List.of(alice)));
+
+        Path newest;
+        try (Stream<Path> files = Files.list(dir)) {
+            newest = files.max(Path::compareTo).orElseThrow();
+        }
+        byte[] bytes = Files.readAllBytes(newest);
+        bytes[bytes.length - 10] ^= 0x01;
+        Files.write(newest, bytes);
+
+        assertThat(store.latest()).map(BalanceSnapshot::lastSequence).contains(1L);
+    }
+
+    @Test
+    void given_NoSnapshot_When_Latest_Then_Empty() {
+        assertThat(new BalanceSnapshotStore(dir.resolve("missing"), 2).latest()).isEmpty();
+    }
+}
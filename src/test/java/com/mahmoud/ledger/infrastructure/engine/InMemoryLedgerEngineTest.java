@@ -0,0 +1,239 @@
+package com.mahmoud.ledger.infrastructure.engine;
+
+import com.mahmoud.ledger.application.port.in.CreateAccountCommand;
+import com.mahmoud.ledger.application.port.in.DepositFundsCommand;
+import com.mahmoud.ledger.application.port.in.TransferFundsCommand;
+import com.mahmoud.ledger.application.service.LedgerApplicationService;
+import com.mahmoud.ledger.domain.model.Account;
+import com.mahmoud.ledger.domain.model.Money;
+import com.mahmoud.ledger.domain.model.Posting;
+import com.mahmoud.ledger.domain.model.SystemAccounts;
+import com.mahmoud.ledger.domain.model.Transaction;
+import com.mahmoud.ledger.infrastructure.config.LedgerProperties;
+import com.mahmoud.ledger.infrastructure.persistence.AccountRepository;
+import com.mahmoud.ledger.infrastructure.persistence.PersistenceAdapter;
+import com.mahmoud.ledger.infrastructure.persistence.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "ledger.posting.mode=in-memory",
+        "ledger.engine.partitions=4",
+        "ledger.journal.fsync=interval",
+        "ledger.journal.segment-size=64KB",
+        "ledger.engine.flush-interval=5ms"
+})
+class InMemoryLedgerEngineTest {
+
+    @TempDir
+    static Path journalDir;
+
+    @DynamicPropertySource
+    static void journal(DynamicPropertyRegistry registry) {
+        registry.add("ledger.journal.directory", () -> journalDir.resolve("journal").toString());
+        registry.add("ledger.engine.snapshot-directory", () -> journalDir.resolve("snapshots").toString());
+    }
+
+    @Autowired
+    private LedgerApplicationService ledgerService;
+
+    @Autowired
+    private InMemoryLedgerEngine engine;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PersistenceAdapter persistenceAdapter;
+
+    @Autowired
+    private TransactionOperations transactionOperations;
+
+    @Autowired
+    private LedgerProperties properties;
+
+    @Test
+    void given_ConcurrentTransfersAcrossPartitions_When_Posted_Then_TotalIsPreservedAndFlushedToDatabase()
+            throws Exception {
+        List<UUID> accounts = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            UUID id = ledgerService.createAccount(new CreateAccountCommand("Account " + i, "USD"));
+            ledgerService.depositFunds(new DepositFundsCommand(id, new BigDecimal("100.00"), "USD", "Funding"));
+            accounts.add(id);
+        }
+
+        BigDecimal revenueBefore = ledgerService.getAccount(SystemAccounts.REVENUE_ACCOUNT_ID).getBalance().amount();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> transfers = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            UUID from = accounts.get(i % accounts.size());
+            UUID to = accounts.get((i * 3 + 1) % accounts.size());
+            if (from.equals(to)) {
+                continue;
+            }
+            transfers.add(executor.submit(() -> {
+                try {
+                    ledgerService.transferFunds(new TransferFundsCommand(from, to, new BigDecimal("1.00"), "USD",
+                            "Shuffle"));
+                } catch (IllegalStateException insufficientFunds) {
+                    // allowed, the total must still hold
+                }
+            }));
+        }
+        for (Future<?> transfer : transfers) {
+            transfer.get();
+        }
+        executor.shutdown();
+
+        // Transfer fees moved to Revenue
+        BigDecimal fees = ledgerService.getAccount(SystemAccounts.REVENUE_ACCOUNT_ID).getBalance().amount()
+                .subtract(revenueBefore);
+        BigDecimal total = accounts.stream()
+                .map(ledgerService::getAccount)
+                .map(account -> account.getBalance().amount())
+                .reduce(fees, BigDecimal::add);
+        assertThat(total).isEqualByComparingTo("800.00");
+
+        awaitFlushed();
+        for (UUID id : accounts) {
+            Account inMemory = ledgerService.getAccount(id);
+            assertThat(accountRepository.findById(id).orElseThrow().getBalanceAmount())
+                    .isEqualByComparingTo(inMemory.getBalance().amount());
+        }
+    }
+
+    @Test
+    void given_InsufficientFunds_When_Transfer_Then_RejectedAndNothingChanges() throws Exception {
+        UUID alice = ledgerService.createAccount(new CreateAccountCommand("Alice", "USD"));
+        UUID bob = ledgerService.createAccount(new CreateAccountCommand("Bob", "USD"));
+        ledgerService.depositFunds(new DepositFundsCommand(alice, new BigDecimal("10.00"), "USD", "Funding"));
+
+        assertThrows(IllegalStateException.class, () -> ledgerService.transferFunds(
+                new TransferFundsCommand(alice, bob, new BigDecimal("10.01"), "USD", "Too much")));
+
+        assertThat(ledgerService.getAccount(alice).getBalance().amount()).isEqualByComparingTo("10.00");
+        assertThat(ledgerService.getAccount(bob).getBalance().amount()).isEqualByComparingTo("0");
+        awaitFlushed();
+        assertThat(transactionRepository.count()).isPositive();
+    }
+
+    @Test
+    void given_SnapshotAndJournalTail_When_EngineRestarts_Then_BalancesComeFromSnapshotPlusTail() throws Exception {
+        UUID alice = ledgerService.createAccount(new CreateAccountCommand("Alice", "USD"));
+        ledgerService.depositFunds(new DepositFundsCommand(alice, new BigDecimal("50.00"), "USD", "Before snapshot"));
+        engine.snapshot();
+        ledgerService.depositFunds(new DepositFundsCommand(alice, new BigDecimal("25.00"), "USD", "Journal tail"));
+        awaitFlushed();
+        // Balances must not be taken from the database when a snapshot exists
+        transactionOperations.executeWithoutResult(status -> accountRepository.updateBalance(alice,
+                new BigDecimal("999.00")));
+
+        InMemoryLedgerEngine restarted = new InMemoryLedgerEngine(persistenceAdapter, accountRepository,
+                transactionRepository, transactionOperations, properties);
+        restarted.start();
+        try {
+            assertThat(restarted.load(alice).orElseThrow().getBalance().amount()).isEqualByComparingTo("75.00");
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
+    @Test
+    void given_SnapshotOfUnflushedRecord_When_EngineRestartsAfterCrash_Then_RecordReachesTheDatabase()
+            throws Exception {
+        UUID alice = ledgerService.createAccount(new CreateAccountCommand("Alice", "USD"));
+        awaitFlushed();
+        LedgerProperties isolated = storedUnder(journalDir.resolve("crash"));
+        AtomicBoolean databaseDown = new AtomicBoolean();
+        TransactionOperations flakyDatabase = new TransactionOperations() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                if (databaseDown.get()) {
+                    throw new IllegalStateException("Database down");
+                }
+                return transactionOperations.execute(action);
+            }
+        };
+
+        InMemoryLedgerEngine crashed = new InMemoryLedgerEngine(persistenceAdapter, accountRepository,
+                transactionRepository, flakyDatabase, isolated);
+        crashed.start();
+        databaseDown.set(true);
+        Transaction deposit = Transaction.create("Unflushed deposit");
+        deposit.addPosting(new Posting(SystemAccounts.GENESIS_ACCOUNT_ID, Money.of(new BigDecimal("40.00"), "USD"),
+                Posting.Type.CREDIT));
+        deposit.addPosting(new Posting(alice, Money.of(new BigDecimal("40.00"), "USD"), Posting.Type.DEBIT));
+        crashed.save(deposit);
+        crashed.snapshot();
+
+        BalanceSnapshot snapshot = new BalanceSnapshotStore(isolated.engine().snapshotDirectory(), 2).latest()
+                .orElseThrow();
+        assertThat(snapshot.lastSequence()).isEqualTo(1);
+        assertThat(snapshot.flushedSequence()).isZero();
+        // Stopped while the database is still down: the deposit is in the journal and the snapshot only
+        crashed.shutdown();
+        assertThat(transactionRepository.existsById(deposit.getId())).isFalse();
+
+        databaseDown.set(false);
+        InMemoryLedgerEngine restarted = new InMemoryLedgerEngine(persistenceAdapter, accountRepository,
+                transactionRepository, transactionOperations, isolated);
+        restarted.start();
+        try {
+            assertThat(restarted.load(alice).orElseThrow().getBalance().amount()).isEqualByComparingTo("40.00");
+            awaitFlushed(restarted);
+            assertThat(transactionRepository.existsById(deposit.getId())).isTrue();
+            assertThat(accountRepository.findById(alice).orElseThrow().getBalanceAmount())
+                    .isEqualByComparingTo("40.00");
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
+    private LedgerProperties storedUnder(Path directory) {
+        LedgerProperties.EngineSettings engineSettings = properties.engine();
+        LedgerProperties.JournalSettings journalSettings = properties.journal();
+        return new LedgerProperties(properties.systemAccounts(), properties.posting(),
+                new LedgerProperties.EngineSettings(engineSettings.partitions(), engineSettings.flushInterval(),
+                        engineSettings.flushBatchSize(), directory.resolve("snapshots"),
+                        engineSettings.snapshotInterval(), engineSettings.snapshotsRetained()),
+                new LedgerProperties.JournalSettings(directory.resolve("journal"), journalSettings.segmentSize(),
+                        journalSettings.fsync(), journalSettings.fsyncInterval(), journalSettings.fsyncBatch()),
+                properties.cache(), properties.export(), properties.checkpoint(), properties.reconciliation(),
+                properties.idempotency(), properties.submission(), properties.ids(), properties.persistence(),
+                properties.readModel(), properties.outbox(), properties.archive());
+    }
+
+    private void awaitFlushed() throws InterruptedException {
+        awaitFlushed(engine);
+    }
+
+    private static void awaitFlushed(InMemoryLedgerEngine engine) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (engine.unflushed() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(engine.unflushed()).isZero();
+    }
+}
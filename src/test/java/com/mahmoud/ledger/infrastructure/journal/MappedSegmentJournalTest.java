@@ -0,0 +1,125 @@
+package com.mahmoud.ledger.infrastructure.journal;
+
+import com.mahmoud.ledger.domain.model.Money;
+import com.mahmoud.ledger.domain.model.Posting;
+import com.mahmoud.ledger.domain.model.Transaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappedSegmentJournalTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void given_AppendedTransactions_When_Replay_Then_ReturnedInOrderWithAllFields() {
+        Transaction first = transaction("First", "12.34");
+        Transaction second = transaction("Second", "0.01");
+
+        try (MappedSegmentJournal journal = open(FsyncPolicy.EVERY_WRITE)) {
+            assertThat(journal.append(first)).isEqualTo(1);
+            assertThat(journal.append(second)).isEqualTo(2);
+        }
+
+        List<Transaction> replayed = replay(0);
+        assertThat(replayed).extracting(Transaction::getId).containsExactly(first.getId(), second.getId());
+        Transaction decoded = replayed.get(0);
+        assertThat(decoded.getDescription()).isEqualTo("First");
+        assertThat(decoded.getTimestamp()).isEqualTo(first.getTimestamp());
+        assertThat(decoded.getPostings()).hasSize(2);
+        assertThat(decoded.getPostings().get(0).getAccountId()).isEqualTo(first.getPostings().get(0).getAccountId());
+        assertThat(decoded.getPostings().get(0).getType()).isEqualTo(Posting.Type.DEBIT);
+        assertThat(decoded.getPostings().get(0).getAmount()).isEqualTo(first.getPostings().get(0).getAmount());
+    }
+
+    @Test
+    void given_MoreRecordsThanFitInASegment_When_Replay_Then_SegmentsRollAndReplayResumesAfterSequence()
+            throws IOException {
+        List<UUID> appended = new ArrayList<>();
+        try (MappedSegmentJournal journal = open(FsyncPolicy.BATCH)) {
+            for (int i = 0; i < 100; i++) {
+                Transaction transaction = transaction("Transaction " + i, "1.00");
+                journal.append(transaction);
+                appended.add(transaction.getId());
+            }
+            assertThat(journal.lastSequence()).isEqualTo(100);
+        }
+
+        try (Stream<Path> files = Files.list(dir)) {
+            assertThat(files.count()).isGreaterThan(1);
+        }
+        assertThat(replay(0)).extracting(Transaction::getId).containsExactlyElementsOf(appended);
+        assertThat(replay(60)).extracting(Transaction::getId).containsExactlyElementsOf(appended.subList(60, 100));
+    }
+
+    @Test
+    void given_TornTail_When_Reopened_Then_TailIsDroppedAndNumberingContinues() throws IOException {
+        Transaction kept = transaction("Kept", "1.00");
+        try (MappedSegmentJournal journal = open(FsyncPolicy.INTERVAL)) {
+            journal.append(kept);
+            journal.append(transaction("Torn", "2.00"));
+        }
+        corruptLastByteOfRecord(2);
+
+        Transaction appended = transaction("After crash", "3.00");
+        try (MappedSegmentJournal journal = open(FsyncPolicy.EVERY_WRITE)) {
+            assertThat(journal.lastSequence()).isEqualTo(1);
+            assertThat(journal.append(appended)).isEqualTo(2);
+        }
+
+        assertThat(replay(0)).extracting(Transaction::getId).containsExactly(kept.getId(), appended.getId());
+    }
+
+    private void corruptLastByteOfRecord(int record) throws IOException {
+        Path segment;
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int end = 0;
+            for (int i = 0; i < record; i++) {
+                end += Integer.BYTES + bytes.getInt(end) + Integer.BYTES;
+            }
+            bytes.put(end - 1, (byte) (bytes.get(end - 1) ^ 0xFF));
+        }
+    }
+
+    private MappedSegmentJournal open(FsyncPolicy policy) {
+        return new MappedSegmentJournal(dir, SEGMENT_SIZE, policy, Duration.ofMillis(5), 8);
+    }
+
+    private List<Transaction> replay(long afterSequence) {
+        List<Transaction> replayed = new ArrayList<>();
+        try (MappedSegmentJournal journal = open(FsyncPolicy.EVERY_WRITE)) {
+            journal.replay(afterSequence, (sequence, transaction) -> replayed.add(transaction));
+        }
+        return replayed;
+    }
+
+    private static Transaction transaction(String description, String amount) {
+        Transaction transaction = Transaction.create(description);
+        transaction.addPosting(new Posting(UUID.randomUUID(), Money.of(new BigDecimal(amount), "USD"),
+                Posting.Type.DEBIT));
+        transaction.addPosting(new Posting(UUID.randomUUID(), Money.of(new BigDecimal(amount), "USD"),
+                Posting.Type.CREDIT));
+        return transaction;
+    }
+}
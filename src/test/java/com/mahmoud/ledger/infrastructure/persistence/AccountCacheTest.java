@@ -0,0 +1,69 @@
+package com.mahmoud.ledger.infrastructure.persistence;
+
+import com.mahmoud.ledger.domain.model.Account;
+import com.mahmoud.ledger.domain.model.AccountType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccountCacheTest {
+
+    private final AccountCache cache = new AccountCache(100, Duration.ofMinutes(1));
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void given_CachedAccount_When_ReadAgain_Then_LoaderIsNotCalledAndStatsRecordHit() {
+        UUID id = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(id, key -> {
+            loads.incrementAndGet();
+            return Optional.of(Account.create(key, "Alice", AccountType.ASSET, "USD"));
+        });
+        Optional<Account> second = cache.get(id, key -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+
+        assertThat(second).map(Account::getName).contains("Alice");
+        assertThat(loads).hasValue(1);
+        assertThat(cache.nativeCache().stats().hitCount()).isEqualTo(1);
+        assertThat(cache.nativeCache().stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void given_WriteInTransaction_When_NotYetCommitted_Then_PreviousStateIsServedUntilCommit() {
+        UUID id = UUID.randomUUID();
+        cache.get(id, key -> Optional.of(Account.create(key, "Before", AccountType.ASSET, "USD")));
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.invalidateAfterCommit(id);
+        assertThat(cache.get(id, key -> Optional.empty())).map(Account::getName).contains("Before");
+
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        assertThat(cache.get(id, key -> Optional.of(Account.create(key, "After", AccountType.ASSET, "USD"))))
+                .map(Account::getName).contains("After");
+    }
+
+    @Test
+    void given_UnknownAccount_When_Read_Then_EmptyAndNotCached() {
+        UUID id = UUID.randomUUID();
+
+        assertThat(cache.get(id, key -> Optional.empty())).isEmpty();
+        assertThat(cache.nativeCache().getIfPresent(id)).isNull();
+    }
+}
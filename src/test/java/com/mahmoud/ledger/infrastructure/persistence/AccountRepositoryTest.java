@@ -3,18 +3,26 @@ package com.mahmoud.ledger.infrastructure.persistence;
 import com.mahmoud.ledger.domain.model.Account;
 import com.mahmoud.ledger.domain.model.AccountStatus;
 import com.mahmoud.ledger.domain.model.AccountType;
+import com.mahmoud.ledger.domain.model.Money;
+import com.mahmoud.ledger.domain.model.Posting;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @SpringBootTest
 @Transactional
@@ -24,6 +32,12 @@ class AccountRepositoryTest {
     @Autowired
     private AccountRepository accountRepository;
 
+    @Autowired
+    private PersistenceAdapter persistenceAdapter;
+
+    @Autowired
+    private EntityManager entityManager;
+
     @Test
     void given_PersistedAccount_When_FindByIdLocked_Then_ReturnsAccount() {
         // Given
@@ -84,4 +98,82 @@ class AccountRepositoryTest {
         assertThat(loaded).isPresent();
         assertThat(loaded.get().getName()).isEqualTo("Saver");
     }
+
+    @Test
+    void given_PersistedAccounts_When_FindAllByIdLocked_Then_ReturnsThemInIdOrder() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            accountRepository.save(new AccountJpaEntity(id, "Locked " + i, BigDecimal.ZERO, "USD",
+                    AccountStatus.ACTIVE, AccountType.ASSET, LocalDateTime.now()));
+        }
+
+        List<AccountJpaEntity> locked = accountRepository.findAllByIdLocked(ids);
+
+        assertThat(locked).extracting(AccountJpaEntity::getId).containsExactlyInAnyOrderElementsOf(ids);
+        List<UUID> returned = locked.stream().map(AccountJpaEntity::getId).toList();
+        List<UUID> reversed = new ArrayList<>(ids);
+        Collections.reverse(reversed);
+        assertThat(accountRepository.findAllByIdLocked(reversed))
+                .extracting(AccountJpaEntity::getId)
+                .containsExactlyElementsOf(returned);
+    }
+
+    @Test
+    void given_AssetAccount_When_ApplyNetDebit_Then_BalanceChangesOnlyIfItStaysPositive() {
+        UUID id = UUID.randomUUID();
+        accountRepository.save(new AccountJpaEntity(id, "Delta", new BigDecimal("50.00"), "USD",
+                AccountStatus.ACTIVE, AccountType.ASSET, LocalDateTime.now()));
+        List<AccountType> debitNormal = List.of(AccountType.ASSET, AccountType.EXPENSE);
+
+        int credited = accountRepository.applyNetDebit(id, new BigDecimal("-20.00"), new BigDecimal("20.00"), "USD",
+                debitNormal);
+        int overdrawn = accountRepository.applyNetDebit(id, new BigDecimal("-40.00"), new BigDecimal("40.00"), "USD",
+                debitNormal);
+        int wrongCurrency = accountRepository.applyNetDebit(id, new BigDecimal("1.00"), new BigDecimal("-1.00"), "EUR",
+                debitNormal);
+
+        assertThat(credited).isEqualTo(1);
+        assertThat(overdrawn).isZero();
+        assertThat(wrongCurrency).isZero();
+        entityManager.clear();
+        assertThat(accountRepository.findById(id).orElseThrow().getBalanceAmount())
+                .isEqualByComparingTo("30.00");
+    }
+
+    @Test
+    void given_AccountsReadInTheTransaction_When_NetDebitApplied_Then_OnlyThatAccountIsReadAgain() {
+        UUID debited = UUID.randomUUID();
+        UUID untouched = UUID.randomUUID();
+        accountRepository.saveAndFlush(new AccountJpaEntity(debited, "Debited", new BigDecimal("50.00"), "USD",
+                AccountStatus.ACTIVE, AccountType.ASSET, LocalDateTime.now()));
+        accountRepository.saveAndFlush(new AccountJpaEntity(untouched, "Untouched", new BigDecimal("10.00"), "USD",
+                AccountStatus.ACTIVE, AccountType.ASSET, LocalDateTime.now()));
+        AccountJpaEntity before = accountRepository.findById(debited).orElseThrow();
+        AccountJpaEntity other = accountRepository.findById(untouched).orElseThrow();
+
+        assertThat(persistenceAdapter.applyNetDebit(debited, Money.of(new BigDecimal("5.00"), "USD"))).isTrue();
+
+        assertThat(entityManager.contains(before)).isFalse();
+        assertThat(entityManager.contains(other)).isTrue();
+        assertThat(persistenceAdapter.load(debited).orElseThrow().getBalance())
+                .isEqualTo(Money.of(new BigDecimal("55.00"), "USD"));
+    }
+
+    @Test
+    void given_StaleAccount_When_Saved_Then_VersionCheckFails() {
+        UUID id = UUID.randomUUID();
+        accountRepository.saveAndFlush(new AccountJpaEntity(id, "Versioned", new BigDecimal("10.00"), "USD",
+                AccountStatus.ACTIVE, AccountType.ASSET, LocalDateTime.now()));
+        Account stale = accountRepository.findById(id).orElseThrow().toDomain();
+
+        Account current = accountRepository.findById(id).orElseThrow().toDomain();
+        current.postPosting(new Posting(id, Money.of(new BigDecimal("5.00"), "USD"), Posting.Type.DEBIT));
+        accountRepository.saveAndFlush(AccountJpaEntity.fromDomain(current));
+
+        assertThat(accountRepository.findById(id).orElseThrow().getVersion()).isEqualTo(stale.getVersion() + 1);
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> accountRepository.saveAndFlush(AccountJpaEntity.fromDomain(stale)));
+    }
 }
@@ -0,0 +1,81 @@
+package com.mahmoud.ledger.infrastructure.persistence;
+
+import com.mahmoud.ledger.domain.model.IdempotencyKey;
+import com.mahmoud.ledger.domain.model.Money;
+import com.mahmoud.ledger.domain.model.Posting;
+import com.mahmoud.ledger.domain.model.Transaction;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class JdbcTransactionWriterTest {
+
+    @Autowired
+    private PersistenceAdapter persistenceAdapter;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Test
+    void given_Transactions_When_SavedAll_Then_EntitiesReadBackWithTheirPostingsAndKeys() {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        Transaction first = transfer("First", alice, bob, "10.00");
+        Transaction second = transfer("Second", bob, alice, "2.50");
+        second.assignIdempotencyKey(IdempotencyKey.forRequest("writer-test-key", "second"));
+
+        persistenceAdapter.saveAll(List.of(first, second));
+
+        for (Transaction saved : List.of(first, second)) {
+            TransactionJpaEntity entity = transactionRepository.findById(saved.getId()).orElseThrow();
+            assertThat(entity.getPostings()).allSatisfy(posting -> {
+                assertThat(posting.getId().version()).isEqualTo(7);
+                assertThat(posting.getPostedAt()).isEqualTo(saved.getTimestamp());
+            });
+            Transaction read = entity.toDomain();
+            assertThat(read.getDescription()).isEqualTo(saved.getDescription());
+            assertThat(read.getTimestamp()).isEqualTo(saved.getTimestamp());
+            assertThat(read.getPostings()).usingRecursiveFieldByFieldElementComparator()
+                    .containsExactlyInAnyOrderElementsOf(saved.getPostings());
+        }
+        assertThat(idempotencyKeyRepository.findById("writer-test-key"))
+                .hasValueSatisfying(key -> assertThat(key.getTransactionId()).isEqualTo(second.getId()));
+    }
+
+    @Test
+    void given_TakenIdempotencyKey_When_Saved_Then_IntegrityViolation() {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        Transaction first = transfer("First", alice, bob, "1.00");
+        first.assignIdempotencyKey(IdempotencyKey.forRequest("writer-taken-key", "first"));
+        persistenceAdapter.save(first);
+
+        Transaction retry = transfer("Retry", alice, bob, "1.00");
+        retry.assignIdempotencyKey(IdempotencyKey.forRequest("writer-taken-key", "first"));
+
+        assertThatThrownBy(() -> persistenceAdapter.save(retry))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private static Transaction transfer(String description, UUID from, UUID to, String amount) {
+        Transaction transaction = Transaction.create(description);
+        Money money = Money.of(new BigDecimal(amount), "USD");
+        transaction.addPosting(new Posting(from, money, Posting.Type.CREDIT));
+        transaction.addPosting(new Posting(to, money, Posting.Type.DEBIT));
+        return transaction;
+    }
+}
@@ -0,0 +1,48 @@
+package com.mahmoud.ledger.load;
+
+import java.util.Arrays;
+
+/**
+ * Latencies of one operation recorded by one worker, merged with the other workers' once the run is over.
+ * Every sample is kept, so percentiles are exact.
+ */
+final class LatencySamples {
+
+    private long[] nanos = new long[1024];
+    private int size;
+
+    void record(long latencyNanos) {
+        if (size == nanos.length) {
+            nanos = Arrays.copyOf(nanos, size * 2);
+        }
+        nanos[size++] = latencyNanos;
+    }
+
+    int size() {
+        return size;
+    }
+
+    static LatencySamples merge(Iterable<LatencySamples> samples) {
+        LatencySamples merged = new LatencySamples();
+        for (LatencySamples sample : samples) {
+            for (int i = 0; i < sample.size; i++) {
+                merged.record(sample.nanos[i]);
+            }
+        }
+        Arrays.sort(merged.nanos, 0, merged.size);
+        return merged;
+    }
+
+    /**
+     * Of merged samples only.
+     *
+     * @param quantile e.g. 0.99
+     */
+    long percentileNanos(double quantile) {
+        if (size == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * size) - 1;
+        return nanos[Math.max(0, Math.min(index, size - 1))];
+    }
+}
@@ -0,0 +1,256 @@
+package com.mahmoud.ledger.load;
+
+import com.mahmoud.ledger.application.port.in.CreateAccountCommand;
+import com.mahmoud.ledger.application.port.in.CreateAccountUseCase;
+import com.mahmoud.ledger.application.port.in.DepositFundsCommand;
+import com.mahmoud.ledger.application.port.in.DepositFundsUseCase;
+import com.mahmoud.ledger.application.port.in.ReconcileLedgerUseCase;
+import com.mahmoud.ledger.application.port.in.ReconciliationReport;
+import com.mahmoud.ledger.application.port.in.ReconciliationStatus;
+import com.mahmoud.ledger.application.port.in.RetrieveAccountUseCase;
+import com.mahmoud.ledger.application.port.in.TransferFundsCommand;
+import com.mahmoud.ledger.application.port.in.TransferFundsUseCase;
+import com.mahmoud.ledger.application.service.ConcurrencyRetry;
+import com.mahmoud.ledger.application.service.PostingMode;
+import com.mahmoud.ledger.load.LoadSettings.Operation;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrent deposits, transfers and reads against the embedded application and database, to find where
+ * throughput stops scaling and where contention starts to hurt. Only runs with the {@code load} profile:
+ * <pre>
+ * mvn -Pload test -Dload.workers=64 -Dload.hot-accounts=1 -Dledger.posting.mode=atomic-delta
+ * </pre>
+ * See {@link LoadSettings} for the knobs; {@code ledger.*} properties configure the application as usual.
+ * Reports throughput, latency percentiles per operation and the concurrency failures the database reported,
+ * then checks that the ledger still balances.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class LedgerLoadTest {
+
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000.00");
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    @Autowired
+    private CreateAccountUseCase createAccountUseCase;
+
+    @Autowired
+    private DepositFundsUseCase depositFundsUseCase;
+
+    @Autowired
+    private TransferFundsUseCase transferFundsUseCase;
+
+    @Autowired
+    private RetrieveAccountUseCase retrieveAccountUseCase;
+
+    @Autowired
+    private ReconcileLedgerUseCase reconcileLedgerUseCase;
+
+    @Autowired
+    private ConcurrencyRetry concurrencyRetry;
+
+    @Autowired
+    private PostingMode postingMode;
+
+    @Test
+    void given_ConcurrentMixedLoad_When_Run_Then_LedgerStillBalances() throws Exception {
+        LoadSettings settings = LoadSettings.fromSystemProperties();
+        List<UUID> accounts = new ArrayList<>();
+        for (int i = 0; i < settings.accounts(); i++) {
+            UUID accountId = createAccountUseCase.createAccount(new CreateAccountCommand("Load " + i, "USD"));
+            depositFundsUseCase.depositFunds(new DepositFundsCommand(accountId, OPENING_BALANCE, "USD", "Opening"));
+            accounts.add(accountId);
+        }
+
+        long start = System.nanoTime();
+        long measureFrom = start + settings.warmup().toNanos();
+        long measureUntil = measureFrom + settings.duration().toNanos();
+        Map<ConcurrencyRetry.Conflict, Long> conflictsBefore = new EnumMap<>(ConcurrencyRetry.Conflict.class);
+        long retriesBefore = concurrencyRetry.retries();
+        long exhaustedBefore = concurrencyRetry.exhausted();
+        for (ConcurrencyRetry.Conflict conflict : ConcurrencyRetry.Conflict.values()) {
+            conflictsBefore.put(conflict, concurrencyRetry.conflicts(conflict));
+        }
+
+        List<Worker> workers = new ArrayList<>();
+        ExecutorService executor = executor(settings);
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            for (int i = 0; i < settings.workers(); i++) {
+                Worker worker = new Worker(settings, accounts, measureFrom, measureUntil);
+                workers.add(worker);
+                running.add(executor.submit(worker));
+            }
+            for (Future<?> future : running) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        report(settings, workers, conflictsBefore, retriesBefore, exhaustedBefore);
+
+        ReconciliationReport reconciliation = reconcile();
+        assertThat(reconciliation.status()).isEqualTo(ReconciliationStatus.COMPLETED);
+        assertThat(reconciliation.mismatches()).isEmpty();
+        assertThat(reconciliation.balanced()).isTrue();
+    }
+
+    private final class Worker implements Runnable {
+
+        private final LoadSettings settings;
+        private final List<UUID> accounts;
+        private final long measureFrom;
+        private final long measureUntil;
+        private final Map<Operation, LatencySamples> latencies = new EnumMap<>(Operation.class);
+        private final Map<Operation, AtomicLong> rejected = new EnumMap<>(Operation.class);
+        private final Map<String, AtomicLong> failed = new TreeMap<>();
+        private final int totalWeight;
+
+        Worker(LoadSettings settings, List<UUID> accounts, long measureFrom, long measureUntil) {
+            this.settings = settings;
+            this.accounts = accounts;
+            this.measureFrom = measureFrom;
+            this.measureUntil = measureUntil;
+            this.totalWeight = settings.mix().values().stream().mapToInt(Integer::intValue).sum();
+            for (Operation operation : Operation.values()) {
+                latencies.put(operation, new LatencySamples());
+                rejected.put(operation, new AtomicLong());
+            }
+        }
+
+        @Override
+        public void run() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long now;
+            while ((now = System.nanoTime()) < measureUntil) {
+                Operation operation = pickOperation(random);
+                try {
+                    execute(operation, random);
+                    if (now >= measureFrom) {
+                        latencies.get(operation).record(System.nanoTime() - now);
+                    }
+                } catch (IllegalArgumentException | IllegalStateException e) {
+                    // Business rule rejections, e.g. insufficient funds
+                    rejected.get(operation).incrementAndGet();
+                } catch (RuntimeException e) {
+                    failed.computeIfAbsent(e.getClass().getSimpleName(), name -> new AtomicLong()).incrementAndGet();
+                }
+            }
+        }
+
+        private void execute(Operation operation, ThreadLocalRandom random) {
+            switch (operation) {
+                case DEPOSIT -> depositFundsUseCase.depositFunds(
+                        new DepositFundsCommand(pickAccount(random), AMOUNT, "USD", "Load deposit"));
+                case TRANSFER -> {
+                    UUID from = pickAccount(random);
+                    UUID to = pickAccount(random);
+                    while (to.equals(from)) {
+                        to = accounts.get(random.nextInt(accounts.size()));
+                    }
+                    transferFundsUseCase.transferFunds(new TransferFundsCommand(from, to, AMOUNT, "USD", "Load"));
+                }
+                case READ -> retrieveAccountUseCase.getAccount(pickAccount(random));
+            }
+        }
+
+        private Operation pickOperation(ThreadLocalRandom random) {
+            int pick = random.nextInt(totalWeight);
+            for (Map.Entry<Operation, Integer> weight : settings.mix().entrySet()) {
+                pick -= weight.getValue();
+                if (pick < 0) {
+                    return weight.getKey();
+                }
+            }
+            throw new IllegalStateException("Unreachable");
+        }
+
+        private UUID pickAccount(ThreadLocalRandom random) {
+            if (settings.hotAccounts() > 0 && random.nextDouble() < settings.hotShare()) {
+                return accounts.get(random.nextInt(settings.hotAccounts()));
+            }
+            return accounts.get(random.nextInt(accounts.size()));
+        }
+    }
+
+    private ReconciliationReport reconcile() throws InterruptedException {
+        UUID runId = reconcileLedgerUseCase.startReconciliation();
+        ReconciliationReport report = reconcileLedgerUseCase.getReconciliation(runId).orElseThrow();
+        while (report.status() == ReconciliationStatus.RUNNING) {
+            Thread.sleep(50);
+            report = reconcileLedgerUseCase.getReconciliation(runId).orElseThrow();
+        }
+        return report;
+    }
+
+    private void report(LoadSettings settings, List<Worker> workers,
+            Map<ConcurrencyRetry.Conflict, Long> conflictsBefore, long retriesBefore, long exhaustedBefore) {
+        double seconds = settings.duration().toNanos() / 1e9;
+        StringBuilder out = new StringBuilder()
+                .append("\n=== Load run: ").append(postingMode.name().toLowerCase()).append(" mode, ")
+                .append(settings).append(" ===\n")
+                .append(String.format("%-10s %10s %10s %10s %10s %10s %10s%n",
+                        "operation", "ops", "ops/s", "rejected", "p50 ms", "p99 ms", "p999 ms"));
+        long total = 0;
+        for (Operation operation : Operation.values()) {
+            LatencySamples samples = LatencySamples.merge(workers.stream()
+                    .map(worker -> worker.latencies.get(operation))
+                    .toList());
+            long rejected = workers.stream().mapToLong(worker -> worker.rejected.get(operation).get()).sum();
+            total += samples.size();
+            out.append(String.format("%-10s %10d %10.0f %10d %10.2f %10.2f %10.2f%n",
+                    operation.name().toLowerCase(), samples.size(), samples.size() / seconds, rejected,
+                    samples.percentileNanos(0.50) / 1e6, samples.percentileNanos(0.99) / 1e6,
+                    samples.percentileNanos(0.999) / 1e6));
+        }
+        out.append(String.format("%-10s %10d %10.0f%n", "total", total, total / seconds));
+
+        out.append("conflicts (whole run):");
+        for (ConcurrencyRetry.Conflict conflict : ConcurrencyRetry.Conflict.values()) {
+            out.append(' ').append(conflict.name().toLowerCase()).append('=')
+                    .append(concurrencyRetry.conflicts(conflict) - conflictsBefore.get(conflict));
+        }
+        out.append(", retries=").append(concurrencyRetry.retries() - retriesBefore)
+                .append(", retries exhausted=").append(concurrencyRetry.exhausted() - exhaustedBefore)
+                .append('\n');
+
+        Map<String, Long> failed = new TreeMap<>();
+        workers.forEach(worker -> worker.failed.forEach((type, count) -> failed.merge(type, count.get(), Long::sum)));
+        out.append("failed: ").append(failed.isEmpty() ? "none" : failed).append('\n');
+        System.out.println(out);
+    }
+
+    /**
+     * Virtual threads are looked up reflectively so the harness still compiles for Java 17.
+     */
+    private static ExecutorService executor(LoadSettings settings) {
+        if (settings.virtualThreads()) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                System.out.println("Virtual threads need Java 21 or later, using platform threads");
+            }
+        }
+        return Executors.newFixedThreadPool(settings.workers());
+    }
+}
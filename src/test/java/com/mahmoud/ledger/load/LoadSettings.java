@@ -0,0 +1,70 @@
+package com.mahmoud.ledger.load;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Shape of a load run, read from {@code -Dload.*} system properties.
+ *
+ * @param workers        concurrent workers issuing operations back to back
+ * @param virtualThreads whether workers are virtual threads (Java 21 and later)
+ * @param duration       measured part of the run
+ * @param warmup         run before it, not measured
+ * @param accounts       user accounts the operations are spread over
+ * @param mix            relative weight of each operation
+ * @param hotAccounts    accounts in the hot set, 0 for a uniform spread
+ * @param hotShare       share of the account picks that go to the hot set
+ */
+record LoadSettings(int workers, boolean virtualThreads, Duration duration, Duration warmup, int accounts,
+        Map<Operation, Integer> mix, int hotAccounts, double hotShare) {
+
+    enum Operation {
+        DEPOSIT,
+        TRANSFER,
+        READ
+    }
+
+    LoadSettings {
+        if (workers < 1 || accounts < 2)
+            throw new IllegalArgumentException("A load run needs a worker and two accounts");
+        if (hotAccounts < 0 || hotAccounts > accounts || hotShare < 0 || hotShare > 1)
+            throw new IllegalArgumentException("Hot set must be within the accounts, its share within [0, 1]");
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0)
+            throw new IllegalArgumentException("Operation mix must have a positive weight");
+    }
+
+    static LoadSettings fromSystemProperties() {
+        return new LoadSettings(
+                Integer.getInteger("load.workers", 32),
+                Boolean.getBoolean("load.virtual-threads"),
+                Duration.ofSeconds(Long.getLong("load.duration-seconds", 10)),
+                Duration.ofSeconds(Long.getLong("load.warmup-seconds", 2)),
+                Integer.getInteger("load.accounts", 100),
+                parseMix(System.getProperty("load.mix", "deposit:20,transfer:70,read:10")),
+                Integer.getInteger("load.hot-accounts", 0),
+                Double.parseDouble(System.getProperty("load.hot-share", "0.9")));
+    }
+
+    /**
+     * @param mix {@code operation:weight} pairs, e.g. {@code deposit:20,transfer:70,read:10}
+     */
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2)
+                throw new IllegalArgumentException("Invalid operation mix entry: " + entry);
+            weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+
+    @Override
+    public String toString() {
+        return workers + (virtualThreads ? " virtual" : "") + " workers, " + accounts + " accounts, mix " + mix
+                + (hotAccounts == 0 ? ", uniform" : ", " + Math.round(hotShare * 100) + "% on " + hotAccounts
+                        + " hot accounts")
+                + ", " + duration.toSeconds() + "s after " + warmup.toSeconds() + "s warm-up";
+    }
+}